@@ -0,0 +1,122 @@
+package edu.kit.trufflehog.model.network;
+
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
+import edu.kit.trufflehog.model.network.graph.NetworkConnection;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.util.Graphs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Measures how many nodes and connections the {@link NetworkIOPort} can take in with several writers while the
+ *     network is read like the statistics updater does. Every write also looks up a few known nodes, like the
+ *     packets of known devices do.
+ * </p>
+ * <p>
+ *     Run with <code>gradle jmh -Pbenchmarks="NetworkIOPortBenchmark.write -t 4"</code> for 1, 2, 4 and 8 writers,
+ *     or run the <code>writeWhileReading</code> group, which has one reader next to the writers.
+ * </p>
+ * <p>
+ *     The writers can only scale on a machine with at least as many cores as writers, so always report the number
+ *     of cores along with the results.
+ * </p>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkIOPortBenchmark {
+
+    private static final int KNOWN_NODES = 10000;
+
+    private NetworkIOPort port;
+    private MacAddress[] known;
+
+    // every write gets a new address, so writers never write the same node
+    private final AtomicLong nextAddress = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void setUp() throws InvalidMACAddress {
+
+        port = new NetworkIOPort(new ObservableUpdatableGraph<>(
+                Graphs.synchronizedDirectedGraph(new DirectedSparseGraph<>()), new LiveUpdater()));
+        known = new MacAddress[KNOWN_NODES];
+
+        for (int i = 0; i < KNOWN_NODES; i++) {
+            known[i] = new MacAddress(i);
+            port.writeNode(new NetworkNode(known[i], new NodeStatisticsComponent(1, 0)));
+        }
+
+        nextAddress.set(KNOWN_NODES);
+    }
+
+    @Benchmark
+    public IConnection write() throws InvalidMACAddress {
+        return writeNewNode();
+    }
+
+    @Benchmark
+    @Group("writeWhileReading")
+    @GroupThreads(4)
+    public IConnection writer() throws InvalidMACAddress {
+        return writeNewNode();
+    }
+
+    @Benchmark
+    @Group("writeWhileReading")
+    @GroupThreads(1)
+    public long reader() {
+
+        long communication = 0;
+
+        for (INode node : port.getNetworkNodes()) {
+            communication += node.getComponent(NodeStatisticsComponent.class).getCommunicationCount();
+        }
+
+        return communication;
+    }
+
+    private IConnection writeNewNode() throws InvalidMACAddress {
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < 8; i++) {
+            port.getNetworkNodeByAddress(known[random.nextInt(KNOWN_NODES)]);
+        }
+
+        final INode node = new NetworkNode(new MacAddress(nextAddress.getAndIncrement()),
+                new NodeStatisticsComponent(1, 0));
+        port.writeNode(node);
+
+        final IConnection connection = new NetworkConnection(node,
+                port.getNetworkNodeByAddress(known[random.nextInt(KNOWN_NODES)]));
+        port.writeConnection(connection);
+
+        return connection;
+    }
+}
@@ -0,0 +1,123 @@
+package edu.kit.trufflehog.model.network;
+
+import edu.kit.trufflehog.util.collections.LongObjectMap;
+import edu.kit.trufflehog.util.collections.LongPairObjectMap;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Compares the index of the {@link NetworkIOPort} (primitive mac address keys) with the concurrent hash maps it
+ *     used before (keyed by the address objects and by a {@link MultiKey} of them). Every packet looks up its source,
+ *     its destination and its connection, so the lookups of known addresses are what matters.
+ * </p>
+ * <p>
+ *     Run with <code>gradle jmh -Pbenchmarks=NetworkIndexBenchmark</code>, add <code>-prof gc</code> to the
+ *     benchmarks to see the allocations per lookup.
+ * </p>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NetworkIndexBenchmark {
+
+    // the addresses that are looked up in turn, randomly spread over the network so that the caches do not hide the map
+    private static final int LOOKUPS = 1 << 12;
+
+    @Param({"10000", "100000", "1000000"})
+    private int nodes;
+
+    private MacAddress[] sources;
+    private MacAddress[] dests;
+
+    private Map<IAddress, Object> objectNodeMap;
+    private Map<MultiKey<IAddress>, Object> objectConnectionMap;
+    private LongObjectMap<Object> primitiveNodeMap;
+    private LongPairObjectMap<Object> primitiveConnectionMap;
+
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidMACAddress {
+
+        final Random random = new Random(42);
+        final MacAddress[] addresses = new MacAddress[nodes];
+        final MacAddress[] destOf = new MacAddress[nodes];
+
+        objectNodeMap = new ConcurrentHashMap<>();
+        objectConnectionMap = new ConcurrentHashMap<>();
+        primitiveNodeMap = new LongObjectMap<>();
+        primitiveConnectionMap = new LongPairObjectMap<>();
+
+        // addresses of a few vendors, which only differ in their lower bits
+        for (int i = 0; i < nodes; i++) {
+            addresses[i] = new MacAddress(((long) (i % 8) << 24) + i);
+            objectNodeMap.put(addresses[i], addresses[i]);
+            primitiveNodeMap.put(addresses[i].toLong(), addresses[i]);
+        }
+
+        // every node talks to one other node
+        for (int i = 0; i < nodes; i++) {
+            destOf[i] = addresses[random.nextInt(nodes)];
+            objectConnectionMap.put(new MultiKey<>(addresses[i], destOf[i]), destOf[i]);
+            primitiveConnectionMap.put(addresses[i].toLong(), destOf[i].toLong(), destOf[i]);
+        }
+
+        sources = new MacAddress[LOOKUPS];
+        dests = new MacAddress[LOOKUPS];
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            final int source = random.nextInt(nodes);
+            sources[i] = addresses[source];
+            dests[i] = destOf[source];
+        }
+    }
+
+    @Benchmark
+    public Object nodeLookupObjectKeys() {
+        return objectNodeMap.get(sources[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object nodeLookupPrimitiveKeys() {
+        return primitiveNodeMap.get(sources[nextIndex()].toLong());
+    }
+
+    @Benchmark
+    public Object connectionLookupObjectKeys() {
+        final int index = nextIndex();
+        return objectConnectionMap.get(new MultiKey<>(sources[index], dests[index]));
+    }
+
+    @Benchmark
+    public Object connectionLookupPrimitiveKeys() {
+        final int index = nextIndex();
+        return primitiveConnectionMap.get(sources[index].toLong(), dests[index].toLong());
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return next;
+    }
+}
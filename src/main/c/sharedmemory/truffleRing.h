@@ -0,0 +1,95 @@
+#ifndef __TRUFFLE_RING_H__
+#define __TRUFFLE_RING_H__
+
+/**
+ * @file
+ * @brief A single producer single consumer ring buffer of truffles in shared memory.
+ *
+ * The ring lives in a memory mapped file (usually in /dev/shm) that is created by the producer (the spp_profinet
+ * snort plugin) and mapped by TruffleHog. The producer and the consumer each only write their own sequence, the
+ * sequences count the truffles that were written and read since the ring was created. A sequence is always written
+ * with release semantics after the slots it covers were written or read, so no locks or system calls are needed
+ * to pass truffles between the processes.
+ *
+ * The layout must be kept in sync with TruffleRing.java.
+ */
+
+#include <stdint.h>
+#include <string.h>
+#include "../unixsocketreceiver/truffle.h"
+
+#define TRUFFLE_RING_MAGIC 0x5452464C
+#define TRUFFLE_RING_VERSION 1
+#define TRUFFLE_RING_CACHE_LINE 64
+
+/**
+ * @brief The header of the ring. Every sequence lives on its own cache line to avoid false sharing.
+ */
+struct TruffleRingHeader {
+    /** @brief Written last by the producer once the ring is initialized. **/
+    uint32_t magic;
+    uint32_t version;
+    /** @brief The number of slots, always a power of two. **/
+    uint32_t capacity;
+    /** @brief sizeof(struct Truffle), the consumer refuses rings with a different record size. **/
+    uint32_t recordSize;
+    char pad0[TRUFFLE_RING_CACHE_LINE - 4 * sizeof(uint32_t)];
+
+    /** @brief The number of truffles written by the producer. **/
+    uint64_t producerSequence;
+    /** @brief The number of truffles the producer dropped because the ring was full. **/
+    uint64_t droppedTruffles;
+    char pad1[TRUFFLE_RING_CACHE_LINE - 2 * sizeof(uint64_t)];
+
+    /** @brief The number of truffles read by the consumer. **/
+    uint64_t consumerSequence;
+    char pad2[TRUFFLE_RING_CACHE_LINE - sizeof(uint64_t)];
+};
+
+struct TruffleRing {
+    struct TruffleRingHeader header;
+    Truffle_t slots[];
+};
+
+/**
+ * @brief Returns the size of the shared memory file for a ring with the given capacity.
+ */
+static inline size_t truffleRingSize(uint32_t capacity)
+{
+    return sizeof(struct TruffleRingHeader) + (size_t) capacity * sizeof(Truffle_t);
+}
+
+/**
+ * @brief Initializes a zeroed ring. The magic is published last so the consumer never sees a half initialized ring.
+ */
+static inline void truffleRingInit(struct TruffleRing *ring, uint32_t capacity)
+{
+    ring->header.version = TRUFFLE_RING_VERSION;
+    ring->header.capacity = capacity;
+    ring->header.recordSize = sizeof(Truffle_t);
+    __atomic_store_n(&ring->header.magic, TRUFFLE_RING_MAGIC, __ATOMIC_RELEASE);
+}
+
+/**
+ * @brief Writes a truffle into the next free slot. Must only be called by the producer.
+ *
+ * @return returns 0 on success and -1 if the ring is full and the truffle was dropped
+ */
+static inline int truffleRingOffer(struct TruffleRing *ring, const Truffle_t *truffle)
+{
+    uint64_t sequence = ring->header.producerSequence;
+    uint64_t consumed = __atomic_load_n(&ring->header.consumerSequence, __ATOMIC_ACQUIRE);
+
+    if (sequence - consumed >= ring->header.capacity)
+    {
+        __atomic_store_n(&ring->header.droppedTruffles, ring->header.droppedTruffles + 1, __ATOMIC_RELEASE);
+        return -1;
+    }
+
+    memcpy(&ring->slots[sequence & (ring->header.capacity - 1)], truffle, sizeof(Truffle_t));
+    __atomic_store_n(&ring->header.producerSequence, sequence + 1, __ATOMIC_RELEASE);
+
+    return 0;
+}
+
+#endif
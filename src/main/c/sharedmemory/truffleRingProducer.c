@@ -0,0 +1,86 @@
+/**
+ * @file
+ * @brief A stand-in for the spp_profinet snort plugin that fills a truffle ring with fake DCP traffic.
+ *
+ * Usage: truffleRingProducer [ring file] [capacity] [truffles per second]
+ *
+ * Build: gcc -O2 -o truffleRingProducer truffleRingProducer.c
+ */
+
+#include <fcntl.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <sys/mman.h>
+#include <time.h>
+#include <unistd.h>
+#include "truffleRing.h"
+#include "../unixsocketreceiver/dbg.h"
+
+#define DEFAULT_RING_FILE "/dev/shm/trufflehog.ring"
+#define DEFAULT_CAPACITY 4096
+#define DEFAULT_RATE 1000
+#define DEVICE_COUNT 10
+
+/**
+ * @brief Fills the truffle with a fake DCP identify request or response between two of the fake devices.
+ */
+void fakeTruffle(Truffle_t *truffle, uint64_t sequence)
+{
+    memset(truffle, 0, sizeof(Truffle_t));
+
+    int source = rand() % DEVICE_COUNT;
+    int dest = rand() % DEVICE_COUNT;
+
+    truffle->etherHeader.sourceMacAddress = 0x0A0000000000ULL + source;
+    truffle->etherHeader.destMacAddress = 0x0A0000000000ULL + dest;
+    truffle->etherHeader.etherType = 0x8892;
+
+    truffle->frame.id = 0xFEFF;
+    truffle->frame.type = IS_DCP;
+    truffle->frame.val.dcp.serviceID = 5;
+    strcpy(truffle->frame.val.dcp.serviceIDName, "Identify");
+    truffle->frame.val.dcp.serviceType = sequence % 2;
+    strcpy(truffle->frame.val.dcp.serviceTypeName, sequence % 2 ? "Response Success" : "Request");
+    truffle->frame.val.dcp.isResponse = sequence % 2;
+    truffle->frame.val.dcp.xID = (uint32_t) sequence;
+
+    truffle->frame.val.dcp.blocks[0].type = IS_DEVICE;
+    snprintf(truffle->frame.val.dcp.blocks[0].val.deviceBlock.nameOfStation, MAX_STRING_LEN, "device-%d", source);
+    truffle->frame.val.dcp.blocks[1].type = IS_IP;
+    truffle->frame.val.dcp.blocks[1].val.ipBlock.ip = 0xC0A80000 + source;
+}
+
+int main(int argc, char **argv)
+{
+    const char *ringFile = argc > 1 ? argv[1] : DEFAULT_RING_FILE;
+    uint32_t capacity = argc > 2 ? (uint32_t) atoi(argv[2]) : DEFAULT_CAPACITY;
+    long rate = argc > 3 ? atol(argv[3]) : DEFAULT_RATE;
+
+    check(capacity > 0 && (capacity & (capacity - 1)) == 0, "the capacity has to be a power of two");
+    check(rate > 0, "the rate has to be positive");
+
+    int fd = open(ringFile, O_RDWR | O_CREAT | O_TRUNC, 0600);
+    check(fd >= 0, "could not open the ring file %s", ringFile);
+    check(ftruncate(fd, truffleRingSize(capacity)) == 0, "could not resize the ring file");
+
+    struct TruffleRing *ring = mmap(NULL, truffleRingSize(capacity), PROT_READ | PROT_WRITE, MAP_SHARED, fd, 0);
+    check(ring != MAP_FAILED, "could not map the ring file");
+    close(fd);
+
+    truffleRingInit(ring, capacity);
+    log_info("producing %ld truffles per second into %s", rate, ringFile);
+
+    struct timespec interval = { .tv_sec = 0, .tv_nsec = 1000000000L / rate };
+    Truffle_t truffle;
+    uint64_t sequence;
+
+    for (sequence = 0;; ++sequence)
+    {
+        fakeTruffle(&truffle, sequence);
+        truffleRingOffer(ring, &truffle);
+        nanosleep(&interval, NULL);
+    }
+
+error:
+    return 1;
+}
@@ -53,79 +53,6 @@ struct SocketData
 // The socket file descriptor
 struct SocketData socketData;
 
-///////////////////////
-//                   //
-// JNI Class getters //
-//                   //
-///////////////////////
-
-/**
- * @brief Gets the Truffle class reference
- * This method may throw java exceptions. Please check with _CHECK_JAVA_EXCEPTION(env) after calling.
- *
- * @param env the java environment
- *
- * @return returns a reference to the Truffle class and NULL on error
- */
-jclass getTruffleClass(JNIEnv *env)
-{
-    static jclass truffleClass = NULL;
-
-    if (truffleClass == NULL)
-    {
-        jclass localTruffleClass = (*env)->FindClass(env, "edu/kit/trufflehog/service/packetdataprocessor/profinetdataprocessor/Truffle");
-        _CHECK_JAVA_EXCEPTION(env);
-        check_to(localTruffleClass != NULL, noClass, "Truffle class could not be found");
-
-        truffleClass = (jclass) (*env)->NewGlobalRef(env, localTruffleClass);
-        _CHECK_JAVA_EXCEPTION(env);
-        check_to(truffleClass != NULL, noClass, "Global truffle class reference could not be created");
-
-        (*env)->DeleteLocalRef(env, localTruffleClass);
-        _CHECK_JAVA_EXCEPTION(env);
-    }
-    return truffleClass;
-
-noClass:
-    throwNoClassDefError(env, "Truffle class could not be found");
-    return NULL;
-}
-
-////////////////////////
-//                    //
-// JNI method getters //
-//                    //
-////////////////////////
-
-/**
- * @brief Gets the buildTruffle method id.
- * This method may throw java exceptions. Please check with _CHECK_JAVA_EXCEPTION(env) after calling.
- *
- * @param env the java environment
- *
- * @return returns the method id of the buildTruffle method
- */
-jmethodID getBuildTruffle(JNIEnv *env)
-{
-    static jmethodID buildTruffleMID = NULL;
-
-    if (buildTruffleMID == NULL)
-    {
-        jclass truffleClass = getTruffleClass(env);
-        _CHECK_JAVA_EXCEPTION(env);
-
-        buildTruffleMID = (*env)->GetStaticMethodID(env, truffleClass, "buildTruffle", "(JJJJLjava/lang/String;IILjava/lang/String;ILjava/lang/String;JII)Ledu/kit/trufflehog/service/packetdataprocessor/profinetdataprocessor/Truffle;");
-        _CHECK_JAVA_EXCEPTION(env);
-        check_to(buildTruffleMID != 0, noBuildTruffle, "buildTruffle method not found");
-    }
-
-    return buildTruffleMID;
-
-noBuildTruffle:
-    throwNoSuchMethodError(env, "buildTruffle method not found");
-    return NULL;
-}
-
 ////////////////////
 //                //
 // Normal methods //
@@ -242,12 +169,6 @@ JNIEXPORT void JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profi
 
     memset(&socketData, 0, sizeof(struct SocketData));
 
-    jclass truffleClass = getTruffleClass(env);
-    _CHECK_JAVA_EXCEPTION_VOID(env);
-
-    (*env)->DeleteGlobalRef(env, truffleClass);
-    _CHECK_JAVA_EXCEPTION_VOID(env);
-
     debug("disconnect successful");
 
 	return;
@@ -258,12 +179,13 @@ error:
 }
 
 /**
- * @brief Gets the next truffle struct from the socket.
+ * @brief Waits until the socket has data to read or the timeout expires.
  *
- * @param env the java environment pointer.
- * @param the truffle struct to fill the data in.
+ * @param maxWaitMillis the maximum time to wait in milliseconds.
+ *
+ * @return returns a value > 0 if data is available, 0 on timeout and < 0 on error
  */
-int getNextTruffle(JNIEnv *env, Truffle_t *truffle)
+int waitForTruffles(int maxWaitMillis)
 {
     fd_set read_fds, write_fds, except_fds;
     FD_ZERO(&read_fds);
@@ -272,156 +194,52 @@ int getNextTruffle(JNIEnv *env, Truffle_t *truffle)
     FD_SET(socketData.socketFD, &read_fds);
 
     struct timeval timeout;
-    timeout.tv_sec = 1;
-    timeout.tv_usec = 0;
-
-    // wait for fd to become ready but only wait 1 second so that the disconnect method gets the chance to close the connection
-    int rv = select(socketData.socketFD + 1, &read_fds, &write_fds, &except_fds, &timeout);
-    if (rv > 0)
-    {
-        ssize_t len = read(socketData.socketFD, (void*) (truffle), sizeof(struct Truffle));
-
-        check_to(len >= 0, noMessageReceived, "reading the turffle failed");
-        check(len == sizeof(struct Truffle), "could not read the correct number of bytes from the socket: wanted: %ld, got: %ld", sizeof(struct Truffle), len);
-
-	    return 0;
-	}
-	//check_to(rv != 0, noMessageReceived, "no message received");
-
-	if (rv == 0) return -2;
-
-	debug("some error occurred while waiting for fd to become available: rv=%d", rv);
-	throwReceiverReadError(env, "other error");
-	return -3;
+    timeout.tv_sec = maxWaitMillis / 1000;
+    timeout.tv_usec = (maxWaitMillis % 1000) * 1000;
 
-error:
-	throwReceiverReadError(env, "could not read the correct number of bytes from the socket");
-	return -1;
-
-noMessageReceived:
-	debug("read failed");
-	return -2;
+    // only wait for a short time so that the disconnect method gets the chance to close the connection
+    return select(socketData.socketFD + 1, &read_fds, &write_fds, &except_fds, &timeout);
 }
 
 /*
  * Class:     edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver
- * Method:    getTruffle
- * Signature: ()Ledu/kit/trufflehog/service/packetdataprocessor/profinetdataprocessor/Truffle;
+ * Method:    getTruffles
+ * Signature: (Ljava/nio/ByteBuffer;II)I
  */
-JNIEXPORT jobject JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver_getTruffle(JNIEnv *env, jobject thisObj)
+JNIEXPORT jint JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver_getTruffles(JNIEnv *env, jobject thisObj, jobject buffer, jint maxTruffles, jint maxWaitMillis)
 {
-    Truffle_t truffle;
-    //check(getNextTruffle(env, &truffle) >= 0, "getNextTruffle failed!");
-    if (getNextTruffle(env, &truffle) < 0) return NULL;
-
-    jclass truffleClass = getTruffleClass(env);
-    _CHECK_JAVA_EXCEPTION(env);
-
-	// get buildTruffle method
-    jmethodID buildTruffleMID = getBuildTruffle(env);
-    _CHECK_JAVA_EXCEPTION(env);
-
-    // dcp data
-    jstring nameStr = NULL;
-
-    uint8_t serviceID = 0;
-    jstring serviceIDName = NULL;
-    uint8_t serviceType = 0;
-    jstring serviceTypeName = NULL;
+    Truffle_t *truffles = (Truffle_t*) (*env)->GetDirectBufferAddress(env, buffer);
+    check_to(truffles != NULL, invalidBuffer, "the truffle buffer is not a direct buffer");
 
-    uint32_t xID = 0;
-    uint16_t responseDelay = 0;
-    uint8_t isResponse = 0;
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer) / sizeof(struct Truffle);
+    if (maxTruffles > capacity) maxTruffles = (jint) capacity;
 
-    uint16_t dataLength = 0; // add to truffle maybe?
+    // block until the first truffle arrives, but never longer than the max wait time
+    int rv = waitForTruffles(maxWaitMillis);
+    if (rv == 0) return 0;
+    check(rv > 0, "some error occurred while waiting for fd to become available: rv=%d", rv);
 
-    uint32_t ip = 0;
-    uint32_t subnet = 0;
-    uint32_t gateway = 0;
-
-    if (truffle.frame.type == IS_DCP)
+    // drain everything that is already queued on the socket without blocking again
+    jint count = 0;
+    while (count < maxTruffles)
     {
-        int i;
-        for (i = 0; i < MAX_BLOCKS; i++)
-        {
-            switch(truffle.frame.val.dcp.blocks[i].type)
-            {
-            // create the java string for the deviceName property
-            case IS_DEVICE:
-                {
-                    nameStr = (*env)->NewStringUTF(env, truffle.frame.val.dcp.blocks[i].val.deviceBlock.nameOfStation);
-                    _CHECK_JAVA_EXCEPTION(env);
-                    check(nameStr != NULL, "could not create deviceName string");
-                    break;
-                }
-
-            case IS_IP:
-                {
-                    ip = truffle.frame.val.dcp.blocks[i].val.ipBlock.ip;
-                    break;
-                }
-
-            default:
-                break;
-            }
-        }
-
-        serviceID = truffle.frame.val.dcp.serviceID;
-
-        // create the java string for the serviceIDName
-        serviceIDName = (*env)->NewStringUTF(env, truffle.frame.val.dcp.serviceIDName);
-        _CHECK_JAVA_EXCEPTION(env);
-        check(serviceIDName != NULL, "could not create serviceIDName string");
-
-        serviceType = truffle.frame.val.dcp.serviceType;
-
-        // create the java string for the serviceTypeName
-        serviceTypeName = (*env)->NewStringUTF(env, truffle.frame.val.dcp.serviceTypeName);
-        _CHECK_JAVA_EXCEPTION(env);
-        check(serviceTypeName != NULL, "could not create serviceTypeName string");
-
-        xID = truffle.frame.val.dcp.xID;
-        responseDelay = truffle.frame.val.dcp.responseDelay;
-        isResponse = truffle.frame.val.dcp.isResponse;
+        ssize_t len = recv(socketData.socketFD, (void*) (truffles + count), sizeof(struct Truffle), MSG_DONTWAIT);
+
+        if (len < 0 && (errno == EAGAIN || errno == EWOULDBLOCK)) break;
 
+        check(len == sizeof(struct Truffle), "could not read the correct number of bytes from the socket: wanted: %ld, got: %ld", sizeof(struct Truffle), len);
+        ++count;
     }
 
-    /*
-    final long srcMACAddr,
-    final long dstMACAddr,
-    final long srcIPAddr,
-    final long dstIPAddr,
-    final String nameOfStation,
-    final int etherType,
-    final int serviceID,
-    final String serviceIDName,
-    final int serviceType,
-    final String serviceTypeName,
-    final long xid,
-    final int responseDelay
-    */
-	jobject truffleObject = (*env)->CallStaticObjectMethod(env,                                     // java env
-	                                                       truffleClass,                            // truffle class id
-	                                                       buildTruffleMID,                         // buildTruffle method id
-	                                                       truffle.etherHeader.sourceMacAddress,    // srcMACAddr
-	                                                       truffle.etherHeader.destMacAddress,      // dstMACAddr
-	                                                       ip,                                      // srcIPAddr
-	                                                       0,                                       // dstIPAddr
-	                                                       nameStr,                                 // nameOfStation
-	                                                       truffle.etherHeader.etherType,           // etherType
-	                                                       serviceID,                               // serviceID
-	                                                       serviceIDName,                           // serviceIDName
-	                                                       serviceType,                             // serviceType
-	                                                       serviceTypeName,                         // serviceTypeName
-	                                                       xID,                                     // xid
-	                                                       responseDelay,                           // responseDelay
-	                                                       isResponse);                             // isResponse
-    _CHECK_JAVA_EXCEPTION(env);
-
-    return truffleObject;
+    return count;
 
 error:
-	return NULL;
+    throwReceiverReadError(env, "could not read the correct number of bytes from the socket");
+    return -1;
+
+invalidBuffer:
+    throwReceiverReadError(env, "the truffle buffer is not a direct buffer");
+    return -1;
 }
 
 
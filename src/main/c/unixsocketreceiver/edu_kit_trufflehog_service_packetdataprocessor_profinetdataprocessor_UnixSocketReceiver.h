@@ -25,11 +25,11 @@ JNIEXPORT void JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profi
 
 /*
  * Class:     edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver
- * Method:    getTruffle
- * Signature: ()Ledu/kit/trufflehog/service/packetdataprocessor/profinetdataprocessor/Truffle;
+ * Method:    getTruffles
+ * Signature: (Ljava/nio/ByteBuffer;II)I
  */
-JNIEXPORT jobject JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver_getTruffle
-  (JNIEnv *, jobject);
+JNIEXPORT jint JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver_getTruffles
+  (JNIEnv *, jobject, jobject, jint, jint);
 
 #ifdef __cplusplus
 }
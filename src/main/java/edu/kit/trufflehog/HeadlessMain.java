@@ -0,0 +1,93 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package edu.kit.trufflehog;
+
+import edu.kit.trufflehog.presenter.HeadlessPresenter;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+
+/**
+ * <p>
+ *     The main class of the headless mode of TruffleHog. It monitors the network without a user interface and
+ *     writes the statistics to the standard output or a file.
+ * </p>
+ * <p>
+ *     Usage: <code>HeadlessMain [--interval &lt;ms&gt;] [--output &lt;file&gt;] [--no-nodes]</code>
+ * </p>
+ */
+public class HeadlessMain {
+
+	private static final long DEFAULT_REPORT_INTERVAL = 5000;
+
+	/**
+	 * <p>
+	 *     The main method of the headless mode.
+	 * </p>
+	 *
+	 * @param args command line arguments
+	 */
+	public static void main(String[] args) {
+
+		long interval = DEFAULT_REPORT_INTERVAL;
+		PrintStream output = System.out;
+		boolean reportNodes = true;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--interval":
+						interval = Long.parseLong(args[++i]);
+						break;
+					case "--output":
+						// append, so that a restart does not overwrite the earlier reports
+						output = new PrintStream(new FileOutputStream(args[++i], true), true);
+						break;
+					case "--no-nodes":
+						reportNodes = false;
+						break;
+					default:
+						usage("Unknown argument " + args[i]);
+						return;
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			usage("Invalid arguments");
+			return;
+		} catch (FileNotFoundException e) {
+			usage("Can not write to the output file: " + e.getMessage());
+			return;
+		}
+
+		if (interval <= 0) {
+			usage("The interval has to be greater than 0");
+			return;
+		}
+
+		final HeadlessPresenter presenter = new HeadlessPresenter(output, interval, reportNodes);
+		Runtime.getRuntime().addShutdownHook(new Thread(presenter::finish));
+		presenter.run();
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println("Usage: HeadlessMain [--interval <ms>] [--output <file>] [--no-nodes]");
+		System.exit(1);
+	}
+}
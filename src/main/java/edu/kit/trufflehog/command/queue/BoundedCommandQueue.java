@@ -0,0 +1,254 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     This {@link ICommandQueue} implementation is a bounded lock-free ring buffer for many producers and one
+ *     consumer. Every slot has a sequence number that tells the producers and the consumer whether the slot is free
+ *     or holds a command, so pushing and popping only needs one compare and set each and no lock.
+ *     It automatically registers itself with a {@link CommandScheduler} and wakes it up when a command is pushed.
+ * </p>
+ * <p>
+ *     If the queue is full a push either waits until the consumer made room (backpressure) or removes the oldest
+ *     command of the queue to make room for the new one, depending on the {@link OverflowPolicy}. Both cases are
+ *     counted.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class BoundedCommandQueue implements ICommandQueue {
+
+    /**
+     * <p>
+     *     What a push does if the queue is full.
+     * </p>
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The pushing thread waits until there is room in the queue.
+         */
+        BLOCK,
+
+        /**
+         * The oldest command in the queue is dropped.
+         */
+        DROP_OLDEST
+    }
+
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicReferenceArray<ICommand> commands;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong pushSequence = new AtomicLong(0);
+    private final AtomicLong popSequence = new AtomicLong(0);
+
+    private final OverflowPolicy overflowPolicy;
+    private final CommandScheduler scheduler;
+
+    private final LongAdder droppedCommands = new LongAdder();
+    private final LongAdder blockedPushes = new LongAdder();
+
+    /**
+     * <p>
+     *     Creates a new BoundedCommandQueue object.
+     * </p>
+     *
+     * @param scheduler The {@link CommandScheduler} that schedules this queue.
+     * @param capacity The maximum number of commands in the queue, rounded up to the next power of two.
+     * @param weight The weight of this queue in the scheduler.
+     * @param overflowPolicy What happens if a command is pushed onto the full queue.
+     */
+    public BoundedCommandQueue(final CommandScheduler scheduler,
+                               final int capacity,
+                               final int weight,
+                               final OverflowPolicy overflowPolicy) {
+
+        if (scheduler == null) {
+            throw new NullPointerException("scheduler must not be null");
+        }
+
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy must not be null");
+        }
+
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The capacity has to be between 2 and 2^30");
+        }
+
+        final int slots = Integer.highestOneBit(capacity - 1) << 1;
+
+        this.commands = new AtomicReferenceArray<>(slots);
+        this.sequences = new AtomicLongArray(slots);
+        this.mask = slots - 1;
+
+        for (int i = 0; i < slots; i++) {
+            sequences.set(i, i);
+        }
+
+        this.overflowPolicy = overflowPolicy;
+        this.scheduler = scheduler;
+        this.scheduler.registerQueue(this, weight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     *     If the queue is full this method waits or drops the oldest command, depending on the overflow policy.
+     * </p>
+     *
+     * @param command The command to put onto the Queue.
+     * @param <T>     The type of the command.
+     * @throws InterruptedException if the thread is interrupted while waiting for room in the queue
+     * @throws NullPointerException If the command to add is null.
+     */
+    @Override
+    public <T extends ICommand> void push(final T command) throws InterruptedException {
+        if (command == null)
+            throw new NullPointerException("Command object to be added may not be null!");
+
+        if (!offer(command)) {
+            if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                dropUntilOffered(command);
+            } else {
+                awaitRoom(command);
+            }
+        }
+
+        scheduler.notifyNewElement();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws java.util.NoSuchElementException If there are no elements in this queue.
+     */
+    @Override
+    public ICommand pop() {
+        final ICommand command = poll();
+
+        if (command == null) {
+            throw new NoSuchElementException("The command queue is empty");
+        }
+
+        return command;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        final long position = popSequence.get();
+
+        return sequences.get((int) position & mask) != position + 1;
+    }
+
+    /**
+     * @return the number of commands the queue can hold
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return the number of commands in the queue, only an estimate while commands are pushed or popped
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(pushSequence.get() - popSequence.get(), capacity()));
+    }
+
+    /**
+     * @return the number of commands that were dropped because the queue was full
+     */
+    public long getDroppedCommands() {
+        return droppedCommands.sum();
+    }
+
+    /**
+     * @return the number of pushes that had to wait because the queue was full
+     */
+    public long getBlockedPushes() {
+        return blockedPushes.sum();
+    }
+
+    private void dropUntilOffered(final ICommand command) {
+        do {
+            if (poll() != null) {
+                droppedCommands.increment();
+            }
+        } while (!offer(command));
+    }
+
+    private void awaitRoom(final ICommand command) throws InterruptedException {
+        blockedPushes.increment();
+
+        // the consumer does not know about waiting producers, so they look again after a short while
+        do {
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        } while (!offer(command));
+    }
+
+    private boolean offer(final ICommand command) {
+        long position = pushSequence.get();
+
+        while (true) {
+            final int slot = (int) position & mask;
+            final long difference = sequences.get(slot) - position;
+
+            if (difference == 0) {
+                if (pushSequence.compareAndSet(position, position + 1)) {
+                    commands.lazySet(slot, command);
+                    // a full volatile write, the scheduler relies on it to not miss the element
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = pushSequence.get();
+            } else if (difference < 0) {
+                // the slot still holds the command of the last round
+                return false;
+            } else {
+                position = pushSequence.get();
+            }
+        }
+    }
+
+    // the consumer and producers that drop the oldest command both take commands out of the queue
+    private ICommand poll() {
+        long position = popSequence.get();
+
+        while (true) {
+            final int slot = (int) position & mask;
+            final long difference = sequences.get(slot) - (position + 1);
+
+            if (difference == 0) {
+                if (popSequence.compareAndSet(position, position + 1)) {
+                    final ICommand command = commands.get(slot);
+                    commands.lazySet(slot, null);
+                    sequences.lazySet(slot, position + mask + 1);
+                    return command;
+                }
+                position = popSequence.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = popSequence.get();
+            }
+        }
+    }
+}
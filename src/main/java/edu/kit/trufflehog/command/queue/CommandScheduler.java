@@ -0,0 +1,181 @@
+package edu.kit.trufflehog.command.queue;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     The command scheduler decides which of its registered {@link ICommandQueue}s is served next. It replaces the
+ *     {@link CommandQueueManager} for queues that signal new elements themselves, like the
+ *     {@link BoundedCommandQueue}, and does not need a lock or a counter per element for that.
+ * </p>
+ * <p>
+ *     Every queue is registered with a weight. A non empty queue is returned up to weight times in a row before
+ *     the next non empty queue is returned (weighted round-robin style), so with a weight of 1 for every queue the
+ *     queues are served alternating. If all queues are empty the consumer thread parks until a queue signals a new
+ *     element.
+ * </p>
+ * <p>
+ *     There must only be one consumer thread that calls {@link #getNextQueue()} or {@link #pollNextQueue()}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class CommandScheduler {
+
+    private final Object registrationLock = new Object();
+
+    private volatile ICommandQueue[] queues = new ICommandQueue[0];
+    private volatile int[] weights = new int[0];
+
+    // only touched by the consumer thread
+    private int currentQueue = 0;
+    private int servedFromCurrent = 0;
+
+    private volatile Thread waitingConsumer = null;
+
+    /**
+     * <p>
+     *     Registers a {@link ICommandQueue} with the CommandScheduler.
+     * </p>
+     *
+     * @param queue The {@link ICommandQueue} to add.
+     * @param weight The number of commands that are taken from the queue in a row if other queues have commands too.
+     */
+    protected void registerQueue(final ICommandQueue queue, final int weight) {
+
+        if (queue == null) {
+            throw new NullPointerException("queue must not be null");
+        }
+
+        if (weight < 1) {
+            throw new IllegalArgumentException("The weight of a queue has to be at least 1");
+        }
+
+        synchronized (registrationLock) {
+            final ICommandQueue[] newQueues = Arrays.copyOf(queues, queues.length + 1);
+            final int[] newWeights = Arrays.copyOf(weights, weights.length + 1);
+
+            newQueues[newQueues.length - 1] = queue;
+            newWeights[newWeights.length - 1] = weight;
+
+            weights = newWeights;
+            queues = newQueues;
+        }
+    }
+
+    /**
+     * <p>
+     *     Gets the next non empty queue.
+     * </p>
+     *
+     * <p>
+     *     This method gets the next non empty {@link ICommandQueue} according to the weights of the queues.
+     *     If all queues are empty this method blocks, until one of the queues receives an element.
+     * </p>
+     * @return The next command queue. Returns null if no queues are registered.
+     * @throws InterruptedException if the consumer thread is interrupted while waiting
+     */
+    public ICommandQueue getNextQueue() throws InterruptedException {
+
+        if (queues.length == 0) {
+            return null;
+        }
+
+        ICommandQueue next = selectQueue();
+
+        while (next == null) {
+            awaitElement();
+            next = selectQueue();
+        }
+
+        return next;
+    }
+
+    /**
+     * <p>
+     *     Gets the next non empty queue like {@link #getNextQueue()} but does not wait if all queues are empty.
+     * </p>
+     *
+     * @return The next command queue. Returns null if all queues are empty or no queues are registered.
+     */
+    public ICommandQueue pollNextQueue() {
+
+        if (queues.length == 0) {
+            return null;
+        }
+
+        return selectQueue();
+    }
+
+    /**
+     * <p>
+     *     Notifies the scheduler that a new element was pushed onto a queue. Wakes the consumer if it is waiting.
+     * </p>
+     *
+     * <p>
+     *     This method has to be called by any {@link ICommandQueue} implementation that is registered with the
+     *     scheduler after an element was added to it.
+     * </p>
+     */
+    protected void notifyNewElement() {
+        final Thread consumer = waitingConsumer;
+
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private ICommandQueue selectQueue() {
+
+        final ICommandQueue[] currentQueues = queues;
+        final int[] currentWeights = weights;
+
+        if (servedFromCurrent < currentWeights[currentQueue] && !currentQueues[currentQueue].isEmpty()) {
+            servedFromCurrent++;
+            return currentQueues[currentQueue];
+        }
+
+        // the current queue had its turn or is empty, the other queues come first and the current one last
+        for (int i = 1; i <= currentQueues.length; i++) {
+            final int candidate = (currentQueue + i) % currentQueues.length;
+
+            if (!currentQueues[candidate].isEmpty()) {
+                currentQueue = candidate;
+                servedFromCurrent = 1;
+                return currentQueues[candidate];
+            }
+        }
+
+        return null;
+    }
+
+    private void awaitElement() throws InterruptedException {
+
+        // publish the consumer first and check the queues after that, so that a producer either sees the waiting
+        // consumer or the consumer sees the new element
+        waitingConsumer = Thread.currentThread();
+
+        try {
+            while (allEmpty()) {
+                LockSupport.park(this);
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingConsumer = null;
+        }
+    }
+
+    private boolean allEmpty() {
+        for (final ICommandQueue queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
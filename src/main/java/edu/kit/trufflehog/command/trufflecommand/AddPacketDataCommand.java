@@ -14,11 +14,13 @@ import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComp
 import edu.kit.trufflehog.model.network.graph.components.edge.MulticastEdgeRenderer;
 import edu.kit.trufflehog.model.network.graph.components.node.*;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
-import javafx.application.Platform;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketStore;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleView;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -27,6 +29,29 @@ import java.util.Random;
  *     necessary (i.e. when new devices enter the network). After the creation, the new node get checked with the
  *     Filter objects and marked accordingly.
  * </p>
+ * <p>
+ *     The filter is always checked on the thread that executes the command, both for new nodes and for known nodes
+ *     whose name or ip address changed. The filters only change the {@link FilterPropertiesComponent} of the nodes,
+ *     which can be changed from any thread and mirrors its colors to the view by itself.
+ * </p>
+ * <p>
+ *     Nodes and connections that are already in the network are looked up by their addresses and updated in place,
+ *     only their counters and packet logs change, their properties follow with the next frame. The full components
+ *     and the filter check are only needed the first time an address or a pair of addresses is seen, or when a
+ *     response changes the name or ip address of a known node.
+ * </p>
+ * <p>
+ *     Consecutive commands for the same source and destination can be merged with {@link #coalesce}, the merged
+ *     command then adds all their packets at once.
+ * </p>
+ * <p>
+ *     The packets are copied into the {@link PacketStore} and {@link IPacketData#release() released} once the
+ *     command was executed, so receivers can reuse their storage.
+ * </p>
+ * <p>
+ *     The addresses, names and ip addresses of received {@link TruffleView}s are read through their typed
+ *     accessors, other packets are read through {@link IPacketData#getAttribute}.
+ * </p>
  */
 public class AddPacketDataCommand implements ITruffleCommand {
     
@@ -35,9 +60,20 @@ public class AddPacketDataCommand implements ITruffleCommand {
     private final INetworkWritingPort writingPort;
     private final IFilter filter;
     private final IPacketData data;
+    private final MacAddress sourceAddress;
+    private final MacAddress destAddress;
+
+    // the packets of the commands that were merged into this one, null as long as nothing was merged
+    private List<IPacketData> mergedPackets = null;
 
+    // the store the packets are put into once, and their ids there, set by storePackets()
+    private PacketStore store = null;
+    private long[] packetIds = null;
 
-    private static final Random random = new Random(500);
+    // the latest name and ip address of the source among all packets, set by readLatestInfo()
+    private boolean hasInfo = false;
+    private String deviceName = null;
+    private IPAddress sourceIP = null;
 
     /**
      * <p>
@@ -55,73 +91,340 @@ public class AddPacketDataCommand implements ITruffleCommand {
         this.writingPort = writingPort;
         this.filter = filter;
         this.data = packet;
+
+        if (packet instanceof TruffleView) {
+            final TruffleView view = (TruffleView) packet;
+            final boolean valid = view.isValid();
+
+            this.sourceAddress = valid ? view.sourceMacAddress() : null;
+            this.destAddress = valid ? view.destMacAddress() : null;
+        } else {
+            this.sourceAddress = packet.getAttribute(MacAddress.class, "sourceMacAddress");
+            this.destAddress = packet.getAttribute(MacAddress.class, "destMacAddress");
+        }
+    }
+
+    /**
+     * <p>
+     *     Merges the given command into this one if both add packets of the same source and destination to the same
+     *     network. Executing this command then has the same effect as executing both commands one after the other.
+     *     Must not be called after this command was executed.
+     * </p>
+     *
+     * @param other The command that follows this one.
+     * @return true if the command was merged and must not be executed anymore, false otherwise.
+     */
+    public boolean coalesce(AddPacketDataCommand other) {
+
+        if (other == null) throw new NullPointerException("other must not be null");
+
+        if (other == this || other.writingPort != writingPort || other.filter != filter
+                || sourceAddress == null || !sourceAddress.equals(other.sourceAddress)
+                || destAddress == null || !destAddress.equals(other.destAddress)) {
+            return false;
+        }
+
+        if (mergedPackets == null) {
+            mergedPackets = new ArrayList<>();
+        }
+
+        mergedPackets.add(other.data);
+
+        if (other.mergedPackets != null) {
+            mergedPackets.addAll(other.mergedPackets);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the source address of the packets this command adds
+     */
+    public MacAddress getSourceAddress() {
+        return sourceAddress;
+    }
+
+    /**
+     * @return the number of packets this command adds
+     */
+    public int getPacketCount() {
+        return mergedPackets == null ? 1 : mergedPackets.size() + 1;
     }
 
     @Override
     public void execute() {
+        try {
+            addPackets();
+        } finally {
+            releasePackets();
+        }
+    }
 
-        final MacAddress sourceAddress = data.getAttribute(MacAddress.class, "sourceMacAddress");
-        final IPAddress sourceIP = data.getAttribute(IPAddress.class, "sourceIPAddress");
+    private void addPackets() {
 
-        final MacAddress destAddress = data.getAttribute(MacAddress.class, "destMacAddress");
-        final IPAddress destIP = data.getAttribute(IPAddress.class, "destIPAddress");
+        final int packetCount = getPacketCount();
 
-        final String deviceName = data.getAttribute(String.class, "deviceName");
-        final Boolean isResponse = data.getAttribute(Boolean.class, "isResponse");
+        readLatestInfo();
+        storePackets();
 
-        // build the source node info
-        NodeInfoComponent sourceNIC = new NodeInfoComponent(sourceAddress);
-        if (isResponse != null && isResponse) {
-            if (deviceName != null) {
-                sourceNIC.setDeviceName(deviceName);
-            }
-            if (sourceIP != null && !sourceIP.equals(IPAddress.INVALID_ADDRESS)) {
-                sourceNIC.setIPAddress(sourceIP);
+        final String deviceName = this.deviceName;
+        final IPAddress sourceIP = this.sourceIP;
+
+        final INode existingSource = writingPort.getNetworkNodeByAddress(sourceAddress);
+        final INode existingDest = writingPort.getNetworkNodeByAddress(destAddress);
+        final IConnection existingConnection = writingPort.getNetworkConnectionByAddress(sourceAddress, destAddress);
+
+        // the common case: everything is known already, so only the counters and logs of the existing elements change
+        if (existingSource != null && existingDest != null && existingConnection != null) {
+
+            updateNode(existingSource, packetCount, 0);
+            updateNode(existingDest, 0, packetCount);
+            updateConnection(existingConnection, packetCount);
+
+            if (hasInfo && isInfoChanged(existingSource, deviceName, sourceIP)) {
+                updateNodeInfo(existingSource, deviceName, sourceIP);
             }
+
+            return;
         }
 
-        // build the destination node info
-        NodeInfoComponent destNIC = new NodeInfoComponent(destAddress);
+        final INode sourceNode;
 
+        if (existingSource == null) {
 
+            // build the source node info
+            final NodeInfoComponent sourceNIC = new NodeInfoComponent(sourceAddress);
+            if (hasInfo) {
+                if (deviceName != null) {
+                    sourceNIC.setDeviceName(deviceName);
+                }
+                if (sourceIP != null && !sourceIP.equals(IPAddress.INVALID_ADDRESS)) {
+                    sourceNIC.setIPAddress(sourceIP);
+                }
+            }
 
-        final PacketDataLoggingComponent connectionPacketLogger = new PacketDataLoggingComponent();
-        connectionPacketLogger.addPacket(data);
+            sourceNode = createNode(sourceAddress, new NodeStatisticsComponent(packetCount, 0), sourceNIC);
+        } else {
 
-        final PacketDataLoggingComponent srcPacketLogger = new PacketDataLoggingComponent();
-        srcPacketLogger.addPacket(data);
+            sourceNode = existingSource;
 
-        final PacketDataLoggingComponent destPacketLogger = new PacketDataLoggingComponent();
-        destPacketLogger.addPacket(data);
+            updateNode(existingSource, packetCount, 0);
 
-        final INode sourceNode = new NetworkNode(sourceAddress, new NodeStatisticsComponent(1, 0), sourceNIC, srcPacketLogger);
-        final INode destNode = new NetworkNode(destAddress, new NodeStatisticsComponent(0, 1), destNIC, destPacketLogger);
+            if (hasInfo && isInfoChanged(existingSource, deviceName, sourceIP)) {
+                updateNodeInfo(existingSource, deviceName, sourceIP);
+            }
+        }
 
-        final IConnection connection = new NetworkConnection(sourceNode, destNode, new EdgeStatisticsComponent(1), connectionPacketLogger);
+        final INode destNode;
 
-        sourceNode.addComponent(new FilterPropertiesComponent());
-        destNode.addComponent(new FilterPropertiesComponent());
+        if (existingDest == null) {
+            destNode = createNode(destAddress, new NodeStatisticsComponent(0, packetCount), new NodeInfoComponent(destAddress));
+        } else {
+            destNode = existingDest;
+            updateNode(existingDest, 0, packetCount);
+        }
 
-        //Icon someIcon = createImageIcon("icon.png", "Grunz");
+        if (existingConnection == null) {
 
-        //logger.debug("h:" + someIcon.getIconHeight() + " w:" + someIcon.getIconWidth());
+            final PacketDataLoggingComponent connectionPacketLogger = new PacketDataLoggingComponent();
+            logPackets(connectionPacketLogger);
 
+            final IConnection connection = new NetworkConnection(sourceNode, destNode, new EdgeStatisticsComponent(packetCount), connectionPacketLogger);
 
-        sourceNode.addComponent(new ViewComponent(new NodeRenderer()));
-        destNode.addComponent(new ViewComponent(new NodeRenderer()));
+            if (destAddress.isMulticast()) {
+                connection.addComponent(new ViewComponent(MulticastEdgeRenderer::new));
+            } else {
+                connection.addComponent(new ViewComponent(BasicEdgeRenderer::new));
+            }
 
-        if (destAddress.isMulticast()) {
-            connection.addComponent(new ViewComponent(new MulticastEdgeRenderer()));
+            writingPort.writeConnection(connection);
         } else {
-            connection.addComponent(new ViewComponent(new BasicEdgeRenderer()));
+            updateConnection(existingConnection, packetCount);
+        }
+    }
+
+    /**
+     * <p>
+     *     Builds a new node with all components, writes it into the network and checks the written node with the
+     *     filter. The node is checked after it was written, so that the filters remember the node that is in the
+     *     network and not one that was merged into it.
+     * </p>
+     */
+    private INode createNode(MacAddress address, NodeStatisticsComponent statistics, NodeInfoComponent info) {
+
+        final PacketDataLoggingComponent packetLogger = new PacketDataLoggingComponent();
+        logPackets(packetLogger);
+
+        final INode node = new NetworkNode(address, statistics, info, packetLogger);
+
+        node.addComponent(new FilterPropertiesComponent());
+        // the renderers are created by the view, so that the network does not need a FX toolkit
+        node.addComponent(new ViewComponent(NodeRenderer::new));
+
+        writingPort.writeNode(node);
+
+        // another thread may have written a node with this address first, then the new node was merged into it
+        final INode existingNode = writingPort.getNetworkNodeByAddress(address);
+        final INode writtenNode = existingNode != null ? existingNode : node;
+
+        filter.check(writtenNode);
+
+        return writtenNode;
+    }
+
+    private void readLatestInfo() {
+
+        readInfo(data);
+
+        if (mergedPackets != null) {
+            for (IPacketData packet : mergedPackets) {
+                readInfo(packet);
+            }
+        }
+    }
+
+    private void readInfo(IPacketData packet) {
+
+        if (packet instanceof TruffleView) {
+            final TruffleView view = (TruffleView) packet;
+
+            if (view.isResponse()) {
+                readInfo(view.deviceName(), view.sourceIPAddress());
+            }
+
+            return;
+        }
+
+        final Boolean isResponse = packet.getAttribute(Boolean.class, "isResponse");
+
+        if (isResponse == null || !isResponse) {
+            return;
+        }
+
+        readInfo(packet.getAttribute(String.class, "deviceName"),
+                packet.getAttribute(IPAddress.class, "sourceIPAddress"));
+    }
+
+    private void readInfo(String name, IPAddress ip) {
+
+        hasInfo = true;
+
+        if (name != null) {
+            deviceName = name;
+        }
+
+        if (ip != null && !ip.equals(IPAddress.INVALID_ADDRESS)) {
+            sourceIP = ip;
+        }
+    }
+
+    private void storePackets() {
+
+        store = PacketStore.getInstance();
+        packetIds = new long[getPacketCount()];
+        packetIds[0] = store.append(data);
+
+        if (mergedPackets != null) {
+            for (int i = 0; i < mergedPackets.size(); i++) {
+                packetIds[i + 1] = store.append(mergedPackets.get(i));
+            }
+        }
+    }
+
+    private void releasePackets() {
+
+        data.release();
+
+        if (mergedPackets != null) {
+            mergedPackets.forEach(IPacketData::release);
+        }
+    }
+
+    // the source, the destination and the connection log the same packets, which are stored only once
+    private void logPackets(PacketDataLoggingComponent packetLogger) {
+
+        if (packetLogger.getStore() != store) {
+            packetLogger.addPacket(data);
+
+            if (mergedPackets != null) {
+                mergedPackets.forEach(packetLogger::addPacket);
+            }
+            return;
+        }
+
+        for (long id : packetIds) {
+            packetLogger.logPacket(id);
+        }
+    }
+
+    private boolean isInfoChanged(INode node, String deviceName, IPAddress ip) {
+
+        final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+
+        if (info == null) {
+            return false;
+        }
+
+        final boolean nameChanged = deviceName != null && !deviceName.equals(info.getDeviceName());
+        final boolean ipChanged = ip != null && !ip.equals(IPAddress.INVALID_ADDRESS) && !ip.equals(info.getIPAddress());
+
+        return nameChanged || ipChanged;
+    }
+
+    private void updateNode(INode node, int outgoing, int incoming) {
+
+        final NodeStatisticsComponent statistics = node.getComponent(NodeStatisticsComponent.class);
+        if (statistics != null) {
+            if (outgoing > 0) {
+                statistics.addOutgoingCount(outgoing);
+            }
+            if (incoming > 0) {
+                statistics.addIncomingCount(incoming);
+            }
+        }
+
+        final PacketDataLoggingComponent packetLogger = node.getComponent(PacketDataLoggingComponent.class);
+        if (packetLogger != null) {
+            logPackets(packetLogger);
+        }
+    }
+
+    private void updateConnection(IConnection connection, int packetCount) {
+
+        final EdgeStatisticsComponent statistics = connection.getComponent(EdgeStatisticsComponent.class);
+        if (statistics != null) {
+            statistics.setLastUpdateTimeProperty(System.currentTimeMillis());
+            statistics.incrementTraffic(packetCount);
+        }
+
+        final PacketDataLoggingComponent packetLogger = connection.getComponent(PacketDataLoggingComponent.class);
+        if (packetLogger != null) {
+            logPackets(packetLogger);
+        }
+
+        // the graph does not see this update, so the edge has to be animated here
+        final ViewComponent view = connection.getComponent(ViewComponent.class);
+        if (view != null) {
+            view.animateLater();
+        }
+    }
+
+    private void updateNodeInfo(INode node, String deviceName, IPAddress ip) {
+
+        final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+
+        if (deviceName != null) {
+            info.setDeviceName(deviceName);
+        }
+        if (ip != null && !ip.equals(IPAddress.INVALID_ADDRESS)) {
+            info.setIPAddress(ip);
         }
 
-        filter.check(sourceNode);
-        filter.check(destNode);
+        // written again to update the index of the node attributes, which the filters use to find their nodes
+        writingPort.writeNode(node);
 
-        writingPort.writeNode(sourceNode);
-        writingPort.writeNode(destNode);
-        writingPort.writeConnection(connection);
+        // the filters may match the new name or address
+        filter.check(node);
     }
 
 /*    *//** Returns an ImageIcon, or null if the path was invalid. *//*
@@ -2,9 +2,11 @@ package edu.kit.trufflehog.command.usercommand;
 
 import edu.kit.trufflehog.model.configdata.ConfigData;
 import edu.kit.trufflehog.model.filter.FilterInput;
+import edu.kit.trufflehog.model.filter.FilterType;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.filter.MacroFilter;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
 
 import java.util.Map;
 
@@ -23,6 +25,7 @@ public class RemoveFilterCommand implements IUserCommand<FilterInput> {
     private final INetworkIOPort nwp;
     private final MacroFilter macroFilter;
     private final Map<FilterInput, IFilter> filterMap;
+    private final PacketFilterStage packetFilterStage;
 
     /**
      * <p>
@@ -34,11 +37,28 @@ public class RemoveFilterCommand implements IUserCommand<FilterInput> {
      * @param filterMap
      */
     public RemoveFilterCommand(final ConfigData configData, final INetworkIOPort nwp, final MacroFilter macroFilter, Map<FilterInput, IFilter> filterMap) {
+        this(configData, nwp, macroFilter, filterMap, null);
+    }
+
+    /**
+     * <p>
+     *     Creates a new RemoveFilterCommand that also removes the filters of the type {@link FilterType#PACKET} from
+     *     the given stage.
+     * </p>
+     *  @param configData The config data that is used to access the database and remove the filter there.
+     * @param nwp The network port that is used to access the network.
+     * @param macroFilter The macro filter to add all sub filters to.
+     * @param filterMap
+     * @param packetFilterStage The stage of the receiver the packet filters are applied to, may be null.
+     */
+    public RemoveFilterCommand(final ConfigData configData, final INetworkIOPort nwp, final MacroFilter macroFilter,
+                               Map<FilterInput, IFilter> filterMap, final PacketFilterStage packetFilterStage) {
         this.configData = configData;
 
         this.nwp = nwp;
         this.macroFilter = macroFilter;
         this.filterMap = filterMap;
+        this.packetFilterStage = packetFilterStage;
     }
 
     @Override
@@ -56,6 +76,11 @@ public class RemoveFilterCommand implements IUserCommand<FilterInput> {
                 filterMap.remove(filterInput);
             }
 
+            // only filters of the type PACKET are applied as packet rules
+            if (packetFilterStage != null && filterInput.getType() == FilterType.PACKET) {
+                packetFilterStage.removeRule(filterInput.getName());
+            }
+
             configData.removeFilterInput(filterInput);
         }
     }
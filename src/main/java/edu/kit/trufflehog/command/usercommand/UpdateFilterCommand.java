@@ -3,11 +3,18 @@ package edu.kit.trufflehog.command.usercommand;
 import edu.kit.trufflehog.model.configdata.ConfigData;
 import edu.kit.trufflehog.model.filter.*;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterInput;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * <p>
@@ -24,10 +31,17 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
     private final MacroFilter macroFilter;
     private final INetworkIOPort nwp;
     private final ConfigData configData;
+    private final PacketFilterStage packetFilterStage;
     private FilterInput filterInput;
 
     private final Map<FilterInput, IFilter> filterMap;
 
+    // the type and the rules every applied filter was created from, a filter whose rules did not change is recolored
+    private final Map<IFilter, List<Object>> appliedRules = new WeakHashMap<>();
+
+    // the name of the packet rule every filter of the type PACKET was applied as, the type and the name may change
+    private final Map<FilterInput, String> packetRules = new WeakHashMap<>();
+
     /**
      * <p>
      *     Constructs the update filter command. This command always needs a network io port to apply the newly added
@@ -38,6 +52,22 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
      * @param macroFilter the macro filter to add all sub filters to.
      */
     public UpdateFilterCommand(final ConfigData configData, final INetworkIOPort nwp, final MacroFilter macroFilter, final Map<FilterInput, IFilter> filterMap)
+    {
+        this(configData, nwp, macroFilter, filterMap, null);
+    }
+
+    /**
+     * <p>
+     *     Constructs the update filter command that also applies the filters of the type {@link FilterType#PACKET} to
+     *     the given stage, instead of the nodes of the network.
+     * </p>
+     *
+     * @param nwp the network port that is used to access the network
+     * @param macroFilter the macro filter to add all sub filters to.
+     * @param packetFilterStage the stage of the receiver the packet filters are applied to, may be null
+     */
+    public UpdateFilterCommand(final ConfigData configData, final INetworkIOPort nwp, final MacroFilter macroFilter,
+                               final Map<FilterInput, IFilter> filterMap, final PacketFilterStage packetFilterStage)
     {
 
         if(macroFilter == null) throw new NullPointerException("macroFilter should not be null!");
@@ -49,6 +79,7 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
         this.macroFilter = macroFilter;
         this.configData = configData;
         this.nwp = nwp;
+        this.packetFilterStage = packetFilterStage;
         this.filterInput = null;
     }
 
@@ -57,15 +88,31 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
 
         if (filterInput != null) {
 
-            if (filterMap.get(filterInput) != null) {
-                macroFilter.removeFilter(filterMap.get(filterInput));
+            final IFilter existing = filterMap.get(filterInput);
+
+            // only the color or the priority changed, the nodes do not have to be checked again
+            if (existing instanceof AbstractFilter && filterInput.isActive() && !filterInput.isDeleted()
+                    && rulesOf(filterInput).equals(appliedRules.get(existing))) {
+                ((AbstractFilter) existing).recolor(filterInput.getColor(), filterInput.getPriority());
+                return;
+            }
+
+            if (existing != null) {
+                macroFilter.removeFilter(existing);
                 filterMap.remove(filterInput);
             }
 
+            removePacketRule();
+
             if (!filterInput.isActive() || filterInput.isDeleted()) {
                 return;
             }
 
+            if (filterInput.getType() == FilterType.PACKET) {
+                applyPacketFilter();
+                return;
+            }
+
             IFilter filter = null;
 
             try {
@@ -90,8 +137,54 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
 
             logger.debug("adding filter to filtermap, macrofilter, and apply the new filter");
             filterMap.put(filterInput, filter);
+            appliedRules.put(filter, rulesOf(filterInput));
             macroFilter.addFilter(filter);
-            nwp.applyFilter(filter);
+
+            if (filter instanceof NameRegexFilter) {
+                // the patterns have to be tested against every device name. PROFINET station names are unique per
+                // device, so checking every distinct name once saves nothing here. The names are matched in parallel
+                // instead, which does not keep the executor from adding the received packets in the meantime
+                nwp.applyFilters(Collections.singletonList(filter));
+            } else {
+                nwp.applyFilter(filter);
+            }
+        }
+    }
+
+    private static List<Object> rulesOf(final FilterInput filterInput) {
+        return Arrays.asList(filterInput.getType(), new ArrayList<>(filterInput.getRules()));
+    }
+
+    private void removePacketRule() {
+
+        if (packetFilterStage == null) {
+            return;
+        }
+
+        final String applied = packetRules.remove(filterInput);
+
+        if (applied != null) {
+            packetFilterStage.removeRule(applied);
+        }
+
+        // the rules of the other filter types have no packet rule, one with the same name is not theirs
+        if (filterInput.getType() == FilterType.PACKET) {
+            packetFilterStage.removeRule(filterInput.getName());
+        }
+    }
+
+    private void applyPacketFilter() {
+
+        if (packetFilterStage == null) {
+            logger.warn("There is no packet filter stage, " + filterInput.getName() + " is not applied");
+            return;
+        }
+
+        try {
+            packetFilterStage.addInput(PacketFilterInput.of(filterInput));
+            packetRules.put(filterInput, filterInput.getName());
+        } catch (InvalidFilterRule invalidFilterRule) {
+            logger.warn(invalidFilterRule);
         }
     }
 
@@ -0,0 +1,156 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package edu.kit.trufflehog.model.filter;
+
+import com.google.common.collect.MapMaker;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * <p>
+ *     Base class of the filters that color the nodes they match. It remembers the nodes it colored, so that
+ *     {@link #clear()} only has to look at them instead of at every node of the network.
+ * </p>
+ * <p>
+ *     The nodes are held weakly, a node that was removed from the network is forgotten once it is no longer used.
+ * </p>
+ * <p>
+ *     The color and the priority can be changed with {@link #recolor} without checking the nodes again, because they
+ *     do not change which nodes the filter matches.
+ * </p>
+ *
+ * @version 1.0
+ */
+public abstract class AbstractFilter implements IFilter {
+
+    // compared by identity, a node that is merged into another one is not the same node
+    private final Set<INode> matchedNodes = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+    private volatile Color filterColor;
+    private volatile int priority = 0;
+
+    // a cleared filter is not used anymore, colors that an application running in parallel adds late are ignored
+    private volatile boolean cleared = false;
+
+    /**
+     * <p>
+     *     Sets the color and the priority of this filter. Called by the constructors of the filters.
+     * </p>
+     *
+     * @param filterColor The color of the nodes that match this filter.
+     * @param priority The priority of this filter.
+     */
+    protected void setAppearance(final Color filterColor, final int priority) {
+        this.filterColor = filterColor;
+        this.priority = priority;
+    }
+
+    /**
+     * <p>
+     *     Changes the color and the priority of this filter and recolors the nodes it colored. The nodes are not
+     *     checked again.
+     * </p>
+     *
+     * @param filterColor The new color of the nodes that match this filter.
+     * @param priority The new priority of this filter.
+     */
+    public void recolor(final Color filterColor, final int priority) {
+
+        setAppearance(filterColor, priority);
+        FilterPalette.getInstance().update(this);
+
+        if (!matchedNodes.isEmpty()) {
+            FilterPropertiesComponent.recolor(new ArrayList<>(matchedNodes));
+        }
+    }
+
+    @Override
+    public Color getFilterColor() {
+        return filterColor;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public int compareTo(final IFilter other) {
+        return priority - other.getPriority();
+    }
+
+    /**
+     * <p>
+     *     Adds the color of this filter to the node and remembers the node. Called when the node matches the filter.
+     * </p>
+     *
+     * @param node The node that matches the filter.
+     */
+    protected void addFilterColor(final INode node) {
+
+        final FilterPropertiesComponent properties = node.getComponent(FilterPropertiesComponent.class);
+
+        if (properties != null && !cleared) {
+            matchedNodes.add(node);
+            properties.addFilterColor(this, getFilterColor());
+
+            // cleared in the meantime, the clearing may have missed this node
+            if (cleared) {
+                matchedNodes.remove(node);
+                properties.removeFilterColor(this);
+                FilterPalette.getInstance().release(this);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the color of this filter from all nodes it colored and releases its id in the
+     *     {@link FilterPalette}.
+     * </p>
+     */
+    @Override
+    public void clear() {
+
+        cleared = true;
+
+        final Iterator<INode> nodes = matchedNodes.iterator();
+
+        while (nodes.hasNext()) {
+            final INode node = nodes.next();
+            nodes.remove();
+            node.getComponent(FilterPropertiesComponent.class).removeFilterColor(this);
+        }
+
+        // no node is colored by this filter anymore, its id can be given to another filter
+        FilterPalette.getInstance().release(this);
+    }
+
+    /**
+     * @return an unmodifiable view of the nodes this filter colored and did not clear yet
+     */
+    Set<INode> getMatchedNodes() {
+        return Collections.unmodifiableSet(matchedNodes);
+    }
+}
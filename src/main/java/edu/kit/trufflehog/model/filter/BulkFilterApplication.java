@@ -0,0 +1,145 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package edu.kit.trufflehog.model.filter;
+
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ *     Applies a set of filters to many nodes at once, for example a name filter whose patterns have to be tested
+ *     against every node of a large network. The filters are compiled into a {@link CompiledFilterSet} and the nodes are split into fork/join tasks
+ *     that find the matching filters of their nodes in parallel, without changing the nodes and without any lock of
+ *     the network. The colors of all matching nodes are then added in one update on the FX application thread, so
+ *     the view changes once instead of node by node.
+ * </p>
+ * <p>
+ *     Filters that can not be compiled are checked by the tasks themselves, see
+ *     {@link CompiledFilterSet#checkUncompiled}. A filter that is cleared before the colors are added ignores them,
+ *     see {@link AbstractFilter#clear()}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class BulkFilterApplication {
+
+    // small enough to keep all workers busy, large enough that a task costs little compared to its nodes
+    static final int NODES_PER_TASK = 256;
+
+    private final INode[] nodes;
+    private final CompiledFilterSet filters;
+    private final long[] matches;
+
+    private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+    private BulkFilterApplication(final INode[] nodes, final CompiledFilterSet filters) {
+        this.nodes = nodes;
+        this.filters = filters;
+        this.matches = new long[nodes.length];
+    }
+
+    /**
+     * <p>
+     *     Starts to apply the given filters to the given nodes. The nodes are copied first, nodes that are added to
+     *     the collection afterwards are not filtered by this application.
+     * </p>
+     *
+     * @param nodes The nodes to filter, a weakly consistent view of the network is enough.
+     * @param filters The filters to apply.
+     * @param pool The pool to find the matching filters on.
+     * @return The number of nodes that were colored, completes after the colors were added.
+     */
+    public static CompletableFuture<Integer> start(final Collection<? extends INode> nodes,
+                                                   final Collection<? extends IFilter> filters,
+                                                   final ForkJoinPool pool) {
+
+        if (nodes == null) throw new NullPointerException("nodes must not be null!");
+        if (filters == null) throw new NullPointerException("filters must not be null!");
+        if (pool == null) throw new NullPointerException("pool must not be null!");
+
+        final BulkFilterApplication application = new BulkFilterApplication(nodes.toArray(new INode[0]),
+                CompiledFilterSet.compile(filters.toArray(new IFilter[filters.size()])));
+
+        pool.execute(() -> {
+            try {
+                application.new Evaluation(0, application.nodes.length).invoke();
+                application.publish();
+            } catch (RuntimeException e) {
+                application.result.completeExceptionally(e);
+            }
+        });
+
+        return application.result;
+    }
+
+    private void publish() {
+
+        // all colors are added with one update, so that the view does not redraw for every single node
+        FxUpdatePump.getInstance().submit(() -> {
+
+            int colored = 0;
+
+            for (int i = 0; i < nodes.length; i++) {
+                if (matches[i] != 0) {
+                    filters.apply(nodes[i], matches[i]);
+                    colored++;
+                }
+            }
+
+            result.complete(colored);
+        });
+    }
+
+    /**
+     * <p>
+     *     Finds the matching filters of a range of nodes, splits the range while it is larger than
+     *     {@link #NODES_PER_TASK}.
+     * </p>
+     */
+    private final class Evaluation extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+        private Evaluation(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from > NODES_PER_TASK) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Evaluation(from, middle), new Evaluation(middle, to));
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                // every task writes its own slots, the join before the colors are added makes them visible
+                matches[i] = filters.match(nodes[i]);
+                filters.checkUncompiled(nodes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package edu.kit.trufflehog.model.filter;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * <p>
+ *     The filters of a {@link MacroFilter} compiled into one decision structure, so that a node is checked against
+ *     all of them in one pass. Every compiled filter gets a bit, the filter with the highest priority the lowest bit,
+ *     and the rules of all filters are merged:
+ * </p>
+ * <ul>
+ *     <li>the mac addresses into one hash table that maps an address to the bits of the filters that contain it</li>
+ *     <li>the ip ranges into a sorted array of disjoint intervals with the bits of the filters that contain them,
+ *     the interval of an address is found by binary search</li>
+ *     <li>the name patterns into one pattern per filter and one pattern of all of them, which rejects a name that no
+ *     filter matches with a single match</li>
+ * </ul>
+ * <p>
+ *     Up to {@value #MAX_COMPILED} filters are compiled, further filters and filters of other types are checked one
+ *     after the other as before. A compiled set is immutable and can be used from any thread.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class CompiledFilterSet {
+
+    static final int MAX_COMPILED = Long.SIZE;
+
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\[1-9]");
+
+    private static final Comparator<IFilter> BY_PRIORITY = (a, b) -> Integer.compare(b.getPriority(), a.getPriority());
+
+    // the filters this set was compiled from, so that the macro filter can tell whether it is up to date
+    private final IFilter[] source;
+
+    private final AbstractFilter[] compiled;
+    private final IFilter[] uncompiled;
+
+    // open addressing, a slot is free if its mask is 0 as every address belongs to at least one filter
+    private final long[] macKeys;
+    private final long[] macMasks;
+
+    private final long[] ipStarts;
+    private final long[] ipMasks;
+
+    // null if the patterns can not be combined, every filter is then checked on its own
+    private final Pattern anyName;
+    private final Pattern[][] namePatterns;
+    private final long nameFilters;
+
+    private CompiledFilterSet(final IFilter[] source) {
+
+        this.source = source;
+
+        final IFilter[] sorted = source.clone();
+        Arrays.sort(sorted, BY_PRIORITY);
+
+        final List<AbstractFilter> compiledList = new ArrayList<>();
+        final List<IFilter> uncompiledList = new ArrayList<>();
+
+        for (final IFilter filter : sorted) {
+            if (compiledList.size() < MAX_COMPILED && isCompilable(filter)) {
+                compiledList.add((AbstractFilter) filter);
+            } else {
+                uncompiledList.add(filter);
+            }
+        }
+
+        compiled = compiledList.toArray(new AbstractFilter[compiledList.size()]);
+        uncompiled = uncompiledList.toArray(new IFilter[uncompiledList.size()]);
+
+        int macCount = 0;
+
+        for (final IFilter filter : compiled) {
+            if (filter instanceof MACAddressFilter) {
+                macCount += ((MACAddressFilter) filter).getAddresses().size();
+            }
+        }
+
+        macKeys = new long[tableSize(macCount)];
+        macMasks = new long[macKeys.length];
+
+        final TreeSet<Long> boundaries = new TreeSet<>();
+
+        for (int i = 0; i < compiled.length; i++) {
+            if (compiled[i] instanceof MACAddressFilter) {
+                for (final MacAddress address : ((MACAddressFilter) compiled[i]).getAddresses()) {
+                    putMac(address.toLong(), 1L << i);
+                }
+            } else if (compiled[i] instanceof IPAddressFilter) {
+                for (final Range<IPAddress> range : ((IPAddressFilter) compiled[i]).getAddresses().asRanges()) {
+                    boundaries.add(lowerEndpoint(range));
+                    boundaries.add(upperEndpoint(range) + 1);
+                }
+            }
+        }
+
+        ipStarts = new long[boundaries.size()];
+        ipMasks = new long[boundaries.size()];
+
+        int index = 0;
+        for (final long boundary : boundaries) {
+            ipStarts[index++] = boundary;
+        }
+
+        for (int i = 0; i < compiled.length; i++) {
+            if (compiled[i] instanceof IPAddressFilter) {
+                for (final Range<IPAddress> range : ((IPAddressFilter) compiled[i]).getAddresses().asRanges()) {
+
+                    final long end = upperEndpoint(range) + 1;
+
+                    for (int k = Arrays.binarySearch(ipStarts, lowerEndpoint(range)); ipStarts[k] < end; k++) {
+                        ipMasks[k] |= 1L << i;
+                    }
+                }
+            }
+        }
+
+        namePatterns = new Pattern[compiled.length][];
+        final List<String> alternatives = new ArrayList<>();
+        boolean combinable = true;
+        long names = 0;
+
+        for (int i = 0; i < compiled.length; i++) {
+            if (compiled[i] instanceof NameRegexFilter) {
+
+                final Collection<Pattern> patterns = ((NameRegexFilter) compiled[i]).getPatterns();
+                final Pattern alternation = alternation(patterns);
+
+                if (alternation != null) {
+                    namePatterns[i] = new Pattern[] { alternation };
+                    alternatives.add(alternation.pattern());
+                } else {
+                    namePatterns[i] = patterns.toArray(new Pattern[patterns.size()]);
+                    combinable = false;
+                }
+
+                names |= 1L << i;
+            }
+        }
+
+        nameFilters = names;
+        anyName = names == 0 || !combinable ? null : alternation(alternatives);
+    }
+
+    /**
+     * <p>
+     *     Compiles the given filters. This takes time for many rules, so it should not be done on the thread that
+     *     checks the nodes.
+     * </p>
+     *
+     * @param filters The filters to compile, the set keeps the array as it is.
+     * @return The compiled set.
+     */
+    public static CompiledFilterSet compile(final IFilter[] filters) {
+
+        if (filters == null) throw new NullPointerException("filters must not be null!");
+
+        return new CompiledFilterSet(filters);
+    }
+
+    /**
+     * @param filters The filters the caller is interested in.
+     * @return true if this set was compiled from exactly the given array
+     */
+    public boolean isCompiledFrom(final IFilter[] filters) {
+        return source == filters;
+    }
+
+    /**
+     * <p>
+     *     Finds the compiled filters the given node data matches.
+     * </p>
+     *
+     * @param mac The mac address of the node, may be null.
+     * @param ip The ip address of the node, may be null.
+     * @param name The device name of the node, may be null.
+     * @return The bits of the matching filters, see {@link #getFilter(int)}.
+     */
+    public long match(final MacAddress mac, final IPAddress ip, final String name) {
+
+        long mask = 0;
+
+        if (mac != null) {
+            mask |= matchMac(mac.toLong());
+        }
+
+        if (ip != null) {
+            mask |= matchIp(ip.toLong());
+        }
+
+        if (name != null && nameFilters != 0 && (anyName == null || anyName.matcher(name).matches())) {
+            for (long names = nameFilters; names != 0; names &= names - 1) {
+                final int i = Long.numberOfTrailingZeros(names);
+                if (matchesAny(namePatterns[i], name)) {
+                    mask |= 1L << i;
+                }
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * <p>
+     *     Checks the node against all filters of this set and adds the colors of the matching filters to the node,
+     *     the filter with the highest priority first.
+     * </p>
+     *
+     * @param node The node to check.
+     */
+    public void check(final INode node) {
+        apply(node, match(node));
+        checkUncompiled(node);
+    }
+
+    /**
+     * <p>
+     *     Finds the compiled filters the node matches without changing the node, see {@link #apply}.
+     * </p>
+     *
+     * @param node The node to check.
+     * @return The bits of the matching filters.
+     */
+    public long match(final INode node) {
+
+        if (compiled.length == 0) {
+            return 0;
+        }
+
+        final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+
+        return info == null ? 0 : match(info.getMacAddress(), info.getIPAddress(), info.getDeviceName());
+    }
+
+    /**
+     * <p>
+     *     Adds the colors of the given compiled filters to the node, the filter with the highest priority first.
+     * </p>
+     *
+     * @param node The node to color.
+     * @param mask The bits of the compiled filters the node matches, as returned by {@link #match(INode)}.
+     */
+    public void apply(final INode node, long mask) {
+
+        for (; mask != 0; mask &= mask - 1) {
+            compiled[Long.numberOfTrailingZeros(mask)].addFilterColor(node);
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks the node against the filters of this set that are not compiled, one after the other.
+     * </p>
+     *
+     * @param node The node to check.
+     */
+    public void checkUncompiled(final INode node) {
+        for (final IFilter filter : uncompiled) {
+            filter.check(node);
+        }
+    }
+
+    /**
+     * @param bit The bit of the filter in a match result.
+     * @return the compiled filter with the given bit
+     */
+    public IFilter getFilter(final int bit) {
+        return compiled[bit];
+    }
+
+    private long matchMac(final long address) {
+
+        final int mask = macKeys.length - 1;
+
+        for (int slot = hash(address) & mask; macMasks[slot] != 0; slot = (slot + 1) & mask) {
+            if (macKeys[slot] == address) {
+                return macMasks[slot];
+            }
+        }
+
+        return 0;
+    }
+
+    private long matchIp(final long address) {
+
+        int low = 0;
+        int high = ipStarts.length - 1;
+
+        // the last interval that starts at or before the address
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (ipStarts[mid] <= address) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return high < 0 ? 0 : ipMasks[high];
+    }
+
+    private void putMac(final long address, final long bit) {
+
+        final int mask = macKeys.length - 1;
+        int slot = hash(address) & mask;
+
+        while (macMasks[slot] != 0 && macKeys[slot] != address) {
+            slot = (slot + 1) & mask;
+        }
+
+        macKeys[slot] = address;
+        macMasks[slot] |= bit;
+    }
+
+    private static boolean isCompilable(final IFilter filter) {
+        return filter instanceof MACAddressFilter || filter instanceof IPAddressFilter
+                || filter instanceof NameRegexFilter;
+    }
+
+    private static int tableSize(final int count) {
+        // at most half full, so that a miss ends after a few slots
+        return Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1;
+    }
+
+    private static int hash(final long address) {
+        final long h = address * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long lowerEndpoint(final Range<IPAddress> range) {
+        final long lower = range.lowerEndpoint().toLong();
+        return range.lowerBoundType() == BoundType.CLOSED ? lower : lower + 1;
+    }
+
+    private static long upperEndpoint(final Range<IPAddress> range) {
+        final long upper = range.upperEndpoint().toLong();
+        return range.upperBoundType() == BoundType.CLOSED ? upper : upper - 1;
+    }
+
+    private static boolean matchesAny(final Pattern[] patterns, final String name) {
+
+        for (final Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Pattern alternation(final Collection<?> patterns) {
+
+        if (patterns.isEmpty()) {
+            // a filter without patterns matches no name
+            return Pattern.compile("(?!)");
+        }
+
+        final StringBuilder builder = new StringBuilder();
+
+        for (final Object pattern : patterns) {
+            if (builder.length() > 0) {
+                builder.append('|');
+            }
+            builder.append("(?:").append(pattern).append(')');
+        }
+
+        final String alternation = builder.toString();
+
+        // the groups are numbered across all alternatives, so back references would point to the wrong group
+        if (alternation.contains("\\k<") || BACK_REFERENCE.matcher(alternation).find()) {
+            return null;
+        }
+
+        try {
+            return Pattern.compile(alternation);
+        } catch (PatternSyntaxException e) {
+            // for example two patterns that use the same group name
+            return null;
+        }
+    }
+}
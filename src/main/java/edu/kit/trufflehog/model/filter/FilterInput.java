@@ -452,6 +452,8 @@ public class FilterInput implements Serializable {
                 filterType = FilterType.IP;
             } else if (newValue.equals(FilterType.MAC.name())) {
                 filterType = FilterType.MAC;
+            } else if (newValue.equals(FilterType.PACKET.name())) {
+                filterType = FilterType.PACKET;
             } else {
                 filterType = FilterType.NAME;
             }
@@ -0,0 +1,261 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package edu.kit.trufflehog.model.filter;
+
+import javafx.scene.paint.Color;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ *     Gives every filter that colors nodes a small id, so that a node can store the filters that matched it as the
+ *     bits of a long, see {@link edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent}.
+ *     The palette knows the color and the priority of every id and resolves a set of ids to the color of the filter
+ *     with the highest priority.
+ * </p>
+ * <p>
+ *     The colors and priorities are kept in arrays that are replaced as a whole on every change, so that a color
+ *     is resolved without a lock. At most {@link #CAPACITY} filters can be registered at the same time, an id is
+ *     released again when the filter is cleared. The nodes keep the filters that get no id in a separate set.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class FilterPalette {
+
+    /**
+     * The number of filters that can color nodes at the same time, one for every bit of a long.
+     */
+    public static final int CAPACITY = Long.SIZE;
+
+    private static final FilterPalette instance = new FilterPalette();
+
+    private final Logger logger = LogManager.getLogger();
+
+    private final Map<IFilter, Integer> ids = new ConcurrentHashMap<>();
+
+    // all three are replaced together by the synchronized methods, the snapshot is read without a lock
+    private volatile Entries entries = new Entries(new IFilter[CAPACITY], new Color[CAPACITY], new int[CAPACITY]);
+
+    // the released ids are only used again when all others were used, so that recordings keep their colors longer
+    private long freeIds = -1L;
+    private int nextId = 0;
+
+    FilterPalette() {
+    }
+
+    /**
+     * @return The palette that is used by all nodes.
+     */
+    public static FilterPalette getInstance() {
+        return instance;
+    }
+
+    /**
+     * <p>
+     *     Gets the id of the filter and registers it with the given color and its priority if it has no id yet.
+     * </p>
+     *
+     * @param filter The filter to get the id of.
+     * @param color The color the filter colors its nodes with.
+     * @return The id of the filter, or -1 if {@link #CAPACITY} filters are registered already.
+     */
+    public int register(final IFilter filter, final Color color) {
+
+        final Integer id = ids.get(filter);
+
+        if (id != null) {
+            return id;
+        }
+
+        return registerNew(filter, color);
+    }
+
+    /**
+     * @param filter The filter to look up.
+     * @return The id of the filter, or -1 if it is not registered.
+     */
+    public int idOf(final IFilter filter) {
+
+        final Integer id = ids.get(filter);
+
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * <p>
+     *     Reads the color and the priority of a registered filter again, for example after its priority changed. The
+     *     nodes show the new color after they were recolored, see
+     *     {@link edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent#recolor}.
+     * </p>
+     *
+     * @param filter The filter that changed.
+     * @return true if the filter is registered, false otherwise
+     */
+    public synchronized boolean update(final IFilter filter) {
+
+        final Integer id = ids.get(filter);
+
+        if (id == null) {
+            return false;
+        }
+
+        entries = entries.with(id, filter, filter.getFilterColor(), filter.getPriority());
+
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Releases the id of the filter, so that it can be given to another filter. The filter has to be removed
+     *     from all nodes before.
+     * </p>
+     *
+     * @param filter The filter to release.
+     */
+    public synchronized void release(final IFilter filter) {
+
+        final Integer id = ids.remove(filter);
+
+        if (id != null) {
+            entries = entries.with(id, null, null, 0);
+            freeIds |= 1L << id;
+        }
+    }
+
+    /**
+     * <p>
+     *     Finds the color of the filter with the highest priority among the given ids. Most nodes are matched by a
+     *     single filter, whose color is then looked up directly.
+     * </p>
+     *
+     * @param mask The ids of the filters, one bit for every id.
+     * @return The color of the filter with the highest priority, null if the mask is empty.
+     */
+    public Color resolve(final long mask) {
+
+        final int best = resolveId(mask);
+
+        return best < 0 ? null : getColor(best);
+    }
+
+    /**
+     * @param mask The ids of the filters, one bit for every id.
+     * @return The id of the filter with the highest priority, -1 if the mask is empty.
+     */
+    public int resolveId(final long mask) {
+
+        if (mask == 0) {
+            return -1;
+        }
+
+        final Entries current = entries;
+
+        int best = Long.numberOfTrailingZeros(mask);
+
+        for (long rest = mask & (mask - 1); rest != 0; rest &= rest - 1) {
+
+            final int id = Long.numberOfTrailingZeros(rest);
+
+            if (current.priorities[id] > current.priorities[best]) {
+                best = id;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @param id The id of the filter.
+     * @return The filter with the id, null if no filter has the id.
+     */
+    public IFilter getFilter(final int id) {
+        return entries.filters[id];
+    }
+
+    /**
+     * @param id The id of the filter.
+     * @return The color of the filter with the id, null if no filter has the id.
+     */
+    public Color getColor(final int id) {
+        return entries.colors[id];
+    }
+
+    /**
+     * @param id The id of the filter.
+     * @return The priority of the filter with the id, 0 if no filter has the id.
+     */
+    public int getPriority(final int id) {
+        return entries.priorities[id];
+    }
+
+    private synchronized int registerNew(final IFilter filter, final Color color) {
+
+        final Integer registered = ids.get(filter);
+
+        if (registered != null) {
+            return registered;
+        }
+
+        final int id;
+
+        if (nextId < CAPACITY) {
+            id = nextId++;
+        } else if (freeIds != 0) {
+            id = Long.numberOfTrailingZeros(freeIds);
+        } else {
+            logger.debug("more than " + CAPACITY + " filters color nodes, " + filter.getName() + " gets no id");
+            return -1;
+        }
+
+        freeIds &= ~(1L << id);
+        entries = entries.with(id, filter, color, filter.getPriority());
+        ids.put(filter, id);
+
+        return id;
+    }
+
+    private static final class Entries {
+
+        private final IFilter[] filters;
+        private final Color[] colors;
+        private final int[] priorities;
+
+        private Entries(final IFilter[] filters, final Color[] colors, final int[] priorities) {
+            this.filters = filters;
+            this.colors = colors;
+            this.priorities = priorities;
+        }
+
+        private Entries with(final int id, final IFilter filter, final Color color, final int priority) {
+
+            final Entries changed = new Entries(Arrays.copyOf(filters, CAPACITY), Arrays.copyOf(colors, CAPACITY),
+                    Arrays.copyOf(priorities, CAPACITY));
+
+            changed.filters[id] = filter;
+            changed.colors[id] = color;
+            changed.priorities[id] = priority;
+
+            return changed;
+        }
+    }
+}
@@ -20,12 +20,14 @@ package edu.kit.trufflehog.model.filter;
 /**
  * <p>
  *     The FilterType enum defines the criteria on which a filter can be based on. For example, IP means the filter
- *     filters by the IP address.
+ *     filters by the IP address. A PACKET filter does not color nodes but decides which received packets are added
+ *     to the network at all, see
+ *     {@link edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage}.
  * </p>
  *
  * @author Julian Brendl
  * @version 1.0
  */
 public enum FilterType {
-    IP,MAC,NAME
+    IP,MAC,NAME,PACKET
 }
@@ -17,10 +17,13 @@
 
 package edu.kit.trufflehog.model.filter;
 
+import edu.kit.trufflehog.model.network.NodeAttributeIndex;
 import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeRenderer;
 import javafx.scene.paint.Color;
 
+import java.util.function.Consumer;
+
 /**
  * <p>
  *     The IFilter interface defines the basic functionality of a filter. A filter is something that checks whether an
@@ -82,6 +85,19 @@ public interface IFilter extends Comparable<IFilter> {
      */
     String getName();
 
+    /**
+     * <p>
+     *     Finds the nodes this filter may match. The nodes that are not found are known not to match, so only the
+     *     found nodes have to be checked when the filter is applied to the network. By default every node is found.
+     * </p>
+     *
+     * @param index The index of the nodes of the network.
+     * @param action The action to call with the nodes this filter may match.
+     */
+    default void forEachCandidate(final NodeAttributeIndex index, final Consumer<? super INode> action) {
+        index.forEachNode(action);
+    }
+
     class EmptyFilter implements IFilter {
 
         @Override
@@ -94,6 +110,11 @@ public interface IFilter extends Comparable<IFilter> {
             return Integer.MIN_VALUE;
         }
 
+        @Override
+        public void forEachCandidate(NodeAttributeIndex index, Consumer<? super INode> action) {
+            //nothing
+        }
+
         @Override
         public void clear() {
             //nothing
@@ -17,18 +17,20 @@
 
 package edu.kit.trufflehog.model.filter;
 
+import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
 import com.google.common.collect.TreeRangeSet;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
 import edu.kit.trufflehog.model.network.IPAddress;
 import edu.kit.trufflehog.model.network.InvalidIPAddress;
+import edu.kit.trufflehog.model.network.NodeAttributeIndex;
 import edu.kit.trufflehog.model.network.graph.INode;
-import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
-import javafx.scene.paint.Color;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -38,13 +40,10 @@ import java.util.List;
  * @author Mark Giraud
  * @version 1.0
  */
-public class IPAddressFilter implements IFilter {
+public class IPAddressFilter extends AbstractFilter {
 
     final RangeSet<IPAddress> addresses = TreeRangeSet.create();
-    private final INetworkIOPort networkIOPort;
-    private final Color filterColor;
     private final String name;
-    private int priority = 0;
 
     public IPAddressFilter(INetworkIOPort networkIOPort, final FilterInput filterInput) throws InvalidFilterRule {
         if (networkIOPort == null)
@@ -56,9 +55,7 @@ public class IPAddressFilter implements IFilter {
         if (filterInput.getType() != FilterType.IP)
             throw new InvalidFilterRule("The filter input contains invalid filter rules. This filter can only handle ip rules");
 
-        this.networkIOPort = networkIOPort;
-        filterColor = filterInput.getColor();
-        priority = filterInput.getPriority();
+        setAppearance(filterInput.getColor(), filterInput.getPriority());
         name = filterInput.getName();
 
         final List<String> rules = filterInput.getRules();
@@ -113,6 +110,13 @@ public class IPAddressFilter implements IFilter {
         return ip;
     }
 
+    /**
+     * @return a copy of the address ranges this filter matches, used by the {@link CompiledFilterSet}
+     */
+    RangeSet<IPAddress> getAddresses() {
+        return ImmutableRangeSet.copyOf(addresses);
+    }
+
     @Override
     public void check(final INode node) {
         if (node == null)
@@ -121,34 +125,19 @@ public class IPAddressFilter implements IFilter {
         final IPAddress address = node.getComponent(NodeInfoComponent.class).getIPAddress();
 
         if (address != null && addresses.contains(address)) {
-            node.getComponent(FilterPropertiesComponent.class).addFilterColor(this, filterColor);
+            addFilterColor(node);
         }
     }
 
     @Override
-    public int getPriority() {
-        return priority;
-    }
-
-    @Override
-    public void clear() {
-        networkIOPort.getNetworkNodes().stream().forEach(node -> {
-            node.getComponent(FilterPropertiesComponent.class).removeFilterColor(this);
-        });
-    }
-
-    @Override
-    public Color getFilterColor() {
-        return filterColor;
+    public void forEachCandidate(final NodeAttributeIndex index, final Consumer<? super INode> action) {
+        addresses.asRanges().forEach(range -> index.forEachWithIPAddressBetween(
+                range.lowerEndpoint().toLong() + (range.lowerBoundType() == BoundType.CLOSED ? 0 : 1),
+                range.upperEndpoint().toLong() - (range.upperBoundType() == BoundType.CLOSED ? 0 : 1), action));
     }
 
     @Override
     public String getName() {
         return name;
     }
-
-    @Override
-    public int compareTo(IFilter o) {
-        return priority - o.getPriority();
-    }
 }
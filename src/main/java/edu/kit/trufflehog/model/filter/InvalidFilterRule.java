@@ -13,5 +13,6 @@ public class InvalidFilterRule extends Exception {
     }
 
     public InvalidFilterRule(String s) {
+        super(s);
     }
 }
@@ -3,15 +3,16 @@ package edu.kit.trufflehog.model.filter;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
 import edu.kit.trufflehog.model.network.InvalidMACAddress;
 import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NodeAttributeIndex;
 import edu.kit.trufflehog.model.network.graph.INode;
-import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
-import javafx.scene.paint.Color;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -20,18 +21,15 @@ import java.util.Set;
  * @author Mark Giraud
  * @version 1.0
  */
-public class MACAddressFilter implements IFilter {
+public class MACAddressFilter extends AbstractFilter {
 
     private final Set<MacAddress> addresses = new HashSet<>();
-    private final INetworkIOPort networkIOPort;
-    private final Color filterColor;
     private final String name;
-    private int priority = 0;
 
     /**
      * //TODO document
      *
-     * @param networkIOPort the network IO port. This is needed to enable this filter to revert the chaanges it made to the nodes.
+     * @param networkIOPort the network IO port of the network this filter is applied to.
      * @param filterInput the filter input to input to this filter.
      * @throws InvalidFilterRule this exception is thrown if the filterInput contains invalid rules
      */
@@ -46,9 +44,7 @@ public class MACAddressFilter implements IFilter {
         if (filterInput.getType() != FilterType.MAC)
             throw new InvalidFilterRule("The filter input contains invalid filter rules. This filter can only handle mac rules");
 
-        this.networkIOPort = networkIOPort;
-        filterColor = filterInput.getColor();
-        priority = filterInput.getPriority();
+        setAppearance(filterInput.getColor(), filterInput.getPriority());
         name = filterInput.getName();
 
         final List<String> rules = filterInput.getRules();
@@ -57,7 +53,6 @@ public class MACAddressFilter implements IFilter {
             throw new NullPointerException("the rules list in filterInput must not be null!");
         }
 
-
         final List<MacAddress> macAddresses = new LinkedList<>();
 
         for (String rule : rules) {
@@ -86,18 +81,11 @@ public class MACAddressFilter implements IFilter {
 
     }
 
-    @Override
-    public void clear() {
-
-        //TODO maybe optimize so that we only iterate over changed nodes?
-        networkIOPort.getNetworkNodes().stream().forEach(node -> {
-            node.getComponent(FilterPropertiesComponent.class).removeFilterColor(this);
-        });
-    }
-
-    @Override
-    public Color getFilterColor() {
-        return filterColor;
+    /**
+     * @return an unmodifiable view of the addresses this filter matches, used by the {@link CompiledFilterSet}
+     */
+    Set<MacAddress> getAddresses() {
+        return Collections.unmodifiableSet(addresses);
     }
 
     @Override
@@ -114,17 +102,12 @@ public class MACAddressFilter implements IFilter {
         final MacAddress address = node.getComponent(NodeInfoComponent.class).getMacAddress();
 
         if (addresses.contains(address)) {
-            node.getComponent(FilterPropertiesComponent.class).addFilterColor(this, filterColor);
+            addFilterColor(node);
         }
     }
 
     @Override
-    public int getPriority() {
-        return priority;
-    }
-
-    @Override
-    public int compareTo(IFilter other) {
-        return priority - other.getPriority();
+    public void forEachCandidate(final NodeAttributeIndex index, final Consumer<? super INode> action) {
+        addresses.forEach(address -> index.forEachWithMacAddress(address, action));
     }
 }
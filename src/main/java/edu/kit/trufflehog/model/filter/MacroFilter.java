@@ -21,8 +21,9 @@ import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeRenderer;
 import javafx.scene.paint.Color;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * <p>
@@ -35,12 +36,54 @@ import java.util.Set;
  *     where information about how the node should be displayed is kept. The view then renders the node according to its
  *     NodeRenderer.
  * </p>
+ * <p>
+ *     The filters are compiled into a {@link CompiledFilterSet}, which checks a node against all of them in one pass.
+ *     Whenever a filter is added or removed the filters are compiled again on a background thread. Until that is
+ *     done the nodes are checked against every filter on its own, so no node is missed in the meantime.
+ * </p>
  *
  * @author Mark Giraud, Julian Brendl
  * @version 1.0
  */
 public class MacroFilter implements IFilter {
-    private final Set<IFilter> filters = new HashSet<>();
+
+    private static final IFilter[] NO_FILTERS = new IFilter[0];
+
+    // the thread is only started when the first filter is added
+    private static final Executor defaultCompiler = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "filter-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor compiler;
+
+    // both are replaced as a whole, the set is up to date if it was compiled from the current array
+    private volatile IFilter[] filters = NO_FILTERS;
+    private volatile CompiledFilterSet compiled = CompiledFilterSet.compile(NO_FILTERS);
+
+    /**
+     * <p>
+     *     Creates an empty MacroFilter that compiles its filters on a shared background thread.
+     * </p>
+     */
+    public MacroFilter() {
+        this(defaultCompiler);
+    }
+
+    /**
+     * <p>
+     *     Creates an empty MacroFilter.
+     * </p>
+     *
+     * @param compiler The executor to compile the filters on, should be single threaded so that the sets are
+     *                 published in the order they were compiled.
+     */
+    public MacroFilter(final Executor compiler) {
+        if (compiler == null) { throw new NullPointerException("compiler must not be null!"); }
+
+        this.compiler = compiler;
+    }
 
     /**
      * <p>
@@ -52,7 +95,17 @@ public class MacroFilter implements IFilter {
     public void addFilter(final IFilter filter) {
         if (filter == null) { throw new NullPointerException("filter must not be null!"); }
 
-        filters.add(filter);
+        synchronized (this) {
+            if (indexOf(filters, filter) >= 0) {
+                return;
+            }
+
+            final IFilter[] added = Arrays.copyOf(filters, filters.length + 1);
+            added[filters.length] = filter;
+            filters = added;
+        }
+
+        recompile();
     }
 
     /**
@@ -65,15 +118,43 @@ public class MacroFilter implements IFilter {
     public void removeFilter(final IFilter filter) {
         if (filter == null) { throw new NullPointerException("filter must not be null!"); }
 
+        synchronized (this) {
+            final int index = indexOf(filters, filter);
+
+            if (index >= 0) {
+                final IFilter[] removed = new IFilter[filters.length - 1];
+                System.arraycopy(filters, 0, removed, 0, index);
+                System.arraycopy(filters, index + 1, removed, index, removed.length - index);
+                filters = removed;
+            }
+        }
+
+        // the filter is removed first, so that it is not applied to new nodes again after its colors are cleared
         filter.clear();
-        filters.remove(filter);
+        recompile();
     }
 
     @Override
     public void check(final INode node) {
         if (node == null) { throw new NullPointerException("node must not be null!"); }
 
-        filters.stream().forEach(filter -> filter.check(node));
+        final IFilter[] current = filters;
+        final CompiledFilterSet set = compiled;
+
+        if (set.isCompiledFrom(current)) {
+            set.check(node);
+        } else {
+            for (final IFilter filter : current) {
+                filter.check(node);
+            }
+        }
+    }
+
+    /**
+     * @return the filters as they were compiled last, which may not contain the latest changes yet
+     */
+    CompiledFilterSet getCompiled() {
+        return compiled;
     }
 
     @Override
@@ -83,8 +164,16 @@ public class MacroFilter implements IFilter {
 
     @Override
     public void clear() {
-        filters.stream().forEach(IFilter::clear);
-        filters.clear();
+
+        final IFilter[] cleared;
+
+        synchronized (this) {
+            cleared = filters;
+            filters = NO_FILTERS;
+        }
+
+        Arrays.stream(cleared).forEach(IFilter::clear);
+        recompile();
     }
 
     @Override
@@ -102,4 +191,27 @@ public class MacroFilter implements IFilter {
     public int compareTo(IFilter o) {
         return 1;
     }
+
+    private void recompile() {
+        compiler.execute(() -> {
+
+            final IFilter[] current = filters;
+
+            // several changes in a row are compiled once, the set is only published by this executor
+            if (!compiled.isCompiledFrom(current)) {
+                compiled = CompiledFilterSet.compile(current);
+            }
+        });
+    }
+
+    private static int indexOf(final IFilter[] filters, final IFilter filter) {
+
+        for (int i = 0; i < filters.length; i++) {
+            if (filters[i].equals(filter)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
 }
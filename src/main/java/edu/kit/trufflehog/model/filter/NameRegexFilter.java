@@ -1,13 +1,14 @@
 package edu.kit.trufflehog.model.filter;
 
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.NodeAttributeIndex;
 import edu.kit.trufflehog.model.network.graph.INode;
-import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
-import javafx.scene.paint.Color;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -18,12 +19,9 @@ import java.util.stream.Collectors;
  * @author Mark Giraud
  * @version 0.1
  */
-public class NameRegexFilter implements IFilter {
+public class NameRegexFilter extends AbstractFilter {
 
     private final Set<Pattern> patterns = new HashSet<>();
-    private final INetworkIOPort networkIOPort;
-    private final Color filterColor;
-    private final int priority;
     private final String name;
 
     public NameRegexFilter(INetworkIOPort networkIOPort, final FilterInput filterInput) throws InvalidFilterRule {
@@ -36,9 +34,7 @@ public class NameRegexFilter implements IFilter {
         if (filterInput.getType() != FilterType.NAME)
             throw new InvalidFilterRule("The filter input contains invalid filter rules. This filter can only handle name rules");
 
-        this.networkIOPort = networkIOPort;
-        filterColor = filterInput.getColor();
-        priority = filterInput.getPriority();
+        setAppearance(filterInput.getColor(), filterInput.getPriority());
         name = filterInput.getName();
 
         final java.util.List<String> rules = filterInput.getRules();
@@ -50,6 +46,13 @@ public class NameRegexFilter implements IFilter {
         patterns.addAll(rules.stream().map(Pattern::compile).collect(Collectors.toList()));
     }
 
+    /**
+     * @return an unmodifiable view of the patterns of this filter, used by the {@link CompiledFilterSet}
+     */
+    Set<Pattern> getPatterns() {
+        return Collections.unmodifiableSet(patterns);
+    }
+
     @Override
     public void check(INode node) {
         if (node == null)
@@ -59,35 +62,19 @@ public class NameRegexFilter implements IFilter {
 
         if (deviceName != null) {
             if (patterns.parallelStream().anyMatch(p -> p.matcher(deviceName).matches())) {
-                node.getComponent(FilterPropertiesComponent.class).addFilterColor(this, filterColor);
+                addFilterColor(node);
             }
         }
     }
 
     @Override
-    public int getPriority() {
-        return priority;
-    }
-
-    @Override
-    public void clear() {
-        networkIOPort.getNetworkNodes().stream().forEach(node -> {
-            node.getComponent(FilterPropertiesComponent.class).removeFilterColor(this);
-        });
-    }
-
-    @Override
-    public Color getFilterColor() {
-        return filterColor;
+    public void forEachCandidate(final NodeAttributeIndex index, final Consumer<? super INode> action) {
+        index.forEachWithDeviceName(deviceName -> patterns.stream().anyMatch(p -> p.matcher(deviceName).matches()),
+                action);
     }
 
     @Override
     public String getName() {
         return name;
     }
-
-    @Override
-    public int compareTo(IFilter o) {
-        return priority - o.getPriority();
-    }
 }
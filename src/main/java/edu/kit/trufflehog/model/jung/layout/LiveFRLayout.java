@@ -0,0 +1,79 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package edu.kit.trufflehog.model.jung.layout;
+
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
+import edu.uci.ics.jung.algorithms.layout.FRLayout;
+import edu.uci.ics.jung.graph.ObservableGraph;
+import edu.uci.ics.jung.graph.event.GraphEvent;
+import edu.uci.ics.jung.graph.event.GraphEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *     A {@link FRLayout} for the graph of the live network, which loses vertices when they are idle. The layout
+ *     remembers the location, the force data and the lock of every vertex it was asked for, this layout forgets all
+ *     of them once the vertex is removed from the graph, so that the vertex can be garbage collected. The force data
+ *     is kept in a map of this class, because the map of the {@link FRLayout} cannot be cleared.
+ * </p>
+ * <p>
+ *     The locations are read by the view, so they are forgotten on the FX application thread.
+ * </p>
+ *
+ * @param <V> The type of the vertices.
+ * @param <E> The type of the edges.
+ *
+ * @version 1.0
+ */
+public class LiveFRLayout<V, E> extends FRLayout<V, E> implements GraphEventListener<V, E> {
+
+    // only used by the synchronized steps of the layout
+    private final Map<V, FRVertexData> vertexData = new HashMap<>();
+
+    /**
+     * <p>
+     *     Creates a new layout for the given graph. The layout has to be added as listener to the graph.
+     * </p>
+     *
+     * @param graph The graph to lay out.
+     */
+    public LiveFRLayout(final ObservableGraph<V, E> graph) {
+        super(graph);
+    }
+
+    @Override
+    public void handleGraphEvent(GraphEvent<V, E> event) {
+
+        if (event.getType() == GraphEvent.Type.VERTEX_REMOVED) {
+            final V vertex = ((GraphEvent.Vertex<V, E>) event).getVertex();
+            FxUpdatePump.getInstance().submit(() -> forget(vertex));
+        }
+    }
+
+    @Override
+    protected FRVertexData getFRData(V vertex) {
+        return vertexData.computeIfAbsent(vertex, v -> new FRVertexData() { });
+    }
+
+    private synchronized void forget(final V vertex) {
+        locations.remove(vertex);
+        vertexData.remove(vertex);
+        lock(vertex, false);
+    }
+}
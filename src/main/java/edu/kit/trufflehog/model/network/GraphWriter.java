@@ -0,0 +1,84 @@
+package edu.kit.trufflehog.model.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ *     Applies the writes of the {@link NetworkIOPort} to the jung graph one after the other, in the order they were
+ *     queued. The graph is synchronized as a whole for the view, so writing it directly would make all writers
+ *     of the network wait for each other and for the view.
+ * </p>
+ * <p>
+ *     A writer queues its write while it holds the lock of the node or connection it writes, so the writes of one
+ *     node or connection reach the graph in the same order as the maps of the port. After it released the lock it
+ *     applies the queued writes if no other thread is writing the graph at that time, otherwise it returns right
+ *     away and the thread that is writing the graph applies its write as well. So at most one thread waits for the
+ *     lock of the graph, no thread has to be started and a single writer sees the graph written when
+ *     {@link #apply()} returns.
+ * </p>
+ * <p>
+ *     A write is applied by the thread that writes the graph and may take the lock of a node or connection itself.
+ *     What a write does directly is ordered before all writes that are still queued.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class GraphWriter {
+
+    private static final Logger logger = LogManager.getLogger(GraphWriter.class);
+
+    private final Queue<Runnable> writes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+
+    /**
+     * <p>
+     *     Queues the write, it is applied by the next call of {@link #apply()} of any thread.
+     * </p>
+     *
+     * @param write The write to apply to the graph.
+     */
+    void queue(final Runnable write) {
+
+        if (write == null) {
+            throw new NullPointerException("write must not be null");
+        }
+
+        writes.offer(write);
+    }
+
+    /**
+     * <p>
+     *     Applies the queued writes if no other thread does. Must not be called while a lock is held that a write
+     *     takes. Returns right away if it is called by a write.
+     * </p>
+     */
+    void apply() {
+
+        // a write that is queued while the writing thread resets the flag is seen by the check of the loop
+        while (!writes.isEmpty() && writing.compareAndSet(false, true)) {
+            try {
+                applyQueued();
+            } finally {
+                writing.set(false);
+            }
+        }
+    }
+
+    private void applyQueued() {
+
+        Runnable write;
+
+        while ((write = writes.poll()) != null) {
+            try {
+                write.run();
+            } catch (RuntimeException e) {
+                logger.error("Could not write the graph", e);
+            }
+        }
+    }
+}
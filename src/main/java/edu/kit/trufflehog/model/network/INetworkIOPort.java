@@ -1,9 +1,25 @@
 package edu.kit.trufflehog.model.network;
 
+import edu.kit.trufflehog.model.filter.BulkFilterApplication;
+import edu.kit.trufflehog.model.filter.IFilter;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Created by jan on 22.02.16.
  */
 public interface INetworkIOPort extends INetworkReadingPort, INetworkWritingPort {
 
-
+    /**
+     * Applies all given filters to all nodes of the network at once, for example a name filter whose patterns have to
+     * be tested against every node. The nodes are checked in parallel on the common fork/join pool without locking the
+     * network, their colors are changed in one update on the FX application thread.
+     * @param filters the filters to apply to the network
+     * @return the number of nodes that were colored, completes after the colors were added
+     */
+    default CompletableFuture<Integer> applyFilters(Collection<? extends IFilter> filters) {
+        return BulkFilterApplication.start(getNetworkNodes(), filters, ForkJoinPool.commonPool());
+    }
 }
@@ -6,6 +6,8 @@ import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
 
 import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * This Interface provides the functionality needed to access network specific data.
@@ -16,17 +18,55 @@ import java.util.Collection;
 public interface INetworkReadingPort {
 
     /**
+     * Depending on the port this may be a copy of all nodes, prefer {@link #forEachNode} or {@link #nodes()} to read
+     * the nodes.
      *
      * @return a collection of all nodes in this graph
      */
     Collection<INode> getNetworkNodes();
 
     /**
+     * Depending on the port this may be a copy of all connections, prefer {@link #forEachConnection} or
+     * {@link #connections()} to read the connections.
      *
      * @return a collection of all connections in this graph
      */
     Collection<IConnection> getNetworkConnections();
 
+    /**
+     * Calls the given action with every node of the network without copying them. The iteration is weakly
+     * consistent: nodes that are written while iterating may or may not be seen.
+     * @param action the action to call with every node
+     */
+    default void forEachNode(Consumer<? super INode> action) {
+        getNetworkNodes().forEach(action);
+    }
+
+    /**
+     * Calls the given action with every connection of the network without copying them, see {@link #forEachNode}.
+     * @param action the action to call with every connection
+     */
+    default void forEachConnection(Consumer<? super IConnection> action) {
+        getNetworkConnections().forEach(action);
+    }
+
+    /**
+     * Returns a stream of the nodes of the network that reads the live network with weakly consistent semantics, like
+     * {@link #forEachNode}. The stream can be made parallel.
+     * @return a stream of all nodes
+     */
+    default Stream<INode> nodes() {
+        return getNetworkNodes().stream();
+    }
+
+    /**
+     * Returns a stream of the connections of the network, see {@link #nodes()}.
+     * @return a stream of all connections
+     */
+    default Stream<IConnection> connections() {
+        return getNetworkConnections().stream();
+    }
+
     /**
      * Returns a Network Node by providing an Address object. This can either be IPv4, IPv6, MAC...
      * @param address the address to be looking for
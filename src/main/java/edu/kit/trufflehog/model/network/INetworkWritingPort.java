@@ -20,16 +20,48 @@ public interface INetworkWritingPort extends DeepCopyable<Collection<IConnection
     void writeConnection(IConnection connection);
 
     /**
-     * Writes the given Node into the network.
+     * Writes the given Node into the network. A node that is in the network already is written again when its
+     * attributes, like its ip address or device name, changed.
      * @param node the node to be written into teh network
      */
     void writeNode(INode node);
 
+    /**
+     * Removes the given node and all of its connections from the network.
+     * @param node the node to be removed from the network
+     * @return true if the node was in the network and was removed, false otherwise
+     */
+    boolean removeNode(INode node);
+
+    /**
+     * Removes the given connection from the network, its nodes stay.
+     * @param connection the connection to be removed from the network
+     * @return true if the connection was in the network and was removed, false otherwise
+     */
+    boolean removeConnection(IConnection connection);
+
     /**
      * Uses a filter to update all nodes for legality
      * @param filter filter to be applied to the graph
      */
     void applyFilter(IFilter filter);
 
+    /**
+     * Returns the node that was written for the given address, so that writers can update it in place instead of
+     * writing a new node.
+     * @param address the address of the node
+     * @return the node with the given address or null if there is none
+     */
+    INode getNetworkNodeByAddress(IAddress address);
+
+    /**
+     * Returns the connection that was written for the given source and destination addresses, so that writers can
+     * update it in place instead of writing a new connection.
+     * @param source the source address of the connection
+     * @param dest the destination address of the connection
+     * @return the connection between the given addresses or null if there is none
+     */
+    IConnection getNetworkConnectionByAddress(IAddress source, IAddress dest);
+
     ObservableUpdatableGraph<INode, IConnection> getGraph();
 }
@@ -1,15 +1,13 @@
 package edu.kit.trufflehog.model.network;
 
-import org.apache.commons.lang3.ArrayUtils;
-
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * <p>
- *     This class represents ip addresses. Each {@link IPAddress} is immutable.
+ *     This class represents ip addresses. Each {@link IPAddress} is immutable. It only holds the address as long, its
+ *     string representation is created when it is first asked for and its bytes every time they are asked for.
+ * </p>
+ * <p>
+ *     Use {@link #of(long)} to get an address for the packets of the network: it returns the same instance for an
+ *     address it has seen recently.
  * </p>
  * @author Mark Giraud
  * @version 1.0
@@ -17,11 +15,15 @@ import java.util.stream.Collectors;
 public class IPAddress implements IAddress, Comparable<IPAddress> {
 
     public static final IPAddress INVALID_ADDRESS = new IPAddress(0);
+
+    // direct mapped, an address replaces the address that had the same slot before
+    private static final int CACHE_SIZE = 1 << 12;
+    private static final IPAddress[] cache = new IPAddress[CACHE_SIZE];
+
     private final long address;
-    private final byte[] bytes;
-    private final boolean isMulticast;
-    private final String addressString;
-    private final int hash;
+
+    // computed when needed, computing it twice on a race does no harm as the result is the same
+    private String addressString;
 
     public IPAddress(final long address) throws InvalidIPAddress {
 
@@ -34,25 +36,50 @@ public class IPAddress implements IAddress, Comparable<IPAddress> {
         }
 
         this.address = address;
+    }
 
-        hash = new Long(this.address).hashCode();
-
-        // transform to byte array
-        bytes = new byte[4];
-        final byte[] extractedBytes = ByteBuffer.allocate(8).putLong(this.address).array();
-        System.arraycopy(extractedBytes, 4, bytes, 0, extractedBytes.length - 4);
+    /**
+     * <p>
+     *     Gets the address for the given long. Recently used addresses are taken from a bounded cache, so this does
+     *     not allocate for them.
+     * </p>
+     *
+     * @param address The 32 bit address.
+     * @return The address, the same instance as for earlier calls with the same address if it is still cached.
+     * @throws InvalidIPAddress if the address does not fit into 32 bits
+     */
+    public static IPAddress of(final long address) throws InvalidIPAddress {
+
+        final int slot = (int) (address ^ (address >>> 12) ^ (address >>> 24)) & (CACHE_SIZE - 1);
+        final IPAddress cached = cache[slot];
+
+        if (cached != null && cached.address == address) {
+            return cached;
+        }
 
-        // set multicast bit
-        isMulticast = (bytes[0] & 0xFF) >= 0b11100000 && (bytes[0] & 0xFF) <= 0b11101111;
+        // the address field is final, so publishing the instance through the array without a lock is safe
+        final IPAddress created = new IPAddress(address);
+        cache[slot] = created;
 
-        // set string representation
-        final List<Byte> bytes = Arrays.asList(ArrayUtils.toObject(this.bytes));
-        addressString = bytes.stream().map(byt -> String.format("%d", byt & 0xFF)).collect(Collectors.joining("."));
+        return created;
     }
 
     @Override
     public byte[] toByteArray() {
-        return Arrays.copyOf(bytes, 4);
+
+        final byte[] bytes = new byte[4];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (address >>> (8 * (3 - i)));
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the 32 bit address as long
+     */
+    public long toLong() {
+        return address;
     }
 
     @Override
@@ -62,22 +89,33 @@ public class IPAddress implements IAddress, Comparable<IPAddress> {
 
     @Override
     public boolean isMulticast() {
-        return isMulticast;
+        // 224.0.0.0 to 239.255.255.255
+        final long first = address >>> 24;
+        return first >= 0b11100000 && first <= 0b11101111;
     }
 
     @Override
     public int hashCode() {
-        return hash;
+        return Long.hashCode(address);
     }
 
     @Override
     public boolean equals(Object other) {
-        return other instanceof IPAddress && address == ((IPAddress) other).address;
+        return this == other || other instanceof IPAddress && address == ((IPAddress) other).address;
     }
 
     @Override
     public String toString() {
-        return addressString;
+
+        String string = addressString;
+
+        if (string == null) {
+            string = (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "."
+                    + (address & 0xFF);
+            addressString = string;
+        }
+
+        return string;
     }
 
     @Override
@@ -16,55 +16,85 @@
  */
 package edu.kit.trufflehog.model.network;
 
-import org.apache.commons.lang3.ArrayUtils;
-
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * \brief
  * \details
  * \date 19.02.16
  * \copyright GNU Public License
  * <p>
- *     This class represents a MAC address.
+ *     This class represents a MAC address. It only holds the address as long, its string representation is created
+ *     when it is first asked for and its bytes every time they are asked for.
+ * </p>
+ * <p>
+ *     Use {@link #of(long)} to get an address for the packets of the network: it returns the same instance for an
+ *     address it has seen recently, so most packets do not create a new address and equal addresses are mostly the
+ *     same object.
  * </p>
  * @author Mark Giraud
  * @version 1.0
  */
 public class MacAddress implements IAddress {
 
-    private final byte[] bytes;
+    // direct mapped, an address replaces the address that had the same slot before
+    private static final int CACHE_SIZE = 1 << 12;
+    private static final MacAddress[] cache = new MacAddress[CACHE_SIZE];
+
     private final long address;
-    private final String addressString;
-    private final boolean isMulticast;
-    private final int hashcode;
-    public MacAddress(long address) throws InvalidMACAddress {
 
-        this.address = address;
+    // computed when needed, computing it twice on a race does no harm as the result is the same
+    private String addressString;
 
-        if (this.address > 0xFFFFFFFFFFFFL || this.address < 0) {
+    public MacAddress(long address) throws InvalidMACAddress {
+
+        if (address > 0xFFFFFFFFFFFFL || address < 0) {
             throw new InvalidMACAddress(address);
         }
 
-        hashcode = (new Long(address)).hashCode();
-        // transform to byte array
-        final byte[] extractedBytes = ByteBuffer.allocate(8).putLong(address).array();
-        bytes = Arrays.copyOfRange(extractedBytes, 2, 8);
+        this.address = address;
+    }
+
+    /**
+     * <p>
+     *     Gets the address for the given long. Recently used addresses are taken from a bounded cache, so this does
+     *     not allocate for them.
+     * </p>
+     *
+     * @param address The 48 bit address.
+     * @return The address, the same instance as for earlier calls with the same address if it is still cached.
+     * @throws InvalidMACAddress if the address does not fit into 48 bits
+     */
+    public static MacAddress of(long address) throws InvalidMACAddress {
+
+        final int slot = (int) (address ^ (address >>> 17) ^ (address >>> 31)) & (CACHE_SIZE - 1);
+        final MacAddress cached = cache[slot];
+
+        if (cached != null && cached.address == address) {
+            return cached;
+        }
 
-        // set multicast bit
-        isMulticast = (bytes[0] & 1) == 1;
+        // the address field is final, so publishing the instance through the array without a lock is safe
+        final MacAddress created = new MacAddress(address);
+        cache[slot] = created;
 
-        // set string representation
-        final List<Byte> bytes = Arrays.asList(ArrayUtils.toObject(toByteArray()));
-        addressString = bytes.stream().map(b -> String.format("%02x", b)).collect(Collectors.joining(":"));
+        return created;
     }
 
     @Override
     public byte[] toByteArray() {
-        return Arrays.copyOf(bytes, 6);
+
+        final byte[] bytes = new byte[6];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (address >>> (8 * (5 - i)));
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the 48 bit address as long
+     */
+    public long toLong() {
+        return address;
     }
 
     @Override
@@ -74,21 +104,43 @@ public class MacAddress implements IAddress {
 
     @Override
     public int hashCode() {
-        return hashcode;
+        return Long.hashCode(address);
     }
 
     @Override
     public boolean equals(Object other) {
-        return (other instanceof MacAddress) && (address == ((MacAddress)other).address);
+        return this == other || (other instanceof MacAddress) && (address == ((MacAddress)other).address);
     }
 
     @Override
     public boolean isMulticast() {
-        return isMulticast;
+        // the lowest bit of the first byte
+        return ((address >>> 40) & 1) == 1;
     }
 
     @Override
     public String toString() {
-        return addressString;
+
+        String string = addressString;
+
+        if (string == null) {
+
+            final StringBuilder builder = new StringBuilder(17);
+
+            for (int shift = 40; shift >= 0; shift -= 8) {
+
+                final int b = (int) (address >>> shift) & 0xFF;
+
+                if (shift != 40) {
+                    builder.append(':');
+                }
+                builder.append(Character.forDigit(b >>> 4, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+
+            string = builder.toString();
+            addressString = string;
+        }
+
+        return string;
     }
 }
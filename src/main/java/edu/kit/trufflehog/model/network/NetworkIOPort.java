@@ -3,26 +3,55 @@ package edu.kit.trufflehog.model.network;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.network.graph.IConnection;
 import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
 import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import edu.kit.trufflehog.util.ICopyCreator;
 import edu.kit.trufflehog.util.bindings.MaximumOfValuesBinding;
+import edu.kit.trufflehog.util.collections.ConcurrentLongObjectMap;
+import edu.kit.trufflehog.util.collections.ConcurrentLongPairObjectMap;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
+import edu.uci.ics.jung.graph.GraphUpdater;
 import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
-import javafx.application.Platform;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import org.apache.commons.collections4.keyvalue.MultiKey;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
+ * <p>
+ *     The port of the live network. The nodes and connections are kept in concurrent maps keyed by their 48 bit mac
+ *     addresses, which are the store the port reads from: lookups and iteration never lock, and writers only lock the
+ *     segment of the node or connection they write, so writers of unrelated nodes do not wait for each other. A node
+ *     or connection that is written for a known address is merged into the known one right away.
+ * </p>
+ * <p>
+ *     The graph is kept for the view. It is synchronized as a whole, so it is never written under the lock of a
+ *     segment: the writes are queued under the lock and applied by a {@link GraphWriter} afterwards, in the order
+ *     the maps were changed. The graph follows the maps, a node is added to the graph before any of its connections.
+ * </p>
+ * <p>
+ *     Nodes and connections can be removed again, for example when they are idle for too long. The locks are always
+ *     taken in the same order: the lock of a node, then the locks of its connections. The graph is only locked while
+ *     no lock of a segment is held.
+ * </p>
+ * <p>
+ *     The nodes are also indexed by their ip addresses and device names in a {@link NodeAttributeIndex}, so that a
+ *     filter that is applied only looks at the nodes it may match. A node whose attributes changed is written again to
+ *     update the index.
+ * </p>
+ * <p>
+ *     Only nodes with mac addresses can be written.
+ * </p>
+ *
  * @author Jan Hermes
  * @version 0.5
  */
@@ -31,9 +60,12 @@ public class NetworkIOPort implements INetworkIOPort {
     private static final Logger logger = LogManager.getLogger();
 
     private final ObservableUpdatableGraph<INode, IConnection> delegate;
+    private final GraphUpdater<INode, IConnection> updater;
+    private final GraphWriter graphWriter = new GraphWriter();
 
-    private final Map<IAddress, INode> idNodeMap = new ConcurrentHashMap<>();
-    private final Map<MultiKey<IAddress>, IConnection> idConnectionMap = new ConcurrentHashMap<>();
+    private final ConcurrentLongObjectMap<INode> idNodeMap = new ConcurrentLongObjectMap<>();
+    private final ConcurrentLongPairObjectMap<IConnection> idConnectionMap = new ConcurrentLongPairObjectMap<>();
+    private final NodeAttributeIndex nodeIndex = new NodeAttributeIndex(idNodeMap);
 
     private final IntegerProperty maxThroughputProperty = new SimpleIntegerProperty(0);
     private final IntegerProperty maxConnectionSizeProperty = new SimpleIntegerProperty(0);
@@ -44,50 +76,238 @@ public class NetworkIOPort implements INetworkIOPort {
     private final MaximumOfValuesBinding maxThroughputBinding = new MaximumOfValuesBinding();
 
     public NetworkIOPort(final ObservableUpdatableGraph<INode, IConnection> delegate) {
+        this(delegate, new LiveUpdater());
+    }
+
+    /**
+     * @param delegate The graph that is shown by the view.
+     * @param updater The updater that merges a written node or connection into the known one with the same address.
+     */
+    public NetworkIOPort(final ObservableUpdatableGraph<INode, IConnection> delegate,
+                         final GraphUpdater<INode, IConnection> updater) {
 
         maxConnectionSizeProperty.bind(maxTrafficBinding);
         maxThroughputProperty.bind(maxThroughputBinding);
 
         this.delegate = delegate;
+        this.updater = updater;
     }
 
     @Override
-    synchronized public void writeConnection(IConnection connection) {
+    public void writeConnection(IConnection connection) {
+
+        final long source = key(connection.getSrc().getAddress());
+        final long dest = key(connection.getDest().getAddress());
+
+        // the writer may have looked up a node that was removed since, without it in the index the connection would
+        // not be added to the graph. Written before the lock of the connection is taken, to keep the order of the locks.
+        if (idNodeMap.get(source) == null) {
+            writeNode(connection.getSrc());
+        }
+
+        if (idNodeMap.get(dest) == null) {
+            writeNode(connection.getDest());
+        }
 
-        final MultiKey<IAddress> connectionKey = new MultiKey<>(connection.getSrc().getAddress(), connection.getDest().getAddress());
+        synchronized (idConnectionMap.getLock(source, dest)) {
 
-        if (delegate.addEdge(connection, connection.getSrc(), connection.getDest())) {
+            final IConnection existing = idConnectionMap.get(source, dest);
 
-            final EdgeStatisticsComponent edgeStat = connection.getComponent(EdgeStatisticsComponent.class);
-            if (edgeStat != null) {
-                Platform.runLater(() -> {
-                    maxTrafficBinding.bindProperty(edgeStat.getTrafficProperty());
-                });
+            if (existing == connection) {
+                return;
+            }
 
+            if (existing != null) {
+                updater.updateEdge(existing, connection);
+                return;
             }
-            idConnectionMap.put(connectionKey, connection);
+
+            // queued before it is published, so that it is removed from the graph after it was added
+            graphWriter.queue(() -> addToGraph(connection));
+            idConnectionMap.put(source, dest, connection);
+        }
+
+        graphWriter.apply();
+
+        final EdgeStatisticsComponent edgeStat = connection.getComponent(EdgeStatisticsComponent.class);
+        if (edgeStat != null) {
+            FxUpdatePump.getInstance().submit(() -> {
+                maxTrafficBinding.bindProperty(edgeStat.getTrafficProperty());
+            });
+
         }
     }
 
     @Override
-    synchronized public void writeNode(INode node) {
+    public void writeNode(INode node) {
+
+        final long address = key(node.getAddress());
+
+        synchronized (idNodeMap.getLock(address)) {
+
+            final INode existing = idNodeMap.get(address);
+
+            // a node is written again when its attributes changed
+            if (existing == node) {
+                nodeIndex.update(node);
+                return;
+            }
+
+            if (existing != null) {
+                updater.updateVertex(existing, node);
+                nodeIndex.update(existing);
+                return;
+            }
+
+            // queued before it is published, so that a connection to it is always added to the graph after it
+            graphWriter.queue(() -> delegate.addVertex(node));
+            idNodeMap.put(address, node);
+            nodeIndex.update(node);
+        }
+
+        graphWriter.apply();
+
+        final NodeStatisticsComponent nodeStat = node.getComponent(NodeStatisticsComponent.class);
+        if (nodeStat != null) {
+            FxUpdatePump.getInstance().submit(() -> {
+                maxThroughputBinding.bindProperty(nodeStat.getCommunicationCountProperty());
+            });
+
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the given node and its connections from the graph and the index. Nothing is removed if another node
+     *     was written for the address of the node.
+     * </p>
+     *
+     * @param node the node to be removed from the network
+     * @return true if the node was removed, false otherwise
+     */
+    @Override
+    public boolean removeNode(INode node) {
+
+        final long address = key(node.getAddress());
+
+        synchronized (idNodeMap.getLock(address)) {
+
+            if (idNodeMap.get(address) != node) {
+                return false;
+            }
+
+            idNodeMap.remove(address);
+            nodeIndex.remove(node);
+            graphWriter.queue(() -> removeFromGraph(node));
+        }
+
+        graphWriter.apply();
+
+        final NodeStatisticsComponent nodeStat = node.getComponent(NodeStatisticsComponent.class);
+        if (nodeStat != null) {
+            FxUpdatePump.getInstance().submit(() -> {
+                maxThroughputBinding.unbindProperty(nodeStat.getCommunicationCountProperty());
+            });
+        }
+
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Removes the given connection from the graph and the index. Nothing is removed if another connection was
+     *     written for the addresses of the connection.
+     * </p>
+     *
+     * @param connection the connection to be removed from the network
+     * @return true if the connection was removed, false otherwise
+     */
+    @Override
+    public boolean removeConnection(IConnection connection) {
+
+        final long source = key(connection.getSrc().getAddress());
+        final long dest = key(connection.getDest().getAddress());
+
+        synchronized (idConnectionMap.getLock(source, dest)) {
+
+            if (idConnectionMap.get(source, dest) != connection) {
+                return false;
+            }
+
+            idConnectionMap.remove(source, dest);
+            graphWriter.queue(() -> delegate.removeEdge(connection));
+        }
+
+        graphWriter.apply();
+        unbindTraffic(connection);
+
+        return true;
+    }
+
+    // applied by the graph writer. The nodes of the connection were added before it, unless one was removed since.
+    private void addToGraph(IConnection connection) {
+
+        if (!delegate.containsVertex(connection.getSrc()) || !delegate.containsVertex(connection.getDest())) {
+            // the graph would take the node back on its own
+            removeConnection(connection);
+            return;
+        }
+
+        delegate.addEdge(connection, connection.getSrc(), connection.getDest());
+    }
+
+    // applied by the graph writer. The connections are removed first, so that the listeners of the graph see them go.
+    private void removeFromGraph(INode node) {
 
-        if (delegate.addVertex(node)) {
+        final Collection<IConnection> incident = delegate.getIncidentEdges(node);
 
-            final NodeStatisticsComponent nodeStat = node.getComponent(NodeStatisticsComponent.class);
-            if (nodeStat != null) {
-                Platform.runLater(() -> {
-                    maxThroughputBinding.bindProperty(nodeStat.getCommunicationCountProperty());
-                });
+        if (incident != null) {
+            for (IConnection connection : new ArrayList<>(incident)) {
 
+                final long source = key(connection.getSrc().getAddress());
+                final long dest = key(connection.getDest().getAddress());
+                final boolean mapped;
+
+                synchronized (idConnectionMap.getLock(source, dest)) {
+                    mapped = idConnectionMap.get(source, dest) == connection;
+
+                    if (mapped) {
+                        idConnectionMap.remove(source, dest);
+                    }
+                }
+
+                delegate.removeEdge(connection);
+
+                if (mapped) {
+                    unbindTraffic(connection);
+                }
             }
-            idNodeMap.put(node.getAddress(), node);
         }
+
+        delegate.removeVertex(node);
     }
 
+    private void unbindTraffic(IConnection connection) {
+
+        final EdgeStatisticsComponent edgeStat = connection.getComponent(EdgeStatisticsComponent.class);
+        if (edgeStat != null) {
+            FxUpdatePump.getInstance().submit(() -> {
+                maxTrafficBinding.unbindProperty(edgeStat.getTrafficProperty());
+            });
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks the nodes the filter may match against the filter. The filter finds them in the index of the node
+     *     attributes, so a filter with a few rules does not look at every node.
+     * </p>
+     *
+     * @param filter the filter to apply
+     */
     @Override
-    synchronized public void applyFilter(IFilter filter) {
-        delegate.getVertices().forEach(filter::check);
+    public void applyFilter(IFilter filter) {
+        filter.forEachCandidate(nodeIndex, filter::check);
     }
 
     @Override
@@ -95,26 +315,82 @@ public class NetworkIOPort implements INetworkIOPort {
         return delegate;
     }
 
+    /**
+     * <p>
+     *     Returns an unmodifiable, weakly consistent view of the nodes. It is not copied and can be iterated while the
+     *     network is written, nodes that are written while iterating may or may not be seen.
+     * </p>
+     *
+     * @return a view of all nodes in the network
+     */
     @Override
-    synchronized public Collection<INode> getNetworkNodes() {
-        return new LinkedList<>(delegate.getVertices());
+    public Collection<INode> getNetworkNodes() {
+        return idNodeMap.values();
     }
 
+    /**
+     * <p>
+     *     Returns an unmodifiable, weakly consistent view of the connections, see {@link #getNetworkNodes()}.
+     * </p>
+     *
+     * @return a view of all connections in the network
+     */
     @Override
-    synchronized public Collection<IConnection> getNetworkConnections() {
-        return new LinkedList<>(delegate.getEdges());
+    public Collection<IConnection> getNetworkConnections() {
+        return idConnectionMap.values();
+    }
+
+    @Override
+    public void forEachNode(Consumer<? super INode> action) {
+        idNodeMap.forEachValue(action);
+    }
+
+    @Override
+    public void forEachConnection(Consumer<? super IConnection> action) {
+        idConnectionMap.forEachValue(action);
+    }
+
+    @Override
+    public Stream<INode> nodes() {
+        return StreamSupport.stream(idNodeMap.values().spliterator(), false);
+    }
+
+    @Override
+    public Stream<IConnection> connections() {
+        return StreamSupport.stream(idConnectionMap.values().spliterator(), false);
     }
 
     @Override
     public INode getNetworkNodeByAddress(IAddress address) {
 
-        return idNodeMap.get(address);
+        if (!isIndexed(address)) {
+            return null;
+        }
+
+        return idNodeMap.get(key(address));
     }
 
     @Override
     public IConnection getNetworkConnectionByAddress(IAddress source, IAddress dest) {
-        final MultiKey<IAddress> retriever = new MultiKey<>(source, dest);
-        return idConnectionMap.get(retriever);
+
+        if (!isIndexed(source) || !isIndexed(dest)) {
+            return null;
+        }
+
+        return idConnectionMap.get(key(source), key(dest));
+    }
+
+    private static boolean isIndexed(IAddress address) {
+        return address instanceof MacAddress;
+    }
+
+    private static long key(IAddress address) {
+
+        if (!isIndexed(address)) {
+            throw new IllegalArgumentException("Only nodes with mac addresses can be written, not " + address);
+        }
+
+        return ((MacAddress) address).toLong();
     }
 
     @Override
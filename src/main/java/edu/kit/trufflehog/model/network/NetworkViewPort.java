@@ -18,13 +18,13 @@
 package edu.kit.trufflehog.model.network;
 
 
+import edu.kit.trufflehog.model.jung.layout.LiveFRLayout;
 import edu.kit.trufflehog.model.jung.layout.ObservableLayout;
 import edu.kit.trufflehog.model.network.graph.FRLayoutFactory;
 import edu.kit.trufflehog.model.network.graph.IConnection;
 import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.recording.NetworkViewCopy;
 import edu.kit.trufflehog.util.ICopyCreator;
-import edu.uci.ics.jung.algorithms.layout.FRLayout;
 import edu.uci.ics.jung.algorithms.layout.Layout;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
@@ -70,7 +70,10 @@ public class NetworkViewPort implements INetworkViewPort {
 
         this.graphDelegate = delegate;
 
-        this.delegate = new ObservableLayout<>(new FRLayout<>(this.graphDelegate));
+        final LiveFRLayout<INode, IConnection> layout = new LiveFRLayout<>(this.graphDelegate);
+        this.graphDelegate.addGraphEventListener(layout);
+
+        this.delegate = new ObservableLayout<>(layout);
         this.delegate.setSize(new Dimension(600,600));
         this.layoutFactory = new FRLayoutFactory();
 
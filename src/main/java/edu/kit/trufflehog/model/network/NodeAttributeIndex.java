@@ -0,0 +1,218 @@
+package edu.kit.trufflehog.model.network;
+
+import com.google.common.collect.ImmutableSet;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.util.collections.ConcurrentLongObjectMap;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ *     Finds the nodes of the live network by their attributes, so that a filter only has to look at the nodes it
+ *     may match instead of at every node: the nodes with a mac address are looked up in the map of the network, the
+ *     nodes with an ip address in a sorted map, so that all nodes of a range are found at once, and the nodes with a
+ *     device name in a map from the name to its nodes, so that a pattern is matched once per distinct name.
+ * </p>
+ * <p>
+ *     The index is updated by the {@link NetworkIOPort} whenever a node is written, removed or merged into an existing
+ *     node, and when a node whose attributes changed is written again. Updates of the same node have to be done under
+ *     the lock of the node, the lookups can be done from any thread.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class NodeAttributeIndex {
+
+    private static final long NO_IP = -1;
+
+    private final ConcurrentLongObjectMap<INode> nodesByMac;
+
+    // the sets are immutable and replaced as a whole, so that they can be read without a lock
+    private final ConcurrentSkipListMap<Long, Set<INode>> nodesByIp = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<INode>> nodesByName = new ConcurrentHashMap<>();
+
+    // the attributes every node was indexed with, to take it out of the index again when they change
+    private final Map<INode, Attributes> indexed = new ConcurrentHashMap<>();
+
+    /**
+     * <p>
+     *     Creates an empty index.
+     * </p>
+     *
+     * @param nodesByMac The nodes of the network by their mac addresses, which are not indexed again.
+     */
+    public NodeAttributeIndex(final ConcurrentLongObjectMap<INode> nodesByMac) {
+
+        if (nodesByMac == null) throw new NullPointerException("nodesByMac must not be null!");
+
+        this.nodesByMac = nodesByMac;
+    }
+
+    /**
+     * <p>
+     *     Indexes the node with its current ip address and device name. A node that is indexed already is moved if
+     *     its attributes changed and left alone otherwise.
+     * </p>
+     *
+     * @param node The node to index.
+     */
+    public void update(final INode node) {
+
+        final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+
+        if (info == null) {
+            return;
+        }
+
+        final IPAddress ip = info.getIPAddress();
+        final Attributes current = new Attributes(ip == null ? NO_IP : ip.toLong(), info.getDeviceName());
+        final Attributes previous = indexed.put(node, current);
+
+        if (current.equals(previous)) {
+            return;
+        }
+
+        if (previous != null) {
+            unindex(node, previous);
+        }
+
+        if (current.ip != NO_IP) {
+            nodesByIp.compute(current.ip, (key, nodes) -> with(nodes, node));
+        }
+
+        if (current.name != null) {
+            nodesByName.compute(current.name, (key, nodes) -> with(nodes, node));
+        }
+    }
+
+    /**
+     * <p>
+     *     Takes the node out of the index.
+     * </p>
+     *
+     * @param node The node to remove.
+     */
+    public void remove(final INode node) {
+
+        final Attributes previous = indexed.remove(node);
+
+        if (previous != null) {
+            unindex(node, previous);
+        }
+    }
+
+    /**
+     * @param action The action to call with every node of the network.
+     */
+    public void forEachNode(final Consumer<? super INode> action) {
+        nodesByMac.forEachValue(action);
+    }
+
+    /**
+     * @param address The mac address to look for.
+     * @param action The action to call with the node that has the mac address, if there is one.
+     */
+    public void forEachWithMacAddress(final MacAddress address, final Consumer<? super INode> action) {
+
+        final INode node = nodesByMac.get(address.toLong());
+
+        if (node != null) {
+            action.accept(node);
+        }
+    }
+
+    /**
+     * @param from The first ip address of the range, inclusive.
+     * @param to The last ip address of the range, inclusive.
+     * @param action The action to call with every node whose ip address lies in the range.
+     */
+    public void forEachWithIPAddressBetween(final long from, final long to, final Consumer<? super INode> action) {
+
+        if (from > to) {
+            return;
+        }
+
+        nodesByIp.subMap(from, true, to, true).values().forEach(nodes -> nodes.forEach(action));
+    }
+
+    /**
+     * @param name The test for the device names, called once for every distinct name.
+     * @param action The action to call with every node whose device name passes the test.
+     */
+    public void forEachWithDeviceName(final Predicate<String> name, final Consumer<? super INode> action) {
+        nodesByName.forEach((key, nodes) -> {
+            if (name.test(key)) {
+                nodes.forEach(action);
+            }
+        });
+    }
+
+    private void unindex(final INode node, final Attributes attributes) {
+
+        if (attributes.ip != NO_IP) {
+            nodesByIp.computeIfPresent(attributes.ip, (key, nodes) -> without(nodes, node));
+        }
+
+        if (attributes.name != null) {
+            nodesByName.computeIfPresent(attributes.name, (key, nodes) -> without(nodes, node));
+        }
+    }
+
+    // the functions may be called more than once by the sorted map, so they must not change the old set
+    private static Set<INode> with(final Set<INode> nodes, final INode node) {
+
+        if (nodes == null) {
+            return ImmutableSet.of(node);
+        }
+
+        return ImmutableSet.<INode>builder().addAll(nodes).add(node).build();
+    }
+
+    private static Set<INode> without(final Set<INode> nodes, final INode node) {
+
+        if (!nodes.contains(node)) {
+            return nodes;
+        }
+
+        final ImmutableSet.Builder<INode> builder = ImmutableSet.builder();
+        nodes.stream().filter(other -> !other.equals(node)).forEach(builder::add);
+
+        final Set<INode> remaining = builder.build();
+
+        return remaining.isEmpty() ? null : remaining;
+    }
+
+    private static final class Attributes {
+
+        private final long ip;
+        private final String name;
+
+        private Attributes(final long ip, final String name) {
+            this.ip = ip;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+
+            if (!(other instanceof Attributes)) {
+                return false;
+            }
+
+            final Attributes attributes = (Attributes) other;
+            return ip == attributes.ip && Objects.equals(name, attributes.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(ip) + Objects.hashCode(name);
+        }
+    }
+}
@@ -3,12 +3,19 @@ package edu.kit.trufflehog.model.network.graph;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 /**
  * \brief An abstract implementation of the IComposition interface. Facilitates to create new IComposition classes.
+ * \details The components are kept in an array that is indexed by the slot {@link ComponentSlots} assigned to their
+ * type, so looking a component up is an array access. The slots of the mutable components are kept in a separate
+ * array, so updating a composition does not have to look at the immutable ones.
  *
  * \date 04.03.16
  * \copyright GNU Public License
@@ -18,26 +25,40 @@ import java.util.Iterator;
 public abstract class AbstractComposition implements IComposition {
 
     private static final Logger logger = LogManager.getLogger(AbstractComposition.class);
-    
-    final HashMap<Class<? extends IComponent>, IComponent> components = new HashMap<>();
+
+    private IComponent[] components = new IComponent[ComponentSlots.count()];
+    private int size = 0;
+
+    // the slots of the mutable components, in ascending order
+    private int[] mutableSlots = new int[0];
 
     @Override
     public <T extends IComponent> T addComponent(T component) {
 
-        final IComponent existing = components.get(component.getClass());
+        final int slot = ComponentSlots.slotOf(component.getClass());
+        final IComponent existing = get(slot);
 
         if (existing != null) {
-            // Safe to suppress unchecked as every value in the components
-            // map that will be retrieved by the according class type will
+            // Safe to suppress unchecked as every component in the array
+            // that will be retrieved by the slot of its class type will
             // be a component of that exact type
             @SuppressWarnings("unchecked")
             T castedExisting = (T) existing;
             return castedExisting;
         }
         component.setParent(this);
-        components.put(component.getClass(), component);
 
-        //logger.debug(components);
+        if (slot >= components.length) {
+            components = Arrays.copyOf(components, Math.max(slot + 1, ComponentSlots.count()));
+        }
+
+        components[slot] = component;
+        size++;
+
+        if (component.isMutable()) {
+            addMutableSlot(slot);
+        }
+
         // TODO do this differently? but i think null as indicator for "there was no previous value" is ok
         return null;
     }
@@ -48,11 +69,11 @@ public abstract class AbstractComposition implements IComposition {
         if (type == null) {
             throw new NullPointerException("componentType must not be null");
         }
-        final IComponent component = components.remove(type);
+        final IComponent component = removeSlot(ComponentSlots.slotOf(type));
 
         if (component != null) {
-            // Safe to suppress unchecked as every value in the components
-            // map that will be retrieved by the according class type will
+            // Safe to suppress unchecked as every component in the array
+            // that will be retrieved by the slot of its class type will
             // be a component of that exact type
             @SuppressWarnings("unchecked")
             T existing = (T) component;
@@ -68,12 +89,12 @@ public abstract class AbstractComposition implements IComposition {
         if (componentType == null) {
             throw new NullPointerException("componentType must not be null");
         }
-        final IComponent component = components.get(componentType);
+        final IComponent component = get(ComponentSlots.slotOf(componentType));
 
         if (component != null) {
 
-            // Safe to suppress unchecked as every value in the components
-            // map that will be retrieved by the according class type will
+            // Safe to suppress unchecked as every component in the array
+            // that will be retrieved by the slot of its class type will
             // be a component of that exact type
             @SuppressWarnings("unchecked")
             T existing = (T) component;
@@ -83,14 +104,25 @@ public abstract class AbstractComposition implements IComposition {
         }
     }
 
+    @Override
+    public void forEachMutableComponent(Consumer<? super IComponent> action) {
+
+        final IComponent[] components = this.components;
+        final int[] mutableSlots = this.mutableSlots;
+
+        for (int slot : mutableSlots) {
+            action.accept(components[slot]);
+        }
+    }
+
     @Override
     public int size() {
-        return components.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return components.isEmpty();
+        return size == 0;
     }
 
     @Override
@@ -100,22 +132,56 @@ public abstract class AbstractComposition implements IComposition {
             return false;
         }
         final IComponent other = (IComponent) o;
-        return components.containsKey(other.getClass());
+        return get(ComponentSlots.slotOf(other.getClass())) != null;
     }
 
     @Override
     public Iterator<IComponent> iterator() {
-        return components.values().iterator();
+
+        return new Iterator<IComponent>() {
+
+            private int next = nextSlot(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next < components.length;
+            }
+
+            @Override
+            public IComponent next() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                last = next;
+                next = nextSlot(next + 1);
+
+                return components[last];
+            }
+
+            @Override
+            public void remove() {
+
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+
+                removeSlot(last);
+                last = -1;
+            }
+        };
     }
 
     @Override
     public Object[] toArray() {
-        return components.values().toArray();
+        return values().toArray();
     }
 
     @Override
     public <T> T[] toArray(T[] a) {
-        return components.values().toArray(a);
+        return values().toArray(a);
     }
 
     @Override
@@ -136,7 +202,7 @@ public abstract class AbstractComposition implements IComposition {
 
     @Override
     public boolean containsAll(Collection<?> c) {
-        return components.values().containsAll(c);
+        return values().containsAll(c);
     }
 
     @Override
@@ -154,19 +220,97 @@ public abstract class AbstractComposition implements IComposition {
     @Override
     public boolean removeAll(Collection<?> c) {
 
-        return components.values().removeAll(c);
+        boolean compositionWasModified = false;
+
+        for (int slot = 0; slot < components.length; slot++) {
+            if (components[slot] != null && c.contains(components[slot])) {
+                removeSlot(slot);
+                compositionWasModified = true;
+            }
+        }
+        return compositionWasModified;
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
 
-        return components.values().retainAll(c);
+        boolean compositionWasModified = false;
+
+        for (int slot = 0; slot < components.length; slot++) {
+            if (components[slot] != null && !c.contains(components[slot])) {
+                removeSlot(slot);
+                compositionWasModified = true;
+            }
+        }
+        return compositionWasModified;
     }
 
     @Override
     public void clear() {
 
-        components.values().clear();
+        Arrays.fill(components, null);
+        mutableSlots = new int[0];
+        size = 0;
+    }
+
+    private IComponent get(int slot) {
+        return slot < components.length ? components[slot] : null;
+    }
+
+    private IComponent removeSlot(int slot) {
+
+        final IComponent component = get(slot);
+
+        if (component == null) {
+            return null;
+        }
+
+        components[slot] = null;
+        size--;
+
+        final int index = Arrays.binarySearch(mutableSlots, slot);
+
+        if (index >= 0) {
+            final int[] slots = new int[mutableSlots.length - 1];
+            System.arraycopy(mutableSlots, 0, slots, 0, index);
+            System.arraycopy(mutableSlots, index + 1, slots, index, slots.length - index);
+            mutableSlots = slots;
+        }
+
+        return component;
+    }
+
+    private void addMutableSlot(int slot) {
+
+        // the array is replaced instead of changed, so a running forEachMutableComponent is not disturbed
+        final int index = -Arrays.binarySearch(mutableSlots, slot) - 1;
+        final int[] slots = new int[mutableSlots.length + 1];
+
+        System.arraycopy(mutableSlots, 0, slots, 0, index);
+        slots[index] = slot;
+        System.arraycopy(mutableSlots, index, slots, index + 1, mutableSlots.length - index);
+        mutableSlots = slots;
+    }
+
+    private int nextSlot(int from) {
+
+        int slot = from;
+
+        while (slot < components.length && components[slot] == null) {
+            slot++;
+        }
+        return slot;
     }
 
+    private List<IComponent> values() {
+
+        final List<IComponent> values = new ArrayList<>(size);
+
+        for (IComponent component : components) {
+            if (component != null) {
+                values.add(component);
+            }
+        }
+        return values;
+    }
 }
@@ -0,0 +1,46 @@
+package edu.kit.trufflehog.model.network.graph;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *     Registry that gives every component type a small, fixed slot number. The slot of a type is assigned the first
+ *     time the type is looked up and never changes afterwards, so an {@link AbstractComposition} can keep its
+ *     components in an array indexed by slot instead of a map keyed by class.
+ * </p>
+ * <p>
+ *     The slots are kept in a {@link ClassValue}, which is attached to the class itself, so looking a slot up does
+ *     not hash and does not allocate.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class ComponentSlots {
+
+    private static final AtomicInteger nextSlot = new AtomicInteger(0);
+
+    private static final ClassValue<Integer> slots = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return nextSlot.getAndIncrement();
+        }
+    };
+
+    private ComponentSlots() {
+    }
+
+    /**
+     * @param type The type of the component.
+     * @return the slot of the given type
+     */
+    static int slotOf(final Class<?> type) {
+        return slots.get(type);
+    }
+
+    /**
+     * @return the number of slots that were assigned so far
+     */
+    static int count() {
+        return nextSlot.get();
+    }
+}
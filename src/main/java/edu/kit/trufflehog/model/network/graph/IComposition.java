@@ -1,6 +1,7 @@
 package edu.kit.trufflehog.model.network.graph;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * This interface defines the basic methods for compositions. A composition representes a collection of Components.
@@ -35,4 +36,17 @@ public interface IComposition extends IComponent, Collection<IComponent> {
      */
     <T extends IComponent> T getComponent(final Class<T> componentType);
 
+    /**
+     * Calls the given action with every mutable component of this Composition, that is every component that has to be
+     * merged when this Composition is used to update another one.
+     * @param action The action to call with the mutable components
+     */
+    default void forEachMutableComponent(final Consumer<? super IComponent> action) {
+
+        for (IComponent component : this) {
+            if (component.isMutable()) {
+                action.accept(component);
+            }
+        }
+    }
 }
@@ -27,13 +27,11 @@ import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeRenderer;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
-import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import edu.uci.ics.jung.graph.GraphUpdater;
-import javafx.application.Platform;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.time.Instant;
+import java.util.function.Consumer;
 
 /**
  * \brief
@@ -48,13 +46,13 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
     private Logger logger = LogManager.getLogger();
 
+    // every thread merges with its own merger, so that no lambda has to be created for a merge
+    private final ThreadLocal<ComponentMerger> mergers = ThreadLocal.withInitial(() -> new ComponentMerger(this));
+
     @Override
     public boolean update(INode node, INode update) {
 
-        update.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = node.getComponent(c.getClass());
-            existing.update(c, this);
-        });
+        merge(node, update);
         // TODO check if really some was changed
         return true;
     }
@@ -67,14 +65,9 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
         final NodeStatisticsComponent other = (NodeStatisticsComponent) instance;
 
-        Platform.runLater(() -> {
-
-            nodeStatisticsComponent.setOutgoingCount(nodeStatisticsComponent.getOutgoingCount() + other.getOutgoingCount());
-
-            nodeStatisticsComponent.setIncomingCount(nodeStatisticsComponent.getIncomingCount() + other.getIncomingCount());
-
-
-        });
+        // the counts are atomic, their properties are updated with the next frame
+        nodeStatisticsComponent.addOutgoingCount(other.getOutgoingCount());
+        nodeStatisticsComponent.addIncomingCount(other.getIncomingCount());
 
 
         // TODO maybe check for more variants of values (potential bug???)
@@ -104,14 +97,8 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
         PacketDataLoggingComponent updater = (PacketDataLoggingComponent)instance;
 
-        for (IPacketData packetData : updater.getObservablePackets()) {
-
-            Platform.runLater(() -> {
-
-                packetDataLoggingComponent.addPacket(packetData);
-
-            });
-        }
+        // the log is thread safe, the view fetches the new packets once per frame
+        packetDataLoggingComponent.logPackets(updater);
 
         return true;
     }
@@ -119,10 +106,7 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
     @Override
     public boolean update(IConnection oldValue, IConnection newValue) {
 
-        newValue.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = oldValue.getComponent(c.getClass());
-            existing.update(c, this);
-        });
+        merge(oldValue, newValue);
         // TODO check if really some was changed
         return true;
     }
@@ -153,12 +137,13 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
     @Override
     public boolean update(EdgeStatisticsComponent edgeStatisticsComponent, IComponent instance) {
-        // TODO maybe change to another value
-        Platform.runLater(() -> {
+        if (!edgeStatisticsComponent.equals(instance))
+            return false;
+
+        final EdgeStatisticsComponent other = (EdgeStatisticsComponent) instance;
 
-            edgeStatisticsComponent.setLastUpdateTimeProperty(Instant.now().toEpochMilli());
-            edgeStatisticsComponent.incrementTraffic(1);
-        });
+        edgeStatisticsComponent.setLastUpdateTimeProperty(System.currentTimeMillis());
+        edgeStatisticsComponent.incrementTraffic(other.getTraffic());
 
         return true;
     }
@@ -174,18 +159,12 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
         boolean changed = false;
 
         if (other.getDeviceName() != null) {
-            Platform.runLater(() -> {
-                nodeInfoComponent.setDeviceName(other.getDeviceName());
-            });
-
+            nodeInfoComponent.setDeviceName(other.getDeviceName());
             changed = true;
         }
 
         if (other.getIPAddress() != null) {
-            Platform.runLater(() -> {
-                nodeInfoComponent.setIPAddress(other.getIPAddress());
-            });
-
+            nodeInfoComponent.setIPAddress(other.getIPAddress());
             changed = true;
         }
         return changed;
@@ -214,20 +193,22 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
         if (!filterPropertiesComponent.equals(instance))
             return false;
 
-        Platform.runLater(() -> {
-            filterPropertiesComponent.addFilterColors(((FilterPropertiesComponent)instance).getFilterColors());
-        });
+        final FilterPropertiesComponent other = (FilterPropertiesComponent) instance;
+
+        // most updates were not colored by a filter, nothing has to be done for them
+        if (!other.getHasColor()) {
+            return true;
+        }
 
+        // the colors are mirrored to the view by the component itself
+        filterPropertiesComponent.addFilterColors(other);
 
         return true;
     }
 
     public boolean updateVertex(INode existingVertex, INode newVertex) {
 
-        newVertex.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = existingVertex.getComponent(c.getClass());
-            existing.update(c, this);
-        });
+        merge(existingVertex, newVertex);
         // TODO check if really some was changed
         return true;
     }
@@ -235,11 +216,47 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
     @Override
     public boolean updateEdge(IConnection existingEdge, IConnection newEdge) {
 
-        newEdge.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = existingEdge.getComponent(c.getClass());
-            existing.update(c, this);
-        });
+        merge(existingEdge, newEdge);
         // TODO check if really some was changed
         return true;
     }
+
+    /**
+     * <p>
+     *     Merges the mutable components of the update into the components of the same type of the target.
+     * </p>
+     *
+     * @param target The composition to merge the update into.
+     * @param update The composition holding the changes.
+     */
+    private void merge(IComposition target, IComposition update) {
+
+        final ComponentMerger merger = mergers.get();
+        final IComposition previous = merger.target;
+
+        merger.target = target;
+        update.forEachMutableComponent(merger);
+        merger.target = previous;
+    }
+
+    /**
+     * <p>
+     *     Merges single components into the component of the same type of its target. The known component types
+     *     dispatch to their update method of this updater, which merges them through primitive deltas.
+     * </p>
+     */
+    private static final class ComponentMerger implements Consumer<IComponent> {
+
+        private final IUpdater updater;
+        private IComposition target;
+
+        private ComponentMerger(IUpdater updater) {
+            this.updater = updater;
+        }
+
+        @Override
+        public void accept(IComponent component) {
+            target.getComponent(component.getClass()).update(component, updater);
+        }
+    }
 }
@@ -26,8 +26,11 @@ import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
 import edu.kit.trufflehog.viewmodel.StatisticsViewModel;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.Property;
+import javafx.beans.property.ReadOnlyLongProperty;
 import javafx.beans.property.SimpleListProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -62,7 +65,7 @@ public class ComponentInfoVisitor implements IComponentVisitor<TreeItem<Statisti
 
         final TreeItem<StatisticsViewModel.IEntry<StringProperty, ? extends Property>> root = new TreeItem<>(new StatisticsViewModel.StringEntry<>(component.name(), ""));
 
-        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("Connection Traffic", component.getTrafficProperty())));
+        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("Connection Traffic", mirror(component.getTrafficProperty()))));
 
         return root;
     }
@@ -75,10 +78,10 @@ public class ComponentInfoVisitor implements IComponentVisitor<TreeItem<Statisti
         StringProperty doubleStringProperty = new SimpleStringProperty("");
         doubleStringProperty.bindBidirectional(component.getThroughputProperty(), new DecimalFormat("0.00"));
 
-        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("In/out packages", component.getCommunicationCountProperty())));
+        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("In/out packages", mirror(component.getCommunicationCountProperty()))));
         root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("Packages per second", doubleStringProperty)));
-        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("Outgoing", component.outgoingCountProperty())));
-        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("Incoming", component.ingoingCountProperty())));
+        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("Outgoing", mirror(component.outgoingCountProperty()))));
+        root.getChildren().add(new TreeItem<>(new StatisticsViewModel.StringEntry<>("Incoming", mirror(component.ingoingCountProperty()))));
 
         return root;
     }
@@ -121,7 +124,7 @@ public class ComponentInfoVisitor implements IComponentVisitor<TreeItem<Statisti
             popup.show(Main.pr);
         });*/
 
-        final TreeItem<StatisticsViewModel.IEntry<StringProperty, ? extends Property>> info = new TreeItem<>(new StatisticsViewModel.StringEntry<>("Packets", component.getObservablePacketsProperty()));
+        final TreeItem<StatisticsViewModel.IEntry<StringProperty, ? extends Property>> info = new TreeItem<>(new StatisticsViewModel.StringEntry<>("Packets", component.packetCountProperty()));
         root.getChildren().add(info);
 
         return root;
@@ -142,4 +145,17 @@ public class ComponentInfoVisitor implements IComponentVisitor<TreeItem<Statisti
     public TreeItem<StatisticsViewModel.IEntry<StringProperty, ? extends Property>> visit(NetworkNodeTester iComponents) {
         throw new UnsupportedOperationException("Operation not implemented yet");
     }
+
+    /**
+     * <p>
+     *     The entries need a property, so the read-only counts are shown through a property bound to them. The binding
+     *     is weak, so the count does not keep the property from being collected.
+     * </p>
+     */
+    private static LongProperty mirror(ReadOnlyLongProperty count) {
+
+        final LongProperty property = new SimpleLongProperty();
+        property.bind(count);
+        return property;
+    }
 }
@@ -19,6 +19,9 @@ package edu.kit.trufflehog.model.network.graph.components;
 import edu.kit.trufflehog.model.network.graph.IComponent;
 import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
+import edu.kit.trufflehog.util.javafx.FxUpdate;
+
+import java.util.function.Supplier;
 
 /**
  * \brief
@@ -26,25 +29,84 @@ import edu.kit.trufflehog.model.network.graph.IUpdater;
  * \date 05.03.16
  * \copyright GNU Public License
  *
+ * <p>
+ *     The renderer can be created when the view asks for it the first time. Until then the component does not hold
+ *     any shapes or animations, so a network without a view, like in the headless mode, does not need a FX toolkit.
+ * </p>
+ *
  * @author Jan Hermes
  * @version 0.0.1
  */
 public class ViewComponent extends AbstractComponent implements IComponent {
 
-    private final IRenderer renderer;
+    private final Supplier<IRenderer> rendererFactory;
+    private volatile IRenderer renderer;
+    private final FxUpdate animation = new FxUpdate(this::animate);
 
     public ViewComponent(IRenderer renderer) {
 
         this.renderer = renderer;
+        this.rendererFactory = null;
+    }
 
+    /**
+     * <p>
+     *     Creates a component whose renderer is created by the given factory when it is needed the first time.
+     * </p>
+     * @param rendererFactory creates the renderer
+     */
+    public ViewComponent(Supplier<IRenderer> rendererFactory) {
+        if (rendererFactory == null) throw new NullPointerException("rendererFactory must not be null!");
+
+        this.renderer = null;
+        this.rendererFactory = rendererFactory;
     }
 
+    /**
+     * <p>
+     *     Animates the renderer. Nothing happens if the renderer was not created yet, then nobody looks at it.
+     * </p>
+     */
     public void animate() {
-        renderer.animate();
+        final IRenderer current = renderer;
+
+        if (current != null) {
+            current.animate();
+        }
+    }
+
+    /**
+     * <p>
+     *     Animates the renderer with the next frame, several requests within one frame animate it once. Can be
+     *     called from any thread.
+     * </p>
+     */
+    public void animateLater() {
+        if (renderer != null) {
+            animation.schedule();
+        }
     }
 
     public IRenderer getRenderer() {
-        return renderer;
+        IRenderer current = renderer;
+
+        if (current == null) {
+            synchronized (this) {
+                current = renderer;
+
+                if (current == null) {
+                    current = rendererFactory.get();
+
+                    if (getParent() != null) {
+                        current.setParent(getParent());
+                    }
+
+                    renderer = current;
+                }
+            }
+        }
+
+        return current;
     }
 
     @Override
@@ -64,10 +126,14 @@ public class ViewComponent extends AbstractComponent implements IComponent {
     }
 
     @Override
-    public void setParent(IComposition parent) {
+    synchronized public void setParent(IComposition parent) {
 
         super.setParent(parent);
-        renderer.setParent(parent);
+
+        // a lazy renderer gets the parent when it is created
+        if (renderer != null) {
+            renderer.setParent(parent);
+        }
     }
 
     @Override
@@ -5,13 +5,11 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
-import javafx.application.Platform;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.LongProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleLongProperty;
+import edu.kit.trufflehog.util.javafx.FxUpdate;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
 
-import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * \brief
@@ -19,33 +17,56 @@ import java.time.Instant;
  * \date 23.02.16
  * \copyright GNU Public License
  *
+ * <p>
+ *     The traffic is kept in a {@link LongAdder} that can be incremented from any number of threads without
+ *     contention, the time of the last update in a volatile field. The properties are read-only mirrors of them and
+ *     are updated once per frame by the {@link edu.kit.trufflehog.util.javafx.FxUpdatePump}.
+ * </p>
+ *
  * @author Jan Hermes
  * @version 0.0.1
  */
 public class EdgeStatisticsComponent extends AbstractComponent implements IComponent {
 
-    private final IntegerProperty trafficProperty = new SimpleIntegerProperty(1);
-    private final LongProperty lastUpdateTime = new SimpleLongProperty(Instant.now().toEpochMilli());
+    private final ReadOnlyLongWrapper trafficProperty = new ReadOnlyLongWrapper(1);
+    private final ReadOnlyLongWrapper lastUpdateTime = new ReadOnlyLongWrapper(System.currentTimeMillis());
+
+    private final LongAdder traffic = new LongAdder();
+    private volatile long lastUpdate = lastUpdateTime.get();
+    private final FxUpdate fxUpdate = new FxUpdate(this::updateProperties);
 
-    public EdgeStatisticsComponent(int initial) {
+    public EdgeStatisticsComponent(long initial) {
 
+        traffic.add(initial);
         trafficProperty.set(initial);
     }
 
-    public IntegerProperty getTrafficProperty() {
-        return trafficProperty;
+    /**
+     * @return the read-only mirror of the traffic, updated once per frame
+     */
+    public ReadOnlyLongProperty getTrafficProperty() {
+        return trafficProperty.getReadOnlyProperty();
     }
 
-    public int getTraffic() {
-        return trafficProperty.get();
+    public long getTraffic() {
+        return traffic.sum();
     }
 
-    public void setTrafficProperty(int value) {
-        Platform.runLater(() -> trafficProperty.set(value));
+    /**
+     * <p>
+     *     Replaces the traffic. Unlike incrementing, replacing must not race with other changes of the traffic.
+     * </p>
+     * @param value the new traffic
+     */
+    public void setTrafficProperty(long value) {
+        traffic.reset();
+        traffic.add(value);
+        fxUpdate.schedule();
     }
 
-    public void incrementTraffic(int step) {
-        setTrafficProperty(getTraffic() + step);
+    public void incrementTraffic(long step) {
+        traffic.add(step);
+        fxUpdate.schedule();
     }
 
     @Override
@@ -66,15 +87,24 @@ public class EdgeStatisticsComponent extends AbstractComponent implements ICompo
 
 
     public long getLastUpdateTime() {
-        return lastUpdateTime.get();
+        return lastUpdate;
     }
 
-    public LongProperty lastUpdateTimeProperty() {
-        return lastUpdateTime;
+    /**
+     * @return the read-only mirror of the time of the last update, updated once per frame
+     */
+    public ReadOnlyLongProperty lastUpdateTimeProperty() {
+        return lastUpdateTime.getReadOnlyProperty();
     }
 
     public void setLastUpdateTimeProperty(long value) {
-        lastUpdateTimeProperty().setValue(value);
+        lastUpdate = value;
+        fxUpdate.schedule();
+    }
+
+    private void updateProperties() {
+        trafficProperty.set(traffic.sum());
+        lastUpdateTime.set(lastUpdate);
     }
 
     @Override
@@ -1,47 +1,98 @@
 package edu.kit.trufflehog.model.network.graph.components.node;
 
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
-import com.google.common.collect.Ordering;
-import com.google.common.collect.TreeMultimap;
+import edu.kit.trufflehog.model.filter.FilterPalette;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.network.graph.IComponent;
-import edu.kit.trufflehog.model.network.graph.IComposition;
+import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleObjectProperty;
+import edu.kit.trufflehog.util.javafx.FxUpdate;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.scene.paint.Color;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <p>
  *     This class contains all flags and rendering properties that are set by filters when the node is filtered by them.
  * </p>
+ * <p>
+ *     The filters that matched the node are stored as the bits of a long, one bit for the id of every filter in the
+ *     {@link FilterPalette}. The bits are changed without a lock and the color to render is resolved by the palette.
+ *     The properties are mirrored once per frame on the FX application thread.
+ * </p>
+ * <p>
+ *     If more than {@link FilterPalette#CAPACITY} filters color nodes at the same time, the filters that got no id
+ *     are kept in a map of the component instead, which is only created when it is needed.
+ * </p>
  * @author Mark Giraud
  * @version 1.0
  */
 public class FilterPropertiesComponent extends AbstractComponent implements IComponent {
 
-    private final Logger logger = LogManager.getLogger();
+    private final FilterPalette palette;
 
-    private final TreeMultimap<IFilter, Color> filterColors = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
+    private final AtomicLong filters = new AtomicLong(0);
 
-    public boolean getHasColor() {
-        return hasColor.get();
+    // the filters that got no id in the palette, null as long as there were none
+    private volatile Map<IFilter, Color> spilledFilters = null;
+
+    private final ReadOnlyBooleanWrapper hasColor = new ReadOnlyBooleanWrapper(false);
+    private final ReadOnlyObjectWrapper<Color> activeColor = new ReadOnlyObjectWrapper<>(null);
+
+    private final FxUpdate colorUpdate = new FxUpdate(this::refresh);
+
+    /**
+     * <p>
+     *     Creates a component without filter colors that uses the palette of all nodes.
+     * </p>
+     */
+    public FilterPropertiesComponent() {
+        this(FilterPalette.getInstance());
     }
 
-    public BooleanProperty hasColorProperty() {
-        return hasColor;
+    /**
+     * <p>
+     *     Creates a component without filter colors.
+     * </p>
+     * @param palette the palette that knows the ids of the filters
+     */
+    public FilterPropertiesComponent(final FilterPalette palette) {
+        if (palette == null) throw new NullPointerException("palette must not be null!");
+
+        this.palette = palette;
     }
 
-    private final BooleanProperty hasColor = new SimpleBooleanProperty(false);
+    /**
+     * <p>
+     *     Recolors the given nodes with one update on the FX application thread, for example after the priority of a
+     *     filter changed in the {@link FilterPalette}.
+     * </p>
+     * @param nodes the nodes to recolor
+     */
+    public static void recolor(final Iterable<? extends INode> nodes) {
+        if (nodes == null) throw new NullPointerException("nodes must not be null!");
+
+        FxUpdatePump.getInstance().submit(() -> {
+            for (final INode node : nodes) {
+                final FilterPropertiesComponent component = node.getComponent(FilterPropertiesComponent.class);
+
+                if (component != null) {
+                    component.refresh();
+                }
+            }
+        });
+    }
 
-    private final ObjectProperty<Color> activeColor = new SimpleObjectProperty<>(null);
     /**
      * <p>
      *     This method maps the specified color to the filter. The colors are ordered by the filters priority.
@@ -51,29 +102,78 @@ public class FilterPropertiesComponent extends AbstractComponent implements ICom
      * @param color the color to map to the filter. The color from the filter with
      *              highest priority will be returned by getFilterColor()
      */
-    synchronized public void addFilterColor(IFilter filter, Color color) {
-        filterColors.put(filter, color);
+    public void addFilterColor(IFilter filter, Color color) {
+        final int id = palette.register(filter, color);
 
-        activeColor.set(getFilterColor());
-        hasColor.set(true);
-        logger.debug("adding filter color: " + color);
+        if (id >= 0) {
+            addFilters(1L << id);
+        } else {
+            spill(filter, color);
+        }
     }
 
     /**
      * <p>
-     *     This method adds the specified filter colors to the existing map.
+     *     This method adds the specified filter colors to the existing ones.
      * </p>
-     * @param newFilterColors the new filter colors to add to the existing map
+     * @param newFilterColors the new filter colors to add
      */
-    synchronized public void addFilterColors(Multimap<IFilter, Color> newFilterColors) {
-        filterColors.putAll(newFilterColors);
+    public void addFilterColors(Multimap<IFilter, Color> newFilterColors) {
+        long added = 0;
+
+        for (final Map.Entry<IFilter, Color> entry : newFilterColors.entries()) {
+            final int id = palette.register(entry.getKey(), entry.getValue());
+
+            if (id >= 0) {
+                added |= 1L << id;
+            } else {
+                spill(entry.getKey(), entry.getValue());
+            }
+        }
 
-        if (!newFilterColors.isEmpty()) {
+        addFilters(added);
+    }
+
+    /**
+     * <p>
+     *     This method adds the filter colors of the other component to the existing ones.
+     * </p>
+     * @param other the component whose colors to add
+     */
+    public void addFilterColors(FilterPropertiesComponent other) {
+        addFilters(other.filters.get());
 
-            activeColor.set(getFilterColor());
-            hasColor.set(true);
-            logger.debug("add filter colors: " + newFilterColors);
+        final Map<IFilter, Color> otherSpilled = other.spilledFilters;
+
+        if (otherSpilled != null) {
+            otherSpilled.forEach(this::spill);
+        }
+    }
+
+    /**
+     * <p>
+     *     This method replaces the filter colors with the ones of the other component.
+     * </p>
+     * @param other the component whose colors to take
+     */
+    public void setFilterColors(FilterPropertiesComponent other) {
+        final long mask = other.filters.get();
+        final Map<IFilter, Color> otherSpilled = other.spilledFilters;
+        boolean changed = filters.getAndSet(mask) != mask;
+
+        if (otherSpilled != null && !otherSpilled.isEmpty()) {
+            final Map<IFilter, Color> spilled = spilledFilters();
+
+            changed |= !spilled.equals(otherSpilled);
+            spilled.keySet().retainAll(otherSpilled.keySet());
+            spilled.putAll(otherSpilled);
+        } else if (spilledFilters != null && !spilledFilters.isEmpty()) {
+            spilledFilters.clear();
+            changed = true;
+        }
 
+        if (changed) {
+            colorUpdate.schedule();
         }
     }
 
@@ -83,14 +183,25 @@ public class FilterPropertiesComponent extends AbstractComponent implements ICom
      * </p>
      * @param filter the filter whose color should be removed
      */
-    synchronized public void removeFilterColor(final IFilter filter) {
-        filterColors.remove(filter, filter.getFilterColor());
+    public void removeFilterColor(final IFilter filter) {
+        final Map<IFilter, Color> spilled = spilledFilters;
 
-        activeColor.set(getFilterColor());
+        if (spilled != null && spilled.remove(filter) != null) {
+            colorUpdate.schedule();
+        }
+
+        final int id = palette.idOf(filter);
+
+        if (id < 0) {
+            return;
+        }
 
-        hasColor.set(!filterColors.isEmpty());
+        final long bit = 1L << id;
+        final long previous = filters.getAndUpdate(mask -> mask & ~bit);
 
-        logger.debug("remove filter color: " + filter);
+        if ((previous & bit) != 0) {
+            colorUpdate.schedule();
+        }
     }
 
     /**
@@ -99,29 +210,123 @@ public class FilterPropertiesComponent extends AbstractComponent implements ICom
      * </p>
      * @return the color this node should be rendered with. If no color is specified this method returns null.
      */
-    synchronized public Color getFilterColor() {
+    public Color getFilterColor() {
+        return resolve(filters.get());
+    }
 
-        if (filterColors.isEmpty()) {
-            return null;
-        }
+    public boolean getHasColor() {
+        return hasColor(filters.get());
+    }
 
-        return filterColors.get(filterColors.keySet().last()).first();
+    public ReadOnlyBooleanProperty hasColorProperty() {
+        return hasColor.getReadOnlyProperty();
     }
 
     public Color getActiveColor() {
-        return activeColor.get();
+        return getFilterColor();
     }
 
-    public ObjectProperty<Color> activeColorProperty() {
-        return activeColor;
+    public ReadOnlyObjectProperty<Color> activeColorProperty() {
+        return activeColor.getReadOnlyProperty();
     }
 
     /**
-     * This method returns an unmodifiable multimap of the filter colors.
+     * This method returns an immutable multimap of the filter colors.
      * @return the map of filter colors
      */
     public Multimap<IFilter, Color> getFilterColors() {
-        return Multimaps.unmodifiableMultimap(filterColors);
+        final ImmutableMultimap.Builder<IFilter, Color> builder = ImmutableMultimap.builder();
+
+        for (long rest = filters.get(); rest != 0; rest &= rest - 1) {
+            final int id = Long.numberOfTrailingZeros(rest);
+            final IFilter filter = palette.getFilter(id);
+            final Color color = palette.getColor(id);
+
+            // the filter may have been released in the meantime
+            if (filter != null && color != null) {
+                builder.put(filter, color);
+            }
+        }
+
+        final Map<IFilter, Color> spilled = spilledFilters;
+
+        if (spilled != null) {
+            spilled.forEach(builder::put);
+        }
+
+        return builder.build();
+    }
+
+    private void spill(final IFilter filter, final Color color) {
+        if (spilledFilters().put(filter, color) == null) {
+            colorUpdate.schedule();
+        }
+    }
+
+    private Map<IFilter, Color> spilledFilters() {
+        Map<IFilter, Color> spilled = spilledFilters;
+
+        if (spilled == null) {
+            synchronized (this) {
+                spilled = spilledFilters;
+
+                if (spilled == null) {
+                    spilled = new ConcurrentHashMap<>();
+                    spilledFilters = spilled;
+                }
+            }
+        }
+
+        return spilled;
+    }
+
+    private boolean hasColor(final long mask) {
+        final Map<IFilter, Color> spilled = spilledFilters;
+
+        return mask != 0 || (spilled != null && !spilled.isEmpty());
+    }
+
+    private Color resolve(final long mask) {
+        final Map<IFilter, Color> spilled = spilledFilters;
+
+        if (spilled == null || spilled.isEmpty()) {
+            return palette.resolve(mask);
+        }
+
+        final int id = palette.resolveId(mask);
+        Color color = id < 0 ? null : palette.getColor(id);
+        int priority = id < 0 ? Integer.MIN_VALUE : palette.getPriority(id);
+
+        for (final Map.Entry<IFilter, Color> entry : spilled.entrySet()) {
+            final IFilter filter = entry.getKey();
+
+            if (color == null || filter.getPriority() > priority) {
+                // like the palette, the current color of the filter is preferred after it was recolored
+                color = filter.getFilterColor() != null ? filter.getFilterColor() : entry.getValue();
+                priority = filter.getPriority();
+            }
+        }
+
+        return color;
+    }
+
+    private void addFilters(final long added) {
+        if (added == 0) {
+            return;
+        }
+
+        final long previous = filters.getAndAccumulate(added, (mask, bits) -> mask | bits);
+
+        if ((previous | added) != previous) {
+            colorUpdate.schedule();
+        }
+    }
+
+    private void refresh() {
+        final long mask = filters.get();
+
+        hasColor.set(hasColor(mask));
+        activeColor.set(resolve(mask));
     }
 
     @Override
@@ -153,6 +358,6 @@ public class FilterPropertiesComponent extends AbstractComponent implements ICom
 
     @Override
     public String toString() {
-        return filterColors.toString();
+        return getFilterColors().toString();
     }
 }
@@ -8,6 +8,7 @@ import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
 import edu.kit.trufflehog.util.bindings.MyBindings;
+import edu.kit.trufflehog.util.javafx.FxUpdate;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.StringBinding;
@@ -22,6 +23,10 @@ import javafx.beans.property.StringProperty;
  * <p>
  *     This class holds all static node information like addresses and the device name.
  * </p>
+ * <p>
+ *     The device name and ip address can be set from any thread. Their properties are updated with the next frame
+ *     by the {@link edu.kit.trufflehog.util.javafx.FxUpdatePump}.
+ * </p>
  * @author Mark Giraud
  * @version 0.1
  */
@@ -31,6 +36,10 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
     private final ObjectProperty<IPAddress> ipAddressProperty = new SimpleObjectProperty<>();
     private final ReadOnlyObjectWrapper<MacAddress> macAddressProperty;
 
+    private volatile String deviceName = null;
+    private volatile IPAddress ipAddress = null;
+    private final FxUpdate fxUpdate = new FxUpdate(this::updateProperties);
+
     private IComposition parent;
 
     public NodeInfoComponent(MacAddress macAddress) {
@@ -44,7 +53,7 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
      * @return the device name
      */
     public String getDeviceName() {
-        return deviceNameProperty.getValue();
+        return deviceName;
     }
 
     /**
@@ -57,8 +66,8 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
         if (deviceName == null)
             throw new NullPointerException("deviceName must not be null");
 
-        deviceNameProperty.setValue(deviceName);
-
+        this.deviceName = deviceName;
+        fxUpdate.schedule();
     }
 
     /**
@@ -78,7 +87,7 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
      * @return the ip address.
      */
     public IPAddress getIPAddress() {
-        return ipAddressProperty.getValue();
+        return ipAddress;
     }
 
     /**
@@ -88,7 +97,8 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
      * @param ip the ip address to set. Must not be null.
      */
     public void setIPAddress(IPAddress ip) {
-        ipAddressProperty.setValue(ip);
+        this.ipAddress = ip;
+        fxUpdate.schedule();
     }
 
     /**
@@ -121,6 +131,11 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
         return macAddressProperty.getReadOnlyProperty();
     }
 
+    private void updateProperties() {
+        deviceNameProperty.setValue(deviceName);
+        ipAddressProperty.setValue(ipAddress);
+    }
+
     @Override
     public String name() {
         //TODO put this in property file
@@ -4,8 +4,7 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.IRenderer;
 import edu.kit.trufflehog.util.ICopyCreator;
-import javafx.application.Platform;
-import javafx.beans.binding.When;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.paint.Color;
@@ -47,7 +46,7 @@ public class NodeRenderer implements IRenderer {
 
        // shape.getStyle
 
-        Platform.runLater(() -> {
+        FxUpdatePump.getInstance().submit(() -> {
             shape.fillProperty().bind(fillPaintProperty);
         });
 
@@ -83,16 +82,23 @@ public class NodeRenderer implements IRenderer {
         // TODO maybe make this more error prone
         if (fpc != null) {
 
-            Platform.runLater(() -> {
+            FxUpdatePump.getInstance().submit(() -> {
                 shape.fillProperty().unbind();
-                shape.fillProperty().bind(new When(fpc.hasColorProperty()).then(fpc.activeColorProperty()).otherwise(colorPicked));
+                shape.setFill(fillOf(fpc.getActiveColor()));
 
+                // the active color is null while no filter matches the node
+                fpc.activeColorProperty().addListener((observable, oldColor, newColor) ->
+                        shape.setFill(fillOf(newColor)));
             });
 
         }
     }
 
 
+    private Paint fillOf(final Color filterColor) {
+        return filterColor == null ? colorPicked : filterColor;
+    }
+
     /**
      * <p>
      *     Gets the current shape of the node.
@@ -5,112 +5,164 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
-import javafx.application.Platform;
-import javafx.beans.binding.Bindings;
+import edu.kit.trufflehog.util.javafx.FxUpdate;
 import javafx.beans.property.DoubleProperty;
-import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
 import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleIntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Created by jan on 23.02.16.
+ *
+ * <p>
+ *     The counts are kept in {@link LongAdder}s, which are the source of truth: they can be incremented from any
+ *     number of ingest threads without contention and without losing increments, and they do not overflow on long
+ *     captures. The count properties are read-only mirrors of them, updated once per frame on the FX application
+ *     thread by the {@link edu.kit.trufflehog.util.javafx.FxUpdatePump}.
+ * </p>
+ * <p>
+ *     Every change of the counts marks the node as seen, the time it was last seen tells whether the node is idle.
+ * </p>
  */
 public class NodeStatisticsComponent extends AbstractComponent implements IComponent {
 
     private static final Logger logger = LogManager.getLogger(NodeStatisticsComponent.class);
-    
-    private final IntegerProperty communicationCount;
+
+    private final ReadOnlyLongWrapper communicationCount;
     private final DoubleProperty throughput = new SimpleDoubleProperty(1);
 
-    private final IntegerProperty ingoingCount;
+    private final ReadOnlyLongWrapper ingoingCount;
+
+    private final ReadOnlyLongWrapper outgoingCount;
 
-    private final IntegerProperty outgoingCount;
+    private final LongAdder ingoing = new LongAdder();
+    private final LongAdder outgoing = new LongAdder();
+    private final FxUpdate fxUpdate = new FxUpdate(this::updateProperties);
+    private volatile long lastSeen = System.currentTimeMillis();
 
     private IComposition parent = null;
 
-    public NodeStatisticsComponent(int initialOutgoing, int initialIngoing) {
+    public NodeStatisticsComponent(long initialOutgoing, long initialIngoing) {
 
-        ingoingCount = new SimpleIntegerProperty(initialIngoing);
-        outgoingCount = new SimpleIntegerProperty(initialOutgoing);
+        ingoing.add(initialIngoing);
+        outgoing.add(initialOutgoing);
 
-        //communicationCountBinding = ingoingCount.add(outgoingCount);
-        communicationCount = new SimpleIntegerProperty(0);
-        communicationCount.bind(Bindings.add(ingoingCount, outgoingCount));
+        ingoingCount = new ReadOnlyLongWrapper(initialIngoing);
+        outgoingCount = new ReadOnlyLongWrapper(initialOutgoing);
+        communicationCount = new ReadOnlyLongWrapper(initialIngoing + initialOutgoing);
     }
 
-    public int getOutgoingCount() {
-        return outgoingCount.get();
+    public long getOutgoingCount() {
+        return outgoing.sum();
     }
 
-    public IntegerProperty outgoingCountProperty() {
-        return outgoingCount;
+    /**
+     * @return the read-only mirror of the outgoing count, updated once per frame
+     */
+    public ReadOnlyLongProperty outgoingCountProperty() {
+        return outgoingCount.getReadOnlyProperty();
     }
 
-    public void setOutgoingCount(int outgoingCount) {
+    /**
+     * <p>
+     *     Replaces the outgoing count. Unlike adding, replacing must not race with other changes of the count.
+     * </p>
+     * @param outgoingCount the new outgoing count
+     */
+    public void setOutgoingCount(long outgoingCount) {
+        outgoing.reset();
+        outgoing.add(outgoingCount);
+        lastSeen = System.currentTimeMillis();
+        fxUpdate.schedule();
+    }
+
+    /**
+     * <p>
+     *     Adds the given number of packets to the outgoing count. Can be called from any thread.
+     * </p>
+     * @param packets the number of packets the node sent
+     */
+    public void addOutgoingCount(long packets) {
+        outgoing.add(packets);
+        lastSeen = System.currentTimeMillis();
+        fxUpdate.schedule();
+    }
 
+    public long getIncomingCount() {
+        return ingoing.sum();
+    }
 
-        Platform.runLater(() -> this.outgoingCount.set(outgoingCount));
+    /**
+     * @return the read-only mirror of the incoming count, updated once per frame
+     */
+    public ReadOnlyLongProperty ingoingCountProperty() {
+        return ingoingCount.getReadOnlyProperty();
     }
 
-    public int getIncomingCount() {
-        return ingoingCount.get();
+    /**
+     * <p>
+     *     Replaces the incoming count. Unlike adding, replacing must not race with other changes of the count.
+     * </p>
+     * @param ingoingCount the new incoming count
+     */
+    public void setIncomingCount(long ingoingCount) {
+        ingoing.reset();
+        ingoing.add(ingoingCount);
+        lastSeen = System.currentTimeMillis();
+        fxUpdate.schedule();
+    }
+
+    /**
+     * <p>
+     *     Adds the given number of packets to the incoming count. Can be called from any thread.
+     * </p>
+     * @param packets the number of packets the node received
+     */
+    public void addIncomingCount(long packets) {
+        ingoing.add(packets);
+        lastSeen = System.currentTimeMillis();
+        fxUpdate.schedule();
     }
 
-    public IntegerProperty ingoingCountProperty() {
-        return ingoingCount;
+    /**
+     * @return the time in milliseconds since the epoch the counts of the node last changed
+     */
+    public long getLastSeen() {
+        return lastSeen;
     }
 
-    public void setIncomingCount(int ingoingCount) {
-        Platform.runLater(() -> this.ingoingCount.set(ingoingCount));
+    /**
+     * @param lastSeen the time in milliseconds since the epoch the node was last seen
+     */
+    public void setLastSeen(long lastSeen) {
+        this.lastSeen = lastSeen;
     }
 
-    public IntegerProperty getCommunicationCountProperty() {
+    private void updateProperties() {
 
-        return communicationCount;
-    }
+        final long out = outgoing.sum();
+        final long in = ingoing.sum();
 
-    public int getCommunicationCount() {
-        return communicationCount.get();
+        outgoingCount.set(out);
+        ingoingCount.set(in);
+        communicationCount.set(in + out);
     }
 
-    //FIXME fix concurrency problem?
-    /*
-    Exception in thread "pool-5-thread-1" java.lang.NullPointerException
-	at com.sun.javafx.binding.ExpressionHelper$Generic.fireValueChangedEvent(ExpressionHelper.java:349)
-	at com.sun.javafx.binding.ExpressionHelper.fireValueChangedEvent(ExpressionHelper.java:81)
-	at javafx.beans.property.IntegerPropertyBase.fireValueChangedEvent(IntegerPropertyBase.java:106)
-	at javafx.beans.property.IntegerPropertyBase.markInvalid(IntegerPropertyBase.java:113)
-	at javafx.beans.property.IntegerPropertyBase.set(IntegerPropertyBase.java:147)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.setCommunicationCountProperty(NodeStatisticsComponent.java:36)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.incrementThroughput(NodeStatisticsComponent.java:41)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.update(LiveUpdater.java:62)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.update(NodeStatisticsComponent.java:70)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.update(NodeStatisticsComponent.java:15)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.lambda$updateVertex$2(LiveUpdater.java:170)
-	at java.util.stream.ForEachOps$ForEachOp$OfRef.accept(ForEachOps.java:184)
-	at java.util.stream.ReferencePipeline$2$1.accept(ReferencePipeline.java:175)
-	at java.util.Iterator.forEachRemaining(Iterator.java:116)
-	at java.util.Spliterators$IteratorSpliterator.forEachRemaining(Spliterators.java:1801)
-	at java.util.stream.AbstractPipeline.copyInto(AbstractPipeline.java:481)
-	at java.util.stream.AbstractPipeline.wrapAndCopyInto(AbstractPipeline.java:471)
-	at java.util.stream.ForEachOps$ForEachOp.evaluateSequential(ForEachOps.java:151)
-	at java.util.stream.ForEachOps$ForEachOp$OfRef.evaluateSequential(ForEachOps.java:174)
-	at java.util.stream.AbstractPipeline.evaluate(AbstractPipeline.java:234)
-	at java.util.stream.ReferencePipeline.forEach(ReferencePipeline.java:418)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.updateVertex(LiveUpdater.java:168)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.updateVertex(LiveUpdater.java:44)
-	at edu.uci.ics.jung.graph.ObservableUpdatableGraph.updateVertex(ObservableUpdatableGraph.java:84)
-	at edu.uci.ics.jung.graph.ObservableUpdatableGraph.addVertex(ObservableUpdatableGraph.java:171)
-	at edu.kit.trufflehog.model.network.NetworkIOPort.writeNode(NetworkIOPort.java:65)
-	at edu.kit.trufflehog.model.network.recording.NetworkWritingPortSwitch.writeNode(NetworkWritingPortSwitch.java:38)
-	at edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand.execute(AddPacketDataCommand.java:95)
-	at edu.kit.trufflehog.service.executor.CommandExecutor.run(CommandExecutor.java:45)
-	at java.util.concurrent.ThreadPoolExecutor.runWorker(ThreadPoolExecutor.java:1142)
-	at java.util.concurrent.ThreadPoolExecutor$Worker.run(ThreadPoolExecutor.java:617)
-	at java.lang.Thread.run(Thread.java:745)
+    /**
+     * @return the read-only mirror of the sum of the incoming and outgoing count, updated once per frame
      */
+    public ReadOnlyLongProperty getCommunicationCountProperty() {
+
+        return communicationCount.getReadOnlyProperty();
+    }
+
+    public long getCommunicationCount() {
+        return ingoing.sum() + outgoing.sum();
+    }
 
     public DoubleProperty getThroughputProperty() {
         return throughput;
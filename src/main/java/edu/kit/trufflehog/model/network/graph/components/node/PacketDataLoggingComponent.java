@@ -6,64 +6,437 @@ import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
-import javafx.beans.property.ListProperty;
-import javafx.beans.property.SimpleListProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketStore;
+import edu.kit.trufflehog.util.collections.CompressedLongList;
+import edu.kit.trufflehog.util.javafx.FxUpdate;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.SimpleLongProperty;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * <p>
- *     Component to store outgoing and incoming IPacketData of nodes. Provides JavaFX property to access/observe
- *     the data.
+ *     Component to log the outgoing and incoming IPacketData of nodes and connections. The packets themselves are
+ *     stored once in the {@link PacketStore}, the component only keeps the ids of its packets, compressed in a
+ *     {@link CompressedLongList}. So a packet that is logged by its source, its destination and its connection takes
+ *     a few bytes in each of them. The packets are read back from the store when they are asked for.
+ * </p>
+ * <p>
+ *     Packets can be logged from any thread. The number of logged packets is mirrored to a JavaFX property once per
+ *     frame by the {@link edu.kit.trufflehog.util.javafx.FxUpdatePump}, so that the view can fetch the new packets
+ *     with {@link #getPacketsSince} instead of being told about every single one. The positions of the packets in
+ *     the log never change, so the view can page through the log with {@link #getPackets(long, long, List)}.
+ * </p>
+ * <p>
+ *     A log keeps the ids of its newest packets in memory only, as many as set by {@link #configure}. Older ids are
+ *     moved to the segment file of the store an eighth of the log at a time, see {@link PacketStore#spillIds}, and
+ *     are read back block by block when their positions are asked for. If the store has no segment file the older
+ *     ids are dropped. The positions of the dropped packets stay counted, reading them adds nothing, and
+ *     {@link #getFirstPosition()} tells where the readable packets start.
  * </p>
  */
 public class PacketDataLoggingComponent extends AbstractComponent implements IComponent {
 
-    private final ObservableList<IPacketData> dataList;
-    private final ListProperty<IPacketData> dataProperty;
+    /**
+     * The number of packet ids a log keeps in memory if nothing else is given.
+     */
+    public static final int DEFAULT_MAX_PACKETS = 1 << 16;
+
+    private static volatile int defaultMaxPackets = DEFAULT_MAX_PACKETS;
+
+    private final PacketStore store;
+    private final CompressedLongList packetIds;
+    private final int maxPackets;
+
+    // the ids that were moved out of memory, the oldest first, and the number of their positions
+    private final List<SpilledIds> spilled;
+    private long spilledCount = 0;
+
+    // the spilled ids that were read back last, so that paging through them reads every block once
+    private SpilledIds loadedSpill = null;
+    private CompressedLongList loadedIds = null;
+
+    private final LongProperty packetCountProperty = new SimpleLongProperty(0);
+    private final FxUpdate fxUpdate = new FxUpdate(() -> packetCountProperty.set(getPacketCount()));
 
     private IComposition parent = null;
+
     /**
      * <p>
-     *     Creates and initializes the component.
+     *     Creates and initializes the component with the store of the live network.
      * </p>
      */
     public PacketDataLoggingComponent() {
+        this(PacketStore.getInstance());
+    }
 
+    /**
+     * <p>
+     *     Creates and initializes the component using the provided Collection of IPacketData.
+     * </p>
+     */
+    public PacketDataLoggingComponent(Collection<IPacketData> data) {
+        this();
+        data.forEach(this::addPacket);
+    }
 
+    /**
+     * <p>
+     *     Creates a copy of the given component. The copy refers to the same packets in the same store.
+     * </p>
+     *
+     * @param other The component to copy.
+     */
+    public PacketDataLoggingComponent(PacketDataLoggingComponent other) {
+
+        store = other.store;
+        maxPackets = other.maxPackets;
 
-        dataList = FXCollections.observableArrayList();
-        dataProperty = new SimpleListProperty<>(dataList);
+        synchronized (other) {
+            packetIds = new CompressedLongList(other.packetIds);
+            spilled = new ArrayList<>(other.spilled);
+            spilledCount = other.spilledCount;
+        }
+
+        packetCountProperty.set(getPacketCount());
     }
 
     /**
      * <p>
-     *     Creates and initializes the component using the provided Collection of IPacketData.
+     *     Creates and initializes the component.
      * </p>
+     *
+     * @param store The store the packets are kept in.
      */
-    public PacketDataLoggingComponent(Collection<IPacketData> data) {
+    public PacketDataLoggingComponent(PacketStore store) {
+        this(store, defaultMaxPackets);
+    }
 
-        dataList = FXCollections.observableArrayList(data);
-        dataProperty = new SimpleListProperty<>(dataList);
+    /**
+     * <p>
+     *     Creates and initializes the component.
+     * </p>
+     *
+     * @param store The store the packets are kept in.
+     * @param maxPackets The number of packet ids the log keeps in memory at most.
+     */
+    public PacketDataLoggingComponent(PacketStore store, int maxPackets) {
+
+        if (store == null) throw new NullPointerException("store must not be null!");
+        if (maxPackets <= 0) throw new IllegalArgumentException("maxPackets must be greater than 0!");
+
+        this.store = store;
+        this.maxPackets = maxPackets;
+        this.packetIds = new CompressedLongList();
+        this.spilled = new ArrayList<>();
     }
 
-    public ObservableList<IPacketData> getObservablePackets() {
-        return dataList;
+    /**
+     * <p>
+     *     Sets the number of packet ids the logs keep in memory that are created from now on without giving one.
+     * </p>
+     *
+     * @param maxPackets The number of packet ids a log keeps in memory at most.
+     */
+    public static void configure(int maxPackets) {
+
+        if (maxPackets <= 0) throw new IllegalArgumentException("maxPackets must be greater than 0!");
+
+        defaultMaxPackets = maxPackets;
     }
 
-    public ListProperty getObservablePacketsProperty() { return dataProperty; }
+    /**
+     * @return the store the packets of this log are kept in
+     */
+    public PacketStore getStore() {
+        return store;
+    }
 
     /**
      * <p>
-     *     Adds the provided IPacketData to the list.
+     *     Appends the provided IPacketData to the store and logs it. Can be called from any thread.
      * </p>
-     * @param packet The packet to add to the list (must not be null).
+     * @param packet The packet to add to the log (must not be null).
      */
     public void addPacket(IPacketData packet) {
         if (packet == null) throw new NullPointerException("packet must not be null!");
-        dataList.add(packet);
+        logPacket(store.append(packet));
+    }
+
+    /**
+     * <p>
+     *     Logs the packet with the given id, which is in the store of this log already. Can be called from any
+     *     thread.
+     * </p>
+     *
+     * @param id The id of the packet in the store.
+     */
+    public void logPacket(long id) {
+
+        synchronized (this) {
+            packetIds.add(id);
+            trim();
+        }
+
+        fxUpdate.schedule();
+    }
+
+    /**
+     * <p>
+     *     Logs all packets of the given log.
+     * </p>
+     *
+     * @param other The log to take the packets from.
+     */
+    public void logPackets(PacketDataLoggingComponent other) {
+
+        if (other.store != store) {
+            other.getPackets().forEach(this::addPacket);
+            return;
+        }
+
+        // the other log is an update that is never merged into, so the locks are always taken in this order
+        synchronized (other) {
+            synchronized (this) {
+                if (other.spilled.isEmpty()) {
+                    packetIds.addAll(other.packetIds);
+                } else {
+                    other.forEachId(0, other.getPacketCount(), id -> {
+                        packetIds.add(id);
+                        trim();
+                    });
+                }
+                trim();
+            }
+        }
+
+        fxUpdate.schedule();
+    }
+
+    /**
+     * @return all logged packets that are still in the log and the store, the oldest first
+     */
+    public synchronized List<IPacketData> getPackets() {
+
+        final List<IPacketData> packets = new ArrayList<>(packetIds.size());
+        forEachId(getFirstPosition(), getPacketCount(), id -> addStoredPacket(id, packets));
+
+        return packets;
+    }
+
+    /**
+     * <p>
+     *     Adds the logged packets at the given positions to the given list. The ids of older packets are read back
+     *     from the segment file of the store, the positions of the packets that were dropped from the log are
+     *     skipped.
+     * </p>
+     *
+     * @param from The position of the first packet, inclusive.
+     * @param to The position of the last packet, exclusive.
+     * @param packets The list to add the packets to, the oldest first.
+     */
+    public synchronized void getPackets(long from, long to, List<? super IPacketData> packets) {
+        forEachId(from, to, id -> addStoredPacket(id, packets));
+    }
+
+    /**
+     * <p>
+     *     Adds the packets that were logged since the given number of packets was logged to the given list.
+     * </p>
+     *
+     * @param since The number of logged packets the caller already knows about.
+     * @param packets The list to add the packets to, the oldest first.
+     * @return The number of logged packets, to pass as since on the next call.
+     */
+    public synchronized long getPacketsSince(long since, List<? super IPacketData> packets) {
+
+        final long count = getPacketCount();
+
+        getPackets(Math.min(since, count), count, packets);
+
+        return count;
+    }
+
+    /**
+     * <p>
+     *     Adds the logged packets that arrived in the given time range to the given list. The spilled ids are only
+     *     read back if some of them may lie in the range, the packets whose ids were dropped are missing.
+     * </p>
+     *
+     * @param fromTime The start of the range in milliseconds, inclusive.
+     * @param toTime The end of the range in milliseconds, exclusive.
+     * @param packets The list to add the packets to, in the order they were logged.
+     */
+    public synchronized void getPacketsBetween(long fromTime, long toTime, List<? super IPacketData> packets) {
+
+        final long fromId = store.firstIdAtOrAfter(fromTime);
+        final long toId = store.firstIdAtOrAfter(toTime);
+
+        for (SpilledIds spill : spilled) {
+
+            if (spill.maxId < fromId || spill.minId >= toId) {
+                continue;
+            }
+
+            final CompressedLongList ids = load(spill);
+
+            if (ids != null) {
+                ids.forEachInRange(fromId, toId, id -> addStoredPacket(id, packets));
+            }
+        }
+
+        packetIds.forEachInRange(fromId, toId, id -> addStoredPacket(id, packets));
+    }
+
+    /**
+     * @return the number of packets that were logged, including the ones that were dropped from the log
+     */
+    public synchronized long getPacketCount() {
+        return spilledCount + packetIds.size();
+    }
+
+    /**
+     * @return the position of the oldest packet that is still in the log, the number of dropped packets
+     */
+    public synchronized long getFirstPosition() {
+
+        // the dropped ids are always merged into one, so only the first one can be in front of the kept ids
+        if (!spilled.isEmpty() && spilled.get(0).offset < 0) {
+            return spilled.get(0).count;
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return the property that holds the number of logged packets, updated once per frame
+     */
+    public LongProperty packetCountProperty() {
+        return packetCountProperty;
+    }
+
+    private void trim() {
+
+        if (packetIds.size() <= maxPackets) {
+            return;
+        }
+
+        // an eighth more than needed, so that the ids are not moved on every packet
+        final int excess = packetIds.size() - maxPackets + maxPackets / 8;
+        final int blocks = Math.min((excess + CompressedLongList.BLOCK_SIZE - 1) / CompressedLongList.BLOCK_SIZE,
+                packetIds.size() / CompressedLongList.BLOCK_SIZE);
+
+        if (blocks == 0) {
+            return;
+        }
+
+        final int count = blocks * CompressedLongList.BLOCK_SIZE;
+        final long offset = store.spillIds(packetIds.encodeFirstBlocks(blocks));
+        final SpilledIds last = spilled.isEmpty() ? null : spilled.get(spilled.size() - 1);
+
+        if (offset < 0 && last != null && last.offset < 0) {
+            // the dropped ids are merged, so that a log without a segment file does not grow
+            spilled.set(spilled.size() - 1, new SpilledIds(last.firstPosition, last.count + count, -1, 0, -1));
+        } else if (offset < 0) {
+            spilled.add(new SpilledIds(spilledCount, count, -1, 0, -1));
+        } else {
+            final long[] range = {Long.MAX_VALUE, Long.MIN_VALUE};
+
+            packetIds.forEach(0, count, id -> {
+                range[0] = Math.min(range[0], id);
+                range[1] = Math.max(range[1], id);
+            });
+
+            spilled.add(new SpilledIds(spilledCount, count, offset, range[0], range[1]));
+        }
+
+        spilledCount += packetIds.removeFirstBlocks(blocks);
+    }
+
+    /**
+     * <p>
+     *     Calls the action with the ids at the given positions, the spilled ones first. Has to be called with the
+     *     lock held.
+     * </p>
+     */
+    private void forEachId(long from, long to, LongConsumer action) {
+
+        long position = Math.max(0, from);
+        final long end = Math.min(to, getPacketCount());
+
+        for (int i = firstSpillAtOrAfter(position); i < spilled.size() && position < end; i++) {
+
+            final SpilledIds spill = spilled.get(i);
+            final long spillEnd = Math.min(end, spill.firstPosition + spill.count);
+            final CompressedLongList ids = load(spill);
+
+            if (ids != null) {
+                ids.forEach((int) (position - spill.firstPosition), (int) (spillEnd - spill.firstPosition), action);
+            }
+
+            position = spillEnd;
+        }
+
+        if (position < end) {
+            packetIds.forEach((int) (position - spilledCount), (int) (end - spilledCount), action);
+        }
+    }
+
+    /**
+     * @return the index of the spilled ids that hold the given position, the number of spilled ids if none does
+     */
+    private int firstSpillAtOrAfter(long position) {
+
+        int low = 0;
+        int high = spilled.size();
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final SpilledIds spill = spilled.get(middle);
+
+            if (spill.firstPosition + spill.count <= position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private CompressedLongList load(SpilledIds spill) {
+
+        if (spill.offset < 0) {
+            return null;
+        }
+
+        if (spill != loadedSpill) {
+
+            final ByteBuffer ids = store.readSpilledIds(spill.offset);
+
+            if (ids == null) {
+                return null;
+            }
+
+            loadedIds = CompressedLongList.decode(ids);
+            loadedSpill = spill;
+        }
+
+        return loadedIds;
+    }
+
+    private void addStoredPacket(long id, List<? super IPacketData> packets) {
+
+        final IPacketData packet = store.get(id);
+
+        // the packet is gone if the store had to drop it
+        if (packet != null) {
+            packets.add(packet);
+        }
     }
 
     @Override
@@ -92,4 +465,28 @@ public class PacketDataLoggingComponent extends AbstractComponent implements ICo
     public boolean equals(Object o) {
         return (o instanceof PacketDataLoggingComponent);
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>
+     *     Ids of the log that were moved to the segment file of the store, or dropped if the offset is negative.
+     * </p>
+     */
+    private static final class SpilledIds {
+
+        private final long firstPosition;
+        private final long count;
+        private final long offset;
+
+        // the smallest and the largest of the ids, to skip the ones outside a range without reading them
+        private final long minId;
+        private final long maxId;
+
+        private SpilledIds(long firstPosition, long count, long offset, long minId, long maxId) {
+            this.firstPosition = firstPosition;
+            this.count = count;
+            this.offset = offset;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
 
 import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class NetworkReadingPortSwitch implements INetworkReadingPortSwitch {
 
@@ -38,6 +40,26 @@ public class NetworkReadingPortSwitch implements INetworkReadingPortSwitch {
         return activePort.getNetworkConnections();
     }
 
+    @Override
+    public void forEachNode(Consumer<? super INode> action) {
+        activePort.forEachNode(action);
+    }
+
+    @Override
+    public void forEachConnection(Consumer<? super IConnection> action) {
+        activePort.forEachConnection(action);
+    }
+
+    @Override
+    public Stream<INode> nodes() {
+        return activePort.nodes();
+    }
+
+    @Override
+    public Stream<IConnection> connections() {
+        return activePort.connections();
+    }
+
     @Override
     public INode getNetworkNodeByAddress(IAddress address) {
         return getActiveReadingPort().getNetworkNodeByAddress(address);
@@ -1,6 +1,7 @@
 package edu.kit.trufflehog.model.network.recording;
 
 import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.IAddress;
 import edu.kit.trufflehog.model.network.INetworkWritingPort;
 import edu.kit.trufflehog.model.network.graph.IConnection;
 import edu.kit.trufflehog.model.network.graph.INode;
@@ -39,11 +40,31 @@ public class NetworkWritingPortSwitch implements INetworkWritingPortSwitch {
         activePort.writeNode(node);
     }
 
+    @Override
+    public boolean removeNode(INode node) {
+        return activePort.removeNode(node);
+    }
+
+    @Override
+    public boolean removeConnection(IConnection connection) {
+        return activePort.removeConnection(connection);
+    }
+
     @Override
     public void applyFilter(IFilter filter) {
         activePort.applyFilter(filter);
     }
 
+    @Override
+    public INode getNetworkNodeByAddress(IAddress address) {
+        return activePort.getNetworkNodeByAddress(address);
+    }
+
+    @Override
+    public IConnection getNetworkConnectionByAddress(IAddress source, IAddress dest) {
+        return activePort.getNetworkConnectionByAddress(source, dest);
+    }
+
     @Override
     public ObservableUpdatableGraph<INode, IConnection> getGraph() {
         throw new UnsupportedOperationException("Operation not implemented yet");
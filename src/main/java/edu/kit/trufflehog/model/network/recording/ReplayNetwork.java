@@ -26,6 +26,7 @@ import org.apache.commons.collections15.keyvalue.MultiKey;
 
 import java.awt.Dimension;
 import java.awt.geom.Point2D;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -387,6 +388,10 @@ public class ReplayNetwork implements INetwork {
 
             final INode existing = idNodeMap.get(node.getAddress());
 
+            if (existing == node) {
+                return;
+            }
+
 /*            if (existing != null) {
                 existing.update(node, replayUpdater);
                 return;
@@ -395,6 +400,32 @@ public class ReplayNetwork implements INetwork {
             idNodeMap.put(node.getAddress(), node);
         }
 
+        @Override
+        public boolean removeNode(INode node) {
+
+            if (idNodeMap.get(node.getAddress()) != node) {
+                return false;
+            }
+
+            new ArrayList<>(delegate.getGraph().getIncidentEdges(node)).forEach(this::removeConnection);
+
+            idNodeMap.remove(node.getAddress());
+            return delegate.getGraph().removeVertex(node);
+        }
+
+        @Override
+        public boolean removeConnection(IConnection connection) {
+
+            final MultiKey<IAddress> connectionKey = new MultiKey<>(connection.getSrc().getAddress(), connection.getDest().getAddress());
+
+            if (idConnectionMap.get(connectionKey) != connection) {
+                return false;
+            }
+
+            idConnectionMap.remove(connectionKey);
+            return delegate.getGraph().removeEdge(connection);
+        }
+
         @Override
         public void applyFilter(IFilter filter) {
             /*for (INode node : delegate.getVertices()) {
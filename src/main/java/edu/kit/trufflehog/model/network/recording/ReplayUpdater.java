@@ -175,7 +175,11 @@ public class ReplayUpdater implements IUpdater, GraphUpdater<INode, IConnection>
 
     @Override
     public boolean update(FilterPropertiesComponent filterPropertiesComponent, IComponent instance) {
-        filterPropertiesComponent.getFilterColors().putAll(filterPropertiesComponent.getFilterColors());
+        if (!filterPropertiesComponent.equals(instance)) {
+            return false;
+        }
+
+        filterPropertiesComponent.setFilterColors((FilterPropertiesComponent) instance);
         return true;
     }
 
@@ -27,7 +27,6 @@ import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesCo
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
-import javafx.beans.property.IntegerProperty;
 
 /**
  * \brief
@@ -73,9 +72,8 @@ public class ComponentCopier implements IComponentVisitor<IComponent> {
     public IComponent visit(NodeStatisticsComponent nodeStatisticsComponent) {
         if (nodeStatisticsComponent == null) throw new NullPointerException("nodeStatisticsComponent must not be null!");
 
-        IntegerProperty incoming = nodeStatisticsComponent.ingoingCountProperty();
-        IntegerProperty outgoing = nodeStatisticsComponent.outgoingCountProperty();
-        NodeStatisticsComponent component = new NodeStatisticsComponent(outgoing.get(), incoming.get());
+        NodeStatisticsComponent component = new NodeStatisticsComponent(nodeStatisticsComponent.getOutgoingCount(),
+                nodeStatisticsComponent.getIncomingCount());
         component.setThroughput(nodeStatisticsComponent.getThroughput());
 
         return component;
@@ -99,14 +97,14 @@ public class ComponentCopier implements IComponentVisitor<IComponent> {
     public IComponent visit(PacketDataLoggingComponent packetDataLoggingComponent) {
         if (packetDataLoggingComponent == null) throw new NullPointerException("packetDataLoggingComponent must not be null!");
 
-        return new PacketDataLoggingComponent(packetDataLoggingComponent.getObservablePackets());
+        return new PacketDataLoggingComponent(packetDataLoggingComponent);
     }
 
     @Override
     public IComponent visit(FilterPropertiesComponent filterPropertiesComponent) {
         final FilterPropertiesComponent fpc = new FilterPropertiesComponent();
 
-        fpc.getFilterColors().putAll(filterPropertiesComponent.getFilterColors());
+        fpc.addFilterColors(filterPropertiesComponent);
 
         return fpc;
     }
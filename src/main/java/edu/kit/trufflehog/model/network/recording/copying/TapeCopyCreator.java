@@ -208,7 +208,7 @@ public class TapeCopyCreator implements IComponentVisitor<IComponent>, GraphCopi
     public IComponent visit(PacketDataLoggingComponent packetDataLoggingComponent) {
         if (packetDataLoggingComponent == null) throw new NullPointerException("packetDataLoggingComponent must not be null!");
 
-        return new PacketDataLoggingComponent(packetDataLoggingComponent.getObservablePackets());
+        return new PacketDataLoggingComponent(packetDataLoggingComponent);
     }
 
 
@@ -217,7 +217,7 @@ public class TapeCopyCreator implements IComponentVisitor<IComponent>, GraphCopi
     public IComponent visit(FilterPropertiesComponent filterPropertiesComponent) {
         final FilterPropertiesComponent fpc = new FilterPropertiesComponent();
 
-        fpc.getFilterColors().putAll(filterPropertiesComponent.getFilterColors());
+        fpc.addFilterColors(filterPropertiesComponent);
 
         return fpc;
     }
@@ -0,0 +1,162 @@
+package edu.kit.trufflehog.presenter;
+
+import edu.kit.trufflehog.model.FileSystem;
+import edu.kit.trufflehog.model.configdata.ConfigData;
+import edu.kit.trufflehog.model.filter.MacroFilter;
+import edu.kit.trufflehog.model.network.INetwork;
+import edu.kit.trufflehog.model.network.LiveNetwork;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
+import edu.kit.trufflehog.service.IdleEvictionService;
+import edu.kit.trufflehog.service.NetworkStatisticsReporter;
+import edu.kit.trufflehog.service.NodeStatisticsUpdater;
+import edu.kit.trufflehog.service.executor.CommandExecutor;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketSegmentFile;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.util.Graphs;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     The HeadlessPresenter builds TruffleHog without a user interface, for example to monitor a network from a
+ *     server without a display. It builds the same network and services as the {@link Presenter}, connects to snort
+ *     right away and writes the statistics of the network to a stream in a fixed interval. No FX toolkit is started:
+ *     the renderers of the network are never created and the properties of the model are updated by the executor
+ *     instead of the FX application thread.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class HeadlessPresenter {
+
+    private static final Logger logger = LogManager.getLogger(HeadlessPresenter.class);
+
+    /**
+     * The time between two updates of the properties of the model in milliseconds.
+     */
+    private static final long PROPERTY_UPDATE_INTERVAL = 250;
+
+    private final FileSystem fileSystem;
+    private final ConfigData configData;
+    private final ServiceFactory serviceFactory;
+    private final ScheduledExecutorService executorService;
+    private final PrintStream output;
+    private final long reportInterval;
+    private final boolean reportNodes;
+    private final MacroFilter macroFilter = new MacroFilter();
+
+    private TruffleReceiver truffleReceiver;
+    private PacketSegmentFile packetSegmentFile;
+
+    /**
+     * <p>
+     *     Creates a new instance of a HeadlessPresenter.
+     * </p>
+     *
+     * @param output The stream the reports are written to.
+     * @param reportInterval The time between two reports in milliseconds.
+     * @param reportNodes Whether the reports contain the counts of every node.
+     */
+    public HeadlessPresenter(final PrintStream output, final long reportInterval, final boolean reportNodes) {
+
+        if (output == null) throw new NullPointerException("output must not be null!");
+        if (reportInterval <= 0) throw new IllegalArgumentException("reportInterval must be greater than 0!");
+
+        this.output = output;
+        this.reportInterval = reportInterval;
+        this.reportNodes = reportNodes;
+        this.executorService = LoggedScheduledExecutor.getInstance();
+        this.fileSystem = new FileSystem();
+
+        ConfigData configDataTemp;
+        try {
+            configDataTemp = new ConfigData(fileSystem);
+        } catch (NullPointerException e) {
+            configDataTemp = null;
+            logger.error("Unable to set config data model, using the default settings", e);
+        }
+        configData = configDataTemp;
+        serviceFactory = new ServiceFactory(configData);
+    }
+
+    /**
+     * <p>
+     *     Builds the network and the services, connects to snort and starts reporting.
+     * </p>
+     */
+    public void run() {
+
+        FxUpdatePump.getInstance().startWithoutFx(executorService, PROPERTY_UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        final Graph<INode, IConnection> graph = Graphs.synchronizedDirectedGraph(new DirectedSparseGraph<>());
+        final INetwork liveNetwork = new LiveNetwork(new ObservableUpdatableGraph<>(graph, new LiveUpdater()));
+
+        packetSegmentFile = serviceFactory.configurePacketLogging(fileSystem);
+
+        truffleReceiver = serviceFactory.createTruffleReceiver(liveNetwork.getWritingPort(), macroFilter);
+        truffleReceiver.setPacketFilterStage(serviceFactory.createPacketFilterStage());
+        final ExecutorService truffleFetchService = Executors.newSingleThreadExecutor();
+        truffleFetchService.execute(truffleReceiver);
+
+        final CommandExecutor commandExecutor = serviceFactory.createCommandExecutor();
+        final ExecutorService commandExecutorService = Executors.newSingleThreadExecutor();
+        commandExecutorService.execute(commandExecutor);
+        truffleReceiver.addListener(commandExecutor.asTruffleCommandListener());
+
+        final ExecutorService nodeStatisticsUpdaterService = Executors.newSingleThreadExecutor();
+        nodeStatisticsUpdaterService.execute(new NodeStatisticsUpdater(liveNetwork.getReadingPort(),
+                liveNetwork.getViewPort()));
+
+        final NetworkStatisticsReporter reporter = new NetworkStatisticsReporter(liveNetwork.getReadingPort(),
+                commandExecutor, truffleReceiver.getPacketFilterStage(), output, reportNodes);
+        executorService.scheduleAtFixedRate(reporter, reportInterval, reportInterval, TimeUnit.MILLISECONDS);
+
+        final IdleEvictionService idleEvictionService = serviceFactory.createIdleEvictionService(liveNetwork.getRWPort());
+        if (idleEvictionService != null) {
+            executorService.scheduleAtFixedRate(idleEvictionService, idleEvictionService.getTickMillis(),
+                    idleEvictionService.getTickMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        // there is no toolbar to connect with, so connect right away
+        truffleReceiver.connect();
+    }
+
+    /**
+     * This method shuts down any services that are still running properly.
+     */
+    public void finish() {
+
+        if (truffleReceiver != null) {
+            truffleReceiver.disconnect();
+        }
+
+        if (configData != null) {
+            configData.close();
+        }
+
+        executorService.shutdownNow();
+
+        if (packetSegmentFile != null) {
+            try {
+                packetSegmentFile.close();
+            } catch (IOException e) {
+                logger.error("Unable to delete the packet segment file", e);
+            }
+        }
+
+        output.flush();
+    }
+}
@@ -22,11 +22,11 @@ import edu.kit.trufflehog.model.network.recording.NetworkDevice;
 import edu.kit.trufflehog.model.network.recording.NetworkReadingPortSwitch;
 import edu.kit.trufflehog.model.network.recording.NetworkViewPortSwitch;
 import edu.kit.trufflehog.model.network.recording.NetworkWritingPortSwitch;
+import edu.kit.trufflehog.service.IdleEvictionService;
 import edu.kit.trufflehog.service.NodeStatisticsUpdater;
 import edu.kit.trufflehog.service.executor.CommandExecutor;
-import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleCrook;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketSegmentFile;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
-import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.UnixSocketReceiver;
 import edu.kit.trufflehog.view.*;
 import edu.kit.trufflehog.view.jung.visualization.FXVisualizationViewer;
 import edu.kit.trufflehog.viewmodel.FilterViewModel;
@@ -47,6 +47,8 @@ import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.HashMap;
 import java.util.Map;
@@ -67,10 +69,12 @@ public class Presenter {
     private static final Logger logger = LogManager.getLogger();
 
     private final ConfigData configData;
+    private final ServiceFactory serviceFactory;
     private final FileSystem fileSystem;
     private final ScheduledExecutorService executorService;
     private final Stage primaryStage;
     private TruffleReceiver truffleReceiver;
+    private PacketSegmentFile packetSegmentFile;
     private INetworkViewPortSwitch viewPortSwitch;
     private INetworkReadingPortSwitch readingPortSwitch;
     private INetworkDevice networkDevice;
@@ -80,7 +84,7 @@ public class Presenter {
 
     private FilterViewModel filterViewModel;
 
-    private final CommandExecutor commandExecutor = new CommandExecutor();
+    private CommandExecutor commandExecutor;
 
     /**
      * <p>
@@ -105,6 +109,7 @@ public class Presenter {
             logger.error("Unable to set config data model", e);
         }
         configData = configDataTemp;
+        serviceFactory = new ServiceFactory(configData);
 
     }
 
@@ -135,20 +140,19 @@ public class Presenter {
 
     private void initServices() {
 
+        // before the receiver, its commands put the packets into the store
+        packetSegmentFile = serviceFactory.configurePacketLogging(fileSystem);
+
         final ExecutorService truffleFetchService = Executors.newSingleThreadExecutor();
 
-        // Don't be shocked, we purposely catch an Error here. It's harmless in this case.
-        try {
-            truffleReceiver = new UnixSocketReceiver(liveNetwork.getWritingPort(), macroFilter);
-        } catch (UnsatisfiedLinkError e) {
-            System.out.println("No IPC connection established, activating fake network traffic.");
-            truffleReceiver = new TruffleCrook(liveNetwork.getWritingPort(), macroFilter);
-        }
+        truffleReceiver = serviceFactory.createTruffleReceiver(liveNetwork.getWritingPort(), macroFilter);
+        truffleReceiver.setPacketFilterStage(serviceFactory.createPacketFilterStage());
 
         truffleFetchService.execute(truffleReceiver);
 
 
         // Initialize the command executor and register it.
+        commandExecutor = serviceFactory.createCommandExecutor();
         final ExecutorService commandExecutorService = Executors.newSingleThreadExecutor();
         commandExecutorService.execute(commandExecutor);
         truffleReceiver.addListener(commandExecutor.asTruffleCommandListener());
@@ -157,6 +161,11 @@ public class Presenter {
         final NodeStatisticsUpdater nodeStatisticsUpdater = new NodeStatisticsUpdater(readingPortSwitch, viewPortSwitch);
         nodeStatisticsUpdaterService.execute(nodeStatisticsUpdater);
 
+        final IdleEvictionService idleEvictionService = serviceFactory.createIdleEvictionService(liveNetwork.getRWPort());
+        if (idleEvictionService != null) {
+            executorService.scheduleAtFixedRate(idleEvictionService, idleEvictionService.getTickMillis(),
+                    idleEvictionService.getTickMillis(), TimeUnit.MILLISECONDS);
+        }
     }
 
     private void initGUI() {
@@ -207,8 +216,10 @@ public class Presenter {
         root.getChildren().add(filterOverlayView);
         root.getChildren().add(filterEditingMenuView);
         AnchorPane.setLeftAnchor(filterOverlayView, 0d);
-        filterOverlayView.addCommand(FilterInteraction.REMOVE, new RemoveFilterCommand(configData, liveNetwork.getRWPort(), macroFilter, filterMap));
-        filterOverlayView.addCommand(FilterInteraction.UPDATE, new UpdateFilterCommand(configData, liveNetwork.getRWPort(), macroFilter, filterMap));
+        filterOverlayView.addCommand(FilterInteraction.REMOVE, new RemoveFilterCommand(configData, liveNetwork.getRWPort(), macroFilter, filterMap,
+                truffleReceiver.getPacketFilterStage()));
+        filterOverlayView.addCommand(FilterInteraction.UPDATE, new UpdateFilterCommand(configData, liveNetwork.getRWPort(), macroFilter, filterMap,
+                truffleReceiver.getPacketFilterStage()));
         filterOverlayView.addListener(commandExecutor.asUserCommandListener());
 
 
@@ -374,6 +385,14 @@ public class Presenter {
         // Kill all threads and the thread pool with it
         LoggedScheduledExecutor.getInstance().shutdownNow();
 
+        if (packetSegmentFile != null) {
+            try {
+                packetSegmentFile.close();
+            } catch (IOException e) {
+                logger.error("Unable to delete the packet segment file", e);
+            }
+        }
+
         System.gc();
         // Shut down the system
         System.exit(0);
@@ -0,0 +1,290 @@
+package edu.kit.trufflehog.presenter;
+
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue.OverflowPolicy;
+import edu.kit.trufflehog.model.FileSystem;
+import edu.kit.trufflehog.model.configdata.ConfigData;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.filter.InvalidFilterRule;
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
+import edu.kit.trufflehog.service.IdleEvictionService;
+import edu.kit.trufflehog.service.executor.CommandExecutor;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketSegmentFile;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketStore;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterInput;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.NioUnixSocketReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.SharedMemoryReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleCrook;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.UnixSocketReceiver;
+import javafx.beans.property.StringProperty;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Creates the services of TruffleHog that are configured in the system config, so that the {@link Presenter}
+ *     and the {@link HeadlessPresenter} build them the same way.
+ * </p>
+ *
+ * @version 1.0
+ */
+class ServiceFactory {
+
+    private static final Logger logger = LogManager.getLogger(ServiceFactory.class);
+
+    private final ConfigData configData;
+
+    /**
+     * <p>
+     *     Creates a new ServiceFactory.
+     * </p>
+     *
+     * @param configData The config to read the settings from, may be null, then the defaults are used.
+     */
+    ServiceFactory(final ConfigData configData) {
+        this.configData = configData;
+    }
+
+    /**
+     * <p>
+     *     Creates the command executor with the queue settings of the system config.
+     * </p>
+     *
+     * @return The created command executor.
+     */
+    CommandExecutor createCommandExecutor() {
+
+        final int capacity = getIntegerSetting("truffle-queue-capacity", CommandExecutor.DEFAULT_TRUFFLE_QUEUE_CAPACITY);
+        final String overflow = getStringSetting("truffle-queue-overflow", "block");
+        final int truffleWeight = getIntegerSetting("truffle-command-weight", 1);
+        final int userWeight = getIntegerSetting("user-command-weight", 1);
+        final int batchSize = getIntegerSetting("command-batch-size", CommandExecutor.DEFAULT_BATCH_SIZE);
+        final int maxBatchLatency = getIntegerSetting("command-batch-max-latency", CommandExecutor.DEFAULT_MAX_BATCH_LATENCY);
+        final int shards = getIntegerSetting("command-executor-shards", 1);
+
+        OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        if (overflow.equals("drop-oldest")) {
+            overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        } else if (!overflow.equals("block")) {
+            logger.warn("Unknown truffle queue overflow policy " + overflow + ", using block");
+        }
+
+        try {
+            return new CommandExecutor(capacity, overflowPolicy, truffleWeight, userWeight, batchSize, maxBatchLatency,
+                    shards);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid command queue settings, using the defaults", e);
+            return new CommandExecutor();
+        }
+    }
+
+    /**
+     * <p>
+     *     Creates the service that removes idle nodes and connections from the given port, if a time to live is set
+     *     in the system config.
+     * </p>
+     *
+     * @param port The port of the network to remove the idle elements from.
+     * @return The created service or null if idle elements are kept.
+     */
+    IdleEvictionService createIdleEvictionService(final INetworkIOPort port) {
+
+        final int ttl = getIntegerSetting("idle-eviction-ttl", 0);
+
+        if (ttl <= 0) {
+            return null;
+        }
+
+        return new IdleEvictionService(port, TimeUnit.SECONDS.toMillis(ttl));
+    }
+
+    /**
+     * <p>
+     *     Sets up the store of the packets of the live network, which keeps as many packets in memory as the system
+     *     config says. The older packets are written to a segment file in the truffle data log folder. Also sets the
+     *     number of packets the log of every device and connection keeps.
+     * </p>
+     *
+     * @param fileSystem The file system to create the segment file in.
+     * @return The created segment file or null if it could not be created, then the older packets are dropped.
+     */
+    PacketSegmentFile configurePacketLogging(final FileSystem fileSystem) {
+
+        final int residentPackets = getIntegerSetting("packet-store-resident-packets",
+                PacketStore.DEFAULT_RESIDENT_PACKETS);
+        final int logCapacity = getIntegerSetting("packet-log-capacity", PacketDataLoggingComponent.DEFAULT_MAX_PACKETS);
+
+        PacketSegmentFile segmentFile = null;
+
+        try {
+            segmentFile = PacketSegmentFile.createIn(fileSystem.getTruffleDataLogFolder());
+        } catch (IOException e) {
+            logger.error("Unable to create the packet segment file, older packets are dropped", e);
+        }
+
+        try {
+            PacketStore.configure(residentPackets, segmentFile);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid number of resident packets, using the default", e);
+            PacketStore.configure(PacketStore.DEFAULT_RESIDENT_PACKETS, segmentFile);
+        }
+
+        try {
+            PacketDataLoggingComponent.configure(logCapacity);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid packet log capacity, using the default", e);
+            PacketDataLoggingComponent.configure(PacketDataLoggingComponent.DEFAULT_MAX_PACKETS);
+        }
+
+        return segmentFile;
+    }
+
+    /**
+     * <p>
+     *     Creates the truffle receiver that is selected in the system config. If the selected receiver can not be
+     *     used the unix socket receiver is used instead and if the native library of the unix socket receiver is
+     *     missing, fake network traffic is generated. The fake traffic can also be selected directly with "crook",
+     *     for example to put load on TruffleHog without snort. The nio socket receiver switches to the unix socket
+     *     receiver when the plugin socket turns out to be one it can not open.
+     * </p>
+     *
+     * @param writingPort The port the receiver writes the packet data to.
+     * @param filter The filter that is applied to new nodes.
+     * @return The created truffle receiver.
+     */
+    TruffleReceiver createTruffleReceiver(final INetworkWritingPort writingPort, final IFilter filter) {
+
+        final int batchSize = getIntegerSetting("truffle-batch-size", UnixSocketReceiver.DEFAULT_BATCH_SIZE);
+        final int maxBatchWait = getIntegerSetting("truffle-batch-max-wait", UnixSocketReceiver.DEFAULT_MAX_BATCH_WAIT);
+        final String receiverType = getStringSetting("truffle-receiver", "unix-socket");
+
+        if (receiverType.equals("crook")) {
+            return new TruffleCrook(writingPort, filter, getIntegerSetting("truffle-crook-interval", 100));
+        } else if (receiverType.equals("shared-memory")) {
+            final Path ringFile = Paths.get(getStringSetting("truffle-ring-file", SharedMemoryReceiver.DEFAULT_RING_FILE));
+
+            if (Files.isDirectory(ringFile.toAbsolutePath().getParent())) {
+                return new SharedMemoryReceiver(writingPort, filter, ringFile, batchSize);
+            }
+
+            logger.warn("The directory of the truffle ring " + ringFile + " does not exist, using the unix socket receiver");
+        } else if (receiverType.equals("nio-socket")) {
+
+            if (NioUnixSocketReceiver.isSupported()) {
+                // the spp_profinet plugin offers a SOCK_SEQPACKET socket, which only the native receiver can open
+                return new NioUnixSocketReceiver(writingPort,
+                        filter,
+                        NioUnixSocketReceiver.getDefaultSocketFile(),
+                        batchSize,
+                        () -> new UnixSocketReceiver(writingPort, filter, batchSize, maxBatchWait));
+            }
+
+            logger.warn("This java version does not support unix domain socket channels, using the unix socket receiver");
+        } else if (!receiverType.equals("unix-socket")) {
+            logger.warn("Unknown truffle receiver " + receiverType + ", using the unix socket receiver");
+        }
+
+        // Don't be shocked, we purposely catch an Error here. It's harmless in this case.
+        try {
+            return new UnixSocketReceiver(writingPort, filter, batchSize, maxBatchWait);
+        } catch (UnsatisfiedLinkError e) {
+            System.out.println("No IPC connection established, activating fake network traffic.");
+            return new TruffleCrook(writingPort, filter);
+        }
+    }
+
+    /**
+     * <p>
+     *     Creates the stage that decides which received packets are added to the network, with the rules of the
+     *     packet-filter-rules setting. The rules are separated by semicolons, see {@link PacketFilterInput#parse}, the
+     *     first rule gets the highest priority. Rules that can not be parsed are left out.
+     * </p>
+     *
+     * @return The created packet filter stage.
+     */
+    PacketFilterStage createPacketFilterStage() {
+
+        final PacketFilterStage stage = new PacketFilterStage();
+        final String[] entries = getStringSetting("packet-filter-rules", "").split(";");
+
+        for (int i = 0; i < entries.length; i++) {
+
+            if (entries[i].trim().isEmpty()) {
+                continue;
+            }
+
+            try {
+                stage.addInput(PacketFilterInput.parse(entries[i], entries.length - i));
+            } catch (InvalidFilterRule | IllegalArgumentException e) {
+                logger.error("Invalid packet filter rule " + entries[i].trim(), e);
+            }
+        }
+
+        return stage;
+    }
+
+    /**
+     * <p>
+     *     Reads a string setting from the system config. Missing settings fall back to the given default value.
+     * </p>
+     *
+     * @param key The key of the setting.
+     * @param defaultValue The value to use if the setting is not available.
+     * @return The value of the setting.
+     */
+    String getStringSetting(final String key, final String defaultValue) {
+
+        if (configData == null) {
+            return defaultValue;
+        }
+
+        final StringProperty setting = configData.getSetting(String.class, key);
+
+        if (setting == null || setting.get() == null) {
+            return defaultValue;
+        }
+
+        return setting.get().trim();
+    }
+
+    /**
+     * <p>
+     *     Reads an integer setting from the system config. Settings that are missing, for example because the user
+     *     config file was created by an older version of TruffleHog, or that can not be parsed fall back to the given
+     *     default value.
+     * </p>
+     *
+     * @param key The key of the setting.
+     * @param defaultValue The value to use if the setting is not available.
+     * @return The value of the setting.
+     */
+    int getIntegerSetting(final String key, final int defaultValue) {
+
+        if (configData == null) {
+            return defaultValue;
+        }
+
+        final StringProperty setting = configData.getSetting(Integer.class, key);
+
+        if (setting == null || setting.get() == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(setting.get().trim());
+        } catch (NumberFormatException e) {
+            logger.error("Invalid value for setting " + key + ": " + setting.get(), e);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package edu.kit.trufflehog.service;
+
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.util.collections.TimerWheel;
+import edu.uci.ics.jung.graph.event.GraphEvent;
+import edu.uci.ics.jung.graph.event.GraphEventListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.function.LongSupplier;
+
+/**
+ * <p>
+ *     Removes nodes and connections from the network that were idle for longer than the time to live. Nodes are idle
+ *     since their packet counts last changed, connections since their last update.
+ * </p>
+ * <p>
+ *     Every node and connection that is added to the network is put on a {@link TimerWheel} for the moment it would
+ *     expire. When that moment comes it is checked once: if it was seen in the meantime it is put on the wheel again
+ *     for its new expiry, otherwise it is removed. So the service only looks at the elements that may have expired
+ *     and a busy element is looked at once per time to live, no matter how many packets it gets. Removing an element
+ *     from the network removes it from the graph, which tells the view to drop its shapes and bindings.
+ * </p>
+ * <p>
+ *     The service has to be run periodically, for example every {@link #getTickMillis()} milliseconds.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class IdleEvictionService implements Runnable, GraphEventListener<INode, IConnection> {
+
+    private static final Logger logger = LogManager.getLogger(IdleEvictionService.class);
+
+    // the time to live is split into this many ticks, an element is removed at most one tick after it expired
+    private static final int TICKS_PER_TTL = 64;
+    private static final int TICKS_PER_WHEEL = 2 * TICKS_PER_TTL;
+
+    private final INetworkIOPort port;
+    private final long ttl;
+    private final long tickMillis;
+    private final LongSupplier clock;
+
+    private final TimerWheel<INode> nodes;
+    private final TimerWheel<IConnection> connections;
+
+    /**
+     * <p>
+     *     Creates a new IdleEvictionService that watches the given port. The nodes and connections that are in the
+     *     network already are watched from now on.
+     * </p>
+     *
+     * @param port The port of the network to remove the idle elements from.
+     * @param ttl The time in milliseconds after which an idle element is removed.
+     */
+    public IdleEvictionService(final INetworkIOPort port, final long ttl) {
+        this(port, ttl, System::currentTimeMillis);
+    }
+
+    /**
+     * <p>
+     *     Creates a new IdleEvictionService with the given clock.
+     * </p>
+     *
+     * @param port The port of the network to remove the idle elements from.
+     * @param ttl The time in milliseconds after which an idle element is removed.
+     * @param clock The clock that returns the current time in milliseconds.
+     */
+    IdleEvictionService(final INetworkIOPort port, final long ttl, final LongSupplier clock) {
+
+        if (port == null) throw new NullPointerException("port must not be null!");
+        if (clock == null) throw new NullPointerException("clock must not be null!");
+        if (ttl <= 0) throw new IllegalArgumentException("ttl must be greater than 0!");
+
+        this.port = port;
+        this.ttl = ttl;
+        this.tickMillis = Math.max(1, ttl / TICKS_PER_TTL);
+        this.clock = clock;
+
+        final long now = clock.getAsLong();
+        nodes = new TimerWheel<>(tickMillis, TICKS_PER_WHEEL, now);
+        connections = new TimerWheel<>(tickMillis, TICKS_PER_WHEEL, now);
+
+        // listen first, an element that is added in between is scheduled twice, which does no harm
+        port.getGraph().addGraphEventListener(this);
+
+        port.forEachNode(node -> nodes.schedule(node, now + ttl));
+        port.forEachConnection(connection -> connections.schedule(connection, now + ttl));
+    }
+
+    /**
+     * @return the time in milliseconds after which an idle element is removed
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * @return the period in milliseconds the service should be run with
+     */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * <p>
+     *     Removes the nodes and connections that expired since the last run.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        final long now = clock.getAsLong();
+
+        // the connections first, the connections of a removed node are removed with it anyway
+        final int checkedConnections = connections.expire(now, connection -> checkConnection(connection, now));
+        final int checkedNodes = nodes.expire(now, node -> checkNode(node, now));
+
+        if (checkedConnections + checkedNodes > 0) {
+            logger.debug("Checked " + checkedNodes + " nodes and " + checkedConnections + " connections for idleness");
+        }
+    }
+
+    @Override
+    public void handleGraphEvent(GraphEvent<INode, IConnection> event) {
+
+        switch (event.getType()) {
+            case VERTEX_ADDED:
+                nodes.schedule(((GraphEvent.Vertex<INode, IConnection>) event).getVertex(), clock.getAsLong() + ttl);
+                break;
+
+            case EDGE_ADDED:
+                connections.schedule(((GraphEvent.Edge<INode, IConnection>) event).getEdge(), clock.getAsLong() + ttl);
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void checkNode(final INode node, final long now) {
+
+        final NodeStatisticsComponent statistics = node.getComponent(NodeStatisticsComponent.class);
+
+        // without statistics it is unknown when the node was seen, so it stays
+        if (statistics == null) {
+            return;
+        }
+
+        final long lastSeen = statistics.getLastSeen();
+
+        if (now - lastSeen >= ttl) {
+            port.removeNode(node);
+        } else {
+            nodes.schedule(node, lastSeen + ttl);
+        }
+    }
+
+    private void checkConnection(final IConnection connection, final long now) {
+
+        final EdgeStatisticsComponent statistics = connection.getComponent(EdgeStatisticsComponent.class);
+
+        if (statistics == null) {
+            return;
+        }
+
+        final long lastUpdate = statistics.getLastUpdateTime();
+
+        if (now - lastUpdate >= ttl) {
+            port.removeConnection(connection);
+        } else {
+            connections.schedule(connection, lastUpdate + ttl);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package edu.kit.trufflehog.service;
+
+import edu.kit.trufflehog.model.network.INetworkReadingPort;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.service.executor.CommandExecutor;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterRule;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * <p>
+ *     Writes the statistics of a network to a stream every time it is run: the population, the number of connections,
+ *     the throughput and, if wanted, the packet counts of every node. If a {@link CommandExecutor} is given, the
+ *     number of executed and dropped commands is reported too, which shows whether TruffleHog keeps up with the
+ *     network. If a {@link PacketFilterStage} is given, the counters of its rules are reported as well, so that the
+ *     user can see how much traffic every rule takes away. The reporter only reads plain values of the model and
+ *     works without a FX toolkit.
+ * </p>
+ * <p>
+ *     Every report starts with a line like
+ *     <code>2016-03-16T12:00:00Z population=12 connections=30 throughput=42.00 executed=1000 merged=20 dropped=0
+ *     pending=5 unmatched=900</code>
+ *     followed by a line like <code>  rule rtc hits=100 passed=1 dropped=99</code> for every packet filter rule and a
+ *     line like <code>  node 00:00:00:00:00:01 out=10 in=3 throughput=1.50 name=plc ip=10.0.0.1</code> for every
+ *     node.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class NetworkStatisticsReporter implements Runnable {
+
+    private final INetworkReadingPort readingPort;
+    private final CommandExecutor commandExecutor;
+    private final PacketFilterStage packetFilterStage;
+    private final PrintStream output;
+    private final boolean reportNodes;
+
+    /**
+     * <p>
+     *     Creates a new NetworkStatisticsReporter.
+     * </p>
+     *
+     * @param readingPort The port to read the network from.
+     * @param commandExecutor The executor whose counters are reported, may be null.
+     * @param output The stream the reports are written to.
+     * @param reportNodes Whether the counts of every node are reported.
+     */
+    public NetworkStatisticsReporter(final INetworkReadingPort readingPort,
+                                     final CommandExecutor commandExecutor,
+                                     final PrintStream output,
+                                     final boolean reportNodes) {
+        this(readingPort, commandExecutor, null, output, reportNodes);
+    }
+
+    /**
+     * <p>
+     *     Creates a new NetworkStatisticsReporter that reports the counters of the packet filter rules too.
+     * </p>
+     *
+     * @param readingPort The port to read the network from.
+     * @param commandExecutor The executor whose counters are reported, may be null.
+     * @param packetFilterStage The stage whose rules are reported, may be null.
+     * @param output The stream the reports are written to.
+     * @param reportNodes Whether the counts of every node are reported.
+     */
+    public NetworkStatisticsReporter(final INetworkReadingPort readingPort,
+                                     final CommandExecutor commandExecutor,
+                                     final PacketFilterStage packetFilterStage,
+                                     final PrintStream output,
+                                     final boolean reportNodes) {
+
+        if (readingPort == null) throw new NullPointerException("readingPort must not be null!");
+        if (output == null) throw new NullPointerException("output must not be null!");
+
+        this.readingPort = readingPort;
+        this.commandExecutor = commandExecutor;
+        this.packetFilterStage = packetFilterStage;
+        this.output = output;
+        this.reportNodes = reportNodes;
+    }
+
+    /**
+     * <p>
+     *     Writes one report.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        final StringBuilder report = new StringBuilder();
+
+        report.append(Instant.now())
+                .append(" population=").append(readingPort.getNetworkNodes().size())
+                .append(" connections=").append(readingPort.getNetworkConnections().size())
+                .append(" throughput=").append(format(readingPort.getThroughput()));
+
+        if (commandExecutor != null) {
+            report.append(" executed=").append(commandExecutor.getExecutedCommands())
+                    .append(" merged=").append(commandExecutor.getMergedCommands())
+                    .append(" dropped=").append(commandExecutor.getDroppedTruffleCommands())
+                    .append(" pending=").append(commandExecutor.getPendingTruffleCommands());
+        }
+
+        if (packetFilterStage != null) {
+            report.append(" unmatched=").append(packetFilterStage.getUnmatchedCount());
+        }
+
+        report.append(System.lineSeparator());
+
+        if (packetFilterStage != null) {
+            packetFilterStage.getRules().forEach(rule -> appendRule(report, rule));
+        }
+
+        if (reportNodes) {
+            readingPort.forEachNode(node -> appendNode(report, node));
+        }
+
+        output.print(report);
+        output.flush();
+    }
+
+    private void appendRule(final StringBuilder report, final PacketFilterRule rule) {
+
+        report.append("  rule ").append(rule.getName())
+                .append(" hits=").append(rule.getHitCount())
+                .append(" passed=").append(rule.getPassedCount())
+                .append(" dropped=").append(rule.getDroppedCount())
+                .append(System.lineSeparator());
+    }
+
+    private void appendNode(final StringBuilder report, final INode node) {
+
+        report.append("  node ").append(node.getAddress());
+
+        final NodeStatisticsComponent statistics = node.getComponent(NodeStatisticsComponent.class);
+        if (statistics != null) {
+            report.append(" out=").append(statistics.getOutgoingCount())
+                    .append(" in=").append(statistics.getIncomingCount())
+                    .append(" throughput=").append(format(statistics.getThroughput()));
+        }
+
+        final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+        if (info != null) {
+            if (info.getDeviceName() != null) {
+                report.append(" name=").append(info.getDeviceName());
+            }
+            if (info.getIPAddress() != null) {
+                report.append(" ip=").append(info.getIPAddress());
+            }
+        }
+
+        report.append(System.lineSeparator());
+    }
+
+    private static String format(final double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -10,7 +10,6 @@ import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComp
 import edu.kit.trufflehog.model.network.recording.copying.ComponentCopier;
 
 import java.time.Instant;
-import java.util.Collection;
 import java.util.HashMap;
 
 /**
@@ -23,7 +22,7 @@ public class NodeStatisticsUpdater implements Runnable {
 
     private long initialTime = 0;
     private int interval = 1000;
-    private HashMap<IAddress, NodeStatisticsComponent> lastNodes;
+    private HashMap<IAddress, NodeStatisticsComponent> lastNodes = new HashMap<>();
 
     public NodeStatisticsUpdater(final INetworkReadingPort readingPort, final INetworkViewPort viewPort) {
         if (readingPort == null) throw new NullPointerException("readingPort must not be null!");
@@ -47,8 +46,7 @@ public class NodeStatisticsUpdater implements Runnable {
     public void run() {
         while (!Thread.interrupted()) {
             try {
-                updateNodeStatistics();
-                updateGraphStatistics();
+                update();
                 Thread.sleep(interval);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -57,76 +55,75 @@ public class NodeStatisticsUpdater implements Runnable {
     }
 
 
+    /**
+     * <p>
+     *     Updates the statistics of the nodes and of the graph once.
+     * </p>
+     */
+    void update() {
+        updateNodeStatistics();
+        updateGraphStatistics();
+    }
+
     /**
      * <p>
      *     Updates the node component data using exponential smoothing
      * </p>
      */
     private void updateNodeStatistics() {
-        final Collection<INode> nodes = readingPort.getNetworkNodes();
-        if (nodes == null) return;
-        if (lastNodes == null) {
-            for (INode i:nodes) {
-                lastNodes = new HashMap<>();
-                NodeStatisticsComponent nsc = i.getComponent(NodeStatisticsComponent.class);
-
-                IComponentVisitor<IComponent> copier = new ComponentCopier();
-                NodeStatisticsComponent n2 = (NodeStatisticsComponent)nsc.accept(copier);
-                lastNodes.put(i.getAddress(), n2);
-            }
-        }
 
-        NodeStatisticsComponent cNew, cOld;
+        // only the nodes of this round are kept, so the statistics of evicted nodes are dropped with the old map
+        final HashMap<IAddress, NodeStatisticsComponent> currentNodes = new HashMap<>(lastNodes.size());
 
-        for (INode i:nodes) {
-            cNew = i.getComponent(NodeStatisticsComponent.class);
-            cOld = lastNodes.get(i.getAddress());
-            if (cOld == null) {
-                cOld = cNew;
-            }
+        // the nodes are read from the live network, nothing is copied but the statistics of the last round
+        readingPort.forEachNode(node -> updateNodeStatistics(node, currentNodes));
 
-            if (cNew != null) {
-                double delta = (cNew.getCommunicationCount() - cOld.getCommunicationCount());
-                double tOld = cOld.getThroughput();
+        lastNodes = currentNodes;
+    }
 
-                double tn = smooth*delta + (1.0d-smooth)*tOld;
+    private void updateNodeStatistics(final INode node, final HashMap<IAddress, NodeStatisticsComponent> currentNodes) {
 
-                cNew.setThroughput(tn);
-            }
+        final NodeStatisticsComponent cNew = node.getComponent(NodeStatisticsComponent.class);
+        NodeStatisticsComponent cOld = lastNodes.get(node.getAddress());
 
-            IComponentVisitor<IComponent> copier = new ComponentCopier();
-            NodeStatisticsComponent n2 = null;
-            if (cNew != null) {
-                n2 = (NodeStatisticsComponent)cNew.accept(copier);
-            }
-            if (lastNodes.get(i.getAddress()) != null) {
-                lastNodes.replace(i.getAddress(), n2);
-            } else {
-                lastNodes.put(i.getAddress(), n2);
-            }
+        if (cOld == null) {
+            cOld = cNew;
+        }
+
+        if (cNew != null) {
+            double delta = (cNew.getCommunicationCount() - cOld.getCommunicationCount());
+            double tOld = cOld.getThroughput();
+
+            double tn = smooth*delta + (1.0d-smooth)*tOld;
+
+            cNew.setThroughput(tn);
+
+            final IComponentVisitor<IComponent> copier = new ComponentCopier();
+            currentNodes.put(node.getAddress(), (NodeStatisticsComponent) cNew.accept(copier));
         }
     }
 
     private void updateGraphStatistics() {
-        Collection<INode> nodes = readingPort.getNetworkNodes();
-        if (nodes != null) {
-            double tn = 0.0;
-            for (INode i:nodes) {
-                NodeStatisticsComponent pdlc = i.getComponent(NodeStatisticsComponent.class);
-                if (pdlc != null) {
-                    tn += pdlc.getThroughput();
-                }
-            }
 
-            //because we count outgoing and incoming packages, so one new package affects 2 node communication counters
-            tn = tn/2;
+        final double[] throughput = {0.0};
+        final int[] population = {0};
 
-            readingPort.setThroughput(tn);
-            readingPort.setPopulation(nodes.size());
-            viewPort.setThroughput(tn);
-            viewPort.setPopulation(nodes.size());
-            if (initialTime == 0) initialTime = Instant.now().toEpochMilli();
-            viewPort.setViewTime(Instant.now().toEpochMilli() - initialTime);
-        }
+        readingPort.forEachNode(node -> {
+            final NodeStatisticsComponent pdlc = node.getComponent(NodeStatisticsComponent.class);
+            if (pdlc != null) {
+                throughput[0] += pdlc.getThroughput();
+            }
+            population[0]++;
+        });
+
+        //because we count outgoing and incoming packages, so one new package affects 2 node communication counters
+        final double tn = throughput[0] / 2;
+
+        readingPort.setThroughput(tn);
+        readingPort.setPopulation(population[0]);
+        viewPort.setThroughput(tn);
+        viewPort.setPopulation(population[0]);
+        if (initialTime == 0) initialTime = Instant.now().toEpochMilli();
+        viewPort.setViewTime(Instant.now().toEpochMilli() - initialTime);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.queue.CommandScheduler;
+import edu.kit.trufflehog.command.queue.ICommandQueue;
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     Executes the commands of a {@link CommandScheduler} in batches. A batch starts with a command that was already
+ *     taken from the scheduler and continues with up to batch size - 1 commands that are already waiting.
+ *     Consecutive {@link AddPacketDataCommand}s for the same source and destination are merged into one command.
+ * </p>
+ * <p>
+ *     The runner is shared by all threads of a {@link CommandExecutor}, so the counters cover all of them.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class CommandBatchRunner {
+
+    private static final Logger logger = LogManager.getLogger(CommandBatchRunner.class);
+
+    private final int batchSize;
+    private final long maxBatchLatencyNanos;
+
+    private final LongAdder executedCommands = new LongAdder();
+    private final LongAdder mergedCommands = new LongAdder();
+
+    /**
+     * @param batchSize The maximum number of commands that are taken from the scheduler at once.
+     * @param maxBatchLatencyNanos The maximum time in nanoseconds a command is held back while a batch is taken.
+     */
+    CommandBatchRunner(final int batchSize, final long maxBatchLatencyNanos) {
+        this.batchSize = batchSize;
+        this.maxBatchLatencyNanos = maxBatchLatencyNanos;
+    }
+
+    /**
+     * <p>
+     *     Executes the given command and the commands that are waiting in the scheduler after it.
+     * </p>
+     *
+     * @param first The first command of the batch.
+     * @param scheduler The scheduler to take the rest of the batch from.
+     * @throws InterruptedException if the thread is interrupted while taking a command
+     */
+    void runBatch(final ICommand first, final CommandScheduler scheduler) throws InterruptedException {
+
+        final long deadline = System.nanoTime() + maxBatchLatencyNanos;
+
+        ICommand pending = first;
+        int taken = 1;
+
+        while (taken < batchSize && System.nanoTime() - deadline < 0) {
+
+            final ICommandQueue queue = scheduler.pollNextQueue();
+
+            if (queue == null) {
+                break;
+            }
+
+            final ICommand next = queue.pop();
+            taken++;
+
+            if (pending instanceof AddPacketDataCommand && next instanceof AddPacketDataCommand
+                    && ((AddPacketDataCommand) pending).coalesce((AddPacketDataCommand) next)) {
+                mergedCommands.increment();
+                continue;
+            }
+
+            execute(pending);
+            pending = next;
+        }
+
+        execute(pending);
+    }
+
+    /**
+     * <p>
+     *     Executes a single command. A command that fails is logged and skipped, so that one broken command does not
+     *     stop the thread that executes all the others.
+     * </p>
+     *
+     * @param command The command to execute.
+     */
+    void execute(final ICommand command) {
+        try {
+            command.execute();
+        } catch (RuntimeException e) {
+            logger.error("Could not execute command " + command, e);
+        }
+
+        if (!(command instanceof ShardBarrier)) {
+            executedCommands.increment();
+        }
+    }
+
+    long getExecutedCommands() {
+        return executedCommands.sum();
+    }
+
+    long getMergedCommands() {
+        return mergedCommands.sum();
+    }
+}
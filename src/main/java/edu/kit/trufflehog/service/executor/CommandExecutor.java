@@ -1,24 +1,50 @@
 package edu.kit.trufflehog.service.executor;
 
 import edu.kit.trufflehog.command.ICommand;
-import edu.kit.trufflehog.command.queue.CommandQueue;
-import edu.kit.trufflehog.command.queue.CommandQueueManager;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue.OverflowPolicy;
+import edu.kit.trufflehog.command.queue.CommandScheduler;
 import edu.kit.trufflehog.command.queue.ICommandQueue;
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
 import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.command.usercommand.IUserCommand;
+import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
 import edu.kit.trufflehog.util.IListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
  *     This class supplies a service to execute commands generated by the {@link TruffleReceiver} and the view.
- *     Any incoming commands will always be executed in alternating order and first in first out (round robbin way).
+ *     Any incoming commands will always be executed first in first out per queue and the queues are served in
+ *     weighted round robbin way, with the default weights of 1 in alternating order.
  *     If no command is available the service will block and wait until a new command is available.
  * </p>
+ * <p>
+ *     Both queues are bounded. If the truffle receiver outruns the executor the receiver either has to wait or the
+ *     oldest truffle commands are dropped, see {@link OverflowPolicy}. User commands are never dropped.
+ * </p>
+ * <p>
+ *     Every time the executor wakes up it takes up to batch size commands that are already waiting. Consecutive
+ *     {@link AddPacketDataCommand}s for the same source and destination are merged into one command, so the
+ *     network is updated once for all of their packets. A command is held back at most for the max batch latency
+ *     while the following commands are taken.
+ * </p>
+ * <p>
+ *     With more than one shard the truffle commands are executed by several threads. Every {@link AddPacketDataCommand}
+ *     is sent to the shard of its source mac address, so all packets of a source, its outgoing connections and its
+ *     device name and ip address are handled by one thread in the order they arrived. The destination of a packet
+ *     may be handled by another shard, but only its counters and packet log change. The counters end up the same as
+ *     with one thread. The packet log of a destination keeps the packets of every source in the order they arrived,
+ *     but the packets of different sources are logged in the order the shards executed them, which may differ from
+ *     the order they arrived in. All other commands are barriers: they are executed after every shard finished the
+ *     commands it received before and before any later command is handed out.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.0
@@ -27,9 +53,81 @@ public class CommandExecutor implements Runnable {
 
     private static final Logger logger = LogManager.getLogger(CommandExecutor.class);
 
-    private final CommandQueueManager commandQueueManager = new CommandQueueManager();
-    private final ICommandQueue truffleCommandQueue = new CommandQueue(commandQueueManager);
-    private final ICommandQueue userCommandQueue = new CommandQueue(commandQueueManager);
+    public static final int DEFAULT_TRUFFLE_QUEUE_CAPACITY = 1 << 16;
+    public static final int USER_QUEUE_CAPACITY = 1 << 12;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_MAX_BATCH_LATENCY = 5;
+
+    private static final int SHARD_QUEUE_CAPACITY = 1 << 12;
+
+    private final CommandScheduler commandScheduler = new CommandScheduler();
+    private final BoundedCommandQueue truffleCommandQueue;
+    private final BoundedCommandQueue userCommandQueue;
+
+    private final CommandBatchRunner batchRunner;
+    private final CommandShard[] shards;
+
+    /**
+     * <p>
+     *     Creates a CommandExecutor that serves truffle and user commands alternating and makes the truffle
+     *     receiver wait if the truffle queue is full.
+     * </p>
+     */
+    public CommandExecutor() {
+        this(DEFAULT_TRUFFLE_QUEUE_CAPACITY, OverflowPolicy.BLOCK, 1, 1, DEFAULT_BATCH_SIZE, DEFAULT_MAX_BATCH_LATENCY, 1);
+    }
+
+    /**
+     * <p>
+     *     Creates a CommandExecutor.
+     * </p>
+     *
+     * @param truffleQueueCapacity The maximum number of truffle commands that wait for execution.
+     * @param truffleOverflowPolicy What happens to a truffle command if the truffle queue is full.
+     * @param truffleWeight The number of truffle commands executed in a row if user commands are waiting.
+     * @param userWeight The number of user commands executed in a row if truffle commands are waiting.
+     * @param batchSize The maximum number of commands that are taken from the queues at once.
+     * @param maxBatchLatency The maximum time in milliseconds a command is held back while a batch is taken.
+     * @param shardCount The number of threads that execute truffle commands, 1 executes all commands on the thread
+     *                   that runs the executor.
+     */
+    public CommandExecutor(final int truffleQueueCapacity,
+                           final OverflowPolicy truffleOverflowPolicy,
+                           final int truffleWeight,
+                           final int userWeight,
+                           final int batchSize,
+                           final int maxBatchLatency,
+                           final int shardCount) {
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size has to be at least 1");
+        }
+
+        if (maxBatchLatency < 0) {
+            throw new IllegalArgumentException("The max batch latency must not be negative");
+        }
+
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("There has to be at least 1 shard");
+        }
+
+        batchRunner = new CommandBatchRunner(batchSize, TimeUnit.MILLISECONDS.toNanos(maxBatchLatency));
+        shards = new CommandShard[shardCount > 1 ? shardCount : 0];
+
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new CommandShard(SHARD_QUEUE_CAPACITY, batchRunner);
+        }
+
+        truffleCommandQueue = new BoundedCommandQueue(commandScheduler,
+                truffleQueueCapacity,
+                truffleWeight,
+                truffleOverflowPolicy);
+
+        userCommandQueue = new BoundedCommandQueue(commandScheduler,
+                USER_QUEUE_CAPACITY,
+                userWeight,
+                OverflowPolicy.BLOCK);
+    }
 
     /**
      * <p>
@@ -39,9 +137,14 @@ public class CommandExecutor implements Runnable {
     @Override
     public void run() {
 
+        if (shards.length > 0) {
+            runSharded();
+            return;
+        }
+
         while (!Thread.interrupted()) {
             try {
-                commandQueueManager.getNextQueue().pop().execute();
+                batchRunner.runBatch(commandScheduler.getNextQueue().pop(), commandScheduler);
             } catch (InterruptedException e) {
                 logger.debug("Executor thread interrupted: " + Arrays.toString(e.getStackTrace()));
                 Thread.currentThread().interrupt();
@@ -52,6 +155,112 @@ public class CommandExecutor implements Runnable {
 
     }
 
+    /**
+     * <p>
+     *     Distributes the commands to the shards until the thread is interrupted. Packet commands go to the shard of
+     *     their source address, all other commands wait until the shards executed everything they received before
+     *     and are then executed on this thread.
+     * </p>
+     */
+    private void runSharded() {
+
+        final Thread[] shardThreads = new Thread[shards.length];
+
+        for (int i = 0; i < shards.length; i++) {
+            shardThreads[i] = new Thread(shards[i], "command-shard-" + i);
+            shardThreads[i].setDaemon(true);
+            shardThreads[i].start();
+        }
+
+        try {
+            while (!Thread.interrupted()) {
+
+                final ICommand command = commandScheduler.getNextQueue().pop();
+                final CommandShard shard = getShard(command);
+
+                if (shard != null) {
+                    shard.submit(command);
+                } else {
+                    awaitShards();
+                    batchRunner.execute(command);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.debug("Executor thread interrupted: " + Arrays.toString(e.getStackTrace()));
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Thread shardThread : shardThreads) {
+                shardThread.interrupt();
+            }
+        }
+
+        logger.debug("Executor thread exited");
+    }
+
+    private CommandShard getShard(final ICommand command) {
+
+        if (!(command instanceof AddPacketDataCommand)) {
+            return null;
+        }
+
+        final MacAddress source = ((AddPacketDataCommand) command).getSourceAddress();
+
+        if (source == null) {
+            return null;
+        }
+
+        // spread the bits, the hash code of a mac address is the address itself
+        final int hash = source.hashCode();
+
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    private void awaitShards() throws InterruptedException {
+
+        final CountDownLatch barrier = new CountDownLatch(shards.length);
+
+        for (CommandShard shard : shards) {
+            shard.submit(new ShardBarrier(barrier));
+        }
+
+        barrier.await();
+    }
+
+    /**
+     * @return the number of commands that were executed, merged commands count once
+     */
+    public long getExecutedCommands() {
+        return batchRunner.getExecutedCommands();
+    }
+
+    /**
+     * @return the number of commands that were merged into the command before them instead of being executed
+     */
+    public long getMergedCommands() {
+        return batchRunner.getMergedCommands();
+    }
+
+    /**
+     * @return the number of truffle commands that were dropped because the truffle queue was full
+     */
+    public long getDroppedTruffleCommands() {
+        return truffleCommandQueue.getDroppedCommands();
+    }
+
+    /**
+     * @return the number of times the truffle receiver had to wait because the truffle queue was full
+     */
+    public long getBlockedTruffleCommands() {
+        return truffleCommandQueue.getBlockedPushes();
+    }
+
+    /**
+     * @return the number of truffle commands waiting for execution
+     */
+    public int getPendingTruffleCommands() {
+        return truffleCommandQueue.size();
+    }
+
     /**
      * <p>
      *     This method returns an {@link IListener} that accepts {@link IUserCommand} commands.
@@ -84,7 +293,9 @@ public class CommandExecutor implements Runnable {
                 }
                 commandQueue.push(message);
             } catch (InterruptedException e) {
-                e.printStackTrace();
+                // the sender was interrupted while waiting for room in the queue, let it see the interrupt
+                logger.debug("Interrupted while pushing a command, the command is discarded");
+                Thread.currentThread().interrupt();
             }
         };
     }
@@ -0,0 +1,61 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue.OverflowPolicy;
+import edu.kit.trufflehog.command.queue.CommandScheduler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>
+ *     One worker of a sharded {@link CommandExecutor}. The shard has its own bounded queue and executes the commands
+ *     in it in batches on its own thread, in the order they were submitted. If the queue is full, submitting waits
+ *     until the shard made room.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class CommandShard implements Runnable {
+
+    private static final Logger logger = LogManager.getLogger(CommandShard.class);
+
+    private final CommandScheduler scheduler = new CommandScheduler();
+    private final BoundedCommandQueue queue;
+    private final CommandBatchRunner batchRunner;
+
+    /**
+     * @param capacity The maximum number of commands that wait in the shard.
+     * @param batchRunner The runner that executes the commands.
+     */
+    CommandShard(final int capacity, final CommandBatchRunner batchRunner) {
+        this.queue = new BoundedCommandQueue(scheduler, capacity, 1, OverflowPolicy.BLOCK);
+        this.batchRunner = batchRunner;
+    }
+
+    /**
+     * <p>
+     *     Hands a command to the shard.
+     * </p>
+     *
+     * @param command The command to execute on this shard.
+     * @throws InterruptedException if the thread is interrupted while waiting for room in the queue
+     */
+    void submit(final ICommand command) throws InterruptedException {
+        queue.push(command);
+    }
+
+    @Override
+    public void run() {
+
+        while (!Thread.interrupted()) {
+            try {
+                batchRunner.runBatch(scheduler.getNextQueue().pop(), scheduler);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        logger.debug("Shard thread exited");
+    }
+}
@@ -0,0 +1,27 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.command.ICommand;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <p>
+ *     A command that is put into every {@link CommandShard} to find out when all shards executed the commands they
+ *     received before it. Each shard counts down the shared latch when it reaches the barrier.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class ShardBarrier implements ICommand {
+
+    private final CountDownLatch latch;
+
+    ShardBarrier(final CountDownLatch latch) {
+        this.latch = latch;
+    }
+
+    @Override
+    public void execute() {
+        latch.countDown();
+    }
+}
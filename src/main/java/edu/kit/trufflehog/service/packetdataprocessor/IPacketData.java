@@ -19,6 +19,7 @@ package edu.kit.trufflehog.service.packetdataprocessor;
 
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.Truffle;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleView;
 
 /**
  * <p>
@@ -45,4 +46,14 @@ public interface IPacketData {
      * @return The value of the attribute or null if nothing was found under the specified identifier
      */
     <T> T getAttribute(final Class<T> attributeType, final String attributeIdentifier);
+
+    /**
+     * <p>
+     *     This method is called once the packet data was consumed and is not used anymore. Implementations that
+     *     reuse their storage, like the pooled {@link TruffleView}, get it back
+     *     here. The default does nothing.
+     * </p>
+     */
+    default void release() {
+    }
 }
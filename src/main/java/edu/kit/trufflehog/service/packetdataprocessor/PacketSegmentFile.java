@@ -0,0 +1,196 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package edu.kit.trufflehog.service.packetdataprocessor;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ *     An append-only file of blocks, which holds the packet data of the {@link PacketStore} that no longer fits into
+ *     memory. Every block is written once, as a whole, and is read back by the offset {@link #append} returned for it.
+ * </p>
+ * <p>
+ *     The file only lives as long as the session, it is deleted when it is closed.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class PacketSegmentFile implements Closeable {
+
+    private final File file;
+    private final FileChannel channel;
+
+    private long size = 0;
+    private boolean closed = false;
+
+    /**
+     * <p>
+     *     Creates a new empty segment file, an existing file is overwritten.
+     * </p>
+     *
+     * @param file The file to write the blocks to.
+     * @throws IOException if the file can not be opened
+     */
+    public PacketSegmentFile(final File file) throws IOException {
+
+        if (file == null) throw new NullPointerException("file must not be null!");
+
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * <p>
+     *     Creates a new segment file with a unique name in the given folder, for example the truffle data log folder
+     *     of the {@link edu.kit.trufflehog.model.FileSystem}.
+     * </p>
+     *
+     * @param folder The folder to create the file in.
+     * @return The created segment file.
+     * @throws IOException if the file can not be created
+     */
+    public static PacketSegmentFile createIn(final File folder) throws IOException {
+
+        final File file = File.createTempFile("packets-", ".seg", folder);
+        file.deleteOnExit();
+
+        return new PacketSegmentFile(file);
+    }
+
+    /**
+     * <p>
+     *     Appends the remaining bytes of the given buffer as a block to the file.
+     * </p>
+     *
+     * @param block The bytes to append.
+     * @return The offset of the appended block.
+     * @throws IOException if the block can not be written
+     */
+    public synchronized long append(final ByteBuffer block) throws IOException {
+
+        if (block == null) throw new NullPointerException("block must not be null!");
+        ensureOpen();
+
+        final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        length.putInt(block.remaining());
+        length.flip();
+
+        final long offset = size;
+        size += writeFully(length, size);
+        size += writeFully(block, size);
+
+        return offset;
+    }
+
+    /**
+     * <p>
+     *     Reads the block at the given offset.
+     * </p>
+     *
+     * @param offset The offset that was returned when the block was appended.
+     * @return The bytes of the block.
+     * @throws IOException if the block can not be read
+     */
+    public synchronized ByteBuffer read(final long offset) throws IOException {
+
+        ensureOpen();
+
+        if (offset < 0 || offset + Integer.BYTES > size) {
+            throw new IOException("No block at offset " + offset);
+        }
+
+        final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(length, offset);
+        length.flip();
+
+        final ByteBuffer block = ByteBuffer.allocate(length.getInt());
+        readFully(block, offset + Integer.BYTES);
+        block.flip();
+
+        return block;
+    }
+
+    /**
+     * @return the number of bytes that were appended to the file
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * @return the file the blocks are written to
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * <p>
+     *     Closes and deletes the file. The blocks can not be read afterwards.
+     * </p>
+     *
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        channel.close();
+
+        if (!file.delete()) {
+            throw new IOException("Unable to delete " + file);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The segment file " + file + " is closed");
+        }
+    }
+
+    private int writeFully(final ByteBuffer buffer, final long position) throws IOException {
+
+        int written = 0;
+
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+
+        return written;
+    }
+
+    private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Block at " + position + " ends after the end of " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,792 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package edu.kit.trufflehog.service.packetdataprocessor;
+
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleView;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Stores every packet of the session once, so that the nodes and connections only have to keep the ids of their
+ *     packets. The ids are given in the order the packets are appended, starting at 0.
+ * </p>
+ * <p>
+ *     The attributes of a {@link edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.Truffle} are
+ *     stored in columns of primitive arrays, chunk by chunk, strings like the device name are stored once and
+ *     referenced by their number. So a packet takes a fixed number of bytes and no objects at all. Other attributes
+ *     are not stored. The packets are handed out as new {@link IPacketData} objects when they are read. A
+ *     {@link TruffleView} is stored from its typed accessors, without boxing its values.
+ * </p>
+ * <p>
+ *     Appending takes no lock: the id is taken from an atomic counter and every writer fills the row of its id in
+ *     the chunk, then marks the row as written. Only the first writer of a chunk and the writer that fills its last
+ *     row take the lock, to add the chunk and to seal it. Reading takes the lock.
+ * </p>
+ * <p>
+ *     Only the newest chunks are kept in memory. Older chunks are written to the {@link PacketSegmentFile} and read
+ *     back when their packets are asked for, or dropped if there is no segment file. The logs of the nodes and
+ *     connections move the ids of their older packets to the same file, see {@link #spillIds}.
+ * </p>
+ * <p>
+ *     The time of arrival of the packets is stored ascending: a packet that arrives with an earlier time than the
+ *     packet before it gets the time of the packet before it. So the packets of a time range can be found by binary
+ *     search with {@link #firstIdAtOrAfter}. The times are made ascending by the readers and the sealing writer, up
+ *     to the first row that is not written yet.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class PacketStore {
+
+    /**
+     * The number of packets that are kept in memory if nothing else is configured.
+     */
+    public static final int DEFAULT_RESIDENT_PACKETS = 1 << 18;
+
+    static final int CHUNK_SIZE = 4096;
+
+    private static final Logger logger = LogManager.getLogger(PacketStore.class);
+
+    // the columns of the attributes
+    private static final int SOURCE_MAC = 0;
+    private static final int DEST_MAC = 1;
+    private static final int XID = 2;
+    private static final int TIME = 3;
+    private static final int LONG_COLUMNS = 4;
+
+    private static final int FLAGS = 0;
+    private static final int SOURCE_IP = 1;
+    private static final int DEST_IP = 2;
+    private static final int DEVICE_NAME = 3;
+    private static final int ETHER_TYPE = 4;
+    private static final int SERVICE_TYPE = 5;
+    private static final int SERVICE_ID = 6;
+    private static final int SERVICE_TYPE_NAME = 7;
+    private static final int SERVICE_ID_NAME = 8;
+    private static final int RESPONSE_DELAY = 9;
+    private static final int INT_COLUMNS = 10;
+
+    // bit i of the flags is set if attribute i is present, this bit holds the value of isResponse
+    private static final int IS_RESPONSE = 1 << 30;
+
+    private static final int CHUNK_BYTES = CHUNK_SIZE * (LONG_COLUMNS * Long.BYTES + INT_COLUMNS * Integer.BYTES);
+
+    private static final int MAX_STRINGS = 1 << 16;
+    private static final int LOADED_CHUNKS = 4;
+
+    private static final Attribute[] ATTRIBUTES = {
+            new Attribute(MacAddress.class, "sourceMacAddress", Kind.MAC, SOURCE_MAC),
+            new Attribute(MacAddress.class, "destMacAddress", Kind.MAC, DEST_MAC),
+            new Attribute(IPAddress.class, "sourceIPAddress", Kind.IP, SOURCE_IP),
+            new Attribute(IPAddress.class, "destIPAddress", Kind.IP, DEST_IP),
+            new Attribute(String.class, "deviceName", Kind.STRING, DEVICE_NAME),
+            new Attribute(Integer.class, "etherType", Kind.INT, ETHER_TYPE),
+            new Attribute(Integer.class, "serviceType", Kind.INT, SERVICE_TYPE),
+            new Attribute(Integer.class, "serviceID", Kind.INT, SERVICE_ID),
+            new Attribute(String.class, "serviceTypeName", Kind.STRING, SERVICE_TYPE_NAME),
+            new Attribute(String.class, "serviceIDName", Kind.STRING, SERVICE_ID_NAME),
+            new Attribute(Long.class, "xid", Kind.LONG, XID),
+            new Attribute(Integer.class, "responseDelay", Kind.INT, RESPONSE_DELAY),
+            new Attribute(Boolean.class, "isResponse", Kind.BOOLEAN, -1),
+            new Attribute(Long.class, "timeOfArrival", Kind.LONG, TIME)
+    };
+
+    private static final int TIME_ATTRIBUTE = ATTRIBUTES.length - 1;
+
+    // a view always has these attributes, the addresses only if they are valid and the names only if it has them
+    private static final int SOURCE_MAC_ATTRIBUTE = attribute("sourceMacAddress");
+    private static final int DEST_MAC_ATTRIBUTE = attribute("destMacAddress");
+    private static final int DEVICE_NAME_ATTRIBUTE = attribute("deviceName");
+    private static final int SERVICE_TYPE_NAME_ATTRIBUTE = attribute("serviceTypeName");
+    private static final int SERVICE_ID_NAME_ATTRIBUTE = attribute("serviceIDName");
+    private static final int VIEW_ATTRIBUTES = ((1 << ATTRIBUTES.length) - 1) & ~(1 << SOURCE_MAC_ATTRIBUTE)
+            & ~(1 << DEST_MAC_ATTRIBUTE) & ~(1 << DEVICE_NAME_ATTRIBUTE) & ~(1 << SERVICE_TYPE_NAME_ATTRIBUTE)
+            & ~(1 << SERVICE_ID_NAME_ATTRIBUTE);
+
+    private static volatile PacketStore instance = new PacketStore(DEFAULT_RESIDENT_PACKETS, null);
+
+    private final int maxResidentChunks;
+    private final PacketSegmentFile segmentFile;
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    // the chunks are only added with the lock held, the writers look up the newest one without it
+    private final List<Chunk> chunks = new ArrayList<>();
+    private volatile Chunk current = null;
+
+    // the sealed chunks that are still in memory, the oldest first
+    private final ArrayDeque<Chunk> residentChunks = new ArrayDeque<>();
+
+    // the spilled chunks that were read back last
+    private final Map<Chunk, Columns> loadedChunks = new LinkedHashMap<Chunk, Columns>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Chunk, Columns> eldest) {
+            return size() > LOADED_CHUNKS;
+        }
+    };
+
+    // the writers look up the ids without the lock, new strings are added with it
+    private final Map<String, Integer> stringIds = new ConcurrentHashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    // the packets before this id are written and have their final time, the chunks before it are sealed
+    private long orderedId = 0;
+    private long lastTime = 0;
+    private boolean stringsExhausted = false;
+
+    /**
+     * <p>
+     *     Creates a new empty store.
+     * </p>
+     *
+     * @param residentPackets The number of packets that are kept in memory at least.
+     * @param segmentFile The file the older packets are written to, null if they are dropped.
+     */
+    public PacketStore(final int residentPackets, final PacketSegmentFile segmentFile) {
+
+        if (residentPackets <= 0) throw new IllegalArgumentException("residentPackets must be greater than 0!");
+
+        this.maxResidentChunks = Math.max(1, residentPackets / CHUNK_SIZE);
+        this.segmentFile = segmentFile;
+    }
+
+    /**
+     * @return the store the packets of the live network are appended to
+     */
+    public static PacketStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * <p>
+     *     Replaces the store the packets of the live network are appended to. Has to be called before the first
+     *     packet arrives.
+     * </p>
+     *
+     * @param residentPackets The number of packets that are kept in memory at least.
+     * @param segmentFile The file the older packets are written to, null if they are dropped.
+     */
+    public static void configure(final int residentPackets, final PacketSegmentFile segmentFile) {
+        instance = new PacketStore(residentPackets, segmentFile);
+    }
+
+    /**
+     * <p>
+     *     Appends the given packet to the store. Can be called from any number of threads at the same time.
+     * </p>
+     *
+     * @param packet The packet to append.
+     * @return The id of the packet.
+     */
+    public long append(final IPacketData packet) {
+
+        if (packet == null) throw new NullPointerException("packet must not be null!");
+
+        final long id = nextId.getAndIncrement();
+        final int row = (int) (id % CHUNK_SIZE);
+
+        Chunk chunk = current;
+
+        if (chunk == null || chunk.firstId != id - row) {
+            chunk = chunkAt((int) (id / CHUNK_SIZE));
+        }
+
+        final Columns columns = chunk.columns;
+
+        if (packet instanceof TruffleView) {
+            writeView(columns, row, (TruffleView) packet);
+        } else {
+            writeAttributes(columns, row, packet);
+        }
+
+        // publishes the row to the readers
+        chunk.written.lazySet(row, 1);
+
+        if (chunk.filled.incrementAndGet() == CHUNK_SIZE) {
+            seal();
+        }
+
+        return id;
+    }
+
+    /**
+     * <p>
+     *     Reads the packet with the given id.
+     * </p>
+     *
+     * @param id The id of the packet.
+     * @return The packet or null if there is no packet with the id or it was dropped.
+     */
+    public synchronized IPacketData get(final long id) {
+
+        final int index = (int) (id / CHUNK_SIZE);
+
+        if (id < 0 || index >= chunks.size()) {
+            return null;
+        }
+
+        order();
+
+        final Chunk chunk = chunks.get(index);
+        final int row = (int) (id % CHUNK_SIZE);
+
+        if (id < orderedId) {
+            final Columns columns = columns(chunk);
+            return columns == null ? null : materialize(columns, row, columns.longs[TIME][row]);
+        }
+
+        // a packet before it is still being written, so the time may still be raised to the time of that packet
+        if (chunk.written.get(row) == 0) {
+            return null;
+        }
+
+        return materialize(chunk.columns, row, Math.max(chunk.columns.longs[TIME][row], lastTime));
+    }
+
+    /**
+     * <p>
+     *     Finds the first packet that arrived at or after the given time.
+     * </p>
+     *
+     * @param time The time in milliseconds.
+     * @return The id of the first packet with that time or later, the number of packets if there is none.
+     */
+    public synchronized long firstIdAtOrAfter(final long time) {
+
+        order();
+
+        final int sealedChunks = (int) (orderedId / CHUNK_SIZE);
+
+        int low = 0;
+        int high = sealedChunks;
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+
+            if (chunks.get(middle).lastTime < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        if (low == chunks.size()) {
+            return (long) low * CHUNK_SIZE;
+        }
+
+        final Chunk chunk = chunks.get(low);
+        final Columns columns = columns(chunk);
+        final int ordered = (int) Math.min(orderedId - chunk.firstId, CHUNK_SIZE);
+
+        // the packets of a dropped chunk do not exist anymore, so starting before them does no harm
+        if (ordered == 0 || chunk.firstTime >= time || columns == null) {
+            return chunk.firstId;
+        }
+
+        // the packets after the ordered ones may have any time, so the search ends before them
+        int row = 0;
+        int end = ordered;
+
+        while (row < end) {
+            final int middle = (row + end) >>> 1;
+
+            if (columns.longs[TIME][middle] < time) {
+                row = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+
+        return chunk.firstId + row;
+    }
+
+    /**
+     * <p>
+     *     Writes the given ids of logged packets to the segment file, so that the log can drop them from memory and
+     *     read them back when they are asked for. Can be called from any thread.
+     * </p>
+     *
+     * @param ids The encoded ids.
+     * @return The offset to read the ids back with, -1 if there is no segment file or the ids could not be written.
+     */
+    public long spillIds(final ByteBuffer ids) {
+
+        if (ids == null) throw new NullPointerException("ids must not be null!");
+
+        if (segmentFile == null) {
+            return -1;
+        }
+
+        try {
+            return segmentFile.append(ids);
+        } catch (IOException e) {
+            logger.error("Unable to write packet ids to the segment file, they are dropped", e);
+            return -1;
+        }
+    }
+
+    /**
+     * <p>
+     *     Reads the ids that were written with {@link #spillIds}. Can be called from any thread.
+     * </p>
+     *
+     * @param offset The offset that was returned when the ids were written.
+     * @return The encoded ids or null if they could not be read.
+     */
+    public ByteBuffer readSpilledIds(final long offset) {
+
+        if (segmentFile == null || offset < 0) {
+            return null;
+        }
+
+        try {
+            return segmentFile.read(offset);
+        } catch (IOException e) {
+            logger.error("Unable to read packet ids from the segment file", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the number of packets that were appended
+     */
+    public long size() {
+        return nextId.get();
+    }
+
+    private synchronized Chunk chunkAt(final int index) {
+
+        while (chunks.size() <= index) {
+            chunks.add(new Chunk((long) chunks.size() * CHUNK_SIZE));
+        }
+
+        final Chunk chunk = chunks.get(index);
+
+        if (current == null || current.firstId < chunk.firstId) {
+            current = chunk;
+        }
+
+        return chunk;
+    }
+
+    private void writeAttributes(final Columns columns, final int row, final IPacketData packet) {
+
+        int flags = 0;
+
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+
+            final Attribute attribute = ATTRIBUTES[i];
+            final Object value = packet.getAttribute(attribute.type, attribute.name);
+
+            if (value == null) {
+                continue;
+            }
+
+            switch (attribute.kind) {
+                case MAC:
+                    columns.longs[attribute.column][row] = ((MacAddress) value).toLong();
+                    break;
+                case IP:
+                    columns.ints[attribute.column][row] = (int) ((IPAddress) value).toLong();
+                    break;
+                case LONG:
+                    columns.longs[attribute.column][row] = (Long) value;
+                    break;
+                case INT:
+                    columns.ints[attribute.column][row] = (Integer) value;
+                    break;
+                case STRING:
+                    final int id = intern((String) value);
+                    if (id < 0) {
+                        continue;
+                    }
+                    columns.ints[attribute.column][row] = id;
+                    break;
+                case BOOLEAN:
+                    if ((Boolean) value) {
+                        flags |= IS_RESPONSE;
+                    }
+                    break;
+            }
+
+            flags |= 1 << i;
+        }
+
+        // a packet without a time gets the time of the packet before it when the times are ordered
+        if ((flags & (1 << TIME_ATTRIBUTE)) == 0) {
+            columns.longs[TIME][row] = Long.MIN_VALUE;
+        }
+
+        columns.ints[FLAGS][row] = flags;
+    }
+
+    private void writeView(final Columns columns, final int row, final TruffleView view) {
+
+        int flags = VIEW_ATTRIBUTES;
+
+        if (view.isValid()) {
+            columns.longs[SOURCE_MAC][row] = view.sourceMac();
+            columns.longs[DEST_MAC][row] = view.destMac();
+            flags |= 1 << SOURCE_MAC_ATTRIBUTE | 1 << DEST_MAC_ATTRIBUTE;
+        }
+
+        columns.longs[XID][row] = view.xid();
+        columns.longs[TIME][row] = view.timeOfArrival();
+        columns.ints[SOURCE_IP][row] = (int) view.sourceIP();
+        columns.ints[DEST_IP][row] = (int) view.destIP();
+        columns.ints[ETHER_TYPE][row] = view.etherType();
+        columns.ints[SERVICE_TYPE][row] = view.serviceType();
+        columns.ints[SERVICE_ID][row] = view.serviceID();
+        columns.ints[RESPONSE_DELAY][row] = view.responseDelay();
+
+        if (view.isResponse()) {
+            flags |= IS_RESPONSE;
+        }
+
+        flags |= writeString(columns, row, DEVICE_NAME, DEVICE_NAME_ATTRIBUTE, view.deviceName());
+        flags |= writeString(columns, row, SERVICE_TYPE_NAME, SERVICE_TYPE_NAME_ATTRIBUTE, view.serviceTypeName());
+        flags |= writeString(columns, row, SERVICE_ID_NAME, SERVICE_ID_NAME_ATTRIBUTE, view.serviceIDName());
+
+        columns.ints[FLAGS][row] = flags;
+    }
+
+    private int writeString(final Columns columns, final int row, final int column, final int attribute,
+                            final String value) {
+
+        final int id = value == null ? -1 : intern(value);
+
+        if (id < 0) {
+            return 0;
+        }
+
+        columns.ints[column][row] = id;
+
+        return 1 << attribute;
+    }
+
+    private int intern(final String value) {
+
+        final Integer id = stringIds.get(value);
+
+        return id != null ? id : internNew(value);
+    }
+
+    private synchronized int internNew(final String value) {
+
+        Integer id = stringIds.get(value);
+
+        if (id == null) {
+
+            if (strings.size() == MAX_STRINGS) {
+                if (!stringsExhausted) {
+                    logger.warn("More than " + MAX_STRINGS + " different names, new names are not stored anymore");
+                    stringsExhausted = true;
+                }
+                return -1;
+            }
+
+            id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+
+        return id;
+    }
+
+    private synchronized void seal() {
+        order();
+    }
+
+    /**
+     * <p>
+     *     Makes the times of the written packets after the ordered ones ascending, up to the first packet that is not
+     *     written yet, and seals every chunk whose packets are all ordered. Has to be called with the lock held.
+     * </p>
+     */
+    private void order() {
+
+        final long end = Math.min(nextId.get(), (long) chunks.size() * CHUNK_SIZE);
+
+        while (orderedId < end) {
+
+            final Chunk chunk = chunks.get((int) (orderedId / CHUNK_SIZE));
+            final int row = (int) (orderedId % CHUNK_SIZE);
+
+            if (chunk.written.get(row) == 0) {
+                return;
+            }
+
+            final long[] times = chunk.columns.longs[TIME];
+            lastTime = Math.max(times[row], lastTime);
+            times[row] = lastTime;
+
+            if (row == 0) {
+                chunk.firstTime = lastTime;
+            }
+
+            chunk.lastTime = lastTime;
+            orderedId++;
+
+            if (row == CHUNK_SIZE - 1) {
+                chunk.written = null;
+                residentChunks.addLast(chunk);
+
+                while (residentChunks.size() > maxResidentChunks) {
+                    evict(residentChunks.removeFirst());
+                }
+            }
+        }
+    }
+
+    private void evict(final Chunk chunk) {
+
+        if (segmentFile != null) {
+            try {
+                chunk.offset = segmentFile.append(chunk.columns.encode());
+            } catch (IOException e) {
+                logger.error("Unable to write packets to the segment file, they are dropped", e);
+            }
+        }
+
+        chunk.columns = null;
+    }
+
+    private Columns columns(final Chunk chunk) {
+
+        if (chunk.columns != null) {
+            return chunk.columns;
+        }
+
+        if (chunk.offset < 0) {
+            return null;
+        }
+
+        Columns columns = loadedChunks.get(chunk);
+
+        if (columns == null) {
+            try {
+                columns = Columns.decode(segmentFile.read(chunk.offset));
+            } catch (IOException e) {
+                logger.error("Unable to read packets from the segment file", e);
+                return null;
+            }
+
+            loadedChunks.put(chunk, columns);
+        }
+
+        return columns;
+    }
+
+    private IPacketData materialize(final Columns columns, final int row, final long time) {
+
+        final int flags = columns.ints[FLAGS][row];
+        final Object[] values = new Object[ATTRIBUTES.length];
+
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+
+            if ((flags & (1 << i)) == 0) {
+                continue;
+            }
+
+            final Attribute attribute = ATTRIBUTES[i];
+
+            switch (attribute.kind) {
+                case MAC:
+                    values[i] = MacAddress.of(columns.longs[attribute.column][row]);
+                    break;
+                case IP:
+                    values[i] = IPAddress.of(columns.ints[attribute.column][row] & 0xFFFFFFFFL);
+                    break;
+                case LONG:
+                    values[i] = attribute.column == TIME ? time : columns.longs[attribute.column][row];
+                    break;
+                case INT:
+                    values[i] = columns.ints[attribute.column][row];
+                    break;
+                case STRING:
+                    values[i] = strings.get(columns.ints[attribute.column][row]);
+                    break;
+                case BOOLEAN:
+                    values[i] = (flags & IS_RESPONSE) != 0;
+                    break;
+            }
+        }
+
+        return new StoredPacketData(values);
+    }
+
+    private static int attribute(final String name) {
+
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            if (ATTRIBUTES[i].name.equals(name)) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException(name + " is not stored");
+    }
+
+    private enum Kind {
+        MAC, IP, LONG, INT, STRING, BOOLEAN
+    }
+
+    private static final class Attribute {
+
+        private final Class<?> type;
+        private final String name;
+        private final Kind kind;
+        private final int column;
+
+        private Attribute(final Class<?> type, final String name, final Kind kind, final int column) {
+            this.type = type;
+            this.name = name;
+            this.kind = kind;
+            this.column = column;
+        }
+    }
+
+    private static final class Chunk {
+
+        private final long firstId;
+
+        // null once the chunk was written to the segment file or dropped
+        private Columns columns = new Columns();
+        private long offset = -1;
+
+        // the writers mark their row when it is complete, null once the chunk is sealed
+        private volatile AtomicIntegerArray written = new AtomicIntegerArray(CHUNK_SIZE);
+        private final AtomicInteger filled = new AtomicInteger();
+
+        // only valid for the ordered packets
+        private long firstTime;
+        private long lastTime;
+
+        private Chunk(final long firstId) {
+            this.firstId = firstId;
+        }
+    }
+
+    private static final class Columns {
+
+        private final long[][] longs;
+        private final int[][] ints;
+
+        private Columns() {
+            this(new long[LONG_COLUMNS][CHUNK_SIZE], new int[INT_COLUMNS][CHUNK_SIZE]);
+        }
+
+        private Columns(final long[][] longs, final int[][] ints) {
+            this.longs = longs;
+            this.ints = ints;
+        }
+
+        private ByteBuffer encode() {
+
+            final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+
+            for (final long[] column : longs) {
+                buffer.asLongBuffer().put(column);
+                buffer.position(buffer.position() + column.length * Long.BYTES);
+            }
+
+            for (final int[] column : ints) {
+                buffer.asIntBuffer().put(column);
+                buffer.position(buffer.position() + column.length * Integer.BYTES);
+            }
+
+            buffer.flip();
+            return buffer;
+        }
+
+        private static Columns decode(final ByteBuffer buffer) throws IOException {
+
+            if (buffer.remaining() != CHUNK_BYTES) {
+                throw new IOException("Chunk of " + buffer.remaining() + " bytes does not match the columns");
+            }
+
+            final Columns columns = new Columns();
+
+            for (final long[] column : columns.longs) {
+                buffer.asLongBuffer().get(column);
+                buffer.position(buffer.position() + column.length * Long.BYTES);
+            }
+
+            for (final int[] column : columns.ints) {
+                buffer.asIntBuffer().get(column);
+                buffer.position(buffer.position() + column.length * Integer.BYTES);
+            }
+
+            return columns;
+        }
+    }
+
+    /**
+     * <p>
+     *     A packet that was read from the store.
+     * </p>
+     */
+    private static final class StoredPacketData implements IPacketData {
+
+        private final Object[] values;
+
+        private StoredPacketData(final Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public <T> T getAttribute(final Class<T> attributeType, final String attributeIdentifier) {
+
+            for (int i = 0; i < ATTRIBUTES.length; i++) {
+                if (ATTRIBUTES[i].type == attributeType && ATTRIBUTES[i].name.equals(attributeIdentifier)) {
+                    return attributeType.cast(values[i]);
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public String toString() {
+
+            final StringBuilder sb = new StringBuilder();
+
+            for (int i = 0; i < ATTRIBUTES.length; i++) {
+                if (values[i] != null) {
+                    sb.append(ATTRIBUTES[i].name).append(": ").append(values[i]).append('\n');
+                }
+            }
+
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleView;
+
+/**
+ * <p>
+ *     The fields of a packet the rules of the {@link PacketFilterStage} can test. Every field is read as a long, so
+ *     that a rule compares numbers only. The fields of a {@link TruffleView} are read directly from the received
+ *     record, other packets are read through {@link IPacketData#getAttribute}.
+ * </p>
+ * <p>
+ *     The names of the fields in the rules are the identifiers of the attributes, for example etherType.
+ * </p>
+ *
+ * @version 1.0
+ */
+public enum PacketField {
+
+    ETHER_TYPE("etherType") {
+        @Override
+        long of(final TruffleView packet) {
+            return packet.etherType();
+        }
+    },
+
+    FRAME_ID("frameId") {
+        @Override
+        long of(final TruffleView packet) {
+            return packet.frameId();
+        }
+    },
+
+    SERVICE_ID("serviceID") {
+        @Override
+        long of(final TruffleView packet) {
+            return packet.serviceID();
+        }
+    },
+
+    SERVICE_TYPE("serviceType") {
+        @Override
+        long of(final TruffleView packet) {
+            return packet.serviceType();
+        }
+    },
+
+    SOURCE_MAC("sourceMacAddress") {
+        @Override
+        long of(final TruffleView packet) {
+            return packet.sourceMac();
+        }
+    },
+
+    DEST_MAC("destMacAddress") {
+        @Override
+        long of(final TruffleView packet) {
+            return packet.destMac();
+        }
+    },
+
+    IS_RESPONSE("isResponse") {
+        @Override
+        long of(final TruffleView packet) {
+            return packet.isResponse() ? 1 : 0;
+        }
+    };
+
+    /**
+     * The value of a field the packet does not have. No rule matches it, because all values in rules are positive.
+     */
+    public static final long MISSING = -1;
+
+    private static final PacketField[] FIELDS = values();
+
+    private final String identifier;
+
+    PacketField(final String identifier) {
+        this.identifier = identifier;
+    }
+
+    /**
+     * @param identifier The name of the field in a rule.
+     * @return The field with the name, or null if there is none.
+     */
+    public static PacketField forIdentifier(final String identifier) {
+
+        for (final PacketField field : FIELDS) {
+            if (field.identifier.equals(identifier)) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The name of the field in a rule.
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * <p>
+     *     Reads the field of the packet.
+     * </p>
+     *
+     * @param packet The packet to read.
+     * @return The value of the field, or {@link #MISSING} if the packet does not have it.
+     */
+    public long read(final IPacketData packet) {
+
+        if (packet instanceof TruffleView) {
+            return of((TruffleView) packet);
+        }
+
+        final Object value;
+
+        if (this == SOURCE_MAC || this == DEST_MAC) {
+            value = packet.getAttribute(MacAddress.class, identifier);
+        } else if (this == IS_RESPONSE) {
+            value = packet.getAttribute(Boolean.class, identifier);
+        } else {
+            value = packet.getAttribute(Integer.class, identifier);
+        }
+
+        if (value instanceof MacAddress) {
+            return ((MacAddress) value).toLong();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else if (value instanceof Integer) {
+            return Integer.toUnsignedLong((Integer) value);
+        }
+
+        return MISSING;
+    }
+
+    abstract long of(TruffleView packet);
+}
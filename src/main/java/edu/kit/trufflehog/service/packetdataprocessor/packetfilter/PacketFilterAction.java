@@ -0,0 +1,50 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+/**
+ * <p>
+ *     The PacketFilterAction enum defines what the {@link PacketFilterStage} does with a packet that matches a rule.
+ * </p>
+ *
+ * @version 1.0
+ */
+public enum PacketFilterAction {
+
+    /**
+     * The packet is added to the network, rules with a lower priority are not checked.
+     */
+    PASS,
+
+    /**
+     * The packet is dropped.
+     */
+    DROP,
+
+    /**
+     * One of every n matching packets is added to the network, n is the rate of the rule.
+     */
+    SAMPLE,
+
+    /**
+     * At most rate packets per second are added for every pair of source and destination, with bursts of up to one
+     * second of packets.
+     */
+    RATE_LIMIT
+}
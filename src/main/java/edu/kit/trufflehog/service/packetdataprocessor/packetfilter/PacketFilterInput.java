@@ -0,0 +1,229 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.model.filter.FilterInput;
+import edu.kit.trufflehog.model.filter.FilterType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>
+ *     The PacketFilterInput class contains the data necessary to create a rule of the {@link PacketFilterStage}, in
+ *     the same way as a {@link edu.kit.trufflehog.model.filter.FilterInput} contains the data of a filter:
+ *     <ul>
+ *         <li>
+ *             Name: The name of the rule. It has to be unique.
+ *         </li>
+ *         <li>
+ *             Rules: The tests of the fields of a packet, see {@link PacketRuleParser}. A packet matches if it passes
+ *             at least one of them.
+ *         </li>
+ *         <li>
+ *             Action: What happens with the matching packets, see {@link PacketFilterAction}.
+ *         </li>
+ *         <li>
+ *             Rate: The n of {@link PacketFilterAction#SAMPLE} or the packets per second of
+ *             {@link PacketFilterAction#RATE_LIMIT}, ignored by the other actions.
+ *         </li>
+ *         <li>
+ *             Priority: The rules are checked from the highest to the lowest priority, the first one that matches
+ *             decides.
+ *         </li>
+ *         <li>
+ *             Active: Whether this rule is currently applied to the received packets or not.
+ *         </li>
+ *     </ul>
+ * </p>
+ *
+ * @version 1.0
+ */
+public class PacketFilterInput implements Serializable {
+
+    private final String name;
+    private final List<String> rules;
+    private final PacketFilterAction action;
+    private final int rate;
+    private final int priority;
+
+    private boolean active;
+
+    /**
+     * <p>
+     *     Creates a new PacketFilterInput object that is inactive.
+     * </p>
+     *
+     * @param name The name of the rule.
+     * @param rules The tests of the fields of the packets, one of them has to pass.
+     * @param action What happens with the matching packets.
+     * @param rate The n of a sampling rule or the packets per second of a rate limit.
+     * @param priority The priority of the rule.
+     */
+    public PacketFilterInput(final String name,
+                             final List<String> rules,
+                             final PacketFilterAction action,
+                             final int rate,
+                             final int priority) {
+
+        if (name == null) throw new NullPointerException("name must not be null!");
+        if (rules == null) throw new NullPointerException("rules must not be null!");
+        if (action == null) throw new NullPointerException("action must not be null!");
+
+        if ((action == PacketFilterAction.SAMPLE || action == PacketFilterAction.RATE_LIMIT) && rate < 1) {
+            throw new IllegalArgumentException("The rate of a " + action + " rule has to be at least 1");
+        }
+
+        this.name = name;
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.action = action;
+        this.rate = rate;
+        this.priority = priority;
+        this.active = false;
+    }
+
+    /**
+     * <p>
+     *     Creates an active PacketFilterInput from one entry of the packet-filter-rules setting, which has the form
+     *     {@code name, action, rate, rule}, for example
+     *     {@code rtc, sample, 100, etherType == 0x8892 && frameId in 0x8000..0xbfff}.
+     * </p>
+     *
+     * @param entry The entry of the setting.
+     * @param priority The priority of the rule, the earlier entries of the setting get the higher priorities.
+     * @return The created PacketFilterInput.
+     * @throws IllegalArgumentException if the entry does not have the form or an unknown action
+     */
+    public static PacketFilterInput parse(final String entry, final int priority) {
+
+        final String[] parts = entry.split(",", 4);
+
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("A packet filter rule needs a name, an action, a rate and a rule: "
+                    + entry);
+        }
+
+        final PacketFilterAction action = PacketFilterAction.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)
+                .replace('-', '_'));
+
+        final PacketFilterInput input = new PacketFilterInput(parts[0].trim(),
+                Arrays.asList(parts[3].trim()),
+                action,
+                Integer.parseInt(parts[2].trim()),
+                priority);
+
+        input.setActive(true);
+
+        return input;
+    }
+
+    /**
+     * <p>
+     *     Creates a PacketFilterInput from a {@link FilterInput} of the type {@link FilterType#PACKET}, so that the
+     *     rules can be stored and edited like the other filters. The packets matched by a legal filter pass, the
+     *     packets matched by an illegal filter are dropped. Sampling and rate limits are only available through the
+     *     packet-filter-rules setting.
+     * </p>
+     *
+     * @param filterInput The filter input to convert.
+     * @return The created PacketFilterInput, active if the filter input is active.
+     */
+    public static PacketFilterInput of(final FilterInput filterInput) {
+
+        if (filterInput == null) throw new NullPointerException("filterInput must not be null!");
+
+        if (filterInput.getType() != FilterType.PACKET) {
+            throw new IllegalArgumentException("Wrong filter type: " + filterInput.getType());
+        }
+
+        final PacketFilterInput input = new PacketFilterInput(filterInput.getName(),
+                filterInput.getRules(),
+                filterInput.isLegal() ? PacketFilterAction.PASS : PacketFilterAction.DROP,
+                0,
+                filterInput.getPriority());
+
+        input.setActive(filterInput.isActive());
+
+        return input;
+    }
+
+    /**
+     * @return The name of the rule.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The tests of the fields of the packets, a packet matches if it passes one of them.
+     */
+    public List<String> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return What happens with the matching packets.
+     */
+    public PacketFilterAction getAction() {
+        return action;
+    }
+
+    /**
+     * @return The n of a sampling rule or the packets per second of a rate limit.
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * @return The priority of the rule.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return true if the rule is applied to the received packets
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * <p>
+     *     Sets whether the rule is applied to the received packets. A {@link PacketFilterStage} reads this when the
+     *     input is added to it.
+     * </p>
+     *
+     * @param active true if the rule should be applied
+     */
+    public void setActive(final boolean active) {
+        this.active = active;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + action + (action == PacketFilterAction.SAMPLE || action == PacketFilterAction.RATE_LIMIT
+                ? " " + rate : "") + "): " + String.join(" || ", rules);
+    }
+}
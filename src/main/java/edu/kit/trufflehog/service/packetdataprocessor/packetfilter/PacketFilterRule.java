@@ -0,0 +1,332 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.model.filter.InvalidFilterRule;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.kit.trufflehog.util.collections.ConcurrentLongObjectMap;
+import edu.kit.trufflehog.util.collections.TimerWheel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     A rule of the {@link PacketFilterStage}, compiled from a {@link PacketFilterInput}. The rule counts the packets
+ *     that matched it and the ones it let pass, so that the user can see how much traffic every rule takes away.
+ * </p>
+ * <p>
+ *     A rate limit keeps a token bucket for every pair of devices it sees. A bucket that was idle for a second is
+ *     full again, so it is dropped and created anew by the next packet of the pair: the buckets are put on a
+ *     {@link TimerWheel} for the moment they would be full and the packets of the rule expire the wheel once per
+ *     tick. So the rule only keeps the buckets of the pairs that sent within the last two seconds or so.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class PacketFilterRule {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // an idle bucket is dropped at most one tick after it is full again
+    private static final long TICK_MILLIS = 100;
+    private static final int TICKS_PER_WHEEL = 16;
+
+    private final PacketFilterInput input;
+    private final PacketPredicate predicate;
+
+    // the sampling rule decides by the number of hits, so they are counted exactly
+    private final AtomicLong hits = new AtomicLong(0);
+    private final LongAdder passed = new LongAdder();
+
+    // the token buckets of the rate limit by source and destination mac address, null for the other actions
+    private final ConcurrentLongObjectMap<ConcurrentLongObjectMap<TokenBucket>> buckets;
+    private final TimerWheel<TokenBucket> idleBuckets;
+
+    // the time in nanoseconds after which the next packet expires the wheel
+    private final AtomicLong nextExpiry;
+
+    /**
+     * <p>
+     *     Compiles the rules of the input.
+     * </p>
+     *
+     * @param input The input to compile.
+     * @throws InvalidFilterRule if one of the rules of the input can not be parsed
+     */
+    PacketFilterRule(final PacketFilterInput input) throws InvalidFilterRule {
+
+        final PacketPredicate[] predicates = new PacketPredicate[input.getRules().size()];
+
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = PacketRuleParser.parse(input.getRules().get(i));
+        }
+
+        this.input = input;
+        this.predicate = PacketPredicate.or(predicates);
+
+        if (input.getAction() == PacketFilterAction.RATE_LIMIT) {
+            final long now = System.nanoTime();
+
+            this.buckets = new ConcurrentLongObjectMap<>();
+            this.idleBuckets = new TimerWheel<>(TICK_MILLIS, TICKS_PER_WHEEL, now / NANOS_PER_MILLI);
+            this.nextExpiry = new AtomicLong(now + TICK_MILLIS * NANOS_PER_MILLI);
+        } else {
+            this.buckets = null;
+            this.idleBuckets = null;
+            this.nextExpiry = null;
+        }
+    }
+
+    /**
+     * @return The input the rule was compiled from.
+     */
+    public PacketFilterInput getInput() {
+        return input;
+    }
+
+    /**
+     * @return The name of the rule.
+     */
+    public String getName() {
+        return input.getName();
+    }
+
+    /**
+     * @return The number of packets that matched the rule.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of matching packets the rule let pass.
+     */
+    public long getPassedCount() {
+        return passed.sum();
+    }
+
+    /**
+     * @return The number of matching packets the rule dropped.
+     */
+    public long getDroppedCount() {
+        return getHitCount() - getPassedCount();
+    }
+
+    /**
+     * @return The compiled tests of the rule.
+     */
+    PacketPredicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * @param packet The packet to test.
+     * @return true if the packet matches the rule
+     */
+    boolean matches(final IPacketData packet) {
+        return predicate.test(packet);
+    }
+
+    /**
+     * <p>
+     *     Counts the matching packet and applies the action of the rule to it.
+     * </p>
+     *
+     * @param packet The packet that matched the rule.
+     * @param now The current time in nanoseconds, see {@link System#nanoTime()}.
+     * @return true if the packet is added to the network, false if it is dropped
+     */
+    boolean admit(final IPacketData packet, final long now) {
+
+        final long hit = hits.getAndIncrement();
+        final boolean admitted;
+
+        switch (input.getAction()) {
+            case PASS:
+                admitted = true;
+                break;
+            case SAMPLE:
+                admitted = hit % input.getRate() == 0;
+                break;
+            case RATE_LIMIT:
+                admitted = takeToken(packet, now);
+                expireIdleBuckets(now);
+                break;
+            default:
+                admitted = false;
+        }
+
+        if (admitted) {
+            passed.increment();
+        }
+
+        return admitted;
+    }
+
+    /**
+     * @return The number of token buckets the rate limit keeps, 0 for the other actions.
+     */
+    int getBucketCount() {
+
+        if (buckets == null) {
+            return 0;
+        }
+
+        return buckets.values().stream().mapToInt(ConcurrentLongObjectMap::size).sum();
+    }
+
+    private boolean takeToken(final IPacketData packet, final long now) {
+
+        final long source = PacketField.SOURCE_MAC.read(packet);
+        final long dest = PacketField.DEST_MAC.read(packet);
+
+        while (true) {
+            final TokenBucket bucket = bucketOf(source, dest, now);
+
+            synchronized (bucket) {
+                // a bucket that was dropped while it was looked up is replaced by a new one
+                if (!bucket.dropped) {
+                    return bucket.tryTake(now);
+                }
+            }
+        }
+    }
+
+    private TokenBucket bucketOf(final long source, final long dest, final long now) {
+
+        final ConcurrentLongObjectMap<TokenBucket> bySource = buckets.get(source);
+        final TokenBucket bucket = bySource == null ? null : bySource.get(dest);
+
+        if (bucket != null) {
+            return bucket;
+        }
+
+        // creating and dropping the buckets of a source take the same lock, so no bucket is put into a dropped map
+        synchronized (buckets.getLock(source)) {
+
+            ConcurrentLongObjectMap<TokenBucket> created = buckets.get(source);
+
+            if (created == null) {
+                created = new ConcurrentLongObjectMap<>(1);
+                buckets.put(source, created);
+            }
+
+            TokenBucket existing = created.get(dest);
+
+            if (existing == null) {
+                existing = new TokenBucket(source, dest, input.getRate(), now);
+                created.put(dest, existing);
+                idleBuckets.schedule(existing, (now + NANOS_PER_SECOND) / NANOS_PER_MILLI);
+            }
+
+            return existing;
+        }
+    }
+
+    private void expireIdleBuckets(final long now) {
+
+        final long next = nextExpiry.get();
+
+        // one of the packets that arrive after the tick expires the wheel, the others go on right away
+        if (now - next < 0 || !nextExpiry.compareAndSet(next, now + TICK_MILLIS * NANOS_PER_MILLI)) {
+            return;
+        }
+
+        idleBuckets.expire(now / NANOS_PER_MILLI, bucket -> dropIfIdle(bucket, now));
+    }
+
+    private void dropIfIdle(final TokenBucket bucket, final long now) {
+
+        synchronized (buckets.getLock(bucket.source)) {
+
+            synchronized (bucket) {
+
+                // the bucket was used in the meantime, it is checked again when it would be full
+                if (now - bucket.lastRefill < NANOS_PER_SECOND) {
+                    idleBuckets.schedule(bucket, (bucket.lastRefill + NANOS_PER_SECOND) / NANOS_PER_MILLI);
+                    return;
+                }
+
+                bucket.dropped = true;
+            }
+
+            final ConcurrentLongObjectMap<TokenBucket> bySource = buckets.get(bucket.source);
+            bySource.remove(bucket.dest);
+
+            if (bySource.size() == 0) {
+                buckets.remove(bucket.source);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return input.getName() + ": " + predicate;
+    }
+
+    /**
+     * <p>
+     *     Lets up to rate packets per second pass from one source to one destination, it starts full and holds at
+     *     most one second of packets.
+     * </p>
+     */
+    private static final class TokenBucket {
+
+        private final long source;
+        private final long dest;
+        private final int rate;
+
+        // a token is NANOS_PER_SECOND units, so that the bucket gains rate units per nanosecond without rounding
+        private final long capacity;
+        private long tokens;
+        private long lastRefill;
+
+        // set when the idle bucket was removed from the rule, guarded by the bucket
+        private boolean dropped = false;
+
+        private TokenBucket(final long source, final long dest, final int rate, final long now) {
+            this.source = source;
+            this.dest = dest;
+            this.rate = rate;
+            this.capacity = rate * NANOS_PER_SECOND;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryTake(final long now) {
+
+            final long elapsed = Math.max(0, now - lastRefill);
+
+            // one token per 1 / rate seconds, capped before the multiplication can overflow
+            tokens = elapsed >= NANOS_PER_SECOND ? capacity : Math.min(capacity, tokens + elapsed * rate);
+
+            lastRefill = Math.max(lastRefill, now);
+
+            if (tokens < NANOS_PER_SECOND) {
+                return false;
+            }
+
+            tokens -= NANOS_PER_SECOND;
+            return true;
+        }
+    }
+}
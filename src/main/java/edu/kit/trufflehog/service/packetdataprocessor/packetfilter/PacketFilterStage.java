@@ -0,0 +1,192 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.model.filter.InvalidFilterRule;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     Decides which received packets are added to the network at all, before the
+ *     {@link edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand}s are created for them. Traffic the user
+ *     does not care about, for example cyclic real time frames, can be dropped, sampled or limited per pair of
+ *     devices, so that it does not cost as much as the traffic that matters.
+ * </p>
+ * <p>
+ *     The rules are checked from the highest to the lowest priority and the first matching one decides, packets that
+ *     match no rule pass. The rules are replaced as a whole when they change, so the receivers check the packets
+ *     without a lock. Every rule counts its hits, see {@link #getRules()}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class PacketFilterStage {
+
+    private static final PacketFilterRule[] NO_RULES = new PacketFilterRule[0];
+
+    private static final Comparator<PacketFilterRule> BY_PRIORITY =
+            Comparator.comparingInt((PacketFilterRule rule) -> rule.getInput().getPriority()).reversed();
+
+    private volatile PacketFilterRule[] rules = NO_RULES;
+
+    private final LongAdder unmatched = new LongAdder();
+
+    /**
+     * <p>
+     *     Adds the rule of the input to the stage if the input is active. A rule with the same name is replaced.
+     * </p>
+     *
+     * @param input The input to add.
+     * @throws InvalidFilterRule if the rules of the input can not be parsed
+     */
+    public void addInput(final PacketFilterInput input) throws InvalidFilterRule {
+        if (input == null) throw new NullPointerException("input must not be null!");
+
+        if (!input.isActive()) {
+            removeInput(input);
+            return;
+        }
+
+        final PacketFilterRule rule = new PacketFilterRule(input);
+
+        synchronized (this) {
+            final PacketFilterRule[] added = Arrays.stream(rules)
+                    .filter(other -> !other.getName().equals(input.getName()))
+                    .toArray(size -> Arrays.copyOf(NO_RULES, size + 1));
+
+            added[added.length - 1] = rule;
+
+            // a stable sort, rules with the same priority are checked in the order they were added
+            Arrays.sort(added, BY_PRIORITY);
+            rules = added;
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the rule with the name of the input from the stage.
+     * </p>
+     *
+     * @param input The input to remove.
+     */
+    public void removeInput(final PacketFilterInput input) {
+        if (input == null) throw new NullPointerException("input must not be null!");
+
+        removeRule(input.getName());
+    }
+
+    /**
+     * <p>
+     *     Removes the rule with the given name from the stage.
+     * </p>
+     *
+     * @param name The name of the rule to remove.
+     */
+    public synchronized void removeRule(final String name) {
+        if (name == null) throw new NullPointerException("name must not be null!");
+
+        rules = Arrays.stream(rules)
+                .filter(rule -> !rule.getName().equals(name))
+                .toArray(PacketFilterRule[]::new);
+    }
+
+    /**
+     * <p>
+     *     Checks whether a test of the fields of a packet can be parsed, for example before it is stored.
+     * </p>
+     *
+     * @param rule The test to check, see {@link PacketRuleParser}.
+     * @throws InvalidFilterRule if the test can not be parsed
+     */
+    public static void checkRule(final String rule) throws InvalidFilterRule {
+        if (rule == null) throw new NullPointerException("rule must not be null!");
+
+        PacketRuleParser.parse(rule);
+    }
+
+    /**
+     * <p>
+     *     Removes all rules from the stage.
+     * </p>
+     */
+    public synchronized void clear() {
+        rules = NO_RULES;
+    }
+
+    /**
+     * <p>
+     *     Checks if the packet should be added to the network. Called by the receivers for every valid packet.
+     * </p>
+     *
+     * @param packet The received packet.
+     * @return true if the packet should be added to the network, false if it is dropped
+     */
+    public boolean admit(final IPacketData packet) {
+
+        final PacketFilterRule[] current = rules;
+
+        // most receivers run without rules, they should not even read the clock
+        if (current.length == 0) {
+            return true;
+        }
+
+        return admit(current, packet, System.nanoTime());
+    }
+
+    /**
+     * @param packet The received packet.
+     * @param now The current time in nanoseconds.
+     * @return true if the packet should be added to the network, false if it is dropped
+     */
+    boolean admit(final IPacketData packet, final long now) {
+        return admit(rules, packet, now);
+    }
+
+    private boolean admit(final PacketFilterRule[] current, final IPacketData packet, final long now) {
+
+        for (final PacketFilterRule rule : current) {
+            if (rule.matches(packet)) {
+                return rule.admit(packet, now);
+            }
+        }
+
+        unmatched.increment();
+        return true;
+    }
+
+    /**
+     * @return The rules of the stage from the highest to the lowest priority, with their hit counters.
+     */
+    public List<PacketFilterRule> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    /**
+     * @return The number of packets that matched no rule since the stage was created.
+     */
+    public long getUnmatchedCount() {
+        return unmatched.sum();
+    }
+}
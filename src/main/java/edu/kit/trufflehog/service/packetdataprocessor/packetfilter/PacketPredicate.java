@@ -0,0 +1,454 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ *     A compiled test of the fields of a packet, a tree of ranges of field values joined by and, or and not. The
+ *     factory methods simplify the tree while it is built: nested ands and ors are flattened, constants are folded
+ *     and all tests of the same field below an and or an or are merged into one sorted set of ranges, so that every
+ *     field is read at most once per node and tested with a binary search.
+ * </p>
+ * <p>
+ *     The predicates are immutable and can be tested from any thread.
+ * </p>
+ *
+ * @version 1.0
+ */
+public abstract class PacketPredicate {
+
+    /**
+     * The predicate every packet passes.
+     */
+    public static final PacketPredicate ALWAYS = new Constant(true);
+
+    /**
+     * The predicate no packet passes.
+     */
+    public static final PacketPredicate NEVER = new Constant(false);
+
+    private static final long MAX_VALUE = Long.MAX_VALUE;
+
+    PacketPredicate() {
+    }
+
+    /**
+     * @param packet The packet to test.
+     * @return true if the packet passes the predicate
+     */
+    public abstract boolean test(IPacketData packet);
+
+    /**
+     * @param field The field to test.
+     * @param value The value the field has to have.
+     * @return The predicate that passes the packets whose field has the value.
+     */
+    public static PacketPredicate equal(final PacketField field, final long value) {
+        return range(field, value, value);
+    }
+
+    /**
+     * @param field The field to test.
+     * @param from The smallest value of the range, inclusive.
+     * @param to The largest value of the range, inclusive.
+     * @return The predicate that passes the packets whose field lies in the range.
+     */
+    public static PacketPredicate range(final PacketField field, final long from, final long to) {
+
+        if (field == null) throw new NullPointerException("field must not be null!");
+
+        if (from < 0 || from > to) {
+            return NEVER;
+        }
+
+        return new FieldRanges(field, new long[] { from }, new long[] { to });
+    }
+
+    /**
+     * @param predicate The predicate to negate.
+     * @return The predicate that passes the packets the given one does not pass. Packets that do not have a field
+     * pass neither a test of the field nor its negation.
+     */
+    public static PacketPredicate not(final PacketPredicate predicate) {
+
+        if (predicate instanceof Constant) {
+            return predicate == ALWAYS ? NEVER : ALWAYS;
+        } else if (predicate instanceof Not) {
+            return ((Not) predicate).negated;
+        } else if (predicate instanceof FieldRanges) {
+            return ((FieldRanges) predicate).complement();
+        }
+
+        return new Not(predicate);
+    }
+
+    /**
+     * @param predicates The predicates that all have to pass.
+     * @return The predicate that passes the packets that pass all given predicates.
+     */
+    public static PacketPredicate and(final PacketPredicate... predicates) {
+        return join(true, predicates);
+    }
+
+    /**
+     * @param predicates The predicates of which one has to pass.
+     * @return The predicate that passes the packets that pass at least one of the given predicates.
+     */
+    public static PacketPredicate or(final PacketPredicate... predicates) {
+        return join(false, predicates);
+    }
+
+    private static PacketPredicate join(final boolean and, final PacketPredicate[] predicates) {
+
+        // the constant that decides the join on its own and the one that does not change it
+        final PacketPredicate deciding = and ? NEVER : ALWAYS;
+        final PacketPredicate neutral = and ? ALWAYS : NEVER;
+
+        final Map<PacketField, FieldRanges> ranges = new EnumMap<>(PacketField.class);
+        final List<PacketPredicate> others = new ArrayList<>();
+
+        for (final PacketPredicate predicate : flatten(and, predicates)) {
+
+            if (predicate == deciding) {
+                return deciding;
+            } else if (predicate == neutral) {
+                continue;
+            }
+
+            if (predicate instanceof FieldRanges) {
+                final FieldRanges next = (FieldRanges) predicate;
+                final FieldRanges previous = ranges.get(next.field);
+
+                if (previous == null) {
+                    ranges.put(next.field, next);
+                    continue;
+                }
+
+                final FieldRanges merged = and ? previous.intersect(next) : previous.union(next);
+
+                if (merged == null) {
+                    // the field can not lie in two disjoint ranges at once
+                    return NEVER;
+                }
+
+                ranges.put(next.field, merged);
+            } else {
+                others.add(predicate);
+            }
+        }
+
+        // the ranges are tested first, they are the cheapest tests
+        final List<PacketPredicate> joined = new ArrayList<>(ranges.values());
+        joined.addAll(others);
+
+        if (joined.isEmpty()) {
+            return neutral;
+        } else if (joined.size() == 1) {
+            return joined.get(0);
+        }
+
+        final PacketPredicate[] children = joined.toArray(new PacketPredicate[joined.size()]);
+
+        return and ? new And(children) : new Or(children);
+    }
+
+    private static List<PacketPredicate> flatten(final boolean and, final PacketPredicate[] predicates) {
+
+        final List<PacketPredicate> flat = new ArrayList<>();
+
+        for (final PacketPredicate predicate : predicates) {
+
+            if (predicate == null) throw new NullPointerException("predicate must not be null!");
+
+            if (and && predicate instanceof And) {
+                flat.addAll(Arrays.asList(((And) predicate).children));
+            } else if (!and && predicate instanceof Or) {
+                flat.addAll(Arrays.asList(((Or) predicate).children));
+            } else {
+                flat.add(predicate);
+            }
+        }
+
+        return flat;
+    }
+
+    private static final class Constant extends PacketPredicate {
+
+        private final boolean value;
+
+        private Constant(final boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(final IPacketData packet) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    private static final class Not extends PacketPredicate {
+
+        private final PacketPredicate negated;
+
+        private Not(final PacketPredicate negated) {
+            this.negated = negated;
+        }
+
+        @Override
+        public boolean test(final IPacketData packet) {
+            return !negated.test(packet);
+        }
+
+        @Override
+        public String toString() {
+            return "!(" + negated + ")";
+        }
+    }
+
+    private static final class And extends PacketPredicate {
+
+        private final PacketPredicate[] children;
+
+        private And(final PacketPredicate[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public boolean test(final IPacketData packet) {
+
+            for (final PacketPredicate child : children) {
+                if (!child.test(packet)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return describe(" && ", children);
+        }
+    }
+
+    private static final class Or extends PacketPredicate {
+
+        private final PacketPredicate[] children;
+
+        private Or(final PacketPredicate[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public boolean test(final IPacketData packet) {
+
+            for (final PacketPredicate child : children) {
+                if (child.test(packet)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return describe(" || ", children);
+        }
+    }
+
+    private static String describe(final String operator, final PacketPredicate[] children) {
+
+        final StringBuilder builder = new StringBuilder("(");
+
+        for (int i = 0; i < children.length; i++) {
+            builder.append(i == 0 ? "" : operator).append(children[i]);
+        }
+
+        return builder.append(')').toString();
+    }
+
+    /**
+     * <p>
+     *     Tests if a field lies in one of a set of ranges. The ranges are sorted, do not overlap and do not touch,
+     *     so that the range a value may lie in is found with a binary search.
+     * </p>
+     */
+    static final class FieldRanges extends PacketPredicate {
+
+        private final PacketField field;
+        private final long[] starts;
+        private final long[] ends;
+
+        private FieldRanges(final PacketField field, final long[] starts, final long[] ends) {
+            this.field = field;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        @Override
+        public boolean test(final IPacketData packet) {
+
+            final long value = field.read(packet);
+
+            if (value < 0) {
+                return false;
+            }
+
+            if (starts.length == 1) {
+                return value >= starts[0] && value <= ends[0];
+            }
+
+            final int index = Arrays.binarySearch(starts, value);
+
+            if (index >= 0) {
+                return true;
+            }
+
+            // the range that starts before the value
+            final int before = -index - 2;
+
+            return before >= 0 && value <= ends[before];
+        }
+
+        /**
+         * @return the number of disjoint ranges, for the tests
+         */
+        int getRangeCount() {
+            return starts.length;
+        }
+
+        private PacketPredicate complement() {
+
+            final List<long[]> complement = new ArrayList<>();
+            long next = 0;
+
+            for (int i = 0; i < starts.length; i++) {
+                if (starts[i] > next) {
+                    complement.add(new long[] { next, starts[i] - 1 });
+                }
+
+                if (ends[i] == MAX_VALUE) {
+                    return complement.isEmpty() ? NEVER : of(field, complement);
+                }
+
+                next = ends[i] + 1;
+            }
+
+            complement.add(new long[] { next, MAX_VALUE });
+
+            return of(field, complement);
+        }
+
+        private FieldRanges union(final FieldRanges other) {
+
+            final List<long[]> all = new ArrayList<>();
+
+            for (int i = 0; i < starts.length; i++) {
+                all.add(new long[] { starts[i], ends[i] });
+            }
+
+            for (int i = 0; i < other.starts.length; i++) {
+                all.add(new long[] { other.starts[i], other.ends[i] });
+            }
+
+            all.sort(Comparator.comparingLong(range -> range[0]));
+
+            final List<long[]> merged = new ArrayList<>();
+
+            for (final long[] range : all) {
+                final long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+                // ranges that overlap or touch become one
+                if (last != null && (last[1] == MAX_VALUE || range[0] <= last[1] + 1)) {
+                    last[1] = Math.max(last[1], range[1]);
+                } else {
+                    merged.add(range.clone());
+                }
+            }
+
+            return of(field, merged);
+        }
+
+        private FieldRanges intersect(final FieldRanges other) {
+
+            final List<long[]> intersection = new ArrayList<>();
+
+            int i = 0;
+            int j = 0;
+
+            while (i < starts.length && j < other.starts.length) {
+
+                final long start = Math.max(starts[i], other.starts[j]);
+                final long end = Math.min(ends[i], other.ends[j]);
+
+                if (start <= end) {
+                    intersection.add(new long[] { start, end });
+                }
+
+                if (ends[i] < other.ends[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+
+            return intersection.isEmpty() ? null : of(field, intersection);
+        }
+
+        private static FieldRanges of(final PacketField field, final List<long[]> ranges) {
+
+            final long[] starts = new long[ranges.size()];
+            final long[] ends = new long[ranges.size()];
+
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+            }
+
+            return new FieldRanges(field, starts, ends);
+        }
+
+        @Override
+        public String toString() {
+
+            final StringBuilder builder = new StringBuilder(field.getIdentifier()).append(" in [");
+
+            for (int i = 0; i < starts.length; i++) {
+                builder.append(i == 0 ? "" : ", ").append(starts[i]).append("..").append(ends[i]);
+            }
+
+            return builder.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * This file is part of TruffleHog.
+ *
+ * TruffleHog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TruffleHog is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with TruffleHog.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.model.filter.InvalidFilterRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ *     Parses the rules of a {@link PacketFilterInput} into {@link PacketPredicate}s. A rule tests the fields of a
+ *     packet, see {@link PacketField}, and joins the tests with &amp;&amp;, || and !, for example
+ *     {@code etherType == 0x8892 && frameId in 0x8000..0xbfff && !isResponse}.
+ * </p>
+ * <p>
+ *     A test is either {@code field == value}, {@code field != value}, {@code field in from..to} or a field alone,
+ *     which passes if the field is not 0. Values are decimal or hexadecimal numbers starting with 0x, mac addresses
+ *     like 00:0e:8c:01:02:03 or true and false.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class PacketRuleParser {
+
+    private static final Pattern TOKEN = Pattern.compile("\\s*(&&|\\|\\||==|!=|\\.\\.|[!()]|[A-Za-z0-9:]+)");
+    private static final Pattern MAC_ADDRESS = Pattern.compile("\\p{XDigit}{2}(:\\p{XDigit}{2}){5}");
+
+    private final String rule;
+    private final List<String> tokens;
+    private int next = 0;
+
+    private PacketRuleParser(final String rule, final List<String> tokens) {
+        this.rule = rule;
+        this.tokens = tokens;
+    }
+
+    /**
+     * @param rule The rule to parse.
+     * @return The compiled predicate of the rule.
+     * @throws InvalidFilterRule if the rule can not be parsed
+     */
+    static PacketPredicate parse(final String rule) throws InvalidFilterRule {
+
+        if (rule == null) throw new NullPointerException("rule must not be null!");
+
+        final PacketRuleParser parser = new PacketRuleParser(rule, tokenize(rule));
+        final PacketPredicate predicate = parser.parseOr();
+
+        if (parser.next < parser.tokens.size()) {
+            throw parser.invalid("unexpected " + parser.tokens.get(parser.next));
+        }
+
+        return predicate;
+    }
+
+    private static List<String> tokenize(final String rule) throws InvalidFilterRule {
+
+        final List<String> tokens = new ArrayList<>();
+        final Matcher matcher = TOKEN.matcher(rule);
+        int position = 0;
+
+        while (position < rule.length()) {
+
+            if (!matcher.find(position) || matcher.start() != position) {
+
+                if (rule.substring(position).trim().isEmpty()) {
+                    break;
+                }
+
+                throw new InvalidFilterRule("Invalid packet filter rule " + rule + ": unexpected character at "
+                        + position);
+            }
+
+            tokens.add(matcher.group(1));
+            position = matcher.end();
+        }
+
+        return tokens;
+    }
+
+    private PacketPredicate parseOr() throws InvalidFilterRule {
+
+        final List<PacketPredicate> predicates = new ArrayList<>();
+        predicates.add(parseAnd());
+
+        while (accept("||")) {
+            predicates.add(parseAnd());
+        }
+
+        return PacketPredicate.or(predicates.toArray(new PacketPredicate[predicates.size()]));
+    }
+
+    private PacketPredicate parseAnd() throws InvalidFilterRule {
+
+        final List<PacketPredicate> predicates = new ArrayList<>();
+        predicates.add(parseUnary());
+
+        while (accept("&&")) {
+            predicates.add(parseUnary());
+        }
+
+        return PacketPredicate.and(predicates.toArray(new PacketPredicate[predicates.size()]));
+    }
+
+    private PacketPredicate parseUnary() throws InvalidFilterRule {
+
+        if (accept("!")) {
+            return PacketPredicate.not(parseUnary());
+        }
+
+        if (accept("(")) {
+            final PacketPredicate predicate = parseOr();
+            expect(")");
+            return predicate;
+        }
+
+        final String identifier = take();
+        final PacketField field = PacketField.forIdentifier(identifier);
+
+        if (field == null) {
+            throw invalid("unknown field " + identifier);
+        }
+
+        if (accept("==")) {
+            return PacketPredicate.equal(field, parseValue(take()));
+        } else if (accept("!=")) {
+            return PacketPredicate.not(PacketPredicate.equal(field, parseValue(take())));
+        } else if (accept("in")) {
+            final long from = parseValue(take());
+            expect("..");
+            return PacketPredicate.range(field, from, parseValue(take()));
+        }
+
+        return PacketPredicate.range(field, 1, Long.MAX_VALUE);
+    }
+
+    private long parseValue(final String value) throws InvalidFilterRule {
+
+        if (value.equals("true")) {
+            return 1;
+        } else if (value.equals("false")) {
+            return 0;
+        } else if (MAC_ADDRESS.matcher(value).matches()) {
+            return Long.parseLong(value.replace(":", ""), 16);
+        }
+
+        try {
+            if (value.startsWith("0x") || value.startsWith("0X")) {
+                return Long.parseLong(value.substring(2), 16);
+            }
+
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid("invalid value " + value);
+        }
+    }
+
+    private boolean accept(final String token) {
+
+        if (next < tokens.size() && tokens.get(next).equals(token)) {
+            next++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect(final String token) throws InvalidFilterRule {
+        if (!accept(token)) {
+            throw invalid("expected " + token);
+        }
+    }
+
+    private String take() throws InvalidFilterRule {
+
+        if (next >= tokens.size()) {
+            throw invalid("unexpected end");
+        }
+
+        return tokens.get(next++);
+    }
+
+    private InvalidFilterRule invalid(final String reason) {
+        return new InvalidFilterRule("Invalid packet filter rule " + rule + ": " + reason);
+    }
+}
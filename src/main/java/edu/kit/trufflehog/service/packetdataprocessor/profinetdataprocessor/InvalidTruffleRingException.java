@@ -0,0 +1,20 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+/**
+ * <p>
+ *     This exception is thrown if a file does not hold a truffle ring that can be read by this version of
+ *     TruffleHog.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class InvalidTruffleRingException extends ProfinetProcessorException {
+
+    public InvalidTruffleRingException() {
+        super();
+    }
+
+    public InvalidTruffleRingException(final String message) {
+        super(message);
+    }
+}
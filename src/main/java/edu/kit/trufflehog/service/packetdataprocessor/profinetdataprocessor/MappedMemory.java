@@ -0,0 +1,172 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * <p>
+ *     The ordered memory accesses of the {@link TruffleRing}. The ring is shared with a C process, so its sequences
+ *     have to be read with acquire and written with release semantics. The {@link ByteBuffer} only offers plain
+ *     accesses and Java 8, which TruffleHog is built for, has neither VarHandles nor public fences. So this is the
+ *     only class that uses sun.misc.Unsafe, for the three accesses below and to find the address of the mapping.
+ * </p>
+ * <p>
+ *     Unsafe is looked up reflectively and called through constant method handles, which the JIT compiles to the
+ *     same code as a direct call, so no internal API is referenced at compile time. The class also unmaps a mapped
+ *     buffer right away instead of waiting for the garbage collector, with the cleaner of the running JVM.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class MappedMemory {
+
+    private static final Logger logger = LogManager.getLogger(MappedMemory.class);
+
+    private static final MethodHandle GET_LONG_VOLATILE;
+    private static final MethodHandle PUT_ORDERED_LONG;
+    private static final MethodHandle PUT_ORDERED_INT;
+    private static final MethodHandle GET_LONG;
+    private static final long BUFFER_ADDRESS_OFFSET;
+
+    // null if the JVM offers no way to unmap a buffer, it is then unmapped when it is garbage collected
+    private static final MethodHandle INVOKE_CLEANER;
+
+    static {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            GET_LONG_VOLATILE = lookup.findVirtual(unsafeClass, "getLongVolatile",
+                    MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+            PUT_ORDERED_LONG = lookup.findVirtual(unsafeClass, "putOrderedLong",
+                    MethodType.methodType(void.class, Object.class, long.class, long.class)).bindTo(unsafe);
+            PUT_ORDERED_INT = lookup.findVirtual(unsafeClass, "putOrderedInt",
+                    MethodType.methodType(void.class, Object.class, long.class, int.class)).bindTo(unsafe);
+            GET_LONG = lookup.findVirtual(unsafeClass, "getLong",
+                    MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+
+            final MethodHandle objectFieldOffset = lookup.findVirtual(unsafeClass, "objectFieldOffset",
+                    MethodType.methodType(long.class, Field.class)).bindTo(unsafe);
+            BUFFER_ADDRESS_OFFSET = (long) objectFieldOffset.invoke(Buffer.class.getDeclaredField("address"));
+
+            INVOKE_CLEANER = findCleaner(lookup, unsafeClass, unsafe);
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MappedMemory() {
+    }
+
+    /**
+     * @param buffer A direct or mapped buffer.
+     * @return The address of the first byte of the buffer.
+     */
+    static long address(final ByteBuffer buffer) {
+
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("Only direct buffers have an address");
+        }
+
+        try {
+            return (long) GET_LONG.invokeExact((Object) buffer, BUFFER_ADDRESS_OFFSET);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static long getLongAcquire(final long address) {
+        try {
+            return (long) GET_LONG_VOLATILE.invokeExact((Object) null, address);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void putLongRelease(final long address, final long value) {
+        try {
+            PUT_ORDERED_LONG.invokeExact((Object) null, address, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void putIntRelease(final long address, final int value) {
+        try {
+            PUT_ORDERED_INT.invokeExact((Object) null, address, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * <p>
+     *     Unmaps the given buffer. The buffer and all its duplicates must not be used afterwards, an access would
+     *     crash the JVM.
+     * </p>
+     *
+     * @param buffer The buffer to unmap.
+     */
+    static void unmap(final MappedByteBuffer buffer) {
+
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+
+        try {
+            INVOKE_CLEANER.invoke(buffer);
+        } catch (Throwable e) {
+            logger.warn("Could not unmap the buffer, it is unmapped when it is garbage collected", e);
+        }
+    }
+
+    private static MethodHandle findCleaner(final MethodHandles.Lookup lookup, final Class<?> unsafeClass,
+                                            final Object unsafe) {
+
+        // Java 9 and later
+        try {
+            return lookup.findVirtual(unsafeClass, "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class)).bindTo(unsafe);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            logger.trace("Unsafe.invokeCleaner is not available", e);
+        }
+
+        // Java 8, the cleaner of the sun.nio.ch.DirectBuffer
+        try {
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+
+            return MethodHandles.filterReturnValue(lookup.unreflect(cleaner), lookup.unreflect(clean))
+                    .asType(MethodType.methodType(void.class, ByteBuffer.class));
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Mapped buffers can not be unmapped, they are unmapped when they are garbage collected", e);
+            return null;
+        }
+    }
+
+    private static RuntimeException rethrow(final Throwable e) {
+
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+
+        throw new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,443 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ConnectException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     This implementation of the {@link TruffleReceiver} talks to the spp_profinet snort plugin over the same unix
+ *     socket as the {@link UnixSocketReceiver} but does not need the native truffleReceiver library. The socket is
+ *     opened as NIO {@link SocketChannel}, every read fills a reusable direct buffer with as many struct Truffle
+ *     records as are available and the records are handed out as {@link TruffleView}s.
+ * </p>
+ * <p>
+ *     Unix domain socket channels are available since Java 16, on older runtimes {@link #isSupported()} returns
+ *     false. They are always stream sockets, records that are split between two reads are put back together before
+ *     they are decoded.
+ * </p>
+ * <p>
+ *     The spp_profinet plugin offers a SOCK_SEQPACKET socket, which a channel can not connect to: the connect fails
+ *     with EPROTOTYPE, or is refused. In that case the receiver switches to the fallback receiver it was created
+ *     with, usually the native {@link UnixSocketReceiver}, which then runs on the thread of this receiver and
+ *     forwards its commands to the listeners of this receiver. Without a fallback the failed connect is reported
+ *     like any other.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class NioUnixSocketReceiver extends TruffleReceiver {
+
+    static final int TRUFFLEHOG_CONNECT_REQUEST = 0x0;
+    static final int TRUFFLEHOG_DISCONNECT_REQUEST = 0x1;
+    static final int SNORT_CONNECT_RESPONSE = 0x2;
+
+    private static final String SOCKET_NAME = "socket.sock";
+
+    private static final Method UNIX_DOMAIN_SOCKET_ADDRESS_OF;
+    private static final ProtocolFamily UNIX_PROTOCOL_FAMILY;
+    private static final Method SOCKET_CHANNEL_OPEN;
+
+    static {
+        Method addressOf = null;
+        ProtocolFamily family = null;
+        Method channelOpen = null;
+
+        try {
+            addressOf = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class);
+            family = StandardProtocolFamily.valueOf("UNIX");
+            channelOpen = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            // unix domain socket channels are not supported by this runtime
+            addressOf = null;
+        }
+
+        UNIX_DOMAIN_SOCKET_ADDRESS_OF = addressOf;
+        UNIX_PROTOCOL_FAMILY = family;
+        SOCKET_CHANNEL_OPEN = channelOpen;
+    }
+
+    private final INetworkWritingPort networkWritingPort;
+    private final IFilter filter;
+    private final Logger logger = LogManager.getLogger();
+
+    private final Path socketFile;
+    private final ByteBuffer truffleBuffer;
+    private final TruffleBatch.Pool batches;
+
+    private final Supplier<? extends TruffleReceiver> fallbackFactory;
+
+    private SocketChannel channel = null;
+
+    // the receiver that is used instead once the plugin refused the stream socket, guarded by this
+    private TruffleReceiver fallback = null;
+
+    /**
+     * <p>
+     *     Creates the NioUnixSocketReceiver.
+     * </p>
+     *
+     * @param networkWritingPort The port the received packet data is written to.
+     * @param filter The filter that is applied to new nodes.
+     * @param socketFile The socket of the snort plugin.
+     * @param batchSize The maximum number of truffles that are received with one read.
+     */
+    public NioUnixSocketReceiver(final INetworkWritingPort networkWritingPort,
+                                 final IFilter filter,
+                                 final Path socketFile,
+                                 final int batchSize) {
+        this(networkWritingPort, filter, socketFile, batchSize, null);
+    }
+
+    /**
+     * <p>
+     *     Creates the NioUnixSocketReceiver that switches to the given fallback receiver if the plugin does not offer
+     *     a stream socket.
+     * </p>
+     *
+     * @param networkWritingPort The port the received packet data is written to.
+     * @param filter The filter that is applied to new nodes.
+     * @param socketFile The socket of the snort plugin.
+     * @param batchSize The maximum number of truffles that are received with one read.
+     * @param fallbackFactory Creates the receiver that is used instead, may be null.
+     */
+    public NioUnixSocketReceiver(final INetworkWritingPort networkWritingPort,
+                                 final IFilter filter,
+                                 final Path socketFile,
+                                 final int batchSize,
+                                 final Supplier<? extends TruffleReceiver> fallbackFactory) {
+
+        if (networkWritingPort == null) {
+            throw new NullPointerException("networkWritingPort must not be null");
+        }
+
+        if (filter == null) {
+            throw new NullPointerException("filter must not be null");
+        }
+
+        if (socketFile == null) {
+            throw new NullPointerException("socketFile must not be null");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size has to be at least 1");
+        }
+
+        this.networkWritingPort = networkWritingPort;
+        this.filter = filter;
+        this.socketFile = socketFile;
+        this.truffleBuffer = ByteBuffer.allocateDirect(batchSize * TruffleLayout.TRUFFLE_SIZE)
+                .order(ByteOrder.nativeOrder());
+        this.batches = new TruffleBatch.Pool(batchSize);
+        this.fallbackFactory = fallbackFactory;
+    }
+
+    /**
+     * @return true if the runtime supports unix domain socket channels
+     */
+    public static boolean isSupported() {
+        return UNIX_DOMAIN_SOCKET_ADDRESS_OF != null;
+    }
+
+    /**
+     * @return the socket the snort plugin listens on, the same one the native receiver uses
+     */
+    public static Path getDefaultSocketFile() {
+        final String home = System.getenv("HOME");
+
+        return Paths.get(home != null ? home : System.getProperty("user.home"), SOCKET_NAME);
+    }
+
+    /**
+     * <p>
+     *     The main method of the NioUnixSocketReceiver service.
+     * </p>
+     *
+     * <p>
+     *     Waits until the receiver is connected, then reads the truffles from the socket, wraps them into
+     *     {@link TruffleView} objects and sends {@link AddPacketDataCommand}s to all listeners.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        SocketChannel lastChannel = null;
+
+        while (!Thread.interrupted()) {
+
+            final SocketChannel currentChannel;
+
+            try {
+                currentChannel = awaitConnection();
+            } catch (InterruptedException e) {
+                logger.debug("NioUnixSocketReceiver interrupted. Exiting...");
+                Thread.currentThread().interrupt();
+                continue;
+            }
+
+            if (currentChannel == null) {
+                // the fallback receives the truffles from now on, until the thread is interrupted
+                getFallback().run();
+                return;
+            }
+
+            if (currentChannel != lastChannel) {
+                // a partial record of the previous connection must not be mixed with the new one
+                truffleBuffer.clear();
+                lastChannel = currentChannel;
+            }
+
+            try {
+                if (currentChannel.read(truffleBuffer) < 0) {
+                    throw new ReceiverReadError("The snort plugin closed the connection");
+                }
+            } catch (ClosedChannelException e) {
+                // we were disconnected while waiting for data
+                continue;
+            } catch (IOException | ReceiverReadError e) {
+                logger.debug(e);
+                disconnect();
+                continue;
+            }
+
+            final int received = truffleBuffer.position() / TruffleLayout.TRUFFLE_SIZE;
+
+            if (received > 0) {
+                final TruffleBatch batch = batches.take();
+                batch.copyFrom(truffleBuffer, received);
+                batch.arrived(received, System.currentTimeMillis());
+
+                // keep the start of a record that did not arrive completely
+                truffleBuffer.flip();
+                truffleBuffer.position(received * TruffleLayout.TRUFFLE_SIZE);
+                truffleBuffer.compact();
+
+                try {
+                    for (int i = 0; i < received; i++) {
+                        final TruffleView truffle = batch.view(i);
+
+                        if (!truffle.isValid()) {
+                            logger.debug("Discarding truffle with invalid mac address");
+                        } else if (admits(truffle)) {
+                            // the command releases the view once it was executed
+                            batch.retain();
+                            notifyListeners(new AddPacketDataCommand(networkWritingPort, truffle, filter));
+                        }
+                    }
+                } finally {
+                    batch.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the connected channel, or null if the receiver switched to the fallback
+     */
+    private synchronized SocketChannel awaitConnection() throws InterruptedException {
+        while (channel == null && fallback == null) {
+            this.wait();
+        }
+
+        return channel;
+    }
+
+    private synchronized TruffleReceiver getFallback() {
+        return fallback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void connect() {
+
+        if (!isSupported()) {
+            notifyListeners(new ReceiverErrorCommand("Unix domain sockets are not supported by this java version."));
+            return;
+        }
+
+        final TruffleReceiver currentFallback;
+
+        synchronized (this) {
+
+            if (fallback == null) {
+                connectChannel();
+            }
+
+            currentFallback = fallback;
+        }
+
+        // outside of the lock, the native receiver blocks until the plugin answers
+        if (currentFallback != null) {
+            currentFallback.connect();
+        }
+    }
+
+    private synchronized void connectChannel() {
+
+        if (channel != null) {
+            return;
+        }
+
+        SocketChannel openedChannel = null;
+
+        try {
+            openedChannel = (SocketChannel) SOCKET_CHANNEL_OPEN.invoke(null, UNIX_PROTOCOL_FAMILY);
+            openedChannel.connect((SocketAddress) UNIX_DOMAIN_SOCKET_ADDRESS_OF.invoke(null, socketFile));
+
+            writeInt(openedChannel, TRUFFLEHOG_CONNECT_REQUEST);
+
+            if (readInt(openedChannel) != SNORT_CONNECT_RESPONSE) {
+                throw new IOException("incorrect snort response");
+            }
+
+            channel = openedChannel;
+            this.notifyAll();
+        } catch (IOException | IllegalAccessException | InvocationTargetException e) {
+            closeQuietly(openedChannel);
+
+            if (fallbackFactory != null && isWrongSocketType(e)) {
+                switchToFallback(e);
+                return;
+            }
+
+            logger.debug("Could not connect to snort", e);
+            notifyListeners(new ReceiverErrorCommand("Snort plugin doesn't seem to be running."));
+        }
+    }
+
+    /**
+     * @return true if the connect failed because the socket is not a stream socket, or was refused
+     */
+    private static boolean isWrongSocketType(final Exception e) {
+        // EPROTOTYPE has no exception of its own, a channel reports it with the message of strerror
+        return e instanceof ConnectException
+                || (e.getMessage() != null && e.getMessage().contains("Protocol wrong type for socket"));
+    }
+
+    private synchronized void switchToFallback(final Exception cause) {
+
+        final TruffleReceiver created;
+
+        // Don't be shocked, we purposely catch an Error here, the native library may not be installed
+        try {
+            created = fallbackFactory.get();
+        } catch (UnsatisfiedLinkError e) {
+            logger.error("The snort plugin at " + socketFile + " refused the stream socket and the native receiver"
+                    + " is not available", e);
+            notifyListeners(new ReceiverErrorCommand("The snort plugin needs the native truffle receiver,"
+                    + " which is not installed."));
+            return;
+        }
+
+        logger.error("The snort plugin at " + socketFile + " does not offer a stream socket, which java can open."
+                + " Using the " + created.getClass().getSimpleName() + " instead.", cause);
+
+        created.setPacketFilterStage(getPacketFilterStage());
+        created.addListener(this::notifyListeners);
+
+        fallback = created;
+        this.notifyAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setPacketFilterStage(final PacketFilterStage packetFilterStage) {
+        super.setPacketFilterStage(packetFilterStage);
+
+        final TruffleReceiver currentFallback = getFallback();
+
+        if (currentFallback != null) {
+            currentFallback.setPacketFilterStage(packetFilterStage);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void disconnect() {
+
+        final SocketChannel currentChannel;
+        final TruffleReceiver currentFallback;
+
+        synchronized (this) {
+            currentChannel = channel;
+            currentFallback = fallback;
+            channel = null;
+        }
+
+        if (currentFallback != null) {
+            currentFallback.disconnect();
+        }
+
+        if (currentChannel != null) {
+            try {
+                writeInt(currentChannel, TRUFFLEHOG_DISCONNECT_REQUEST);
+            } catch (IOException e) {
+                logger.debug("Could not send the disconnect request", e);
+            }
+
+            try {
+                currentChannel.close();
+            } catch (IOException e) {
+                logger.error(e);
+                notifyListeners(new ReceiverErrorCommand("Couldn't disconnect from plugin correctly."));
+            }
+        }
+    }
+
+    private static void writeInt(final SocketChannel channel, final int value) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder());
+        buffer.putInt(value).flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int readInt(final SocketChannel channel) throws IOException {
+        // exactly the size of the response so that no truffle is read by accident
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder());
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("The snort plugin closed the connection");
+            }
+        }
+
+        return buffer.getInt(0);
+    }
+
+    private void closeQuietly(final SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug(e);
+            }
+        }
+    }
+}
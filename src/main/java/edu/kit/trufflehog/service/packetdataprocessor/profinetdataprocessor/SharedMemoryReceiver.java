@@ -0,0 +1,252 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     This implementation of the {@link TruffleReceiver} reads the truffles from a {@link TruffleRing}, a single
+ *     producer single consumer ring buffer in a memory mapped file (usually in /dev/shm) that is filled by the
+ *     spp_profinet snort plugin. As long as truffles arrive the receiver only touches memory, it neither takes
+ *     locks nor does it make system calls. When the ring is empty it spins for a short while and then parks for
+ *     a short time before it looks again.
+ * </p>
+ * <p>
+ *     The producer side of the ring is described in truffleRing.h, a stand-in producer that can be used without
+ *     snort is truffleRingProducer.c.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class SharedMemoryReceiver extends TruffleReceiver {
+
+    public static final String DEFAULT_RING_FILE = "/dev/shm/trufflehog.ring";
+
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final INetworkWritingPort networkWritingPort;
+    private final IFilter filter;
+    private final Logger logger = LogManager.getLogger();
+
+    private final Path ringFile;
+    private final int batchSize;
+    private final TruffleBatch.Pool batches;
+
+    private volatile TruffleRing ring = null;
+
+    /**
+     * <p>
+     *     Creates the SharedMemoryReceiver.
+     * </p>
+     *
+     * @param networkWritingPort The port the received packet data is written to.
+     * @param filter The filter that is applied to new nodes.
+     * @param ringFile The file that holds the ring.
+     * @param batchSize The maximum number of truffles that are taken from the ring at once.
+     */
+    public SharedMemoryReceiver(final INetworkWritingPort networkWritingPort,
+                                final IFilter filter,
+                                final Path ringFile,
+                                final int batchSize) {
+
+        if (networkWritingPort == null) {
+            throw new NullPointerException("networkWritingPort must not be null");
+        }
+
+        if (filter == null) {
+            throw new NullPointerException("filter must not be null");
+        }
+
+        if (ringFile == null) {
+            throw new NullPointerException("ringFile must not be null");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size has to be at least 1");
+        }
+
+        this.networkWritingPort = networkWritingPort;
+        this.filter = filter;
+        this.ringFile = ringFile;
+        this.batchSize = batchSize;
+        this.batches = new TruffleBatch.Pool(batchSize);
+    }
+
+    /**
+     * <p>
+     *     The main method of the SharedMemoryReceiver service.
+     * </p>
+     *
+     * <p>
+     *     Waits until the receiver is connected to a ring, then takes the truffles out of the ring in batches,
+     *     wraps them into {@link TruffleView} objects and sends {@link AddPacketDataCommand}s to all listeners.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        long consumed = 0;
+        TruffleRing currentRing = null;
+        int idleRounds = 0;
+
+        while (!Thread.interrupted()) {
+
+            final TruffleRing latestRing = ring;
+
+            if (latestRing == null) {
+                try {
+                    awaitConnection();
+                } catch (InterruptedException e) {
+                    logger.debug("SharedMemoryReceiver interrupted. Exiting...");
+                    Thread.currentThread().interrupt();
+                }
+                continue;
+            }
+
+            if (!latestRing.acquire()) {
+                // the ring was closed by disconnect, the next round waits for a new one
+                continue;
+            }
+
+            final int count;
+            TruffleBatch batch = null;
+
+            try {
+                if (latestRing != currentRing) {
+                    currentRing = latestRing;
+
+                    // truffles that were written before we connected are still delivered
+                    consumed = currentRing.consumerSequence();
+                }
+
+                count = (int) Math.max(0, Math.min(currentRing.producerSequence() - consumed, batchSize));
+
+                if (count > 0) {
+                    batch = batches.take();
+                    currentRing.copyRecords(consumed, count, batch.clearedBuffer());
+                    consumed += count;
+                    currentRing.setConsumerSequence(consumed);
+                }
+            } finally {
+                latestRing.release();
+            }
+
+            if (count == 0) {
+                idle(++idleRounds);
+                continue;
+            }
+
+            idleRounds = 0;
+
+            batch.arrived(count, System.currentTimeMillis());
+
+            try {
+                for (int i = 0; i < count; i++) {
+                    final TruffleView truffle = batch.view(i);
+
+                    if (!truffle.isValid()) {
+                        logger.debug("Discarding truffle with invalid mac address");
+                    } else if (admits(truffle)) {
+                        // the command releases the view once it was executed
+                        batch.retain();
+                        notifyListeners(new AddPacketDataCommand(networkWritingPort, truffle, filter));
+                    }
+                }
+            } finally {
+                batch.release();
+            }
+        }
+    }
+
+    private synchronized void awaitConnection() throws InterruptedException {
+        while (ring == null) {
+            this.wait();
+        }
+    }
+
+    private void idle(final int idleRounds) {
+        if (idleRounds < IDLE_SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void connect() {
+
+        if (ring == null) {
+
+            try {
+                final TruffleRing openedRing = TruffleRing.open(ringFile);
+
+                synchronized (this) {
+                    ring = openedRing;
+                    this.notifyAll();
+                }
+            } catch (IOException | InvalidTruffleRingException e) {
+                logger.error("Could not open the truffle ring " + ringFile, e);
+                notifyListeners(new ReceiverErrorCommand("Snort plugin doesn't seem to be running."));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     *     The ring is unmapped as soon as the receiver is done with the batch it is taking.
+     * </p>
+     */
+    @Override
+    public void disconnect() {
+        final TruffleRing currentRing = ring;
+
+        if (currentRing != null) {
+            ring = null;
+
+            final long dropped = droppedTruffles(currentRing);
+
+            if (dropped > 0) {
+                logger.warn("The producer dropped " + dropped + " truffles because the ring was full");
+            }
+
+            currentRing.close();
+        }
+    }
+
+    /**
+     * @return the number of truffles the producer dropped because the ring was full or 0 if not connected
+     */
+    public long getDroppedTruffles() {
+        final TruffleRing currentRing = ring;
+
+        return currentRing == null ? 0 : droppedTruffles(currentRing);
+    }
+
+    private static long droppedTruffles(final TruffleRing ring) {
+
+        if (!ring.acquire()) {
+            return 0;
+        }
+
+        try {
+            return ring.droppedTruffles();
+        } finally {
+            ring.release();
+        }
+    }
+}
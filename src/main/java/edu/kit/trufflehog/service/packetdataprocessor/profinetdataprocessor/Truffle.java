@@ -18,6 +18,10 @@ import java.util.Map;
  * This class is used to store packet data which is received from the spp_profinet snort plugin using
  * the {@link TruffleReceiver}.
  * </p>
+ * <p>
+ * The receivers do not build Truffles anymore, they read the native records in place with a {@link TruffleView},
+ * which supports the same attribute identifiers. Truffles are built by the {@link TruffleCrook}.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.1
@@ -72,20 +76,20 @@ public class Truffle implements IPacketData {
         final Truffle truffle = new Truffle();
 
         try {
-            truffle.setAttribute(MacAddress.class, "sourceMacAddress", new MacAddress(srcMACAddr));
-            truffle.setAttribute(MacAddress.class, "destMacAddress", new MacAddress(dstMACAddr));
+            truffle.setAttribute(MacAddress.class, "sourceMacAddress", MacAddress.of(srcMACAddr));
+            truffle.setAttribute(MacAddress.class, "destMacAddress", MacAddress.of(dstMACAddr));
         } catch (InvalidMACAddress invalidMACAddress) {
             throw new InvalidProfinetPacket("Error, invalid mac address");
         }
 
         try {
-            truffle.setAttribute(IPAddress.class, "sourceIPAddress", new IPAddress(srcIPAddr));
+            truffle.setAttribute(IPAddress.class, "sourceIPAddress", IPAddress.of(srcIPAddr));
         } catch (InvalidIPAddress invalidIPAddress) {
             throw new InvalidProfinetPacket("Invalid source ip address: " + srcIPAddr);
         }
 
         try {
-            truffle.setAttribute(IPAddress.class, "destIPAddress", new IPAddress(dstIPAddr));
+            truffle.setAttribute(IPAddress.class, "destIPAddress", IPAddress.of(dstIPAddr));
         } catch (InvalidIPAddress invalidIPAddress) {
            // throw new InvalidProfinetPacket("Invalid destination ip address: " + dstIPAddr);
         }
@@ -0,0 +1,166 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *     A batch of received struct Truffle records and one {@link TruffleView} for every record. The receivers copy
+ *     the records of one receive call into a batch, so their receive buffer can be reused right away, and hand out
+ *     the views of the batch. Buffer and views are created once per batch and reused, so receiving does not
+ *     allocate anything per record.
+ * </p>
+ * <p>
+ *     A batch counts its references: the receiver holds one while it fills the batch and every
+ *     {@link AddPacketDataCommand} that gets a view holds one until it was executed, see
+ *     {@link edu.kit.trufflehog.service.packetdataprocessor.IPacketData#release}. The batch goes back to its
+ *     {@link Pool} when the last reference is released. A batch whose views are never released, for example
+ *     because a command was dropped, is simply garbage collected.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class TruffleBatch {
+
+    private final Pool pool;
+    private final ByteBuffer buffer;
+    private final TruffleView[] views;
+    private final AtomicInteger references = new AtomicInteger();
+
+    private TruffleBatch(final Pool pool, final int capacity) {
+        this.pool = pool;
+        this.buffer = ByteBuffer.allocate(capacity * TruffleLayout.TRUFFLE_SIZE).order(ByteOrder.nativeOrder());
+        this.views = new TruffleView[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            views[i] = new TruffleView(this, buffer, i * TruffleLayout.TRUFFLE_SIZE);
+        }
+    }
+
+    /**
+     * @return the number of records the batch can hold
+     */
+    int capacity() {
+        return views.length;
+    }
+
+    /**
+     * <p>
+     *     Copies the given number of records from the start of the source buffer into this batch. The position,
+     *     limit and order of the source buffer are not changed.
+     * </p>
+     *
+     * @param source The buffer to copy the records from.
+     * @param count The number of records to copy, at most the capacity of the batch.
+     */
+    void copyFrom(final ByteBuffer source, final int count) {
+        final ByteBuffer records = source.duplicate();
+        records.clear();
+        records.limit(count * TruffleLayout.TRUFFLE_SIZE);
+
+        buffer.clear();
+        buffer.put(records);
+    }
+
+    /**
+     * @return the buffer of the batch, cleared, to copy records into
+     */
+    ByteBuffer clearedBuffer() {
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * <p>
+     *     Resets the views of the first count records for the given time of arrival.
+     * </p>
+     *
+     * @param count The number of records in the batch.
+     * @param timeOfArrival The time the records were received in milliseconds since the epoch.
+     */
+    void arrived(final int count, final long timeOfArrival) {
+        for (int i = 0; i < count; i++) {
+            views[i].reset(timeOfArrival);
+        }
+    }
+
+    /**
+     * @param index The index of the record.
+     * @return The view on the record.
+     */
+    TruffleView view(final int index) {
+        return views[index];
+    }
+
+    /**
+     * <p>
+     *     Adds a reference to the batch, for a view that is handed out.
+     * </p>
+     */
+    void retain() {
+        references.incrementAndGet();
+    }
+
+    /**
+     * <p>
+     *     Removes a reference from the batch. The batch goes back to its pool with the last one.
+     * </p>
+     */
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            pool.recycle(this);
+        }
+    }
+
+    /**
+     * <p>
+     *     The batches of one receiver. A few released batches are kept for reuse, if there is none a new one is
+     *     created.
+     * </p>
+     */
+    static final class Pool {
+
+        private static final int KEPT_BATCHES = 16;
+
+        private final int capacity;
+        private final BlockingQueue<TruffleBatch> released = new ArrayBlockingQueue<>(KEPT_BATCHES);
+
+        /**
+         * @param capacity The number of records a batch of the pool can hold.
+         */
+        Pool(final int capacity) {
+
+            if (capacity < 1) {
+                throw new IllegalArgumentException("A batch has to hold at least one record");
+            }
+
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return A batch that holds the reference of the caller, who has to release it after filling it.
+         */
+        TruffleBatch take() {
+
+            TruffleBatch batch = released.poll();
+
+            if (batch == null) {
+                batch = new TruffleBatch(this, capacity);
+            }
+
+            batch.references.set(1);
+
+            return batch;
+        }
+
+        private void recycle(final TruffleBatch batch) {
+            // a full pool drops the batch
+            released.offer(batch);
+        }
+    }
+}
@@ -13,12 +13,25 @@ public class TruffleCrook extends TruffleReceiver {
     private final IFilter filter;
     private boolean running = false;
 
+    private final long interval;
+
     private long[] addresses;
     private int maxAddresses = 10;
 
     public TruffleCrook(INetworkWritingPort writingPort, IFilter filter) {
+        this(writingPort, filter, 100);
+    }
+
+    /**
+     * @param writingPort the port the fake packets are written to
+     * @param filter the filter that is applied to new nodes
+     * @param interval the time between two packets in milliseconds, 0 sends them as fast as possible
+     */
+    public TruffleCrook(INetworkWritingPort writingPort, IFilter filter, long interval) {
+        if (interval < 0) throw new IllegalArgumentException("interval must not be less than 0!");
         networkWritingPort = writingPort;
         this.filter = filter;
+        this.interval = interval;
         init();
     }
 
@@ -40,14 +53,16 @@ public class TruffleCrook extends TruffleReceiver {
         while(!Thread.interrupted()) {
             synchronized (this) {
                 try {
-                    Thread.sleep(100);
+                    if (interval > 0) {
+                        Thread.sleep(interval);
+                    }
                     while (!running) {
                         wait();
                     }
 
                     final Truffle truffle = getTruffle();
 
-                    if (truffle != null) {
+                    if (truffle != null && admits(truffle)) {
                         notifyListeners(new AddPacketDataCommand(networkWritingPort, truffle, filter));
                     }
 
@@ -0,0 +1,133 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ *     Describes the memory layout of the native {@code struct Truffle} (see truffle.h) as it is written into a buffer
+ *     by the receivers and into the {@link TruffleRing}. The records are read with a {@link TruffleView}. The offsets are derived with the same alignment rules the C compiler applies on
+ *     x86_64 (natural alignment of every member, structs padded to the alignment of their largest member), so a
+ *     change to truffle.h has to be reflected here.
+ * </p>
+ * <p>
+ *     All multi byte values are stored in the native byte order of the machine.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class TruffleLayout {
+
+    static final int MAX_STRING_LEN = 32;
+    static final int MAX_BLOCKS = 32;
+
+    // values of the enums in truffle.h
+    static final int FRAME_IS_DCP = 0;
+    static final int FRAME_IS_RTC1 = 1;
+    static final int BLOCK_IS_DEVICE = 1;
+    static final int BLOCK_IS_IP = 2;
+
+    // struct EtherHeader
+    private static final int ETHER_SOURCE_MAC = 0;
+    private static final int ETHER_DEST_MAC = ETHER_SOURCE_MAC + Long.BYTES;
+    private static final int ETHER_TYPE = ETHER_DEST_MAC + Long.BYTES;
+    private static final int ETHER_HEADER_ALIGNMENT = Long.BYTES;
+    private static final int ETHER_HEADER_SIZE = align(ETHER_TYPE + Short.BYTES, ETHER_HEADER_ALIGNMENT);
+
+    // struct Block
+    static final int BLOCK_TYPE = 0;
+    static final int BLOCK_VAL = align(BLOCK_TYPE + Integer.BYTES, Integer.BYTES);
+    private static final int BLOCK_ALIGNMENT = Integer.BYTES;
+    static final int BLOCK_SIZE = align(BLOCK_VAL + Math.max(MAX_STRING_LEN, 3 * Integer.BYTES), BLOCK_ALIGNMENT);
+
+    // struct DCP
+    private static final int DCP_SERVICE_ID = 0;
+    private static final int DCP_SERVICE_ID_NAME = DCP_SERVICE_ID + Byte.BYTES;
+    private static final int DCP_SERVICE_TYPE = DCP_SERVICE_ID_NAME + MAX_STRING_LEN;
+    private static final int DCP_SERVICE_TYPE_NAME = DCP_SERVICE_TYPE + Byte.BYTES;
+    private static final int DCP_IS_RESPONSE = DCP_SERVICE_TYPE_NAME + MAX_STRING_LEN;
+    private static final int DCP_XID = align(DCP_IS_RESPONSE + Byte.BYTES, Integer.BYTES);
+    private static final int DCP_RESPONSE_DELAY = DCP_XID + Integer.BYTES;
+    private static final int DCP_DATA_LENGTH = DCP_RESPONSE_DELAY + Short.BYTES;
+    private static final int DCP_BLOCKS = align(DCP_DATA_LENGTH + Short.BYTES, BLOCK_ALIGNMENT);
+    private static final int DCP_ALIGNMENT = Integer.BYTES;
+    private static final int DCP_SIZE = align(DCP_BLOCKS + MAX_BLOCKS * BLOCK_SIZE, DCP_ALIGNMENT);
+
+    // struct Frame
+    private static final int FRAME_ID = 0;
+    private static final int FRAME_TYPE = align(FRAME_ID + Short.BYTES, Integer.BYTES);
+    private static final int FRAME_VAL = align(FRAME_TYPE + Integer.BYTES, DCP_ALIGNMENT);
+    private static final int FRAME_DEST_NAME = FRAME_VAL + DCP_SIZE;
+    private static final int FRAME_SRC_NAME = FRAME_DEST_NAME + MAX_STRING_LEN;
+    private static final int FRAME_CYCLE_COUNTER = align(FRAME_SRC_NAME + MAX_STRING_LEN, Long.BYTES);
+    private static final int FRAME_ALIGNMENT = Long.BYTES;
+    private static final int FRAME_SIZE = align(FRAME_CYCLE_COUNTER + Long.BYTES, FRAME_ALIGNMENT);
+
+    // struct Truffle
+    static final int FLAGS = 0;
+    private static final int ETHER_HEADER = align(FLAGS + Long.BYTES, ETHER_HEADER_ALIGNMENT);
+    private static final int FRAME = align(ETHER_HEADER + ETHER_HEADER_SIZE, FRAME_ALIGNMENT);
+
+    /**
+     * <p>
+     *     The size of one struct Truffle record in bytes.
+     * </p>
+     */
+    static final int TRUFFLE_SIZE = align(FRAME + FRAME_SIZE, Long.BYTES);
+
+    // absolute offsets of the fields within one record
+    static final int SOURCE_MAC = ETHER_HEADER + ETHER_SOURCE_MAC;
+    static final int DEST_MAC = ETHER_HEADER + ETHER_DEST_MAC;
+    static final int ETHER_TYPE_OFFSET = ETHER_HEADER + ETHER_TYPE;
+    static final int FRAME_ID_OFFSET = FRAME + FRAME_ID;
+    static final int FRAME_TYPE_OFFSET = FRAME + FRAME_TYPE;
+    static final int SERVICE_ID = FRAME + FRAME_VAL + DCP_SERVICE_ID;
+    static final int SERVICE_ID_NAME = FRAME + FRAME_VAL + DCP_SERVICE_ID_NAME;
+    static final int SERVICE_TYPE = FRAME + FRAME_VAL + DCP_SERVICE_TYPE;
+    static final int SERVICE_TYPE_NAME = FRAME + FRAME_VAL + DCP_SERVICE_TYPE_NAME;
+    static final int IS_RESPONSE = FRAME + FRAME_VAL + DCP_IS_RESPONSE;
+    static final int XID = FRAME + FRAME_VAL + DCP_XID;
+    static final int RESPONSE_DELAY = FRAME + FRAME_VAL + DCP_RESPONSE_DELAY;
+    static final int DATA_LENGTH = FRAME + FRAME_VAL + DCP_DATA_LENGTH;
+    static final int BLOCKS = FRAME + FRAME_VAL + DCP_BLOCKS;
+    static final int DEST_NAME = FRAME + FRAME_DEST_NAME;
+    static final int SRC_NAME = FRAME + FRAME_SRC_NAME;
+    static final int CYCLE_COUNTER = FRAME + FRAME_CYCLE_COUNTER;
+
+    private TruffleLayout() {
+    }
+
+    /**
+     * <p>
+     *     Rounds the given offset up to the next multiple of the given alignment.
+     * </p>
+     *
+     * @param offset The offset to align.
+     * @param alignment The alignment, has to be a power of two.
+     * @return The aligned offset.
+     */
+    static int align(final int offset, final int alignment) {
+        return (offset + alignment - 1) & -alignment;
+    }
+
+    /**
+     * <p>
+     *     Reads a zero terminated string of at most {@link #MAX_STRING_LEN} bytes from the buffer. The strings of the
+     *     records are not terminated if they are {@link #MAX_STRING_LEN} bytes long.
+     * </p>
+     *
+     * @param buffer The buffer to read from.
+     * @param offset The absolute offset of the first character.
+     * @return The read string.
+     */
+    static String readString(final ByteBuffer buffer, final int offset) {
+        final byte[] chars = new byte[MAX_STRING_LEN];
+        int length = 0;
+
+        while (length < chars.length && (chars[length] = buffer.get(offset + length)) != 0) {
+            length++;
+        }
+
+        return new String(chars, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,8 @@ package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
 
 import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
 import edu.kit.trufflehog.util.INotifier;
 import edu.kit.trufflehog.util.Notifier;
 
@@ -13,7 +15,8 @@ import edu.kit.trufflehog.util.Notifier;
  *     The class generalises the different types of inter-process communication.
  * </p>
  * <p>
- *     Possible implementations: {@link UnixSocketReceiver}
+ *     Possible implementations: {@link UnixSocketReceiver}, {@link NioUnixSocketReceiver},
+ *     {@link SharedMemoryReceiver}
  * </p>
  *
  * @author Mark Giraud
@@ -21,6 +24,8 @@ import edu.kit.trufflehog.util.Notifier;
  */
 public abstract class TruffleReceiver extends Notifier<ITruffleCommand> implements INotifier<ITruffleCommand>, Runnable {
 
+    private volatile PacketFilterStage packetFilterStage = new PacketFilterStage();
+
     /**
      * <p>
      *     This method connects the {@link TruffleReceiver} to the snort process.
@@ -35,4 +40,36 @@ public abstract class TruffleReceiver extends Notifier<ITruffleCommand> implemen
      * </p>
      */
     public abstract void disconnect();
+
+    /**
+     * <p>
+     *     Sets the stage that decides which received packets are added to the network.
+     * </p>
+     *
+     * @param packetFilterStage The stage to check the received packets with.
+     */
+    public void setPacketFilterStage(final PacketFilterStage packetFilterStage) {
+        if (packetFilterStage == null) throw new NullPointerException("packetFilterStage must not be null!");
+
+        this.packetFilterStage = packetFilterStage;
+    }
+
+    /**
+     * @return The stage that decides which received packets are added to the network.
+     */
+    public PacketFilterStage getPacketFilterStage() {
+        return packetFilterStage;
+    }
+
+    /**
+     * <p>
+     *     Checks the packet with the {@link PacketFilterStage} before a command is created for it.
+     * </p>
+     *
+     * @param packet The received packet.
+     * @return true if the packet should be added to the network
+     */
+    protected boolean admits(final IPacketData packet) {
+        return packetFilterStage.admit(packet);
+    }
 }
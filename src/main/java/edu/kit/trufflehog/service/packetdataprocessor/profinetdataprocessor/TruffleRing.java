@@ -0,0 +1,300 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *     A single producer single consumer ring buffer of struct Truffle records that lives in a memory mapped file.
+ *     The layout is the same as the one of struct TruffleRing in truffleRing.h:
+ * </p>
+ * <pre>
+ *     offset   0: magic, version, capacity (number of slots, power of two), record size    (4 x uint32)
+ *     offset  64: producer sequence, number of dropped truffles                              (2 x uint64)
+ *     offset 128: consumer sequence                                                          (uint64)
+ *     offset 192: capacity slots of record size bytes
+ * </pre>
+ * <p>
+ *     The sequences count the records that were written and read since the ring was created, the slot of a record
+ *     is its sequence modulo the capacity. The producer and the consumer only write their own sequence and each
+ *     sequence lives on its own cache line. A sequence is always written with release semantics after the slots
+ *     it covers were written or read and read with acquire semantics, so no locks or system calls are needed to
+ *     pass records between the processes. The ordered accesses are done by {@link MappedMemory}.
+ * </p>
+ * <p>
+ *     The ring is unmapped when it is closed. Every thread that reads the ring has to {@link #acquire} it before and
+ *     {@link #release} it after, so that the mapping is only removed once no thread reads it anymore.
+ * </p>
+ * <p>
+ *     The producer writes the magic last when it creates the ring. If the ring is full the producer drops the
+ *     record and increments the dropped counter.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class TruffleRing {
+
+    static final int MAGIC = 0x5452464C;
+    static final int VERSION = 1;
+
+    private static final int CACHE_LINE = 64;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int RECORD_SIZE_OFFSET = 12;
+    private static final int PRODUCER_SEQUENCE_OFFSET = CACHE_LINE;
+    private static final int DROPPED_OFFSET = CACHE_LINE + Long.BYTES;
+    private static final int CONSUMER_SEQUENCE_OFFSET = 2 * CACHE_LINE;
+    static final int HEADER_SIZE = 3 * CACHE_LINE;
+
+    // the lowest bit of the state is set once the ring is closed
+    private static final int CLOSED = 1;
+    private static final int READER = 2;
+
+    private final MappedByteBuffer buffer;
+    private final long address;
+    private final int capacity;
+
+    // twice the number of threads that acquired the ring, plus the closed bit
+    private final AtomicInteger state = new AtomicInteger();
+
+    private TruffleRing(final MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.buffer.order(ByteOrder.nativeOrder());
+        this.address = MappedMemory.address(buffer);
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+    }
+
+    /**
+     * <p>
+     *     Maps an existing ring that was created by the producer.
+     * </p>
+     *
+     * @param file The file that holds the ring.
+     * @return The mapped ring.
+     * @throws IOException if the file can not be mapped
+     * @throws InvalidTruffleRingException if the file does not hold a ring that can be read by this version
+     */
+    static TruffleRing open(final Path file) throws IOException, InvalidTruffleRingException {
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            if (channel.size() < HEADER_SIZE) {
+                throw new InvalidTruffleRingException("The file " + file + " is too small to hold a truffle ring");
+            }
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new InvalidTruffleRingException("The file " + file + " does not hold a truffle ring");
+            }
+
+            if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+                throw new InvalidTruffleRingException("Unsupported truffle ring version " + buffer.getInt(VERSION_OFFSET));
+            }
+
+            if (buffer.getInt(RECORD_SIZE_OFFSET) != TruffleLayout.TRUFFLE_SIZE) {
+                throw new InvalidTruffleRingException("The record size " + buffer.getInt(RECORD_SIZE_OFFSET)
+                        + " does not match the size of a truffle (" + TruffleLayout.TRUFFLE_SIZE + ")");
+            }
+
+            final int capacity = buffer.getInt(CAPACITY_OFFSET);
+
+            if (capacity <= 0 || Integer.bitCount(capacity) != 1
+                    || channel.size() < HEADER_SIZE + (long) capacity * TruffleLayout.TRUFFLE_SIZE) {
+                throw new InvalidTruffleRingException("Invalid truffle ring capacity " + capacity);
+            }
+
+            return new TruffleRing(buffer);
+        }
+    }
+
+    /**
+     * <p>
+     *     Creates a new empty ring in the given file. This is the producer side of the ring and is used by stand-in
+     *     producers that replace the snort plugin.
+     * </p>
+     *
+     * @param file The file to create the ring in. An existing file is overwritten.
+     * @param capacity The number of slots of the ring, has to be a power of two.
+     * @return The mapped ring.
+     * @throws IOException if the file can not be created
+     */
+    static TruffleRing create(final Path file, final int capacity) throws IOException {
+
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity has to be a power of two");
+        }
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * TruffleLayout.TRUFFLE_SIZE);
+            buffer.order(ByteOrder.nativeOrder());
+
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(RECORD_SIZE_OFFSET, TruffleLayout.TRUFFLE_SIZE);
+
+            final TruffleRing ring = new TruffleRing(buffer);
+            MappedMemory.putIntRelease(ring.address + MAGIC_OFFSET, MAGIC);
+
+            return ring;
+        }
+    }
+
+    /**
+     * <p>
+     *     Announces that the calling thread is going to read the ring, the ring is not unmapped before the thread
+     *     {@link #release released} it. This does not take a lock.
+     * </p>
+     *
+     * @return true if the ring can be read, false if it was closed already.
+     */
+    boolean acquire() {
+
+        while (true) {
+            final int current = state.get();
+
+            if ((current & CLOSED) != 0) {
+                return false;
+            }
+
+            if (state.compareAndSet(current, current + READER)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Announces that the calling thread is done reading the ring. The last thread unmaps a closed ring.
+     * </p>
+     */
+    void release() {
+        if (state.addAndGet(-READER) == CLOSED) {
+            MappedMemory.unmap(buffer);
+        }
+    }
+
+    /**
+     * <p>
+     *     Closes the ring. It is unmapped right away if no thread reads it, otherwise by the last thread that
+     *     releases it. Closing a ring twice does nothing.
+     * </p>
+     */
+    void close() {
+
+        while (true) {
+            final int current = state.get();
+
+            if ((current & CLOSED) != 0) {
+                return;
+            }
+
+            if (state.compareAndSet(current, current | CLOSED)) {
+                if (current == 0) {
+                    MappedMemory.unmap(buffer);
+                }
+                return;
+            }
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long producerSequence() {
+        return MappedMemory.getLongAcquire(address + PRODUCER_SEQUENCE_OFFSET);
+    }
+
+    long consumerSequence() {
+        return MappedMemory.getLongAcquire(address + CONSUMER_SEQUENCE_OFFSET);
+    }
+
+    long droppedTruffles() {
+        return MappedMemory.getLongAcquire(address + DROPPED_OFFSET);
+    }
+
+    /**
+     * <p>
+     *     Releases all slots up to the given sequence to the producer. Must only be called by the consumer after it
+     *     is done with the records.
+     * </p>
+     *
+     * @param sequence The new consumer sequence.
+     */
+    void setConsumerSequence(final long sequence) {
+        MappedMemory.putLongRelease(address + CONSUMER_SEQUENCE_OFFSET, sequence);
+    }
+
+    /**
+     * <p>
+     *     Copies count records starting with the record of the given sequence into the target buffer, starting at
+     *     its position. The records have to be published by the producer.
+     * </p>
+     *
+     * @param sequence The sequence of the first record.
+     * @param count The number of records to copy, at most the capacity.
+     * @param copy The buffer to copy the records into, it has to use the native byte order.
+     */
+    void copyRecords(final long sequence, final int count, final ByteBuffer copy) {
+        final int firstSlot = (int) (sequence & (capacity - 1));
+        final int firstRun = Math.min(count, capacity - firstSlot);
+
+        copy.put(slots(firstSlot, firstRun));
+
+        if (firstRun < count) {
+            copy.put(slots(0, count - firstRun));
+        }
+    }
+
+    /**
+     * <p>
+     *     Writes a record into the next free slot and publishes it. Must only be called by the producer. The record
+     *     is dropped if the ring is full.
+     * </p>
+     *
+     * @param record The buffer that holds the record between its position and its limit.
+     * @return true if the record was written, false if it was dropped.
+     */
+    boolean offer(final ByteBuffer record) {
+
+        if (record.remaining() != TruffleLayout.TRUFFLE_SIZE) {
+            throw new IllegalArgumentException("The record has to be exactly one truffle long");
+        }
+
+        // only the producer writes its sequence, so it does not need to be read with acquire semantics
+        final long sequence = buffer.getLong(PRODUCER_SEQUENCE_OFFSET);
+
+        if (sequence - consumerSequence() >= capacity) {
+            MappedMemory.putLongRelease(address + DROPPED_OFFSET, droppedTruffles() + 1);
+            return false;
+        }
+
+        slots((int) (sequence & (capacity - 1)), 1).put(record.duplicate());
+        MappedMemory.putLongRelease(address + PRODUCER_SEQUENCE_OFFSET, sequence + 1);
+
+        return true;
+    }
+
+    private ByteBuffer slots(final int slot, final int count) {
+        final ByteBuffer slots = buffer.duplicate();
+        final int start = HEADER_SIZE + slot * TruffleLayout.TRUFFLE_SIZE;
+
+        slots.limit(start + count * TruffleLayout.TRUFFLE_SIZE);
+        slots.position(start);
+
+        return slots;
+    }
+}
@@ -0,0 +1,399 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ *     This class is a flyweight view on one native struct Truffle record (see truffle.h) that is stored in a
+ *     {@link ByteBuffer}. Nothing is copied out of the record when the view is created: the typed accessors read
+ *     the primitive fields directly from the buffer and the strings as well as the address objects are only
+ *     materialized when they are requested for the first time.
+ * </p>
+ * <p>
+ *     The view does not copy the record, so the buffer must not be overwritten as long as the view is in use.
+ *     Receivers therefore copy each received batch into a pooled {@link TruffleBatch} and keep reusing their own
+ *     receive buffer. The views of a batch are reused as well, a view is only valid until it was
+ *     {@link #release() released}.
+ * </p>
+ * <p>
+ *     {@link #getAttribute(Class, String)} is supported with the same identifiers as the {@link Truffle} uses but
+ *     it boxes the values and creates objects, so it should only be used where speed does not matter.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class TruffleView implements IPacketData {
+
+    private static final long MAC_ADDRESS_MASK = 0xFFFFFFFFFFFFL;
+    private static final int BLOCKS_NOT_SCANNED = -1;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final TruffleBatch batch;
+    private long timeOfArrival;
+
+    // the index of the device block + 1 in the upper and the index of the ip block + 1 in the lower half word
+    private int blockIndexes = BLOCKS_NOT_SCANNED;
+
+    // lazily materialized values, racing threads may create them twice which does no harm
+    private String deviceName;
+    private String serviceIDName;
+    private String serviceTypeName;
+    private MacAddress sourceMacAddress;
+    private MacAddress destMacAddress;
+    private IPAddress sourceIPAddress;
+
+    /**
+     * <p>
+     *     Creates a view on the record that starts at the given offset of the buffer.
+     * </p>
+     *
+     * @param buffer The buffer that holds the record in native byte order.
+     * @param offset The offset of the record within the buffer.
+     * @param timeOfArrival The time the record was received in milliseconds since the epoch.
+     */
+    TruffleView(final ByteBuffer buffer, final int offset, final long timeOfArrival) {
+        this(null, buffer, offset);
+        this.timeOfArrival = timeOfArrival;
+    }
+
+    /**
+     * <p>
+     *     Creates a reusable view on the record that starts at the given offset of the buffer of the batch.
+     * </p>
+     *
+     * @param batch The batch that owns the buffer, null if the view is not pooled.
+     * @param buffer The buffer that holds the record in native byte order.
+     * @param offset The offset of the record within the buffer.
+     */
+    TruffleView(final TruffleBatch batch, final ByteBuffer buffer, final int offset) {
+
+        if (buffer == null) {
+            throw new NullPointerException("buffer must not be null");
+        }
+
+        if (offset < 0 || offset + TruffleLayout.TRUFFLE_SIZE > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("The record at offset " + offset + " does not fit into the buffer");
+        }
+
+        this.batch = batch;
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * <p>
+     *     Prepares the view for a new record that was copied into its buffer and forgets the values that were
+     *     materialized for the previous one.
+     * </p>
+     *
+     * @param timeOfArrival The time the record was received in milliseconds since the epoch.
+     */
+    void reset(final long timeOfArrival) {
+        this.timeOfArrival = timeOfArrival;
+        blockIndexes = BLOCKS_NOT_SCANNED;
+        deviceName = null;
+        serviceIDName = null;
+        serviceTypeName = null;
+        sourceMacAddress = null;
+        destMacAddress = null;
+        sourceIPAddress = null;
+    }
+
+    /**
+     * <p>
+     *     Hands the view back to its batch. The view and the values read from it, apart from the materialized
+     *     objects, must not be used afterwards.
+     * </p>
+     */
+    @Override
+    public void release() {
+        if (batch != null) {
+            batch.release();
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if the source and destination mac address of the record fit into 48 bit. Records that fail this
+     *     check are invalid and should be discarded.
+     * </p>
+     *
+     * @return true if the record holds valid mac addresses
+     */
+    public boolean isValid() {
+        return (sourceMac() & ~MAC_ADDRESS_MASK) == 0 && (destMac() & ~MAC_ADDRESS_MASK) == 0;
+    }
+
+    public long flags() {
+        return buffer.getLong(offset + TruffleLayout.FLAGS);
+    }
+
+    public long sourceMac() {
+        return buffer.getLong(offset + TruffleLayout.SOURCE_MAC);
+    }
+
+    public long destMac() {
+        return buffer.getLong(offset + TruffleLayout.DEST_MAC);
+    }
+
+    public int etherType() {
+        return Short.toUnsignedInt(buffer.getShort(offset + TruffleLayout.ETHER_TYPE_OFFSET));
+    }
+
+    public int frameId() {
+        return Short.toUnsignedInt(buffer.getShort(offset + TruffleLayout.FRAME_ID_OFFSET));
+    }
+
+    public long cycleCounter() {
+        return buffer.getLong(offset + TruffleLayout.CYCLE_COUNTER);
+    }
+
+    /**
+     * @return true if the frame of the record is a dcp frame. All dcp accessors return 0, false or null otherwise.
+     */
+    public boolean isDcp() {
+        return buffer.getInt(offset + TruffleLayout.FRAME_TYPE_OFFSET) == TruffleLayout.FRAME_IS_DCP;
+    }
+
+    public int serviceID() {
+        return isDcp() ? Byte.toUnsignedInt(buffer.get(offset + TruffleLayout.SERVICE_ID)) : 0;
+    }
+
+    public int serviceType() {
+        return isDcp() ? Byte.toUnsignedInt(buffer.get(offset + TruffleLayout.SERVICE_TYPE)) : 0;
+    }
+
+    public boolean isResponse() {
+        return isDcp() && buffer.get(offset + TruffleLayout.IS_RESPONSE) != 0;
+    }
+
+    public long xid() {
+        return isDcp() ? Integer.toUnsignedLong(buffer.getInt(offset + TruffleLayout.XID)) : 0;
+    }
+
+    public int responseDelay() {
+        return isDcp() ? Short.toUnsignedInt(buffer.getShort(offset + TruffleLayout.RESPONSE_DELAY)) : 0;
+    }
+
+    public int dataLength() {
+        return isDcp() ? Short.toUnsignedInt(buffer.getShort(offset + TruffleLayout.DATA_LENGTH)) : 0;
+    }
+
+    /**
+     * @return the ip address of the ip block of the record or 0 if the record has no ip block
+     */
+    public long sourceIP() {
+        final int ipBlock = (scanBlocks() & 0xFFFF) - 1;
+
+        if (ipBlock < 0) {
+            return 0;
+        }
+
+        return Integer.toUnsignedLong(buffer.getInt(blockOffset(ipBlock) + TruffleLayout.BLOCK_VAL));
+    }
+
+    /**
+     * @return always 0, the destination ip address is not transmitted by the snort plugin
+     */
+    public long destIP() {
+        return 0;
+    }
+
+    public long timeOfArrival() {
+        return timeOfArrival;
+    }
+
+    /**
+     * @return the name of station of the device block of the record or null if the record has no device block
+     */
+    public String deviceName() {
+        if (deviceName == null) {
+            final int deviceBlock = (scanBlocks() >>> 16) - 1;
+
+            if (deviceBlock < 0) {
+                return null;
+            }
+
+            deviceName = TruffleLayout.readString(buffer, blockOffset(deviceBlock) + TruffleLayout.BLOCK_VAL);
+        }
+
+        return deviceName;
+    }
+
+    public String serviceIDName() {
+        if (serviceIDName == null && isDcp()) {
+            serviceIDName = TruffleLayout.readString(buffer, offset + TruffleLayout.SERVICE_ID_NAME);
+        }
+
+        return serviceIDName;
+    }
+
+    public String serviceTypeName() {
+        if (serviceTypeName == null && isDcp()) {
+            serviceTypeName = TruffleLayout.readString(buffer, offset + TruffleLayout.SERVICE_TYPE_NAME);
+        }
+
+        return serviceTypeName;
+    }
+
+    public MacAddress sourceMacAddress() {
+        if (sourceMacAddress == null) {
+            sourceMacAddress = MacAddress.of(sourceMac());
+        }
+
+        return sourceMacAddress;
+    }
+
+    public MacAddress destMacAddress() {
+        if (destMacAddress == null) {
+            destMacAddress = MacAddress.of(destMac());
+        }
+
+        return destMacAddress;
+    }
+
+    public IPAddress sourceIPAddress() {
+        if (sourceIPAddress == null) {
+            sourceIPAddress = IPAddress.of(sourceIP());
+        }
+
+        return sourceIPAddress;
+    }
+
+    public IPAddress destIPAddress() {
+        return IPAddress.INVALID_ADDRESS;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     *     This is the slow compatibility path, the identifiers are the same as the ones of the {@link Truffle}.
+     *     Prefer the typed accessors.
+     * </p>
+     */
+    @Override
+    public <T> T getAttribute(final Class<T> attributeType, final String attributeIdentifier) {
+        final Object attribute = getAttribute(attributeIdentifier);
+
+        if (attributeType.isInstance(attribute)) {
+            return attributeType.cast(attribute);
+        }
+
+        return null;
+    }
+
+    private Object getAttribute(final String attributeIdentifier) {
+
+        if (attributeIdentifier == null) {
+            return null;
+        }
+
+        switch (attributeIdentifier) {
+            case "sourceMacAddress":
+                return isValid() ? sourceMacAddress() : null;
+            case "destMacAddress":
+                return isValid() ? destMacAddress() : null;
+            case "sourceIPAddress":
+                return sourceIPAddress();
+            case "destIPAddress":
+                return destIPAddress();
+            case "deviceName":
+                return deviceName();
+            case "etherType":
+                return etherType();
+            case "serviceType":
+                return serviceType();
+            case "serviceID":
+                return serviceID();
+            case "serviceTypeName":
+                return serviceTypeName();
+            case "serviceIDName":
+                return serviceIDName();
+            case "xid":
+                return xid();
+            case "responseDelay":
+                return responseDelay();
+            case "isResponse":
+                return isResponse();
+            case "timeOfArrival":
+                return timeOfArrival();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * <p>
+     *     Finds the device and the ip block of the dcp frame. The result is cached in one int, so concurrent readers
+     *     either see the complete result or scan the blocks themselves.
+     * </p>
+     *
+     * @return the packed block indexes
+     */
+    private int scanBlocks() {
+        int indexes = blockIndexes;
+
+        if (indexes == BLOCKS_NOT_SCANNED) {
+            int deviceBlock = -1;
+            int ipBlock = -1;
+
+            if (isDcp()) {
+                for (int i = 0; i < TruffleLayout.MAX_BLOCKS; i++) {
+                    switch (buffer.getInt(blockOffset(i) + TruffleLayout.BLOCK_TYPE)) {
+                        case TruffleLayout.BLOCK_IS_DEVICE:
+                            deviceBlock = i;
+                            break;
+                        case TruffleLayout.BLOCK_IS_IP:
+                            ipBlock = i;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+
+            indexes = ((deviceBlock + 1) << 16) | (ipBlock + 1);
+            blockIndexes = indexes;
+        }
+
+        return indexes;
+    }
+
+    private int blockOffset(final int block) {
+        return offset + TruffleLayout.BLOCKS + block * TruffleLayout.BLOCK_SIZE;
+    }
+
+    /**
+     * This toString method is for debug purposes only.
+     * @return debug information about this object
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append("sourceMacAddress: ").append(isValid() ? sourceMacAddress() : sourceMac()).append('\n');
+        sb.append("destMacAddress: ").append(isValid() ? destMacAddress() : destMac()).append('\n');
+        sb.append("sourceIPAddress: ").append(sourceIPAddress()).append('\n');
+        sb.append("etherType: ").append(etherType()).append('\n');
+
+        if (isDcp()) {
+            sb.append("deviceName: ").append(deviceName()).append('\n');
+            sb.append("serviceID: ").append(serviceID()).append('\n');
+            sb.append("serviceIDName: ").append(serviceIDName()).append('\n');
+            sb.append("serviceType: ").append(serviceType()).append('\n');
+            sb.append("serviceTypeName: ").append(serviceTypeName()).append('\n');
+            sb.append("xid: ").append(xid()).append('\n');
+            sb.append("responseDelay: ").append(responseDelay()).append('\n');
+            sb.append("isResponse: ").append(isResponse()).append('\n');
+        }
+
+        sb.append("timeOfArrival: ").append(timeOfArrival()).append('\n');
+
+        return sb.toString();
+    }
+}
@@ -9,21 +9,36 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * <p>
  *     This implementation of the {@link TruffleReceiver} uses a unix socket
  *     to communicate with the spp_profinet snort plugin.
  * </p>
+ * <p>
+ *     The truffles are received in batches: every native call drains up to {@code batchSize} struct Truffle
+ *     records from the socket into a direct buffer without blocking, waiting at most {@code maxBatchWait}
+ *     milliseconds for the first record to arrive. The records are then handed out as {@link TruffleView}s.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.0
  */
 public class UnixSocketReceiver extends TruffleReceiver {
 
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_MAX_BATCH_WAIT = 10;
+
     private final INetworkWritingPort networkWritingPort;
     private final IFilter filter;
     private final Logger logger = LogManager.getLogger();
 
+    private final int batchSize;
+    private final int maxBatchWait;
+    private final ByteBuffer truffleBuffer;
+    private final TruffleBatch.Pool batches;
 
     private boolean connected = false;
 
@@ -33,12 +48,43 @@ public class UnixSocketReceiver extends TruffleReceiver {
 
     /**
      * <p>
-     *     Creates the UnixSocketReceiver.
+     *     Creates the UnixSocketReceiver with the default batch size and maximum batch wait time.
      * </p>
      */
     public UnixSocketReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter) {
+        this(networkWritingPort, filter, DEFAULT_BATCH_SIZE, DEFAULT_MAX_BATCH_WAIT);
+    }
+
+    /**
+     * <p>
+     *     Creates the UnixSocketReceiver.
+     * </p>
+     *
+     * @param networkWritingPort The port the received packet data is written to.
+     * @param filter The filter that is applied to new nodes.
+     * @param batchSize The maximum number of truffles that are received with one native call.
+     * @param maxBatchWait The maximum time in milliseconds one native call waits for the first truffle.
+     */
+    public UnixSocketReceiver(final INetworkWritingPort networkWritingPort,
+                              final IFilter filter,
+                              final int batchSize,
+                              final int maxBatchWait) {
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size has to be at least 1");
+        }
+
+        if (maxBatchWait < 0) {
+            throw new IllegalArgumentException("The maximum batch wait time must not be negative");
+        }
+
         this.networkWritingPort = networkWritingPort;
         this.filter = filter;
+        this.batchSize = batchSize;
+        this.maxBatchWait = maxBatchWait;
+        this.truffleBuffer = ByteBuffer.allocateDirect(batchSize * TruffleLayout.TRUFFLE_SIZE)
+                .order(ByteOrder.nativeOrder());
+        this.batches = new TruffleBatch.Pool(batchSize);
     }
 
     /**
@@ -50,7 +96,7 @@ public class UnixSocketReceiver extends TruffleReceiver {
      *     Tries to connect to the spp_profinet process.
      *     If the connection failed a {@link ReceiverErrorCommand} is sent to all listeners.
      *     Otherwise the service starts receiving packet data from the spp_profinet snort plugin,
-     *     packs the data into {@link Truffle} objects and then generates {@link ITruffleCommand} objects and sends
+     *     wraps the data into {@link TruffleView} objects and then generates {@link ITruffleCommand} objects and sends
      *     them to all listeners.
      * </p>
      */
@@ -58,6 +104,9 @@ public class UnixSocketReceiver extends TruffleReceiver {
     public void run() {
 
         while(!Thread.interrupted()) {
+
+            int received = 0;
+
             synchronized (this) {
 
                 try {
@@ -65,11 +114,7 @@ public class UnixSocketReceiver extends TruffleReceiver {
                         this.wait();
                     }
 
-                    final Truffle truffle = getTruffle();
-
-                    if (truffle != null) {
-                        notifyListeners(new AddPacketDataCommand(networkWritingPort, truffle, filter));
-                    }
+                    received = getTruffles(truffleBuffer, batchSize, maxBatchWait);
                 } catch (InterruptedException e) {
                     logger.debug("UnixSocketReceiver interrupted. Exiting...");
                     Thread.currentThread().interrupt();
@@ -78,6 +123,29 @@ public class UnixSocketReceiver extends TruffleReceiver {
                     disconnect();
                 }
             }
+
+            if (received > 0) {
+                // the views must stay valid after the receive buffer has been reused, so each batch gets one copy
+                final TruffleBatch batch = batches.take();
+                batch.copyFrom(truffleBuffer, received);
+                batch.arrived(received, System.currentTimeMillis());
+
+                try {
+                    for (int i = 0; i < received; i++) {
+                        final TruffleView truffle = batch.view(i);
+
+                        if (!truffle.isValid()) {
+                            logger.debug("Discarding truffle with invalid mac address");
+                        } else if (admits(truffle)) {
+                            // the command releases the view once it was executed
+                            batch.retain();
+                            notifyListeners(new AddPacketDataCommand(networkWritingPort, truffle, filter));
+                        }
+                    }
+                } finally {
+                    batch.release();
+                }
+            }
         }
     }
 
@@ -127,5 +195,16 @@ public class UnixSocketReceiver extends TruffleReceiver {
 
     private native void closeIPC() throws SnortPNPluginDisconnectFailedException;
 
-    private native Truffle getTruffle() throws ReceiverReadError;
+    /**
+     * <p>
+     *     Receives up to maxTruffles struct Truffle records and writes them packed into the given direct buffer.
+     * </p>
+     *
+     * @param buffer The direct buffer the records are written to.
+     * @param maxTruffles The maximum number of records to receive.
+     * @param maxWaitMillis The maximum time to wait for the first record.
+     * @return The number of received records, 0 if no record arrived in time.
+     * @throws ReceiverReadError if reading from the socket failed
+     */
+    private native int getTruffles(ByteBuffer buffer, int maxTruffles, int maxWaitMillis) throws ReceiverReadError;
 }
\ No newline at end of file
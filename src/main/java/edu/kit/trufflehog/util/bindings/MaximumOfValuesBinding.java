@@ -17,67 +17,87 @@
 package edu.kit.trufflehog.util.bindings;
 
 import javafx.beans.binding.IntegerBinding;
-import javafx.beans.property.IntegerProperty;
 import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableNumberValue;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
-import javafx.collections.ObservableList;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.HashSet;
+
 /**
  * \brief
- * \details
+ * \details The bound values may be longs, like the packet counts of the network. The maximum is kept as a long, the
+ * binding itself saturates at {@link Integer#MAX_VALUE}.
  * \date 04.03.16
  * \copyright GNU Public License
  *
  * @author Jan Hermes
  * @version 0.0.1
  */
-public class MaximumOfValuesBinding extends IntegerBinding implements ChangeListener<Number>, ListChangeListener<IntegerProperty> {
+public class MaximumOfValuesBinding extends IntegerBinding implements ChangeListener<Number>, SetChangeListener<ObservableNumberValue> {
 
     private static final Logger logger = LogManager.getLogger(MaximumOfValuesBinding.class);
     
-    private final ObservableList<IntegerProperty> boundProperties = FXCollections.observableArrayList();
+    // a set, so that properties of elements that leave the network can be unbound without searching them
+    private final ObservableSet<ObservableNumberValue> boundProperties = FXCollections.observableSet(new HashSet<>());
 
-    private int max = 0;
+    private long max = 0;
 
     public MaximumOfValuesBinding() {
         super.bind(boundProperties);
         boundProperties.addListener(this);
     }
 
-    public void bindProperty(IntegerProperty property) {
+    public void bindProperty(ObservableNumberValue property) {
 
         property.addListener(this);
         super.bind(property);
         boundProperties.add(property);
     }
 
+    /**
+     * <p>
+     *     Stops taking the given property into account. If it held the maximum, the maximum of the remaining
+     *     properties is searched, so that the maximum can get smaller again when elements leave the network.
+     * </p>
+     *
+     * @param property The property to unbind.
+     */
+    public void unbindProperty(ObservableNumberValue property) {
+
+        property.removeListener(this);
+        super.unbind(property);
+        boundProperties.remove(property);
+
+        if (property.longValue() >= max) {
+            max = boundProperties.stream().mapToLong(ObservableNumberValue::longValue).max().orElse(0);
+        }
+
+        invalidate();
+    }
+
     @Override
     protected int computeValue() {
-        return max;
+        return (int) Math.min(max, Integer.MAX_VALUE);
     }
 
     @Override
-    public void onChanged(Change<? extends IntegerProperty> c) {
-
-        if (c.next()) {
+    public void onChanged(Change<? extends ObservableNumberValue> c) {
 
-            c.getAddedSubList().stream().forEach(p -> {
-                if (p.get() > max) {
-                    max = p.get();
-                }
-            });
+        if (c.wasAdded() && c.getElementAdded().longValue() > max) {
+            max = c.getElementAdded().longValue();
         }
     }
 
     @Override
     public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
 
-        if (newValue.intValue() > max) {
-            max = newValue.intValue();
+        if (newValue.longValue() > max) {
+            max = newValue.longValue();
         }
     }
 }
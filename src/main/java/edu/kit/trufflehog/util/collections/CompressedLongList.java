@@ -0,0 +1,367 @@
+package edu.kit.trufflehog.util.collections;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>
+ *     A list of longs that lie close to each other, like the ids of the packets of one node. Every value
+ *     is stored as the zig-zag encoded difference to the value before it, with as few bytes as the difference needs,
+ *     so a value close to its predecessor takes one or two bytes. The values do not have to be sorted.
+ * </p>
+ * <p>
+ *     The values are grouped into blocks of {@value #BLOCK_SIZE}. The first value of a block is stored as it is and
+ *     for every block the offset of its first byte and its smallest and largest value are kept. So a position is
+ *     found by decoding at most one block, and blocks without values in a range are skipped without decoding them.
+ * </p>
+ * <p>
+ *     Values are appended at the end and removed from the start, a whole block at a time. The blocks at the start
+ *     can be encoded before they are removed, to keep them somewhere else and {@link #decode} them later.
+ * </p>
+ * <p>
+ *     The list is not thread safe.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class CompressedLongList {
+
+    /**
+     * The number of values in a block.
+     */
+    public static final int BLOCK_SIZE = 64;
+
+    private byte[] bytes;
+    private int byteCount = 0;
+    private int size = 0;
+    private long last = 0;
+
+    private int[] blockOffsets;
+    private long[] blockMin;
+    private long[] blockMax;
+
+    /**
+     * <p>
+     *     Creates an empty list.
+     * </p>
+     */
+    public CompressedLongList() {
+        bytes = new byte[16];
+        blockOffsets = new int[1];
+        blockMin = new long[1];
+        blockMax = new long[1];
+    }
+
+    /**
+     * <p>
+     *     Creates a copy of the given list.
+     * </p>
+     *
+     * @param other The list to copy.
+     */
+    public CompressedLongList(final CompressedLongList other) {
+
+        final int blocks = blockCount(other.size);
+
+        bytes = Arrays.copyOf(other.bytes, Math.max(16, other.byteCount));
+        byteCount = other.byteCount;
+        size = other.size;
+        last = other.last;
+        blockOffsets = Arrays.copyOf(other.blockOffsets, Math.max(1, blocks));
+        blockMin = Arrays.copyOf(other.blockMin, Math.max(1, blocks));
+        blockMax = Arrays.copyOf(other.blockMax, Math.max(1, blocks));
+    }
+
+    /**
+     * <p>
+     *     Appends the given value to the end of the list.
+     * </p>
+     *
+     * @param value The value to append.
+     */
+    public void add(final long value) {
+
+        final int block = size / BLOCK_SIZE;
+        final long delta;
+
+        if (size % BLOCK_SIZE == 0) {
+
+            if (block == blockOffsets.length) {
+                final int capacity = 2 * blockOffsets.length;
+                blockOffsets = Arrays.copyOf(blockOffsets, capacity);
+                blockMin = Arrays.copyOf(blockMin, capacity);
+                blockMax = Arrays.copyOf(blockMax, capacity);
+            }
+
+            blockOffsets[block] = byteCount;
+            blockMin[block] = value;
+            blockMax[block] = value;
+
+            // the first value of a block is stored as it is, so that every block can be decoded on its own
+            delta = value;
+        } else {
+            blockMin[block] = Math.min(blockMin[block], value);
+            blockMax[block] = Math.max(blockMax[block], value);
+            delta = value - last;
+        }
+
+        writeVarLong((delta << 1) ^ (delta >> 63));
+
+        last = value;
+        size++;
+    }
+
+    /**
+     * <p>
+     *     Appends all values of the given list to the end of this list, in their order.
+     * </p>
+     *
+     * @param other The list to take the values from, must not be this list.
+     */
+    public void addAll(final CompressedLongList other) {
+
+        int offset = 0;
+        long value = 0;
+
+        // the blocks lie one after the other, so the values can be decoded in one run
+        for (int i = 0; i < other.size; i++) {
+
+            if (i % BLOCK_SIZE == 0) {
+                value = 0;
+            }
+
+            long raw = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+                b = other.bytes[offset++];
+                raw |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            value += (raw >>> 1) ^ -(raw & 1);
+            add(value);
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the given number of full blocks from the start of the list. The positions of the remaining values
+     *     move down by the number of removed values.
+     * </p>
+     *
+     * @param blocks The number of blocks to remove, at most the number of full blocks is removed.
+     * @return The number of removed values.
+     */
+    public int removeFirstBlocks(final int blocks) {
+
+        final int fullBlocks = size / BLOCK_SIZE;
+        final int removed = Math.max(0, Math.min(blocks, fullBlocks));
+
+        if (removed == 0) {
+            return 0;
+        }
+
+        final int remaining = blockCount(size) - removed;
+        final int start = remaining == 0 ? byteCount : blockOffsets[removed];
+
+        System.arraycopy(bytes, start, bytes, 0, byteCount - start);
+        byteCount -= start;
+
+        for (int block = 0; block < remaining; block++) {
+            blockOffsets[block] = blockOffsets[block + removed] - start;
+            blockMin[block] = blockMin[block + removed];
+            blockMax[block] = blockMax[block + removed];
+        }
+
+        size -= removed * BLOCK_SIZE;
+
+        return removed * BLOCK_SIZE;
+    }
+
+    /**
+     * <p>
+     *     Encodes the given number of full blocks from the start of the list, the list itself is not changed.
+     * </p>
+     *
+     * @param blocks The number of blocks to encode, at most the number of full blocks is encoded.
+     * @return The number of encoded values followed by the encoded blocks, as they are stored in the list.
+     */
+    public ByteBuffer encodeFirstBlocks(final int blocks) {
+
+        final int encoded = Math.max(0, Math.min(blocks, size / BLOCK_SIZE));
+        final int end = encoded == blockCount(size) ? byteCount : blockOffsets[encoded];
+
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + end);
+        buffer.putInt(encoded * BLOCK_SIZE);
+        buffer.put(bytes, 0, end);
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /**
+     * <p>
+     *     Creates a list of the values that were encoded with {@link #encodeFirstBlocks}.
+     * </p>
+     *
+     * @param buffer The encoded values, read from its position on.
+     * @return The list of the values, in their order.
+     */
+    public static CompressedLongList decode(final ByteBuffer buffer) {
+
+        final CompressedLongList list = new CompressedLongList();
+        final int count = buffer.getInt();
+
+        long value = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            if (i % BLOCK_SIZE == 0) {
+                value = 0;
+            }
+
+            long raw = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+                b = buffer.get();
+                raw |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            value += (raw >>> 1) ^ -(raw & 1);
+            list.add(value);
+        }
+
+        return list;
+    }
+
+    /**
+     * @return the number of values in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The position of the value.
+     * @return the value at the given position
+     */
+    public long get(final int index) {
+
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " is not in [0, " + size + ")");
+        }
+
+        final long[] value = new long[1];
+        forEachInBlock(index / BLOCK_SIZE, index % BLOCK_SIZE, index % BLOCK_SIZE + 1, v -> value[0] = v);
+
+        return value[0];
+    }
+
+    /**
+     * <p>
+     *     Calls the action with the values at the positions from the first to the last given position.
+     * </p>
+     *
+     * @param from The first position, inclusive.
+     * @param to The last position, exclusive.
+     * @param action The action to call with the values, in the order of the list.
+     */
+    public void forEach(final int from, final int to, final LongConsumer action) {
+
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("[" + from + ", " + to + ") is not in [0, " + size + ")");
+        }
+
+        for (int block = from / BLOCK_SIZE; block * BLOCK_SIZE < to; block++) {
+            final int blockStart = block * BLOCK_SIZE;
+            forEachInBlock(block, Math.max(from - blockStart, 0), Math.min(to - blockStart, BLOCK_SIZE), action);
+        }
+    }
+
+    /**
+     * <p>
+     *     Calls the action with the values that lie in the given range. Blocks whose values all lie outside the range
+     *     are skipped.
+     * </p>
+     *
+     * @param min The smallest value of the range, inclusive.
+     * @param max The largest value of the range, exclusive.
+     * @param action The action to call with the values, in the order of the list.
+     */
+    public void forEachInRange(final long min, final long max, final LongConsumer action) {
+
+        final int blocks = blockCount(size);
+
+        for (int block = 0; block < blocks; block++) {
+
+            if (blockMax[block] < min || blockMin[block] >= max) {
+                continue;
+            }
+
+            forEachInBlock(block, 0, BLOCK_SIZE, value -> {
+                if (value >= min && value < max) {
+                    action.accept(value);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the number of bytes the values take, including the block index
+     */
+    public long sizeInBytes() {
+        return bytes.length + (long) blockOffsets.length * (Integer.BYTES + 2 * Long.BYTES);
+    }
+
+    private void forEachInBlock(final int block, final int from, final int to, final LongConsumer action) {
+
+        final int count = Math.min(to, size - block * BLOCK_SIZE);
+
+        int offset = blockOffsets[block];
+        long value = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            long raw = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+                b = bytes[offset++];
+                raw |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            value += (raw >>> 1) ^ -(raw & 1);
+
+            if (i >= from) {
+                action.accept(value);
+            }
+        }
+    }
+
+    private void writeVarLong(long raw) {
+
+        // at most ten bytes with seven bits each
+        if (bytes.length - byteCount < 10) {
+            bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, byteCount + 10));
+        }
+
+        while ((raw & ~0x7FL) != 0) {
+            bytes[byteCount++] = (byte) ((raw & 0x7F) | 0x80);
+            raw >>>= 7;
+        }
+
+        bytes[byteCount++] = (byte) raw;
+    }
+
+    private static int blockCount(final int size) {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+}
@@ -0,0 +1,318 @@
+package edu.kit.trufflehog.util.collections;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     A map from primitive long keys to objects that many threads can write at the same time. The keys are spread
+ *     over segments, each a {@link LongObjectMap} with its own lock, so writers of keys in different segments never
+ *     wait for each other. Reads and iteration do not lock at all.
+ * </p>
+ * <p>
+ *     A writer that has to do more than a single put atomically, for example check the map and add the value to
+ *     another structure too, can hold the lock of the segment of the key, see {@link #getLock}.
+ * </p>
+ *
+ * @param <V> The type of the values.
+ *
+ * @version 1.0
+ */
+public final class ConcurrentLongObjectMap<V> {
+
+    /**
+     * The number of segments if none is given, enough to keep 8 writers apart most of the time.
+     */
+    public static final int DEFAULT_SEGMENTS = 64;
+
+    private final LongObjectMap<V>[] segments;
+    private final int segmentMask;
+    private final Collection<V> values = Collections.unmodifiableCollection(new Values());
+
+    /**
+     * <p>
+     *     Creates an empty map with the default number of segments.
+     * </p>
+     */
+    public ConcurrentLongObjectMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * <p>
+     *     Creates an empty map.
+     * </p>
+     *
+     * @param segments The number of segments, has to be a power of two between 1 and 256.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(final int segments) {
+
+        if (segments < 1 || segments > 256 || Integer.bitCount(segments) != 1) {
+            throw new IllegalArgumentException("segments has to be a power of two between 1 and 256");
+        }
+
+        this.segments = new LongObjectMap[segments];
+        this.segmentMask = segments - 1;
+
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new LongObjectMap<>();
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the value of the given key. Can be called from any thread without locking.
+     * </p>
+     *
+     * @param key The key to look up.
+     * @return the value of the key or null if the key is not in the map
+     */
+    public V get(final long key) {
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * <p>
+     *     Puts the given value under the given key.
+     * </p>
+     *
+     * @param key The key of the value.
+     * @param value The value, must not be null.
+     * @return the previous value of the key or null if there was none
+     */
+    public V put(final long key, final V value) {
+
+        final LongObjectMap<V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    /**
+     * <p>
+     *     Puts the given value under the given key if the key is not in the map yet.
+     * </p>
+     *
+     * @param key The key of the value.
+     * @param value The value, must not be null.
+     * @return the value that is in the map already or null if the given value was put
+     */
+    public V putIfAbsent(final long key, final V value) {
+
+        final LongObjectMap<V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            final V existing = segment.get(key);
+            return existing != null ? existing : segment.put(key, value);
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the given key from the map.
+     * </p>
+     *
+     * @param key The key to remove.
+     * @return the value of the key or null if the key was not in the map
+     */
+    public V remove(final long key) {
+
+        final LongObjectMap<V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the lock that guards the writes of the given key. The writes of the map take this lock too, so
+     *     while holding it nobody else can change the value of the key.
+     * </p>
+     *
+     * @param key The key to get the lock of.
+     * @return the lock of the key
+     */
+    public Object getLock(final long key) {
+        return segmentFor(key);
+    }
+
+    /**
+     * @return the number of entries in the map, entries that are written at the same time may or may not be counted
+     */
+    public int size() {
+
+        int size = 0;
+
+        for (LongObjectMap<V> segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * <p>
+     *     Calls the given action with every value of the map without locking, see {@link #values()}.
+     * </p>
+     *
+     * @param action The action to call with the values.
+     */
+    public void forEachValue(final Consumer<? super V> action) {
+
+        for (LongObjectMap<V> segment : segments) {
+            segment.forEachValue(action);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns an unmodifiable view of the values of the map. Its iterators are weakly consistent, see
+     *     {@link LongObjectMap#valueIterator}, so the view can be iterated while others write the map. Its
+     *     spliterator splits by segments, so the view can be processed by a parallel stream.
+     * </p>
+     *
+     * @return the values of the map
+     */
+    public Collection<V> values() {
+        return values;
+    }
+
+    private LongObjectMap<V> segmentFor(final long key) {
+        // the upper bits select the segment, the segments use the lower bits for their slots
+        return segments[(HashUtils.mix(key) >>> 24) & segmentMask];
+    }
+
+    private final class Values extends AbstractCollection<V> {
+
+        @Override
+        public Iterator<V> iterator() {
+
+            return new Iterator<V>() {
+
+                private int segment = 0;
+                private Iterator<V> current = segments[0].valueIterator();
+
+                @Override
+                public boolean hasNext() {
+
+                    while (!current.hasNext() && segment + 1 < segments.length) {
+                        current = segments[++segment].valueIterator();
+                    }
+
+                    return current.hasNext();
+                }
+
+                @Override
+                public V next() {
+
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    return current.next();
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new SegmentSpliterator(0, segments.length);
+        }
+
+        @Override
+        public void forEach(final Consumer<? super V> action) {
+            forEachValue(action);
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentLongObjectMap.this.size();
+        }
+    }
+
+    /**
+     * Splits the segments in halves, a single segment is split by its own spliterator.
+     */
+    private final class SegmentSpliterator implements Spliterator<V> {
+
+        private int segment;
+        private final int end;
+        private Spliterator<V> current = null;
+
+        private SegmentSpliterator(final int segment, final int end) {
+            this.segment = segment;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super V> action) {
+
+            while (true) {
+                if (current != null && current.tryAdvance(action)) {
+                    return true;
+                }
+
+                if (segment >= end) {
+                    return false;
+                }
+
+                current = segments[segment++].valueSpliterator();
+            }
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super V> action) {
+
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+
+            for (; segment < end; segment++) {
+                segments[segment].forEachValue(action);
+            }
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+
+            if (current == null && end - segment > 1) {
+                final int middle = (segment + end) >>> 1;
+                final Spliterator<V> prefix = new SegmentSpliterator(segment, middle);
+                segment = middle;
+                return prefix;
+            }
+
+            if (current == null && end - segment == 1) {
+                current = segments[segment++].valueSpliterator();
+            }
+
+            return current == null ? null : current.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+
+            long size = current == null ? 0 : current.estimateSize();
+
+            for (int i = segment; i < end; i++) {
+                size += segments[i].size();
+            }
+
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | NONNULL;
+        }
+    }
+}
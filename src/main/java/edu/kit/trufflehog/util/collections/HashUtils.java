@@ -0,0 +1,68 @@
+package edu.kit.trufflehog.util.collections;
+
+/**
+ * <p>
+ *     Hash functions, table sizes and the tombstone for the open addressing maps of this package.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class HashUtils {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Marks the slot of a removed entry. The key of the slot stays, so that probes for other keys go on past it.
+     */
+    static final Object TOMBSTONE = new Object();
+
+    private HashUtils() {
+    }
+
+    /**
+     * <p>
+     *     Spreads the bits of the key over the whole int (the finalizer of MurmurHash3). Mac addresses of one vendor
+     *     only differ in their lower bits, without mixing they would fill neighbouring slots.
+     * </p>
+     *
+     * @param key The key to hash.
+     * @return the hash of the key
+     */
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * @param first The first key of the pair.
+     * @param second The second key of the pair.
+     * @return the hash of the pair
+     */
+    static int mix(final long first, final long second) {
+        return mix(first * 0x9e3779b97f4a7c15L + second);
+    }
+
+    /**
+     * @param expectedSize The number of entries the table has to hold.
+     * @param minCapacity The smallest capacity to use.
+     * @return the power of two capacity that keeps the table at most half full
+     */
+    static int tableCapacity(final int expectedSize, final int minCapacity) {
+
+        if (expectedSize > MAX_CAPACITY / 2) {
+            return MAX_CAPACITY;
+        }
+
+        int capacity = minCapacity;
+
+        while (capacity < 2 * expectedSize) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+}
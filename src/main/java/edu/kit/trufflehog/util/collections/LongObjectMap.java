@@ -0,0 +1,386 @@
+package edu.kit.trufflehog.util.collections;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     A map from primitive long keys to objects that uses open addressing with linear probing. Lookups and inserts of
+ *     existing keys neither box the key nor allocate, which makes it suitable as index of the network that is queried
+ *     for every packet.
+ * </p>
+ * <p>
+ *     The map has a single writer and many readers: {@link #put} and {@link #remove} have to be called by one thread
+ *     at a time (the caller synchronizes), while {@link #get} can be called from any thread without locking. A slot is
+ *     published by writing its value after its key, readers only look at the key of a slot whose value they have
+ *     seen. The table is replaced as a whole when it grows, so readers always probe a consistent table. Null values
+ *     are not allowed.
+ * </p>
+ * <p>
+ *     Removing an entry leaves a tombstone with the key in its slot. The key of a slot never changes while the table
+ *     is in use, only the same key can take the slot again, so a reader never pairs a key with the value of another
+ *     key. The tombstones are dropped when the table is rebuilt.
+ * </p>
+ *
+ * @param <V> The type of the values.
+ *
+ * @version 1.0
+ */
+public final class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Table<V> table;
+    private volatile int size = 0;
+
+    // the slots that are not empty, including the tombstones, only read by the writer
+    private int used = 0;
+
+    /**
+     * <p>
+     *     Creates an empty map.
+     * </p>
+     */
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * <p>
+     *     Creates an empty map that can hold the given number of entries without growing.
+     * </p>
+     *
+     * @param expectedSize The number of entries the map is expected to hold.
+     */
+    public LongObjectMap(final int expectedSize) {
+
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+
+        table = new Table<>(HashUtils.tableCapacity(expectedSize, MIN_CAPACITY));
+    }
+
+    /**
+     * <p>
+     *     Returns the value of the given key. Can be called from any thread.
+     * </p>
+     *
+     * @param key The key to look up.
+     * @return the value of the key or null if the key is not in the map
+     */
+    public V get(final long key) {
+
+        final Table<V> current = table;
+        int index = HashUtils.mix(key) & current.mask;
+
+        while (true) {
+            // read the value first, it publishes the key
+            final Object value = current.values.get(index);
+
+            if (value == null) {
+                return null;
+            }
+
+            if (current.keys[index] == key) {
+                return value == HashUtils.TOMBSTONE ? null : cast(value);
+            }
+
+            index = (index + 1) & current.mask;
+        }
+    }
+
+    /**
+     * <p>
+     *     Puts the given value under the given key. Only one thread at a time may write.
+     * </p>
+     *
+     * @param key The key of the value.
+     * @param value The value, must not be null.
+     * @return the previous value of the key or null if there was none
+     */
+    public V put(final long key, final V value) {
+
+        if (value == null) {
+            throw new NullPointerException("value must not be null");
+        }
+
+        Table<V> current = table;
+        int index = current.find(key);
+        final Object previous = current.values.get(index);
+
+        if (previous != null && previous != HashUtils.TOMBSTONE) {
+            current.values.set(index, value);
+            return cast(previous);
+        }
+
+        if (previous == HashUtils.TOMBSTONE) {
+            // the slot still holds the key, so it can be taken again right away
+            current.values.set(index, value);
+            size = size + 1;
+            return null;
+        }
+
+        if (used + 1 > current.threshold) {
+            current = rebuild(current);
+            index = current.find(key);
+        }
+
+        current.keys[index] = key;
+        current.values.set(index, value);
+        size = size + 1;
+        used = used + 1;
+
+        return null;
+    }
+
+    /**
+     * <p>
+     *     Removes the given key from the map. Only one thread at a time may write.
+     * </p>
+     *
+     * @param key The key to remove.
+     * @return the value of the key or null if the key was not in the map
+     */
+    public V remove(final long key) {
+
+        final Table<V> current = table;
+        final int index = current.find(key);
+        final Object previous = current.values.get(index);
+
+        if (previous == null || previous == HashUtils.TOMBSTONE) {
+            return null;
+        }
+
+        current.values.set(index, HashUtils.TOMBSTONE);
+        size = size - 1;
+
+        return cast(previous);
+    }
+
+    /**
+     * @return the number of entries in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * <p>
+     *     Calls the given action with every value of the map. Entries that are added while iterating may or may not be
+     *     seen.
+     * </p>
+     *
+     * @param action The action to call with the values.
+     */
+    public void forEachValue(final Consumer<? super V> action) {
+
+        final Table<V> current = table;
+
+        for (int i = 0; i < current.values.length(); i++) {
+            final Object value = current.values.get(i);
+
+            if (value != null && value != HashUtils.TOMBSTONE) {
+                action.accept(cast(value));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns an iterator over the values of the map. The iterator is weakly consistent: it never throws a
+     *     {@link java.util.ConcurrentModificationException}, returns every value that was in the map when it was
+     *     created and may or may not return values that are added while iterating. Can be called from any thread.
+     * </p>
+     *
+     * @return an iterator over the values of the map
+     */
+    public Iterator<V> valueIterator() {
+        return new ValueIterator<>(table);
+    }
+
+    /**
+     * <p>
+     *     Returns a spliterator over the values of the map. Like the {@link #valueIterator} it is weakly consistent, it
+     *     splits the slots of the table in halves, so the values can be processed by a parallel stream.
+     * </p>
+     *
+     * @return a spliterator over the values of the map
+     */
+    public Spliterator<V> valueSpliterator() {
+
+        final Table<V> current = table;
+        return new ValueSpliterator<>(current.values, 0, current.values.length());
+    }
+
+    /**
+     * Copies the entries into a new table without the tombstones, the table only grows if the entries need it.
+     */
+    private Table<V> rebuild(final Table<V> old) {
+
+        final int capacity = Math.max(old.values.length(), HashUtils.tableCapacity(size + 1, MIN_CAPACITY));
+        final Table<V> rebuilt = new Table<>(capacity);
+
+        for (int i = 0; i < old.values.length(); i++) {
+            final Object value = old.values.get(i);
+
+            if (value != null && value != HashUtils.TOMBSTONE) {
+                final int index = rebuilt.find(old.keys[i]);
+                rebuilt.keys[index] = old.keys[i];
+                rebuilt.values.set(index, value);
+            }
+        }
+
+        used = size;
+
+        // publishing the table publishes all of its slots
+        table = rebuilt;
+
+        return rebuilt;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(final Object value) {
+        return (V) value;
+    }
+
+    private static final class Table<V> {
+
+        private final long[] keys;
+        // holds values of type V and tombstones
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+        private final int threshold;
+
+        private Table(final int capacity) {
+            keys = new long[capacity];
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+            threshold = capacity / 2;
+        }
+
+        /**
+         * Returns the slot of the key, which may hold a tombstone, or the empty slot the key would be put in.
+         */
+        private int find(final long key) {
+
+            int index = HashUtils.mix(key) & mask;
+
+            while (values.get(index) != null && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+
+            return index;
+        }
+    }
+
+    private static final class ValueIterator<V> implements Iterator<V> {
+
+        private final Table<V> table;
+        private int index = 0;
+        private V next = null;
+
+        private ValueIterator(final Table<V> table) {
+            this.table = table;
+            advance();
+        }
+
+        private void advance() {
+
+            next = null;
+
+            while (next == null && index < table.values.length()) {
+                final Object value = table.values.get(index++);
+
+                if (value != HashUtils.TOMBSTONE) {
+                    next = cast(value);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            final V value = next;
+            advance();
+            return value;
+        }
+    }
+
+    private static final class ValueSpliterator<V> implements Spliterator<V> {
+
+        private final AtomicReferenceArray<Object> values;
+        private int index;
+        private final int end;
+
+        private ValueSpliterator(final AtomicReferenceArray<Object> values, final int index, final int end) {
+            this.values = values;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super V> action) {
+
+            while (index < end) {
+                final Object value = values.get(index++);
+
+                if (value != null && value != HashUtils.TOMBSTONE) {
+                    action.accept(cast(value));
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super V> action) {
+
+            for (; index < end; index++) {
+                final Object value = values.get(index);
+
+                if (value != null && value != HashUtils.TOMBSTONE) {
+                    action.accept(cast(value));
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+
+            final int middle = (index + end) >>> 1;
+
+            if (middle <= index) {
+                return null;
+            }
+
+            final Spliterator<V> prefix = new ValueSpliterator<>(values, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            // the table is at most half full
+            return (end - index) / 2;
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | NONNULL;
+        }
+    }
+}
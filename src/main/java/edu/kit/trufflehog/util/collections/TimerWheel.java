@@ -0,0 +1,156 @@
+package edu.kit.trufflehog.util.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     A hashed timer wheel: elements are scheduled for a deadline and handed out once the deadline has passed. The
+ *     deadlines are rounded to ticks and every tick has a bucket on the wheel, so expiring only looks at the buckets
+ *     of the ticks that passed instead of at all scheduled elements. Deadlines that are more than one turn of the
+ *     wheel away share their bucket with closer ones and are skipped until their turn comes.
+ * </p>
+ * <p>
+ *     Elements are handed out at most one tick after their deadline. Scheduling and expiring can be called from any
+ *     thread.
+ * </p>
+ *
+ * @param <T> The type of the scheduled elements.
+ *
+ * @version 1.0
+ */
+public final class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final List<Entry<T>>[] buckets;
+    private final int mask;
+
+    // the first tick that was not expired yet
+    private long currentTick;
+    private int size = 0;
+
+    /**
+     * <p>
+     *     Creates an empty wheel.
+     * </p>
+     *
+     * @param tickMillis The length of a tick in milliseconds.
+     * @param ticksPerWheel The number of buckets of the wheel, has to be a power of two.
+     * @param now The current time in milliseconds, nothing before it will be expired.
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(final long tickMillis, final int ticksPerWheel, final long now) {
+
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis has to be greater than 0");
+        }
+
+        if (ticksPerWheel <= 0 || Integer.bitCount(ticksPerWheel) != 1) {
+            throw new IllegalArgumentException("ticksPerWheel has to be a power of two");
+        }
+
+        this.tickMillis = tickMillis;
+        this.buckets = new List[ticksPerWheel];
+        this.mask = ticksPerWheel - 1;
+        this.currentTick = now / tickMillis;
+
+        for (int i = 0; i < ticksPerWheel; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+    }
+
+    /**
+     * <p>
+     *     Schedules the given element for the given deadline. An element that is scheduled twice is handed out twice.
+     * </p>
+     *
+     * @param element The element to schedule.
+     * @param deadline The time in milliseconds after which the element is handed out.
+     */
+    public synchronized void schedule(final T element, final long deadline) {
+
+        if (element == null) {
+            throw new NullPointerException("element must not be null");
+        }
+
+        // deadlines in the past are handed out with the next expiry
+        final long tick = Math.max(deadline / tickMillis, currentTick);
+
+        buckets[(int) (tick & mask)].add(new Entry<>(element, tick));
+        size++;
+    }
+
+    /**
+     * <p>
+     *     Hands out all elements whose tick has passed. The action is called without holding the lock of the wheel,
+     *     so it may schedule elements again.
+     * </p>
+     *
+     * @param now The current time in milliseconds.
+     * @param action The action to call with the expired elements.
+     * @return the number of expired elements
+     */
+    public int expire(final long now, final Consumer<? super T> action) {
+
+        final List<T> expired = new ArrayList<>();
+
+        synchronized (this) {
+
+            final long nowTick = now / tickMillis;
+
+            // after a whole turn every bucket was looked at once, more turns do not find more
+            final long lastTick = Math.min(nowTick, currentTick + buckets.length);
+
+            for (long tick = currentTick; tick < lastTick; tick++) {
+                collect(buckets[(int) (tick & mask)], nowTick, expired);
+            }
+
+            currentTick = Math.max(currentTick, nowTick);
+            size -= expired.size();
+        }
+
+        expired.forEach(action);
+
+        return expired.size();
+    }
+
+    /**
+     * @return the number of scheduled elements
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void collect(final List<Entry<T>> bucket, final long nowTick, final List<T> expired) {
+
+        int i = 0;
+
+        while (i < bucket.size()) {
+            final Entry<T> entry = bucket.get(i);
+
+            if (entry.tick < nowTick) {
+                expired.add(entry.element);
+
+                // the order within a bucket does not matter, so the last entry fills the gap
+                final Entry<T> last = bucket.remove(bucket.size() - 1);
+                if (i < bucket.size()) {
+                    bucket.set(i, last);
+                }
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final T element;
+        private final long tick;
+
+        private Entry(final T element, final long tick) {
+            this.element = element;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.kit.trufflehog.util.javafx;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ *     An update of JavaFX properties that is run by the {@link FxUpdatePump}. Scheduling it marks the owner dirty:
+ *     the update is queued only once until it ran, so it copies the latest values of the owner to its properties
+ *     once per frame no matter how often they changed.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class FxUpdate implements Runnable {
+
+    private final Runnable update;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * <p>
+     *     Creates the FxUpdate.
+     * </p>
+     *
+     * @param update Copies the current values to the properties, runs on the FX application thread.
+     */
+    public FxUpdate(final Runnable update) {
+
+        if (update == null) {
+            throw new NullPointerException("update must not be null");
+        }
+
+        this.update = update;
+    }
+
+    /**
+     * <p>
+     *     Schedules the update for the next frame if it is not scheduled already. Can be called from any thread.
+     * </p>
+     */
+    public void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            FxUpdatePump.getInstance().submit(this);
+        }
+    }
+
+    /**
+     * <p>
+     *     Runs the update, called by the {@link FxUpdatePump} on the FX application thread.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        // reset first, so that a change during the update schedules it again
+        scheduled.set(false);
+        update.run();
+    }
+}
@@ -0,0 +1,168 @@
+package edu.kit.trufflehog.util.javafx;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ *     The FxUpdatePump collects the updates of the JavaFX properties of the model and runs them once per frame on
+ *     the FX application thread, driven by an {@link AnimationTimer}. The model threads change plain fields and
+ *     schedule an {@link FxUpdate}, which is queued at most once until it ran, no matter how often the values
+ *     changed in between. This way the work on the FX application thread depends on the frame rate and the number
+ *     of changed model objects instead of the packet rate.
+ * </p>
+ * <p>
+ *     The updates are run in the order they were submitted. While nothing is submitted the timer is stopped, so an
+ *     idle network does not cost a pulse per frame. This is a singleton.
+ * </p>
+ * <p>
+ *     Without a FX toolkit, for example in the headless mode, the pump can be driven by a scheduled executor instead,
+ *     see {@link #startWithoutFx}. The properties are then updated on the thread of the executor.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class FxUpdatePump {
+
+    private static final Logger logger = LogManager.getLogger(FxUpdatePump.class);
+
+    private static final FxUpdatePump instance = new FxUpdatePump();
+
+    // marks the end of the updates of one frame, updates that are submitted while a frame is flushed wait for the next
+    private static final Runnable END_OF_FRAME = () -> {};
+
+    private final Queue<Runnable> updates = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile boolean withoutFx = false;
+
+    // only touched on the FX application thread
+    private AnimationTimer timer = null;
+
+    private FxUpdatePump() {
+    }
+
+    /**
+     * @return the FxUpdatePump of TruffleHog
+     */
+    public static FxUpdatePump getInstance() {
+        return instance;
+    }
+
+    /**
+     * <p>
+     *     Runs the given update on the FX application thread with the next frame. Unlike {@link FxUpdate}s the
+     *     update is run once for every call, so this is meant for updates that do not happen per packet.
+     * </p>
+     *
+     * @param update The update to run on the FX application thread.
+     */
+    public void submit(final Runnable update) {
+
+        if (update == null) {
+            throw new NullPointerException("update must not be null");
+        }
+
+        updates.offer(update);
+
+        if (!withoutFx && running.compareAndSet(false, true)) {
+            try {
+                Platform.runLater(this::startTimer);
+            } catch (IllegalStateException e) {
+                // there is no FX toolkit, the updates wait until someone flushes them
+                running.set(false);
+                logger.debug("The FX toolkit is not running, updates are not pumped", e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Drives the pump with the given executor instead of the FX application thread. Has to be called before
+     *     anything is submitted, there is no way back to the FX application thread.
+     * </p>
+     *
+     * @param executor The executor that runs the updates.
+     * @param period The time between two runs of the updates.
+     * @param unit The unit of the period.
+     */
+    public void startWithoutFx(final ScheduledExecutorService executor, final long period, final TimeUnit unit) {
+
+        if (executor == null) {
+            throw new NullPointerException("executor must not be null");
+        }
+
+        withoutFx = true;
+
+        // the executor never runs two flushes at the same time
+        executor.scheduleAtFixedRate(this::flush, period, period, unit);
+    }
+
+    /**
+     * <p>
+     *     Runs all updates that were submitted up to now. Has to be called on the FX application thread, usually this
+     *     is done by the timer with every frame. Without a FX toolkit it has to be called by the thread that drives
+     *     the pump.
+     * </p>
+     *
+     * @return the number of updates that were run
+     */
+    public int flush() {
+
+        updates.offer(END_OF_FRAME);
+
+        int count = 0;
+        Runnable update;
+
+        while ((update = updates.poll()) != END_OF_FRAME) {
+
+            // only the flush itself can take the end marker, so there always is one
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                logger.error("Could not update the FX properties", e);
+            }
+
+            count++;
+        }
+
+        return count;
+    }
+
+    private void startTimer() {
+
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    pulse();
+                }
+            };
+        }
+
+        timer.start();
+    }
+
+    private void pulse() {
+
+        if (flush() > 0) {
+            return;
+        }
+
+        running.set(false);
+
+        // an update may have been submitted after the flush but before running was reset, then it either restarts
+        // the timer itself or we keep it running
+        if (updates.isEmpty() || !running.compareAndSet(false, true)) {
+            timer.stop();
+        }
+    }
+}
@@ -103,6 +103,7 @@ public class FilterEditingMenuView extends AnchorPaneController<FilterInteractio
     private final String MAC_LABEL;
     private final String IP_LABEL;
     private final String NAME_LABEL;
+    private final String PACKET_LABEL;
 
     /**
      * <p>
@@ -125,6 +126,7 @@ public class FilterEditingMenuView extends AnchorPaneController<FilterInteractio
         MAC_LABEL = this.config.getProperty("MAC_LABEL");
         IP_LABEL = this.config.getProperty("IP_LABEL");
         NAME_LABEL = this.config.getProperty("NAME_LABEL");
+        PACKET_LABEL = this.config.getProperty("PACKET_LABEL");
 
         // Set up the filterViewModel
         this.filterViewModel = filterViewModel;
@@ -151,7 +153,7 @@ public class FilterEditingMenuView extends AnchorPaneController<FilterInteractio
 
         // Fill combo-boxes
         selectionComboBox.getItems().setAll(SELECTION_LABEL, INVERSE_SELECTION_LABEL);
-        filterByComboBox.getItems().setAll(IP_LABEL, MAC_LABEL, NAME_LABEL);
+        filterByComboBox.getItems().setAll(IP_LABEL, MAC_LABEL, NAME_LABEL, PACKET_LABEL);
 
         // Set up the buttons
         createButton.setOnAction(eventHandler ->  {
@@ -220,6 +222,8 @@ public class FilterEditingMenuView extends AnchorPaneController<FilterInteractio
                 filterByComboBox.setValue(IP_LABEL);
             } else if (filterInput.getType().equals(FilterType.MAC)) {
                 filterByComboBox.setValue(MAC_LABEL);
+            } else if (filterInput.getType().equals(FilterType.PACKET)) {
+                filterByComboBox.setValue(PACKET_LABEL);
             } else {
                 filterByComboBox.setValue(NAME_LABEL);
             }
@@ -11,7 +11,7 @@ import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import edu.kit.trufflehog.view.controllers.AnchorPaneController;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.collections.ListChangeListener;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.ObservableList;
 import javafx.scene.control.*;
 import javafx.scene.layout.AnchorPane;
@@ -31,9 +31,12 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
     private ObservableList<Packet> data;
     private TableView<Packet> tableView;
     private TableColumn<Packet, String> nameColumn;
+    private Button olderButton;
 
-    private final ArrayList<PacketDataLoggingComponent> pdlComponentArray = new ArrayList<>();
-    private final ArrayList<ListChangeListener> pdlListenerArray = new ArrayList<>();
+    // the number of packets per component that are shown at first and added when older packets are requested
+    private static final int PAGE_SIZE = 100;
+
+    private final ArrayList<Registration> registrations = new ArrayList<>();
 
     private static final Logger logger = LogManager.getLogger();
 
@@ -91,6 +94,7 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
      */
     private BorderPane setUpMenu(TableView<Packet> tableView) {
 
+        olderButton = setOlderButton();
         final Button closeButton = setCloseButton();
 
         // Set up components on overlay
@@ -99,9 +103,11 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
         tableView.setMinHeight(300);
 
         AnchorPane anchorPane = new AnchorPane();
-        anchorPane.getChildren().addAll(closeButton);
+        anchorPane.getChildren().addAll(olderButton, closeButton);
         borderPane.setBottom(anchorPane);
 
+        AnchorPane.setBottomAnchor(olderButton, 0d);
+        AnchorPane.setLeftAnchor(olderButton, 0d);
         AnchorPane.setBottomAnchor(closeButton, 0d);
         AnchorPane.setRightAnchor(closeButton, 0d);
 
@@ -119,14 +125,16 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
         nameColumn.setCellValueFactory(param -> param.getValue().getDataProperty());
     }
 
-    private void addEntry(IPacketData entry) {
-        data.add(new Packet(packetDataToString(entry)));
+    private void addEntries(List<IPacketData> entries) {
+        data.addAll(toPackets(entries));
     }
 
-    private void addEntries(List<IPacketData> entries) {
+    private List<Packet> toPackets(List<IPacketData> entries) {
+        final List<Packet> packets = new ArrayList<>(entries.size());
         for (IPacketData packetData:entries) {
-            data.add(new Packet(packetDataToString(packetData)));
+            packets.add(new Packet(packetDataToString(packetData)));
         }
+        return packets;
     }
 
     private String packetDataToString(IPacketData packetData) {
@@ -225,7 +233,6 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
         if (nodeSet == null) throw new NullPointerException("node must not be null!");
         clear();
 
-        int i = 0;
         PacketDataLoggingComponent loggingComponent = null;
         NodeInfoComponent infoComponent = null;
 
@@ -238,17 +245,18 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
 
             if (loggingComponent != null && infoComponent != null) {
                 //TODO add comparator to IPacketData to sort list using time of arrival
-                addEntries(loggingComponent.getObservablePackets());
+                final Registration registration = new Registration(loggingComponent);
+                final List<IPacketData> packets = new ArrayList<>();
 
-                ListChangeListener listener = c -> {
-                    c.next();
-                    addEntries(c.getAddedSubList());
-                };
+                // only the newest page is read from the store, the positions in a log never change
+                registration.seen = loggingComponent.getPacketCount();
+                registration.oldest = Math.max(loggingComponent.getFirstPosition(), registration.seen - PAGE_SIZE);
+                loggingComponent.getPackets(registration.oldest, registration.seen, packets);
 
-                loggingComponent.getObservablePacketsProperty().addListener(listener);
+                addEntries(packets);
 
-                pdlComponentArray.add(i, loggingComponent);
-                pdlListenerArray.add(i, listener);
+                loggingComponent.packetCountProperty().addListener(registration.listener);
+                registrations.add(registration);
 
                 sb.append(infoComponent.getMacAddress());
                 sb.append(" ");
@@ -256,25 +264,74 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
 
             loggingComponent = null;
             infoComponent = null;
-
-            i++;
         }
 
         setName(sb.toString());
+        updateOlderButton();
+    }
+
+    /**
+     * <p>
+     * Reads the next page of older packets of every registered component from the store and puts them on top of
+     * the table. Only the pages that were asked for are held in memory.
+     * </p>
+     */
+    private void loadOlderPackets() {
+
+        for (Registration registration : registrations) {
+
+            // the packets before the first position were dropped from the log
+            final long first = registration.component.getFirstPosition();
+
+            if (registration.oldest <= first) {
+                continue;
+            }
+
+            final List<IPacketData> page = new ArrayList<>(PAGE_SIZE);
+            final long from = Math.max(first, registration.oldest - PAGE_SIZE);
+
+            registration.component.getPackets(from, registration.oldest, page);
+            registration.oldest = from;
+
+            // the page is older than everything in the table
+            data.addAll(0, toPackets(page));
+        }
+
+        updateOlderButton();
+    }
+
+    private void updateOlderButton() {
+        olderButton.setDisable(registrations.stream().allMatch(r -> r.oldest <= r.component.getFirstPosition()));
     }
 
     private void clear() {
-        PacketDataLoggingComponent component = null;
 
-        for (int i = 0; i < pdlComponentArray.size(); i++) {
-            component = pdlComponentArray.get(i);
-            component.getObservablePacketsProperty().removeListener(pdlListenerArray.get(i));
+        for (Registration registration : registrations) {
+            registration.component.packetCountProperty().removeListener(registration.listener);
         }
 
-        pdlComponentArray.clear();
-        pdlListenerArray.clear();
+        registrations.clear();
         tableView.getItems().clear();
         data.clear();
+        updateOlderButton();
+    }
+
+    /**
+     * <p>
+     * Sets up the button to load older packets from the store
+     * </p>
+     *
+     * @return The fully configured button.
+     */
+    private Button setOlderButton() {
+        final Button button = new Button("Load older");
+        button.setScaleX(0.9);
+        button.setScaleY(0.9);
+        button.setDisable(true);
+
+        button.setOnMouseClicked(event -> loadOlderPackets());
+
+        return button;
     }
 
     /**
@@ -296,6 +353,30 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
         return closeButton;
     }
 
+    /**
+     * <p>
+     * A logging component that is shown in the table, with the number of its packets that were fetched and the
+     * position of the oldest packet that is shown.
+     * </p>
+     */
+    private final class Registration {
+        private final PacketDataLoggingComponent component;
+        private final ChangeListener<Number> listener;
+        private long seen = 0;
+        private long oldest = 0;
+
+        private Registration(PacketDataLoggingComponent component) {
+            this.component = component;
+
+            // called once per frame at most, the new packets are fetched from the component
+            this.listener = (observable, oldValue, newValue) -> {
+                final List<IPacketData> packets = new ArrayList<>();
+                seen = component.getPacketsSince(seen, packets);
+                addEntries(packets);
+            };
+        }
+    }
+
     public static class Packet {
         private final SimpleStringProperty data;
 
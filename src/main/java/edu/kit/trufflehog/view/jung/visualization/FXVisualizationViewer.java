@@ -19,6 +19,7 @@ package edu.kit.trufflehog.view.jung.visualization;
 import edu.kit.trufflehog.command.usercommand.IUserCommand;
 import edu.kit.trufflehog.command.usercommand.SelectionContextMenuCommand;
 import edu.kit.trufflehog.interaction.GraphInteraction;
+import edu.kit.trufflehog.model.jung.layout.LiveFRLayout;
 import edu.kit.trufflehog.model.jung.layout.ObservableLayout;
 import edu.kit.trufflehog.model.network.INetworkViewPort;
 import edu.kit.trufflehog.model.network.graph.IConnection;
@@ -34,9 +35,9 @@ import edu.kit.trufflehog.util.INotifier;
 import edu.kit.trufflehog.util.Notifier;
 import edu.kit.trufflehog.util.bindings.MyBindings;
 import edu.kit.trufflehog.view.controllers.IViewController;
-import edu.uci.ics.jung.algorithms.layout.FRLayout2;
 import edu.uci.ics.jung.algorithms.layout.GraphElementAccessor;
 import edu.uci.ics.jung.algorithms.layout.Layout;
+import edu.uci.ics.jung.graph.ObservableGraph;
 import edu.uci.ics.jung.graph.event.GraphEvent;
 import edu.uci.ics.jung.graph.util.Pair;
 import edu.uci.ics.jung.visualization.RenderContext;
@@ -69,7 +70,7 @@ import java.awt.RenderingHints;
 import java.awt.event.ItemListener;
 import java.awt.geom.Point2D;
 import java.util.*;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
@@ -108,8 +109,17 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
 
     private ObservableLayout<INode, IConnection> layout;
 
+    // the layout of the last refresh, it listens to the graph until it is replaced
+    private LiveFRLayout<INode, IConnection> refreshedLayout = null;
+
     private INetworkViewPort port;
 
+    // the labels of the nodes on the canvas, only used on the FX application thread
+    private final Map<INode, Label> nodeLabels = new HashMap<>();
+
+    // the shapes of removed elements, they are taken off the canvas at once, only used on the FX application thread
+    private final Set<Node> removedShapes = new HashSet<>();
+
     public FXVisualizationViewer(INetworkViewPort port) {
 
         this.port = port;
@@ -207,6 +217,16 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
                         final IConnection changedEdge = ((GraphEvent.Edge<INode, IConnection>) e).getEdge();
                         Platform.runLater(() -> changedEdge.getComponent(ViewComponent.class).getRenderer().animate());
                         break;
+
+                    case VERTEX_REMOVED:
+                        final INode removedNode = ((GraphEvent.Vertex<INode, IConnection>) e).getVertex();
+                        Platform.runLater(() -> removeVertex(removedNode));
+                        break;
+
+                    case EDGE_REMOVED:
+                        final IConnection removedEdge = ((GraphEvent.Edge<INode, IConnection>) e).getEdge();
+                        Platform.runLater(() -> removeEdge(removedEdge));
+                        break;
                 }
             //});
         });
@@ -227,7 +247,7 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
             final Shape shape = edge.getComponent(ViewComponent.class).getRenderer().getShape();
             shape.layoutXProperty().bind(destCircle.layoutXProperty());
             shape.layoutYProperty().bind(destCircle.layoutYProperty());
-            canvas.getChildren().add(shape);
+            addToCanvas(shape);
             shape.setPickOnBounds(false);
             shape.setMouseTransparent(true);
             return;
@@ -343,9 +363,9 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
         curve.setFill(null);
 
 
-        canvas.getChildren().add(edgeRenderer.getArrowShape());
+        addToCanvas(edgeRenderer.getArrowShape());
         // add the edge to the canvas
-        canvas.getChildren().add(curve);
+        addToCanvas(curve);
     }
 
     synchronized
@@ -420,16 +440,128 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
         nodeShape.addEventFilter(MouseEvent.MOUSE_RELEASED, nodeGestures.getOnMouseReleasedEventHandler(vertex));
         nodeShape.addEventFilter(MouseEvent.MOUSE_CLICKED, nodeGestures.getOnMouseClickedEventHandler(vertex));
 
-        canvas.getChildren().addAll(nodeLabel, nodeShape);
+        nodeLabels.put(vertex, nodeLabel);
+        addToCanvas(nodeLabel);
+        addToCanvas(nodeShape);
+    }
+
+    /**
+     * <p>
+     *     Takes the shapes of a node that was removed from the network off the canvas and unbinds them, so that
+     *     nothing on the canvas refers to the node anymore.
+     * </p>
+     */
+    synchronized
+    private void removeVertex(INode vertex) {
+
+        if (selectionModel.contains(vertex)) {
+            selectionModel.remove(vertex);
+        }
+
+        if (vertex.getAddress().isMulticast()) {
+            return;
+        }
+
+        final Shape nodeShape = vertex.getComponent(ViewComponent.class).getRenderer().getShape();
+        nodeShape.scaleXProperty().unbind();
+        nodeShape.scaleYProperty().unbind();
+        removeFromCanvas(nodeShape);
+
+        final Label nodeLabel = nodeLabels.remove(vertex);
+
+        if (nodeLabel != null) {
+            nodeLabel.layoutXProperty().unbind();
+            nodeLabel.layoutYProperty().unbind();
+            nodeLabel.textProperty().unbind();
+            nodeLabel.textFillProperty().unbind();
+            nodeLabel.scaleXProperty().unbind();
+            nodeLabel.scaleYProperty().unbind();
+            removeFromCanvas(nodeLabel);
+        }
+    }
+
+    /**
+     * <p>
+     *     Takes the shapes of a connection that was removed from the network off the canvas and unbinds them from the
+     *     shapes of its nodes and the maximum traffic of the network.
+     * </p>
+     */
+    synchronized
+    private void removeEdge(IConnection edge) {
+
+        if (selectionModel.contains(edge)) {
+            selectionModel.remove(edge);
+        }
+
+        if (edge.getDest().getAddress().isMulticast()) {
+            final Shape shape = edge.getComponent(ViewComponent.class).getRenderer().getShape();
+            shape.layoutXProperty().unbind();
+            shape.layoutYProperty().unbind();
+            removeFromCanvas(shape);
+            return;
+        }
+
+        final IEdgeRenderer edgeRenderer = (IEdgeRenderer) edge.getComponent(ViewComponent.class).getRenderer();
+
+        edgeRenderer.getArrowShape().layoutXProperty().unbind();
+        edgeRenderer.getArrowShape().layoutYProperty().unbind();
+
+        final QuadCurve curve = edgeRenderer.getLine();
+        curve.strokeWidthProperty().unbind();
+        curve.startXProperty().unbind();
+        curve.startYProperty().unbind();
+        curve.endXProperty().unbind();
+        curve.endYProperty().unbind();
+        curve.controlXProperty().unbind();
+        curve.controlYProperty().unbind();
+
+        removeFromCanvas(edgeRenderer.getArrowShape());
+        removeFromCanvas(curve);
+    }
+
+    private void addToCanvas(Node shape) {
+
+        // an element that is written again right after it was removed still has its shapes on the canvas
+        if (!removedShapes.remove(shape)) {
+            canvas.getChildren().add(shape);
+        }
+    }
+
+    /**
+     * <p>
+     *     Removing a single child searches the whole canvas, so the shapes of the elements that are removed together,
+     *     for example all idle elements, are collected and taken off the canvas in one pass.
+     * </p>
+     */
+    private void removeFromCanvas(Node shape) {
+
+        if (removedShapes.isEmpty()) {
+            Platform.runLater(() -> {
+                canvas.getChildren().removeAll(removedShapes);
+                removedShapes.clear();
+            });
+        }
+
+        removedShapes.add(shape);
     }
 
     synchronized
     public void refreshLayout() {
 
       //  logger.debug("refresh");
-        final FRLayout2<INode, IConnection> l = new FRLayout2<>(this.layout.getObservableGraph());
+        final ObservableGraph<INode, IConnection> graph = this.layout.getObservableGraph();
+        final LiveFRLayout<INode, IConnection> l = new LiveFRLayout<>(graph);
             l.setMaxIterations(layout.getGraph().getEdgeCount() * (int) (this.getWidth() / canvas.getScale()));
            // l.setMaxIterations(700);
+
+        // the refreshed layout forgets the removed vertices like the live one, the one it replaces stops listening
+        graph.addGraphEventListener(l);
+
+        if (refreshedLayout != null) {
+            graph.removeGraphEventListener(refreshedLayout);
+        }
+
+        refreshedLayout = l;
         this.layout = new ObservableLayout<>(l);
                //TODO make the dimension changeable from settings menu?
 
@@ -438,17 +570,20 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
 
             //layout.set
 
-        final Executor layouter = Executors.newSingleThreadExecutor();
+        final ExecutorService layouter = Executors.newSingleThreadExecutor();
+        final ObservableLayout<INode, IConnection> refreshed = this.layout;
 
         layouter.execute(() -> {
 
-            while (!layout.done()) {
-                layout.step();
+            while (!refreshed.done()) {
+                refreshed.step();
                 Platform.runLater(this::repaint);
             }
 
         });
 
+        layouter.shutdown();
+
 
 
     }
@@ -3,7 +3,9 @@ package edu.kit.trufflehog.viewmodel;
 import edu.kit.trufflehog.model.configdata.ConfigData;
 import edu.kit.trufflehog.model.filter.FilterInput;
 import edu.kit.trufflehog.model.filter.FilterType;
+import edu.kit.trufflehog.model.filter.InvalidFilterRule;
 import edu.kit.trufflehog.model.filter.SelectionModel;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import org.apache.logging.log4j.LogManager;
@@ -238,6 +240,8 @@ public class FilterViewModel {
             filterType = FilterType.MAC;
         } else if (filterOriginString.equals(configData.getProperty("NAME_LABEL"))) {
             filterType = FilterType.NAME;
+        } else if (filterOriginString.equals(configData.getProperty("PACKET_LABEL"))) {
+            filterType = FilterType.PACKET;
         } else {
             filterType = null;
         }
@@ -277,7 +281,8 @@ public class FilterViewModel {
     /**
      * <p>
      *     This method parses the rules string and makes sure that every rule is either MAC or IP conform, and not both.
-     *     Rules cannot be mixed. That means either all rules are IP based or all rules are MAC based.
+     *     Rules cannot be mixed. That means either all rules are IP based or all rules are MAC based. The rules of a
+     *     packet filter have to be tests of the fields of a packet.
      * </p>
      *
      * @param rules The rules string from the menu that the user entered.
@@ -320,7 +325,14 @@ public class FilterViewModel {
 
         // Check each rule to see whether it matches its regex
         for (String rule : ruleList) {
-            if (filterType.equals(FilterType.IP) || filterType.equals(FilterType.MAC)) {
+            if (filterType.equals(FilterType.PACKET)) {
+                try {
+                    PacketFilterStage.checkRule(rule);
+                } catch (InvalidFilterRule exception) {
+                    errorText.setText(configData.getProperty("INVALID_PACKET_RULE"));
+                    return null;
+                }
+            } else if (filterType.equals(FilterType.IP) || filterType.equals(FilterType.MAC)) {
                 assert pattern != null;
                 if (!pattern.matcher(rule).matches()) {
                     if (filterType.equals(FilterType.IP)) {
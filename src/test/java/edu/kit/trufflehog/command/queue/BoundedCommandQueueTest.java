@@ -0,0 +1,265 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue.OverflowPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * <p>
+ *     Test for the {@link BoundedCommandQueue} class.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class BoundedCommandQueueTest {
+
+    private CommandScheduler mockedScheduler;
+
+    @Before
+    public void setUp() {
+        mockedScheduler = mock(CommandScheduler.class);
+    }
+
+    @Test
+    public void testConstruction() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(mockedScheduler, 100, 3, OverflowPolicy.BLOCK);
+
+        verify(mockedScheduler).registerQueue(queue, 3);
+        assertEquals(128, queue.capacity());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testConstructionWithNull() throws Exception {
+        new BoundedCommandQueue(null, 16, 1, OverflowPolicy.BLOCK);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructionWithTooSmallCapacity() throws Exception {
+        new BoundedCommandQueue(mockedScheduler, 1, 1, OverflowPolicy.BLOCK);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPushNull() throws Exception {
+        new BoundedCommandQueue(mockedScheduler, 16, 1, OverflowPolicy.BLOCK).push(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPopOnEmptyQueue() throws Exception {
+        new BoundedCommandQueue(mockedScheduler, 16, 1, OverflowPolicy.BLOCK).pop();
+    }
+
+    /**
+     * <p>
+     *     Checks that the commands come out in the order they were pushed, also after the queue wrapped around
+     *     several times, and that the scheduler is notified.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPushAndPopInOrder() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(mockedScheduler, 4, 1, OverflowPolicy.BLOCK);
+
+        for (int round = 0; round < 10; round++) {
+            final ICommand[] commands = new ICommand[3];
+
+            for (int i = 0; i < commands.length; i++) {
+                commands[i] = mock(ICommand.class);
+                queue.push(commands[i]);
+            }
+
+            assertFalse(queue.isEmpty());
+            assertEquals(3, queue.size());
+
+            for (ICommand command : commands) {
+                assertSame(command, queue.pop());
+            }
+
+            assertTrue(queue.isEmpty());
+        }
+
+        verify(mockedScheduler, atLeastOnce()).notifyNewElement();
+    }
+
+    /**
+     * <p>
+     *     Checks that a full queue with the drop oldest policy drops and counts the oldest commands.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testDropOldest() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(mockedScheduler, 4, 1, OverflowPolicy.DROP_OLDEST);
+        final ICommand[] commands = new ICommand[6];
+
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = mock(ICommand.class);
+            queue.push(commands[i]);
+        }
+
+        assertEquals(2, queue.getDroppedCommands());
+        assertEquals(0, queue.getBlockedPushes());
+
+        for (int i = 2; i < commands.length; i++) {
+            assertSame(commands[i], queue.pop());
+        }
+
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * <p>
+     *     Checks that a push on a full queue with the block policy waits until a command was popped.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testBlockUntilRoom() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(mockedScheduler, 2, 1, OverflowPolicy.BLOCK);
+        final ICommand first = mock(ICommand.class);
+        final ICommand last = mock(ICommand.class);
+
+        queue.push(first);
+        queue.push(mock(ICommand.class));
+
+        final Thread producer = new Thread(() -> {
+            try {
+                queue.push(last);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        producer.start();
+
+        Thread.sleep(200);
+
+        assertTrue(producer.isAlive());
+        assertEquals(1, queue.getBlockedPushes());
+
+        assertSame(first, queue.pop());
+        producer.join(5000);
+
+        assertFalse(producer.isAlive());
+        queue.pop();
+        assertSame(last, queue.pop());
+        assertEquals(0, queue.getDroppedCommands());
+    }
+
+    /**
+     * <p>
+     *     Checks that a waiting push can be interrupted.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testBlockedPushIsInterruptible() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(mockedScheduler, 2, 1, OverflowPolicy.BLOCK);
+        final boolean[] interrupted = {false};
+
+        queue.push(mock(ICommand.class));
+        queue.push(mock(ICommand.class));
+
+        final Thread producer = new Thread(() -> {
+            try {
+                queue.push(mock(ICommand.class));
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        });
+        producer.start();
+
+        Thread.sleep(200);
+        producer.interrupt();
+        producer.join(5000);
+
+        assertTrue(interrupted[0]);
+        assertEquals(2, queue.size());
+    }
+
+    /**
+     * <p>
+     *     Checks that no command gets lost or duplicated if several producers push concurrently while the consumer
+     *     pops.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(mockedScheduler, 64, 1, OverflowPolicy.BLOCK);
+        final int producers = 4;
+        final int commandsPerProducer = 10000;
+        final ICommand[][] commands = new ICommand[producers][commandsPerProducer];
+
+        for (int p = 0; p < producers; p++) {
+            for (int i = 0; i < commandsPerProducer; i++) {
+                commands[p][i] = new NumberedCommand(p, i);
+            }
+        }
+
+        final Thread[] threads = new Thread[producers];
+
+        for (int p = 0; p < producers; p++) {
+            final ICommand[] producerCommands = commands[p];
+            threads[p] = new Thread(() -> {
+                try {
+                    for (ICommand command : producerCommands) {
+                        queue.push(command);
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            });
+            threads[p].start();
+        }
+
+        final Set<ICommand> received = new HashSet<>();
+        final int[] lastOfProducer = {-1, -1, -1, -1};
+
+        while (received.size() < producers * commandsPerProducer) {
+            if (queue.isEmpty()) {
+                Thread.yield();
+                continue;
+            }
+
+            final NumberedCommand command = (NumberedCommand) queue.pop();
+
+            // commands of one producer keep their order
+            assertTrue(command.number > lastOfProducer[command.producer]);
+            lastOfProducer[command.producer] = command.number;
+
+            assertTrue(received.add(command));
+        }
+
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertTrue(queue.isEmpty());
+    }
+
+    private static final class NumberedCommand implements ICommand {
+
+        private final int producer;
+        private final int number;
+
+        private NumberedCommand(int producer, int number) {
+            this.producer = producer;
+            this.number = number;
+        }
+
+        @Override
+        public void execute() {
+        }
+    }
+}
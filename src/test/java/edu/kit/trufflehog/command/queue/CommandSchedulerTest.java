@@ -0,0 +1,142 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue.OverflowPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     Test for the {@link CommandScheduler} class.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class CommandSchedulerTest {
+
+    private CommandScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new CommandScheduler();
+    }
+
+    /**
+     * <p>
+     *     Checks if the getNextQueue() method returns null if no queues are registered.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testGetNextQueueOnEmptyScheduler() throws Exception {
+        assertNull(scheduler.getNextQueue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWeight() throws Exception {
+        new BoundedCommandQueue(scheduler, 16, 0, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * <p>
+     *     Checks if getNextQueue() parks if there are no elements in any queue and returns the queue as soon as a
+     *     command is pushed.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testGetNextQueueBlocksUntilPush() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(scheduler, 16, 1, OverflowPolicy.BLOCK);
+        final ICommandQueue[] returned = new ICommandQueue[1];
+
+        final Thread consumer = new Thread(() -> {
+            try {
+                returned[0] = scheduler.getNextQueue();
+            } catch (InterruptedException ignored) {
+            }
+        });
+
+        consumer.start();
+
+        Thread.sleep(500);
+
+        assertEquals(Thread.State.WAITING, consumer.getState());
+
+        queue.push(mock(ICommand.class));
+        consumer.join(5000);
+
+        assertEquals(Thread.State.TERMINATED, consumer.getState());
+        assertSame(queue, returned[0]);
+    }
+
+    /**
+     * <p>
+     *     Checks if a waiting consumer can be interrupted.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testWaitingIsInterruptible() throws Exception {
+        new BoundedCommandQueue(scheduler, 16, 1, OverflowPolicy.BLOCK);
+        final boolean[] interrupted = {false};
+
+        final Thread consumer = new Thread(() -> {
+            try {
+                scheduler.getNextQueue();
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        });
+
+        consumer.start();
+        Thread.sleep(200);
+        consumer.interrupt();
+        consumer.join(5000);
+
+        assertEquals(true, interrupted[0]);
+    }
+
+    /**
+     * <p>
+     *     Checks that the queues are served according to their weights while both have commands and that the
+     *     remaining queue is served alone after the other one ran empty.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testWeightedOrder() throws Exception {
+        final BoundedCommandQueue heavy = new BoundedCommandQueue(scheduler, 16, 3, OverflowPolicy.BLOCK);
+        final BoundedCommandQueue light = new BoundedCommandQueue(scheduler, 16, 1, OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 8; i++) {
+            heavy.push(mock(ICommand.class));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            light.push(mock(ICommand.class));
+        }
+
+        final List<ICommandQueue> order = new ArrayList<>();
+
+        for (int i = 0; i < 12; i++) {
+            final ICommandQueue next = scheduler.getNextQueue();
+            next.pop();
+            order.add(next);
+        }
+
+        final ICommandQueue[] expected = {heavy, heavy, heavy, light, heavy, heavy, heavy, light,
+                heavy, heavy, light, light};
+
+        for (int i = 0; i < expected.length; i++) {
+            assertSame("position " + i, expected[i], order.get(i));
+        }
+    }
+}
@@ -7,18 +7,31 @@ import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.network.*;
 import edu.kit.trufflehog.model.network.graph.IConnection;
 import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkConnection;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.Truffle;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
 import org.controlsfx.tools.Platform;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Filter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -71,4 +84,190 @@ public class AddPacketDataCommandTest {
     public void addPacketCommandTest_ParamNullErroring () {
         apdc = new AddPacketDataCommand(null, null, null);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void addPacketCommandTest_ExistingElementsAreUpdatedInPlace() throws Exception {
+        final INode source = createNode(1L, "device1", new IPAddress(42L));
+        final INode dest = createNode(2L, null, null);
+        final IConnection connection = new NetworkConnection(source, dest, new EdgeStatisticsComponent(1),
+                new PacketDataLoggingComponent());
+
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(1L))).thenReturn(source);
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(2L))).thenReturn(dest);
+        when(writingPort.getNetworkConnectionByAddress(new MacAddress(1L), new MacAddress(2L))).thenReturn(connection);
+
+        apdc.execute();
+        apdc.execute();
+        waitForFxThread();
+
+        verify(writingPort, never()).writeNode(any(INode.class));
+        verify(writingPort, never()).writeConnection(any(IConnection.class));
+        verify(filter, never()).check(any(INode.class));
+
+        assertEquals(2, source.getComponent(NodeStatisticsComponent.class).getOutgoingCount());
+        assertEquals(0, source.getComponent(NodeStatisticsComponent.class).getIncomingCount());
+        assertEquals(2, dest.getComponent(NodeStatisticsComponent.class).getIncomingCount());
+        assertEquals(3, connection.getComponent(EdgeStatisticsComponent.class).getTraffic());
+        assertEquals(2, source.getComponent(PacketDataLoggingComponent.class).getPackets().size());
+        assertEquals(2, dest.getComponent(PacketDataLoggingComponent.class).getPackets().size());
+        assertEquals(2, connection.getComponent(PacketDataLoggingComponent.class).getPackets().size());
+    }
+
+    @Test
+    public void addPacketCommandTest_NewConnectionBetweenExistingNodes() throws Exception {
+        final INode source = createNode(1L, "device1", new IPAddress(42L));
+        final INode dest = createNode(2L, null, null);
+
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(1L))).thenReturn(source);
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(2L))).thenReturn(dest);
+
+        apdc.execute();
+        waitForFxThread();
+
+        verify(writingPort, never()).writeNode(any(INode.class));
+        verify(writingPort, times(1)).writeConnection(any(IConnection.class));
+        verify(filter, never()).check(any(INode.class));
+
+        assertEquals(1, source.getComponent(NodeStatisticsComponent.class).getOutgoingCount());
+        assertEquals(1, dest.getComponent(NodeStatisticsComponent.class).getIncomingCount());
+    }
+
+    @Test
+    public void addPacketCommandTest_ChangedNodeInfoIsCheckedAgain() throws Exception {
+        final INode source = createNode(1L, "oldName", null);
+        final INode dest = createNode(2L, null, null);
+        final IConnection connection = new NetworkConnection(source, dest, new EdgeStatisticsComponent(1),
+                new PacketDataLoggingComponent());
+
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(1L))).thenReturn(source);
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(2L))).thenReturn(dest);
+        when(writingPort.getNetworkConnectionByAddress(new MacAddress(1L), new MacAddress(2L))).thenReturn(connection);
+
+        apdc.execute();
+        waitForFxThread();
+
+        verify(filter, times(1)).check(source);
+        assertEquals("device1", source.getComponent(NodeInfoComponent.class).getDeviceName());
+        assertEquals(new IPAddress(42L), source.getComponent(NodeInfoComponent.class).getIPAddress());
+    }
+
+    @Test
+    public void addPacketCommandTest_CoalesceSamePair() throws Exception {
+        final IPacketData second = createPacket(1L, 2L, "device2", new IPAddress(43L));
+        final AddPacketDataCommand other = new AddPacketDataCommand(writingPort, second, filter);
+
+        assertTrue(apdc.coalesce(other));
+        assertEquals(2, apdc.getPacketCount());
+
+        final IPacketData otherPair = createPacket(2L, 1L, "device2", new IPAddress(43L));
+        assertFalse(apdc.coalesce(new AddPacketDataCommand(writingPort, otherPair, filter)));
+        assertFalse(apdc.coalesce(new AddPacketDataCommand(mock(INetworkWritingPort.class), second, filter)));
+        assertEquals(2, apdc.getPacketCount());
+    }
+
+    @Test
+    public void addPacketCommandTest_CoalescedCommandUpdatesOnce() throws Exception {
+        final INode source = createNode(1L, "device1", new IPAddress(42L));
+        final INode dest = createNode(2L, null, null);
+        final IConnection connection = new NetworkConnection(source, dest, new EdgeStatisticsComponent(1),
+                new PacketDataLoggingComponent());
+
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(1L))).thenReturn(source);
+        when(writingPort.getNetworkNodeByAddress(new MacAddress(2L))).thenReturn(dest);
+        when(writingPort.getNetworkConnectionByAddress(new MacAddress(1L), new MacAddress(2L))).thenReturn(connection);
+
+        apdc.coalesce(new AddPacketDataCommand(writingPort, createPacket(1L, 2L, "device2", new IPAddress(43L)), filter));
+        apdc.coalesce(new AddPacketDataCommand(writingPort, createPacket(1L, 2L, null, null), filter));
+        apdc.execute();
+        waitForFxThread();
+
+        assertEquals(3, source.getComponent(NodeStatisticsComponent.class).getOutgoingCount());
+        assertEquals(3, dest.getComponent(NodeStatisticsComponent.class).getIncomingCount());
+        assertEquals(4, connection.getComponent(EdgeStatisticsComponent.class).getTraffic());
+        assertEquals(3, connection.getComponent(PacketDataLoggingComponent.class).getPackets().size());
+
+        // the latest response wins
+        assertEquals("device2", source.getComponent(NodeInfoComponent.class).getDeviceName());
+        assertEquals(new IPAddress(43L), source.getComponent(NodeInfoComponent.class).getIPAddress());
+        verify(filter, times(1)).check(source);
+    }
+
+    @Test
+    public void addPacketCommandTest_CoalescedCommandCreatesNodesOnce() throws Exception {
+        final ArgumentCaptor<INode> nodes = ArgumentCaptor.forClass(INode.class);
+
+        apdc.coalesce(new AddPacketDataCommand(writingPort, createPacket(1L, 2L, null, null), filter));
+        apdc.execute();
+
+        verify(writingPort, times(2)).writeNode(nodes.capture());
+        verify(writingPort, times(1)).writeConnection(any(IConnection.class));
+
+        assertEquals(2, nodes.getAllValues().get(0).getComponent(NodeStatisticsComponent.class).getOutgoingCount());
+        assertEquals(2, nodes.getAllValues().get(1).getComponent(NodeStatisticsComponent.class).getIncomingCount());
+        assertEquals(2, nodes.getAllValues().get(0).getComponent(PacketDataLoggingComponent.class).getPackets().size());
+    }
+
+    @Test
+    public void addPacketCommandTest_ExecuteReleasesAllPackets() throws Exception {
+        final AtomicInteger released = new AtomicInteger();
+
+        apdc = new AddPacketDataCommand(writingPort, releasing(data, released), filter);
+        apdc.coalesce(new AddPacketDataCommand(writingPort,
+                releasing(createPacket(1L, 2L, null, null), released), filter));
+
+        doThrow(new IllegalStateException()).when(writingPort).writeNode(any(INode.class));
+
+        try {
+            apdc.execute();
+        } catch (IllegalStateException e) {
+            // the packets are released even if the command fails
+        }
+
+        assertEquals(2, released.get());
+    }
+
+    private IPacketData releasing(final IPacketData packet, final AtomicInteger released) {
+        return new IPacketData() {
+            @Override
+            public <T> T getAttribute(Class<T> attributeType, String attributeIdentifier) {
+                return packet.getAttribute(attributeType, attributeIdentifier);
+            }
+
+            @Override
+            public void release() {
+                released.incrementAndGet();
+            }
+        };
+    }
+
+    private IPacketData createPacket(long source, long dest, String deviceName, IPAddress ip) throws Exception {
+        final IPacketData packet = mock(Truffle.class);
+        when(packet.getAttribute(MacAddress.class, "sourceMacAddress")).thenReturn(new MacAddress(source));
+        when(packet.getAttribute(MacAddress.class, "destMacAddress")).thenReturn(new MacAddress(dest));
+        when(packet.getAttribute(String.class, "deviceName")).thenReturn(deviceName);
+        when(packet.getAttribute(IPAddress.class, "sourceIPAddress")).thenReturn(ip);
+        when(packet.getAttribute(Boolean.class, "isResponse")).thenReturn(deviceName != null);
+        return packet;
+    }
+
+    private INode createNode(long mac, String deviceName, IPAddress ip) {
+        final NodeInfoComponent info = new NodeInfoComponent(new MacAddress(mac));
+        if (deviceName != null) {
+            info.setDeviceName(deviceName);
+        }
+        info.setIPAddress(ip);
+
+        return new NetworkNode(new MacAddress(mac), new NodeStatisticsComponent(0, 0), info,
+                new PacketDataLoggingComponent());
+    }
+
+    private void waitForFxThread() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        // the properties are updated by the pump, flush it instead of waiting for the next frame
+        javafx.application.Platform.runLater(() -> {
+            FxUpdatePump.getInstance().flush();
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+}
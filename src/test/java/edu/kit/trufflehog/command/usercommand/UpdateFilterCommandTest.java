@@ -3,15 +3,22 @@ package edu.kit.trufflehog.command.usercommand;
 import edu.kit.trufflehog.model.configdata.ConfigData;
 import edu.kit.trufflehog.model.filter.*;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterAction;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterInput;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
+import javafx.scene.paint.Color;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -111,7 +118,8 @@ public class UpdateFilterCommandTest {
     public void updateNameRegexFilterCommandTest() {
         when(filterInput.getType()).thenReturn(FilterType.NAME);
         ufc.execute();
-        verify(nwp, times(1)).applyFilter(any(NameRegexFilter.class));
+        verify(nwp, times(1)).applyFilters(anyCollection());
+        verify(nwp, times(0)).applyFilter(any(IFilter.class));
         verify(macroFilter, times(1)).addFilter(any(NameRegexFilter.class));
     }
 
@@ -121,7 +129,86 @@ public class UpdateFilterCommandTest {
         ufc.execute();
         when(filterInput.getType()).thenReturn(FilterType.IP);
         ufc.execute();
-        verify(nwp, times(2)).applyFilter(any(IPAddressFilter.class));
+        verify(nwp, times(1)).applyFilters(anyCollection());
+        verify(nwp, times(1)).applyFilter(any(IPAddressFilter.class));
         verify(macroFilter, times(2)).addFilter(any(IPAddressFilter.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void updatePacketFilterCommandTest() {
+        final PacketFilterStage stage = new PacketFilterStage();
+        ufc = new UpdateFilterCommand(configData, nwp, macroFilter, filterMap, stage);
+        ufc.setSelection(filterInput);
+        when(filterInput.getType()).thenReturn(FilterType.PACKET);
+        when(filterInput.getName()).thenReturn("rtc");
+        when(filterInput.getRules()).thenReturn(Arrays.asList("frameId in 0x8000..0xbfff"));
+        when(filterInput.isLegal()).thenReturn(false);
+
+        ufc.execute();
+        verify(macroFilter, times(0)).addFilter(any(IFilter.class));
+        assertEquals(1, stage.getRules().size());
+        assertEquals(PacketFilterAction.DROP, stage.getRules().get(0).getInput().getAction());
+
+        when(filterInput.isActive()).thenReturn(false);
+        ufc.execute();
+        assertTrue(stage.getRules().isEmpty());
+    }
+
+    @Test
+    public void updateMACFilterKeepsPacketRuleWithTheSameNameTest() throws Exception {
+        final PacketFilterStage stage = new PacketFilterStage();
+        stage.addInput(PacketFilterInput.parse("rtc, drop, 0, etherType == 0x8892", 0));
+        ufc = new UpdateFilterCommand(configData, nwp, macroFilter, filterMap, stage);
+        ufc.setSelection(filterInput);
+        when(filterInput.getType()).thenReturn(FilterType.MAC);
+        when(filterInput.getName()).thenReturn("rtc");
+
+        ufc.execute();
+        when(filterInput.isDeleted()).thenReturn(true);
+        ufc.execute();
+
+        assertEquals(1, stage.getRules().size());
+    }
+
+    @Test
+    public void updatePacketFilterToMACFilterRemovesItsRuleTest() {
+        final PacketFilterStage stage = new PacketFilterStage();
+        ufc = new UpdateFilterCommand(configData, nwp, macroFilter, filterMap, stage);
+        ufc.setSelection(filterInput);
+        when(filterInput.getType()).thenReturn(FilterType.PACKET);
+        when(filterInput.getName()).thenReturn("rtc");
+        when(filterInput.getRules()).thenReturn(Arrays.asList("frameId in 0x8000..0xbfff"));
+        ufc.execute();
+        assertEquals(1, stage.getRules().size());
+
+        when(filterInput.getType()).thenReturn(FilterType.MAC);
+        when(filterInput.getName()).thenReturn("devices");
+        when(filterInput.getRules()).thenReturn(Arrays.asList("00:00:00:00:00:01"));
+        ufc.execute();
+
+        assertTrue(stage.getRules().isEmpty());
+    }
+
+    @Test
+    public void updateColorOnlyRecolorsTheFilterTest() {
+        ufc = new UpdateFilterCommand(configData, nwp, macroFilter, new HashMap<>());
+        ufc.setSelection(filterInput);
+        when(filterInput.getType()).thenReturn(FilterType.MAC);
+        when(filterInput.getRules()).thenReturn(Arrays.asList("00:00:00:00:00:01"));
+        when(filterInput.getColor()).thenReturn(Color.RED);
+        ufc.execute();
+
+        when(filterInput.getColor()).thenReturn(Color.BLUE);
+        when(filterInput.getPriority()).thenReturn(4);
+        ufc.execute();
+
+        verify(macroFilter, times(1)).addFilter(any(MACAddressFilter.class));
+        verify(macroFilter, times(0)).removeFilter(any(IFilter.class));
+
+        when(filterInput.getRules()).thenReturn(Arrays.asList("00:00:00:00:00:02"));
+        ufc.execute();
+
+        verify(macroFilter, times(2)).addFilter(any(MACAddressFilter.class));
+        verify(macroFilter, times(1)).removeFilter(any(MACAddressFilter.class));
+    }
+}
@@ -0,0 +1,160 @@
+package edu.kit.trufflehog.model.filter;
+
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
+import javafx.scene.paint.Color;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link BulkFilterApplication} class.
+ * </p>
+ */
+public class BulkFilterApplicationTest {
+
+    private static final int NODES = 10000;
+
+    private ForkJoinPool pool;
+    private List<INode> nodes;
+    private IFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+
+        pool = new ForkJoinPool(4);
+        nodes = new ArrayList<>();
+
+        final List<String> rules = new ArrayList<>();
+
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new NetworkNode(new MacAddress(i), new NodeInfoComponent(new MacAddress(i)),
+                    new FilterPropertiesComponent()));
+
+            if (i % 10 == 0) {
+                rules.add(String.format("00:00:00:00:%02x:%02x", i >> 8, i & 0xFF));
+            }
+        }
+
+        filter = new MACAddressFilter(mock(NetworkIOPort.class), new FilterInput("test", SelectionModel.SELECTION,
+                FilterType.MAC, rules, Color.RED, true, 1));
+
+        // the updates of other tests must not be run by this one
+        FxUpdatePump.getInstance().flush();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testColorsAreAddedInOneUpdate() throws Exception {
+
+        final CompletableFuture<Integer> result = BulkFilterApplication.start(nodes,
+                Collections.singletonList(filter), pool);
+
+        awaitEvaluation();
+
+        // the colors are only added by the pump
+        assertFalse(result.isDone());
+        assertNull(nodes.get(0).getComponent(FilterPropertiesComponent.class).getFilterColor());
+
+        while (!result.isDone()) {
+            FxUpdatePump.getInstance().flush();
+        }
+
+        assertEquals(NODES / 10, (int) result.get());
+
+        for (int i = 0; i < NODES; i++) {
+            final Color color = nodes.get(i).getComponent(FilterPropertiesComponent.class).getFilterColor();
+            assertEquals(i % 10 == 0 ? Color.RED : null, color);
+        }
+
+        // the filter remembers the nodes, so it can clear them again
+        filter.clear();
+        assertNull(nodes.get(0).getComponent(FilterPropertiesComponent.class).getFilterColor());
+    }
+
+    @Test
+    public void testClearedFilterAddsNoColors() throws Exception {
+
+        final CompletableFuture<Integer> result = BulkFilterApplication.start(nodes,
+                Collections.singletonList(filter), pool);
+
+        awaitEvaluation();
+
+        // the filter is removed before the pump adds the colors it found
+        filter.clear();
+
+        while (!result.isDone()) {
+            FxUpdatePump.getInstance().flush();
+        }
+
+        for (INode node : nodes) {
+            assertNull(node.getComponent(FilterPropertiesComponent.class).getFilterColor());
+        }
+    }
+
+    @Test
+    public void testUncompiledFiltersAreCheckedInParallel() throws Exception {
+
+        final AtomicInteger checked = new AtomicInteger(0);
+        final IFilter counting = new IFilter.EmptyFilter() {
+            @Override
+            public void check(INode node) {
+                checked.incrementAndGet();
+            }
+        };
+
+        final CompletableFuture<Integer> result = BulkFilterApplication.start(nodes,
+                Collections.singletonList(counting), pool);
+
+        awaitEvaluation();
+
+        while (!result.isDone()) {
+            FxUpdatePump.getInstance().flush();
+        }
+
+        assertEquals(NODES, checked.get());
+        assertEquals(0, (int) result.get());
+    }
+
+    @Test
+    public void testEmptyNodeSet() throws Exception {
+
+        final CompletableFuture<Integer> result = BulkFilterApplication.start(Collections.emptyList(),
+                Collections.singletonList(filter), pool);
+
+        while (!result.isDone()) {
+            FxUpdatePump.getInstance().flush();
+        }
+
+        assertEquals(0, (int) result.get());
+    }
+
+    private void awaitEvaluation() {
+        // the colors are submitted to the pump once the tasks of the pool are done
+        assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+    }
+}
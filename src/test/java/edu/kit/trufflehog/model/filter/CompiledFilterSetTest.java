@@ -0,0 +1,168 @@
+package edu.kit.trufflehog.model.filter;
+
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import javafx.scene.paint.Color;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link CompiledFilterSet} class.
+ * </p>
+ */
+public class CompiledFilterSetTest {
+
+    private NetworkIOPort port;
+
+    @Before
+    public void setUp() throws Exception {
+        port = mock(NetworkIOPort.class);
+    }
+
+    @Test
+    public void testMatchMacAddresses() throws Exception {
+
+        final IFilter low = filter(FilterType.MAC, 1, "00:00:00:00:00:01", "00:00:00:00:00:02");
+        final IFilter high = filter(FilterType.MAC, 5, "00:00:00:00:00:02");
+
+        final CompiledFilterSet set = CompiledFilterSet.compile(new IFilter[] { low, high });
+
+        // the filter with the highest priority gets the lowest bit
+        assertSame(high, set.getFilter(0));
+        assertSame(low, set.getFilter(1));
+
+        assertEquals(0b10, set.match(new MacAddress(1), null, null));
+        assertEquals(0b11, set.match(new MacAddress(2), null, null));
+        assertEquals(0, set.match(new MacAddress(3), null, null));
+    }
+
+    @Test
+    public void testMatchManyMacAddresses() throws Exception {
+
+        final String[] rules = new String[1000];
+
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = String.format("00:00:00:00:%02x:%02x", i >> 8, i & 0xFF);
+        }
+
+        final CompiledFilterSet set = CompiledFilterSet.compile(new IFilter[] { filter(FilterType.MAC, 0, rules) });
+
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i < rules.length ? 1 : 0, set.match(new MacAddress(i), null, null));
+        }
+    }
+
+    @Test
+    public void testMatchOverlappingIpRanges() throws Exception {
+
+        final IFilter subnet = filter(FilterType.IP, 1, "10.0.0.0/8");
+        final IFilter host = filter(FilterType.IP, 2, "10.1.2.3", "192.168.0.0/24");
+
+        final CompiledFilterSet set = CompiledFilterSet.compile(new IFilter[] { subnet, host });
+
+        assertEquals(0, set.match(null, new IPAddress(0x09FFFFFFL), null));
+        assertEquals(0b10, set.match(null, new IPAddress(0x0A000000L), null));
+        assertEquals(0b11, set.match(null, new IPAddress(0x0A010203L), null));
+        assertEquals(0b10, set.match(null, new IPAddress(0x0A010204L), null));
+        assertEquals(0b10, set.match(null, new IPAddress(0x0AFFFFFFL), null));
+        assertEquals(0, set.match(null, new IPAddress(0x0B000000L), null));
+        assertEquals(0b01, set.match(null, new IPAddress(0xC0A800FFL), null));
+        assertEquals(0, set.match(null, new IPAddress(0xC0A80100L), null));
+    }
+
+    @Test
+    public void testMatchNames() throws Exception {
+
+        final IFilter printers = filter(FilterType.NAME, 3, "printer-.*", ".*-lp");
+        final IFilter office = filter(FilterType.NAME, 2, "office-.*");
+        final IFilter empty = filter(FilterType.NAME, 1);
+
+        final CompiledFilterSet set = CompiledFilterSet.compile(new IFilter[] { empty, office, printers });
+
+        assertEquals(0b001, set.match(null, null, "printer-1"));
+        assertEquals(0b011, set.match(null, null, "office-lp"));
+        assertEquals(0b010, set.match(null, null, "office-pc"));
+        assertEquals(0, set.match(null, null, "laptop"));
+    }
+
+    @Test
+    public void testMatchNamesWithBackReferences() throws Exception {
+
+        final IFilter repeated = filter(FilterType.NAME, 2, "x(a)\\1", "(b)\\1");
+        final IFilter named = filter(FilterType.NAME, 1, "(?<n>c)\\k<n>");
+
+        final CompiledFilterSet set = CompiledFilterSet.compile(new IFilter[] { repeated, named });
+
+        assertEquals(0b01, set.match(null, null, "xaa"));
+        assertEquals(0b01, set.match(null, null, "bb"));
+        assertEquals(0b10, set.match(null, null, "cc"));
+        assertEquals(0, set.match(null, null, "bc"));
+    }
+
+    @Test
+    public void testCheckAddsColorsOfAllMatchingFilters() throws Exception {
+
+        final IFilter mac = filter(FilterType.MAC, 1, "00:00:00:00:00:07");
+        final IFilter name = filter(FilterType.NAME, 2, "host");
+        final IFilter other = mock(IFilter.class);
+
+        final CompiledFilterSet set = CompiledFilterSet.compile(new IFilter[] { mac, name, other });
+
+        final INode node = node(7, "host");
+        set.check(node);
+
+        final FilterPropertiesComponent properties = node.getComponent(FilterPropertiesComponent.class);
+
+        assertTrue(properties.getFilterColors().containsKey(mac));
+        assertTrue(properties.getFilterColors().containsKey(name));
+        verify(other).check(node);
+    }
+
+    @Test
+    public void testIsCompiledFrom() throws Exception {
+
+        final IFilter[] filters = new IFilter[] { filter(FilterType.MAC, 1) };
+        final CompiledFilterSet set = CompiledFilterSet.compile(filters);
+
+        assertTrue(set.isCompiledFrom(filters));
+        assertFalse(set.isCompiledFrom(filters.clone()));
+    }
+
+    private IFilter filter(FilterType type, int priority, String... rules) throws Exception {
+
+        final FilterInput input = new FilterInput(type + "-" + priority, SelectionModel.SELECTION, type,
+                Arrays.asList(rules), Color.color(0, 0, priority / 10.0), true, priority);
+
+        switch (type) {
+            case MAC:
+                return new MACAddressFilter(port, input);
+            case IP:
+                return new IPAddressFilter(port, input);
+            default:
+                return new NameRegexFilter(port, input);
+        }
+    }
+
+    private INode node(long mac, String name) throws Exception {
+
+        final NodeInfoComponent info = new NodeInfoComponent(new MacAddress(mac));
+        info.setDeviceName(name);
+
+        return new NetworkNode(new MacAddress(mac), info, new FilterPropertiesComponent());
+    }
+}
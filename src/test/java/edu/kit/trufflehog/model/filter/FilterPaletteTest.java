@@ -0,0 +1,125 @@
+package edu.kit.trufflehog.model.filter;
+
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import javafx.scene.paint.Color;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link FilterPalette} class.
+ * </p>
+ */
+public class FilterPaletteTest {
+
+    private FilterPalette palette;
+
+    @Before
+    public void setUp() throws Exception {
+        palette = new FilterPalette();
+    }
+
+    @Test
+    public void testRegisterKeepsTheId() throws Exception {
+
+        final IFilter first = filter(1, Color.RED);
+        final IFilter second = filter(2, Color.BLUE);
+
+        final int id = palette.register(first, Color.RED);
+
+        assertEquals(id, palette.register(first, Color.RED));
+        assertEquals(id, palette.idOf(first));
+        assertTrue(palette.register(second, Color.BLUE) != id);
+        assertEquals(first, palette.getFilter(id));
+        assertEquals(Color.RED, palette.getColor(id));
+    }
+
+    @Test
+    public void testResolveUsesTheHighestPriority() throws Exception {
+
+        final long low = 1L << palette.register(filter(1, Color.RED), Color.RED);
+        final long high = 1L << palette.register(filter(5, Color.BLUE), Color.BLUE);
+        final long middle = 1L << palette.register(filter(3, Color.GREEN), Color.GREEN);
+
+        assertNull(palette.resolve(0));
+        assertEquals(Color.RED, palette.resolve(low));
+        assertEquals(Color.BLUE, palette.resolve(low | high | middle));
+        assertEquals(Color.GREEN, palette.resolve(low | middle));
+    }
+
+    @Test
+    public void testUpdateChangesThePriority() throws Exception {
+
+        final IFilter changed = filter(1, Color.RED);
+        final long mask = 1L << palette.register(changed, Color.RED) | 1L << palette.register(filter(2, Color.BLUE),
+                Color.BLUE);
+
+        assertEquals(Color.BLUE, palette.resolve(mask));
+
+        when(changed.getPriority()).thenReturn(3);
+
+        assertTrue(palette.update(changed));
+        assertEquals(Color.RED, palette.resolve(mask));
+    }
+
+    @Test
+    public void testReleasedIdsAreReused() throws Exception {
+
+        final IFilter[] filters = new IFilter[FilterPalette.CAPACITY];
+
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = filter(i, Color.RED);
+            assertEquals(i, palette.register(filters[i], Color.RED));
+        }
+
+        assertEquals(-1, palette.register(filter(0, Color.BLUE), Color.BLUE));
+
+        palette.release(filters[7]);
+
+        assertEquals(-1, palette.idOf(filters[7]));
+        assertNull(palette.getFilter(7));
+        assertEquals(7, palette.register(filter(0, Color.BLUE), Color.BLUE));
+    }
+
+    @Test
+    public void testFiltersBeyondTheCapacityStillColorNodes() throws Exception {
+
+        final FilterPropertiesComponent component = new FilterPropertiesComponent(palette);
+
+        for (int i = 0; i < FilterPalette.CAPACITY; i++) {
+            component.addFilterColor(filter(i, Color.RED), Color.RED);
+        }
+
+        final IFilter spilled = filter(FilterPalette.CAPACITY, Color.BLUE);
+        component.addFilterColor(spilled, Color.BLUE);
+
+        assertEquals(-1, palette.idOf(spilled));
+        assertEquals(Color.BLUE, component.getFilterColor());
+        assertEquals(FilterPalette.CAPACITY + 1, component.getFilterColors().size());
+
+        final FilterPropertiesComponent copy = new FilterPropertiesComponent(palette);
+        copy.setFilterColors(component);
+
+        assertEquals(Color.BLUE, copy.getFilterColor());
+
+        component.removeFilterColor(spilled);
+
+        assertEquals(Color.RED, component.getFilterColor());
+        assertTrue(component.getHasColor());
+    }
+
+    private IFilter filter(int priority, Color color) {
+
+        final IFilter filter = mock(IFilter.class);
+        when(filter.getPriority()).thenReturn(priority);
+        when(filter.getFilterColor()).thenReturn(color);
+
+        return filter;
+    }
+}
@@ -1,15 +1,26 @@
 package edu.kit.trufflehog.model.filter;
 
+import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import javafx.scene.paint.Color;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -54,4 +65,26 @@ public class MACAddressFilterTest {
         assertTrue("lowPrio should be less than highPrio", lowPrio.compareTo(highPrio) < 0);
         assertTrue("highPrio should be greater than lowPrio", highPrio.compareTo(lowPrio) > 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void clear_only_touches_matched_nodes() throws Exception {
+        IFilter filter = new MACAddressFilter(networkIOPortMock, new FilterInput("test", SelectionModel.SELECTION,
+                FilterType.MAC, Arrays.asList("00:00:00:00:00:01"), Color.RED, true, 0));
+
+        INode matching = new NetworkNode(new MacAddress(1), new NodeInfoComponent(new MacAddress(1)),
+                new FilterPropertiesComponent());
+        INode other = new NetworkNode(new MacAddress(2), new NodeInfoComponent(new MacAddress(2)),
+                new FilterPropertiesComponent());
+
+        filter.check(matching);
+        filter.check(other);
+
+        assertEquals(Color.RED, matching.getComponent(FilterPropertiesComponent.class).getFilterColor());
+        assertNull(other.getComponent(FilterPropertiesComponent.class).getFilterColor());
+
+        filter.clear();
+
+        assertNull(matching.getComponent(FilterPropertiesComponent.class).getFilterColor());
+        verify(networkIOPortMock, never()).getNetworkNodes();
+    }
+}
@@ -0,0 +1,125 @@
+package edu.kit.trufflehog.model.filter;
+
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import javafx.scene.paint.Color;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link MacroFilter} class.
+ * </p>
+ */
+public class MacroFilterTest {
+
+    private NetworkIOPort port;
+    private List<Runnable> pending;
+    private MacroFilter macroFilter;
+    private INode node;
+
+    @Before
+    public void setUp() throws Exception {
+
+        port = mock(NetworkIOPort.class);
+        pending = new ArrayList<>();
+        macroFilter = new MacroFilter(pending::add);
+
+        final NodeInfoComponent info = new NodeInfoComponent(new MacAddress(0xAB));
+        info.setDeviceName("server");
+
+        node = new NetworkNode(new MacAddress(0xAB), info, new FilterPropertiesComponent());
+        when(port.getNetworkNodes()).thenReturn(Collections.singletonList(node));
+    }
+
+    @Test
+    public void testCheckBeforeAndAfterCompiling() throws Exception {
+
+        final IFilter filter = macFilter("00:00:00:00:00:ab");
+        macroFilter.addFilter(filter);
+
+        // not compiled yet, the filter is checked on its own
+        macroFilter.check(node);
+        assertEquals(Color.RED, node.getComponent(FilterPropertiesComponent.class).getFilterColor());
+
+        compile();
+
+        assertTrue(macroFilter.getCompiled().getFilter(0) == filter);
+        node.getComponent(FilterPropertiesComponent.class).removeFilterColor(filter);
+        macroFilter.check(node);
+        assertEquals(Color.RED, node.getComponent(FilterPropertiesComponent.class).getFilterColor());
+    }
+
+    @Test
+    public void testRemoveFilter() throws Exception {
+
+        final IFilter filter = macFilter("00:00:00:00:00:ab");
+        macroFilter.addFilter(filter);
+        compile();
+
+        macroFilter.check(node);
+        macroFilter.removeFilter(filter);
+
+        assertNull(node.getComponent(FilterPropertiesComponent.class).getFilterColor());
+
+        // the old compiled set must not be used any more, even before the filters are compiled again
+        macroFilter.check(node);
+        assertNull(node.getComponent(FilterPropertiesComponent.class).getFilterColor());
+
+        compile();
+        macroFilter.check(node);
+        assertNull(node.getComponent(FilterPropertiesComponent.class).getFilterColor());
+    }
+
+    @Test
+    public void testChangesAreCompiledOnce() throws Exception {
+
+        macroFilter.addFilter(macFilter("00:00:00:00:00:01"));
+        macroFilter.addFilter(macFilter("00:00:00:00:00:02"));
+
+        pending.get(0).run();
+        final CompiledFilterSet compiled = macroFilter.getCompiled();
+        pending.get(1).run();
+
+        assertTrue(compiled == macroFilter.getCompiled());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+
+        final IFilter filter = mock(IFilter.class);
+        macroFilter.addFilter(filter);
+        macroFilter.clear();
+        compile();
+
+        verify(filter).clear();
+        macroFilter.check(node);
+        verify(filter, never()).check(node);
+    }
+
+    private void compile() {
+        pending.forEach(Runnable::run);
+        pending.clear();
+    }
+
+    private IFilter macFilter(String rule) throws Exception {
+        return new MACAddressFilter(port, new FilterInput(rule, SelectionModel.SELECTION, FilterType.MAC,
+                Collections.singletonList(rule), Color.RED, true, 1));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -125,4 +126,25 @@ public class IPAddressTest {
 
         assertTrue("IPAddress(4294967296) should be greater than IPAddress(1) but is not", a1.compareTo(b1) > 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void toString_returns_dotted_decimal() throws Exception {
+        assertEquals("123.121.42.137", new IPAddress(2071538313L).toString());
+        assertEquals("0.0.0.0", new IPAddress(0).toString());
+        assertEquals("255.255.255.255", new IPAddress(0xFFFFFFFFL).toString());
+    }
+
+    @Test
+    public void of_returns_the_cached_instance() throws Exception {
+        final IPAddress address = IPAddress.of(0xC0A80001L);
+
+        assertSame(address, IPAddress.of(0xC0A80001L));
+        assertEquals(new IPAddress(0xC0A80001L), address);
+        assertEquals("192.168.0.1", address.toString());
+    }
+
+    @Test(expected = InvalidIPAddress.class)
+    public void of_throws_on_too_large_address() throws Exception {
+        IPAddress.of(0x100000000L);
+    }
+}
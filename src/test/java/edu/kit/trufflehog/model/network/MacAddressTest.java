@@ -12,6 +12,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -144,4 +145,19 @@ public class MacAddressTest {
         assertFalse("08:00:0C:C5:CC:22 should not be multicast but is", new MacAddress(0x08000CC5CC22L).isMulticast());
         assertFalse("34:33:AA:BB:BA:AB should not be multicast but is", new MacAddress(0x3433AABBBAABL).isMulticast());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void of_returns_the_cached_instance() throws Exception {
+
+        final MacAddress mac = MacAddress.of(0x0A1B2C3D4E5FL);
+
+        assertSame(mac, MacAddress.of(0x0A1B2C3D4E5FL));
+        assertEquals(new MacAddress(0x0A1B2C3D4E5FL), mac);
+        assertEquals("0a:1b:2c:3d:4e:5f", mac.toString());
+    }
+
+    @Test(expected = InvalidMACAddress.class)
+    public void of_throws_on_too_large_address() throws Exception {
+        MacAddress.of(0xFFFFFFFFFFFFFL);
+    }
+}
@@ -0,0 +1,149 @@
+package edu.kit.trufflehog.model.network;
+
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.util.collections.ConcurrentLongObjectMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link NodeAttributeIndex} class.
+ * </p>
+ */
+public class NodeAttributeIndexTest {
+
+    private ConcurrentLongObjectMap<INode> nodesByMac;
+    private NodeAttributeIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        nodesByMac = new ConcurrentLongObjectMap<>();
+        index = new NodeAttributeIndex(nodesByMac);
+    }
+
+    @Test
+    public void testIPAddressRange() throws Exception {
+
+        final INode low = node(1, 0x0A000001L, null);
+        final INode mid = node(2, 0x0A000080L, null);
+        final INode high = node(3, 0x0B000000L, null);
+        node(4, -1, null);
+
+        assertEquals(2, ipRange(0x0A000000L, 0x0AFFFFFFL).size());
+        assertTrue(ipRange(0x0A000000L, 0x0AFFFFFFL).contains(low));
+        assertTrue(ipRange(0x0A000000L, 0x0AFFFFFFL).contains(mid));
+        assertEquals(1, ipRange(0x0A000080L, 0x0A000080L).size());
+        assertEquals(high, ipRange(0x0A000081L, 0xFFFFFFFFL).get(0));
+        assertEquals(0, ipRange(0x0A000081L, 0x0A000080L).size());
+    }
+
+    @Test
+    public void testNodesWithTheSameAttributes() throws Exception {
+
+        node(1, 0x0A000001L, "printer");
+        node(2, 0x0A000001L, "printer");
+        node(3, 0x0A000002L, "laptop");
+
+        assertEquals(2, ipRange(0x0A000001L, 0x0A000001L).size());
+        assertEquals(2, names("printer").size());
+    }
+
+    @Test
+    public void testUpdateMovesChangedNodes() throws Exception {
+
+        final INode node = node(1, 0x0A000001L, "old");
+        final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+
+        info.setIPAddress(new IPAddress(0x0A000002L));
+        info.setDeviceName("new");
+        index.update(node);
+
+        assertEquals(0, ipRange(0x0A000001L, 0x0A000001L).size());
+        assertEquals(1, ipRange(0x0A000002L, 0x0A000002L).size());
+        assertEquals(0, names("old").size());
+        assertEquals(1, names("new").size());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+
+        final INode node = node(1, 0x0A000001L, "name");
+        node(2, 0x0A000001L, "name");
+
+        index.remove(node);
+
+        assertEquals(1, ipRange(0x0A000001L, 0x0A000001L).size());
+        assertEquals(1, names("name").size());
+
+        index.remove(node);
+        assertEquals(1, names("name").size());
+    }
+
+    @Test
+    public void testPredicateIsCalledOncePerName() throws Exception {
+
+        for (int i = 0; i < 100; i++) {
+            node(i + 1, -1, i % 2 == 0 ? "even" : "odd");
+        }
+
+        final List<String> tested = new ArrayList<>();
+        final List<INode> found = new ArrayList<>();
+
+        index.forEachWithDeviceName(name -> tested.add(name) && name.equals("even"), found::add);
+
+        assertEquals(2, tested.size());
+        assertEquals(50, found.size());
+    }
+
+    @Test
+    public void testMacAddress() throws Exception {
+
+        final INode node = node(7, -1, null);
+
+        final List<INode> found = new ArrayList<>();
+        index.forEachWithMacAddress(new MacAddress(7), found::add);
+        index.forEachWithMacAddress(new MacAddress(8), found::add);
+
+        assertEquals(1, found.size());
+        assertEquals(node, found.get(0));
+    }
+
+    private INode node(long mac, long ip, String name) throws Exception {
+
+        final NodeInfoComponent info = new NodeInfoComponent(new MacAddress(mac));
+
+        if (ip >= 0) {
+            info.setIPAddress(new IPAddress(ip));
+        }
+
+        if (name != null) {
+            info.setDeviceName(name);
+        }
+
+        final INode node = new NetworkNode(new MacAddress(mac), info);
+        nodesByMac.put(mac, node);
+        index.update(node);
+
+        return node;
+    }
+
+    private List<INode> ipRange(long from, long to) {
+        final List<INode> found = new ArrayList<>();
+        index.forEachWithIPAddressBetween(from, to, found::add);
+        return found;
+    }
+
+    private List<INode> names(String name) {
+        final List<INode> found = new ArrayList<>();
+        index.forEachWithDeviceName(name::equals, found::add);
+        return found;
+    }
+}
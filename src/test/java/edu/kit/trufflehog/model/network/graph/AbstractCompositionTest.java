@@ -6,12 +6,20 @@ import edu.kit.trufflehog.model.network.graph.components.ComponentInfoCollector;
 import edu.kit.trufflehog.model.network.graph.components.ComponentInfoVisitor;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
 /**
  * \brief
  * \details
@@ -46,31 +54,52 @@ public class AbstractCompositionTest {
     @Test
     public void testAddComponent() throws Exception {
 
+        final NodeStatisticsComponent other = new NodeStatisticsComponent(1, 1);
+
+        assertNotNull(node.addComponent(other));
+        assertNull(node.addComponent(new PacketDataLoggingComponent()));
+        assertEquals(3, node.size());
     }
 
     @Test
     public void testRemoveComponent() throws Exception {
 
+        final NodeStatisticsComponent statistics = node.getComponent(NodeStatisticsComponent.class);
+
+        assertSame(statistics, node.removeComponent(NodeStatisticsComponent.class));
+        assertNull(node.getComponent(NodeStatisticsComponent.class));
+        assertNull(node.removeComponent(NodeStatisticsComponent.class));
+        assertEquals(1, node.size());
     }
 
     @Test
     public void testGetComponent() throws Exception {
 
+        assertEquals(5, node.getComponent(NodeStatisticsComponent.class).getOutgoingCount());
+        assertNotNull(node.getComponent(NodeInfoComponent.class));
+        assertNull(node.getComponent(PacketDataLoggingComponent.class));
+        assertNull(node.getComponent(IComponent.class));
     }
 
     @Test
     public void testSize() throws Exception {
 
+        assertEquals(2, node.size());
     }
 
     @Test
     public void testIsEmpty() throws Exception {
 
+        assertFalse(node.isEmpty());
+        node.clear();
+        assertTrue(node.isEmpty());
     }
 
     @Test
     public void testContains() throws Exception {
 
+        assertTrue(node.contains(new NodeStatisticsComponent(0, 0)));
+        assertFalse(node.contains(new PacketDataLoggingComponent()));
     }
 
     @Test
@@ -86,6 +115,43 @@ public class AbstractCompositionTest {
 
     }
 
+    @Test
+    public void testForEachMutableComponent() throws Exception {
+
+        final List<IComponent> mutable = new ArrayList<>();
+
+        node.forEachMutableComponent(mutable::add);
+        assertEquals(2, mutable.size());
+
+        node.removeComponent(NodeStatisticsComponent.class);
+        mutable.clear();
+        node.forEachMutableComponent(mutable::add);
+
+        assertEquals(1, mutable.size());
+        assertTrue(mutable.get(0) instanceof NodeInfoComponent);
+    }
+
+    @Test
+    public void testIteratorRemove() throws Exception {
+
+        node.addComponent(new PacketDataLoggingComponent());
+
+        final Iterator<IComponent> iterator = node.iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next() instanceof NodeInfoComponent) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(2, node.size());
+        assertNull(node.getComponent(NodeInfoComponent.class));
+
+        final List<IComponent> mutable = new ArrayList<>();
+        node.forEachMutableComponent(mutable::add);
+        assertEquals(2, mutable.size());
+    }
+
     @Test
     public void testToArray() throws Exception {
 
@@ -119,6 +185,11 @@ public class AbstractCompositionTest {
     @Test
     public void testRemoveAll() throws Exception {
 
+        final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+
+        assertTrue(node.removeAll(Arrays.asList(info, new PacketDataLoggingComponent())));
+        assertFalse(node.removeAll(Arrays.asList(info)));
+        assertEquals(1, node.size());
     }
 
     @Test
@@ -1,16 +1,39 @@
 package edu.kit.trufflehog.model.network.graph;
 
+import edu.kit.trufflehog.model.filter.FilterInput;
+import edu.kit.trufflehog.model.filter.FilterType;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.filter.IPAddressFilter;
+import edu.kit.trufflehog.model.filter.SelectionModel;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.IPAddress;
 import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import edu.uci.ics.jung.graph.DirectedSparseGraph;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.event.GraphEvent;
 import edu.uci.ics.jung.graph.util.Graphs;
+import javafx.scene.paint.Color;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by jan on 23.02.16.
@@ -67,4 +90,224 @@ public class NetworkIOPortTest {
 
         assertEquals(connection, getCon);
     }
-}
\ No newline at end of file
+
+    /**
+     * Several writers race to write the same nodes and connections while a reader iterates the network. Every
+     * address has to end up with one node that is both in the graph and in the index, and no written packet count
+     * may be lost by the merges.
+     */
+    @Test
+    public void testConcurrentWriters() throws Exception {
+
+        final int writers = 4;
+        final int nodes = 1000;
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Thread reader = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    port.getNetworkNodes().forEach(INode::getAddress);
+                    port.getNetworkConnections().forEach(IConnection::getSrc);
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+
+        final Thread[] threads = new Thread[writers];
+
+        for (int w = 0; w < writers; w++) {
+            threads[w] = new Thread(() -> {
+                try {
+                    for (long i = 0; i < nodes; i++) {
+                        port.writeNode(new NetworkNode(new MacAddress(i), new NodeStatisticsComponent(1, 0)));
+                    }
+
+                    for (long i = 0; i < nodes; i++) {
+                        port.writeConnection(new NetworkConnection(port.getNetworkNodeByAddress(new MacAddress(i)),
+                                port.getNetworkNodeByAddress(new MacAddress((i + 1) % nodes))));
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            threads[w].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        done.set(true);
+        reader.join();
+
+        assertNull(String.valueOf(failure.get()), failure.get());
+        assertEquals(nodes, port.getNetworkNodes().size());
+        assertEquals(nodes, port.getNetworkConnections().size());
+        assertEquals(nodes, port.getGraph().getVertexCount());
+        assertEquals(nodes, port.getGraph().getEdgeCount());
+
+        for (INode node : port.getGraph().getVertices()) {
+            assertSame(node, port.getNetworkNodeByAddress(node.getAddress()));
+            assertEquals(writers, node.getComponent(NodeStatisticsComponent.class).getOutgoingCount());
+        }
+    }
+
+    @Test
+    public void testWritersDoNotWaitForTheGraph() throws Exception {
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+
+        // the first node that is added to the graph blocks the thread that writes the graph
+        port.getGraph().addGraphEventListener(event -> {
+            if (event.getType() == GraphEvent.Type.VERTEX_ADDED && blocked.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        final Thread graphWriter = new Thread(() -> port.writeNode(new NetworkNode(new MacAddress(1L))));
+        graphWriter.start();
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        final INode other = new NetworkNode(new MacAddress(2L));
+        final Thread writer = new Thread(() -> port.writeNode(other));
+        writer.start();
+        writer.join(5000);
+
+        assertFalse(writer.isAlive());
+        assertSame(other, port.getNetworkNodeByAddress(new MacAddress(2L)));
+
+        unblock.countDown();
+        graphWriter.join(5000);
+
+        // the thread that wrote the graph also added the node of the other writer
+        assertTrue(port.getGraph().containsVertex(other));
+        assertEquals(2, port.getGraph().getVertexCount());
+    }
+
+    @Test
+    public void testIterateWithoutCopy() throws Exception {
+
+        for (long i = 0; i < 1000; i++) {
+            port.writeNode(new NetworkNode(new MacAddress(i)));
+        }
+
+        for (long i = 0; i < 1000; i++) {
+            port.writeConnection(new NetworkConnection(port.getNetworkNodeByAddress(new MacAddress(i)),
+                    port.getNetworkNodeByAddress(new MacAddress((i + 1) % 1000))));
+        }
+
+        final int[] nodes = {0};
+        port.forEachNode(node -> nodes[0]++);
+        assertEquals(1000, nodes[0]);
+
+        final int[] connections = {0};
+        port.forEachConnection(connection -> connections[0]++);
+        assertEquals(1000, connections[0]);
+
+        assertEquals(1000, port.nodes().parallel().map(INode::getAddress).distinct().count());
+        assertEquals(1000, port.connections().parallel().count());
+        assertEquals(1000, port.getNetworkNodes().size());
+    }
+
+    @Test
+    public void testRemoveNode() throws Exception {
+
+        final INode source = new NetworkNode(new MacAddress(1L));
+        final INode dest = new NetworkNode(new MacAddress(2L));
+        final INode other = new NetworkNode(new MacAddress(3L));
+
+        port.writeNode(source);
+        port.writeNode(dest);
+        port.writeNode(other);
+        port.writeConnection(new NetworkConnection(source, dest));
+        port.writeConnection(new NetworkConnection(other, dest));
+
+        // a node that is equal but was not written is not removed
+        assertFalse(port.removeNode(new NetworkNode(new MacAddress(1L))));
+
+        assertTrue(port.removeNode(source));
+        assertFalse(port.removeNode(source));
+
+        assertNull(port.getNetworkNodeByAddress(new MacAddress(1L)));
+        assertNull(port.getNetworkConnectionByAddress(new MacAddress(1L), new MacAddress(2L)));
+        assertEquals(2, port.getNetworkNodes().size());
+        assertEquals(1, port.getNetworkConnections().size());
+        assertEquals(2, port.getGraph().getVertexCount());
+        assertEquals(1, port.getGraph().getEdgeCount());
+    }
+
+    /**
+     * A writer may still hold a node that was removed, writing a connection to it has to bring the node back into
+     * the index and not only into the graph.
+     */
+    @Test
+    public void testWriteConnectionToRemovedNode() throws Exception {
+
+        final INode source = new NetworkNode(new MacAddress(1L));
+        final INode dest = new NetworkNode(new MacAddress(2L));
+
+        port.writeNode(source);
+        port.writeNode(dest);
+        port.removeNode(dest);
+
+        port.writeConnection(new NetworkConnection(source, dest));
+
+        assertSame(dest, port.getNetworkNodeByAddress(new MacAddress(2L)));
+        assertEquals(2, port.getGraph().getVertexCount());
+        assertEquals(1, port.getNetworkConnections().size());
+    }
+
+    /**
+     * Applying a filter only checks the nodes the filter finds in the index of the node attributes, also after the
+     * attributes of a node changed.
+     */
+    @Test
+    public void testApplyFilterChecksIndexedNodes() throws Exception {
+
+        final INode[] nodes = new INode[10];
+
+        for (int i = 0; i < nodes.length; i++) {
+            final NodeInfoComponent info = new NodeInfoComponent(new MacAddress(i + 1));
+            info.setIPAddress(new IPAddress(0x0A000000L + i));
+            nodes[i] = new NetworkNode(new MacAddress(i + 1), info, new FilterPropertiesComponent());
+            port.writeNode(nodes[i]);
+        }
+
+        final List<INode> checked = new ArrayList<>();
+        final IFilter filter = new IPAddressFilter(port, new FilterInput("test", SelectionModel.SELECTION,
+                FilterType.IP, Arrays.asList("10.0.0.2", "10.0.0.5"), Color.RED, true, 1)) {
+            @Override
+            public void check(INode node) {
+                checked.add(node);
+                super.check(node);
+            }
+        };
+
+        port.applyFilter(filter);
+
+        assertEquals(2, checked.size());
+        assertTrue(checked.contains(nodes[2]) && checked.contains(nodes[5]));
+        assertEquals(Color.RED, nodes[2].getComponent(FilterPropertiesComponent.class).getFilterColor());
+        assertNull(nodes[3].getComponent(FilterPropertiesComponent.class).getFilterColor());
+
+        // the node is written again after its address changed, so that the index is updated
+        nodes[3].getComponent(NodeInfoComponent.class).setIPAddress(new IPAddress(0x0A000005L));
+        port.writeNode(nodes[3]);
+        port.removeNode(nodes[2]);
+
+        checked.clear();
+        port.applyFilter(filter);
+
+        assertEquals(2, checked.size());
+        assertTrue(checked.contains(nodes[3]) && checked.contains(nodes[5]));
+    }
+}
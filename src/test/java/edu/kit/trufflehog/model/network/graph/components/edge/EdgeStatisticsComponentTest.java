@@ -1,5 +1,7 @@
 package edu.kit.trufflehog.model.network.graph.components.edge;
 
+import org.junit.Test;
+
 import static org.junit.Assert.*;
 
 /**
@@ -8,4 +10,37 @@ import static org.junit.Assert.*;
  */
 public class EdgeStatisticsComponentTest {
 
-}
\ No newline at end of file
+    @Test
+    public void testTraffic() throws Exception {
+
+        final EdgeStatisticsComponent component = new EdgeStatisticsComponent(Integer.MAX_VALUE);
+
+        component.incrementTraffic(Integer.MAX_VALUE);
+        assertEquals(2L * Integer.MAX_VALUE, component.getTraffic());
+
+        component.setTrafficProperty(5);
+        assertEquals(5, component.getTraffic());
+    }
+
+    @Test
+    public void testConcurrentIncrementsAreNotLost() throws Exception {
+
+        final EdgeStatisticsComponent component = new EdgeStatisticsComponent(0);
+        final Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    component.incrementTraffic(1);
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400000, component.getTraffic());
+    }
+}
@@ -1,13 +1,20 @@
 package edu.kit.trufflehog.model.network.graph.components.node;
 
+import edu.kit.trufflehog.model.filter.FilterPalette;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.filter.IPAddressFilter;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
 import javafx.scene.paint.Color;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.when;
 
@@ -66,6 +73,90 @@ public class FilterPropertiesComponentTest {
         assertEquals(0, component.getFilterColors().size());
     }
 
+    @Test
+    public void getFilterColorUsesHighestPriority() throws Exception {
+        FilterPropertiesComponent component = new FilterPropertiesComponent();
+        IFilter low = Mockito.mock(IPAddressFilter.class);
+        IFilter high = Mockito.mock(IPAddressFilter.class);
+        when(low.getPriority()).thenReturn(1);
+        when(high.getPriority()).thenReturn(2);
+
+        component.addFilterColor(low, Color.RED);
+        component.addFilterColor(high, Color.BLUE);
+
+        assertEquals(Color.BLUE, component.getFilterColor());
+
+        component.removeFilterColor(high);
+
+        assertEquals(Color.RED, component.getFilterColor());
+    }
+
+    @Test
+    public void propertiesAreMirroredByThePump() throws Exception {
+        FxUpdatePump.getInstance().flush();
+
+        FilterPropertiesComponent component = new FilterPropertiesComponent();
+        IFilter filter = Mockito.mock(IPAddressFilter.class);
+
+        component.addFilterColor(filter, Color.RED);
+
+        assertTrue(component.getHasColor());
+        assertFalse(component.hasColorProperty().get());
+        assertNull(component.activeColorProperty().get());
+
+        FxUpdatePump.getInstance().flush();
+
+        assertTrue(component.hasColorProperty().get());
+        assertEquals(Color.RED, component.activeColorProperty().get());
+    }
+
+    @Test
+    public void addAndSetFilterColorsOfOtherComponent() throws Exception {
+        FilterPropertiesComponent component = new FilterPropertiesComponent();
+        FilterPropertiesComponent other = new FilterPropertiesComponent();
+        IFilter filter1 = Mockito.mock(IPAddressFilter.class);
+        IFilter filter2 = Mockito.mock(IPAddressFilter.class);
+
+        component.addFilterColor(filter1, Color.RED);
+        other.addFilterColor(filter2, Color.BLUE);
+
+        component.addFilterColors(other);
+
+        assertEquals(2, component.getFilterColors().size());
+
+        component.setFilterColors(other);
+
+        assertEquals(1, component.getFilterColors().size());
+        assertTrue(component.getFilterColors().containsEntry(filter2, Color.BLUE));
+    }
+
+    @Test
+    public void recolorAfterPriorityChange() throws Exception {
+        FxUpdatePump.getInstance().flush();
+
+        IFilter changed = Mockito.mock(IPAddressFilter.class);
+        IFilter other = Mockito.mock(IPAddressFilter.class);
+        when(changed.getPriority()).thenReturn(1);
+        when(changed.getFilterColor()).thenReturn(Color.RED);
+        when(other.getPriority()).thenReturn(2);
+
+        FilterPropertiesComponent component = new FilterPropertiesComponent();
+        INode node = new NetworkNode(new MacAddress(1), component);
+
+        component.addFilterColor(changed, Color.RED);
+        component.addFilterColor(other, Color.BLUE);
+        FxUpdatePump.getInstance().flush();
+
+        assertEquals(Color.BLUE, component.activeColorProperty().get());
+
+        when(changed.getPriority()).thenReturn(3);
+        FilterPalette.getInstance().update(changed);
+        FilterPropertiesComponent.recolor(Collections.singletonList(node));
+        FxUpdatePump.getInstance().flush();
+
+        assertEquals(Color.RED, component.activeColorProperty().get());
+    }
+
     @After
     public void tearDown() throws Exception {
 
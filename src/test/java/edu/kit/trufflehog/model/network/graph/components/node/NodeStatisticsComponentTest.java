@@ -24,6 +24,46 @@ public class NodeStatisticsComponentTest {
         assertTrue(component.equals(new NodeStatisticsComponent(1, 1)));
     }
 
+    @Test
+    public void testConcurrentIncrementsAreNotLost() throws Exception {
+
+        final NodeStatisticsComponent component = new NodeStatisticsComponent(0, 0);
+        final Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    component.addOutgoingCount(1);
+                    component.addIncomingCount(2);
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400000, component.getOutgoingCount());
+        assertEquals(800000, component.getIncomingCount());
+        assertEquals(1200000, component.getCommunicationCount());
+    }
+
+    @Test
+    public void testCountsDoNotOverflow() throws Exception {
+
+        final NodeStatisticsComponent component = new NodeStatisticsComponent(Integer.MAX_VALUE, 0);
+
+        component.addOutgoingCount(Integer.MAX_VALUE);
+        component.addIncomingCount(1);
+
+        assertEquals(2L * Integer.MAX_VALUE, component.getOutgoingCount());
+        assertEquals(2L * Integer.MAX_VALUE + 1, component.getCommunicationCount());
+
+        component.setOutgoingCount(3);
+        assertEquals(3, component.getOutgoingCount());
+    }
+
     @After
     public void tearDown() throws Exception {
 
@@ -2,13 +2,21 @@ package edu.kit.trufflehog.model.network.graph.components.node;
 
 import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketSegmentFile;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketStore;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.Truffle;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.when;
 
@@ -16,6 +24,10 @@ import static org.mockito.Mockito.when;
  * Created by Hoehler on 25.03.2016.
  */
 public class PacketDataLoggingComponentTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void addPacketData() throws Exception {
         PacketDataLoggingComponent component = new PacketDataLoggingComponent();
@@ -24,13 +36,259 @@ public class PacketDataLoggingComponentTest {
 
         when(packet.getAttribute(MacAddress.class, "sourceMacAddress")).thenReturn(new MacAddress(123));
 
-        assertEquals(0, component.getObservablePackets().size());
+        assertEquals(0, component.getPackets().size());
 
         component.addPacket(packet);
 
-        assertEquals(1, component.getObservablePackets().size());
+        assertEquals(1, component.getPackets().size());
 
-        IPacketData packetTest = component.getObservablePackets().get(0);
+        IPacketData packetTest = component.getPackets().get(0);
         assertTrue(packetTest.getAttribute(MacAddress.class, "sourceMacAddress").toString().equals((new MacAddress(123).toString())));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPacketsAreStoredOnce() throws Exception {
+
+        final PacketStore store = new PacketStore(4096, null);
+        final PacketDataLoggingComponent source = new PacketDataLoggingComponent(store);
+        final PacketDataLoggingComponent destination = new PacketDataLoggingComponent(store);
+
+        source.addPacket(packet(7, 0));
+        destination.logPacket(0);
+
+        assertEquals(1, store.size());
+        assertEquals(Arrays.asList(7L), xids(source.getPackets()));
+        assertEquals(Arrays.asList(7L), xids(destination.getPackets()));
+    }
+
+    @Test
+    public void testOldPacketsAreReadFromTheFile() throws Exception {
+
+        final PacketSegmentFile segmentFile = PacketSegmentFile.createIn(folder.getRoot());
+        final PacketStore store = new PacketStore(4096, segmentFile);
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(store);
+
+        for (long i = 0; i < 3 * 4096; i++) {
+            final long id = store.append(packet(i, 0));
+
+            if (i % 1000 == 0) {
+                component.logPacket(id);
+            }
+        }
+
+        assertTrue(segmentFile.size() > 0);
+        assertEquals(Arrays.asList(0L, 1000L, 2000L), xids(component.getPackets()).subList(0, 3));
+        assertEquals(13, component.getPacketCount());
+
+        segmentFile.close();
+    }
+
+    @Test
+    public void testDroppedPacketsAreSkipped() throws Exception {
+
+        final PacketStore store = new PacketStore(4096, null);
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(store);
+
+        component.addPacket(packet(0, 0));
+
+        for (long i = 1; i < 3 * 4096; i++) {
+            store.append(packet(i, 0));
+        }
+
+        component.addPacket(packet(-1, 0));
+
+        assertEquals(2, component.getPacketCount());
+        assertEquals(Arrays.asList(-1L), xids(component.getPackets()));
+    }
+
+    @Test
+    public void testGetPacketsSince() throws Exception {
+
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(new PacketStore(4096, null));
+        final List<IPacketData> packets = new ArrayList<>();
+
+        component.addPacket(packet(0, 0));
+        component.addPacket(packet(1, 0));
+        long seen = component.getPacketsSince(0, packets);
+        assertEquals(2, seen);
+
+        packets.clear();
+        component.addPacket(packet(2, 0));
+        seen = component.getPacketsSince(seen, packets);
+        assertEquals(3, seen);
+        assertEquals(Arrays.asList(2L), xids(packets));
+    }
+
+    @Test
+    public void testGetPacketsByPosition() throws Exception {
+
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(new PacketStore(4096, null));
+
+        for (long i = 0; i < 200; i++) {
+            component.addPacket(packet(i, 0));
+        }
+
+        final List<IPacketData> page = new ArrayList<>();
+        component.getPackets(60, 70, page);
+
+        assertEquals(Arrays.asList(60L, 61L, 62L, 63L, 64L, 65L, 66L, 67L, 68L, 69L), xids(page));
+    }
+
+    @Test
+    public void testPositionsBeyondIntegers() throws Exception {
+
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(new PacketStore(4096, null));
+        final List<IPacketData> packets = new ArrayList<>();
+
+        component.addPacket(packet(0, 0));
+        component.addPacket(packet(1, 0));
+
+        component.getPackets(Integer.MAX_VALUE + 1L, Long.MAX_VALUE, packets);
+        assertTrue(packets.isEmpty());
+
+        component.getPackets(1, Long.MAX_VALUE, packets);
+        assertEquals(Arrays.asList(1L), xids(packets));
+
+        packets.clear();
+        assertEquals(2, component.getPacketsSince(Integer.MAX_VALUE + 1L, packets));
+        assertTrue(packets.isEmpty());
+    }
+
+    @Test
+    public void testGetPacketsBetween() throws Exception {
+
+        final PacketStore store = new PacketStore(4096, null);
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(store);
+
+        for (long i = 0; i < 100; i++) {
+            final long id = store.append(packet(i, 10 * i));
+
+            if (i % 2 == 0) {
+                component.logPacket(id);
+            }
+        }
+
+        final List<IPacketData> packets = new ArrayList<>();
+        component.getPacketsBetween(105, 160, packets);
+
+        assertEquals(Arrays.asList(12L, 14L), xids(packets));
+    }
+
+    @Test
+    public void testCopySharesTheStore() throws Exception {
+
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(new PacketStore(4096, null));
+
+        component.addPacket(packet(0, 0));
+        component.addPacket(packet(1, 0));
+
+        final PacketDataLoggingComponent copy = new PacketDataLoggingComponent(component);
+        component.addPacket(packet(2, 0));
+
+        assertSame(component.getStore(), copy.getStore());
+        assertEquals(Arrays.asList(0L, 1L), xids(copy.getPackets()));
+
+        copy.logPackets(component);
+        assertEquals(Arrays.asList(0L, 1L, 0L, 1L, 2L), xids(copy.getPackets()));
+    }
+
+    @Test
+    public void testOldIdsAreDropped() throws Exception {
+
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(new PacketStore(4096, null), 256);
+
+        for (int i = 0; i < 300; i++) {
+            component.addPacket(packet(i, 0));
+        }
+
+        final List<IPacketData> packets = new ArrayList<>();
+
+        // the positions keep counting the dropped packets
+        assertEquals(300, component.getPacketCount());
+        assertEquals(300 - 64, component.getPackets().size());
+
+        component.getPackets(0, 66, packets);
+        assertEquals(Arrays.asList(64L, 65L), xids(packets));
+
+        packets.clear();
+        assertEquals(300, component.getPacketsSince(298, packets));
+        assertEquals(Arrays.asList(298L, 299L), xids(packets));
+
+        final PacketDataLoggingComponent copy = new PacketDataLoggingComponent(component);
+        assertEquals(300, copy.getPacketCount());
+    }
+
+    @Test
+    public void testOldIdsAreSpilledToTheFile() throws Exception {
+
+        final PacketSegmentFile segmentFile = PacketSegmentFile.createIn(folder.getRoot());
+        final PacketDataLoggingComponent component = new PacketDataLoggingComponent(new PacketStore(4096,
+                segmentFile), 256);
+
+        for (int i = 0; i < 1000; i++) {
+            component.addPacket(packet(i, 10 * i));
+        }
+
+        final List<IPacketData> packets = new ArrayList<>();
+
+        // the spilled ids are read back, so the whole history can be paged through
+        assertTrue(segmentFile.size() > 0);
+        assertEquals(0, component.getFirstPosition());
+        assertEquals(1000, component.getPacketCount());
+        assertEquals(1000, component.getPackets().size());
+
+        component.getPackets(62, 66, packets);
+        assertEquals(Arrays.asList(62L, 63L, 64L, 65L), xids(packets));
+
+        packets.clear();
+        component.getPacketsBetween(1275, 1310, packets);
+        assertEquals(Arrays.asList(128L, 129L, 130L), xids(packets));
+
+        final PacketDataLoggingComponent copy = new PacketDataLoggingComponent(component);
+        packets.clear();
+        copy.getPackets(0, 2, packets);
+        assertEquals(Arrays.asList(0L, 1L), xids(packets));
+
+        segmentFile.close();
+    }
+
+    @Test
+    public void testConfiguredCapacityIsUsedByNewLogs() throws Exception {
+
+        PacketDataLoggingComponent.configure(256);
+
+        try {
+            final PacketDataLoggingComponent component = new PacketDataLoggingComponent(new PacketStore(4096, null));
+
+            for (int i = 0; i < 300; i++) {
+                component.addPacket(packet(i, 0));
+            }
+
+            // the dropped packets are the ones before the first position
+            assertEquals(64, component.getFirstPosition());
+            assertEquals(300 - 64, component.getPackets().size());
+        } finally {
+            PacketDataLoggingComponent.configure(PacketDataLoggingComponent.DEFAULT_MAX_PACKETS);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConfigureRejectsEmptyLogs() throws Exception {
+        PacketDataLoggingComponent.configure(0);
+    }
+
+    private static IPacketData packet(long xid, long time) {
+
+        final IPacketData packet = Mockito.mock(IPacketData.class);
+        when(packet.getAttribute(Long.class, "xid")).thenReturn(xid);
+        when(packet.getAttribute(Long.class, "timeOfArrival")).thenReturn(time);
+        return packet;
+    }
+
+    private static List<Long> xids(List<IPacketData> packets) {
+
+        final List<Long> xids = new ArrayList<>();
+        packets.forEach(packet -> xids.add(packet.getAttribute(Long.class, "xid")));
+        return xids;
+    }
+}
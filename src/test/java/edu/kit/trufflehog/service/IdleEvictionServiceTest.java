@@ -0,0 +1,196 @@
+package edu.kit.trufflehog.service;
+
+import edu.kit.trufflehog.model.jung.layout.LiveFRLayout;
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
+import edu.kit.trufflehog.model.network.graph.NetworkConnection;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.util.javafx.FxUpdatePump;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.util.Graphs;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class tests the {@link IdleEvictionService} with a clock that is moved by hand.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class IdleEvictionServiceTest {
+
+    private static final long TTL = 1000;
+
+    private ObservableUpdatableGraph<INode, IConnection> graph;
+    private INetworkIOPort port;
+    private IdleEvictionService service;
+    private long start;
+    private long now;
+
+    @Before
+    public void setUp() throws Exception {
+
+        graph = new ObservableUpdatableGraph<>(Graphs.synchronizedDirectedGraph(new DirectedSparseGraph<>()),
+                new LiveUpdater());
+        port = new NetworkIOPort(graph);
+
+        start = System.currentTimeMillis();
+        now = start;
+        service = new IdleEvictionService(port, TTL, () -> now);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTtl() {
+        new IdleEvictionService(port, 0);
+    }
+
+    @Test
+    public void testIdleElementsAreRemoved() throws Exception {
+
+        final INode source = writeNode(1);
+        final INode dest = writeNode(2);
+        final IConnection connection = writeConnection(source, dest);
+
+        now = start + TTL / 2;
+        service.run();
+        assertEquals(2, port.getNetworkNodes().size());
+
+        now = start + TTL + 2 * service.getTickMillis();
+        service.run();
+
+        assertNull(port.getNetworkNodeByAddress(new MacAddress(1)));
+        assertNull(port.getNetworkNodeByAddress(new MacAddress(2)));
+        assertNull(port.getNetworkConnectionByAddress(new MacAddress(1), new MacAddress(2)));
+        assertEquals(0, port.getGraph().getVertexCount());
+        assertEquals(0, port.getGraph().getEdgeCount());
+        assertFalse(port.getGraph().containsEdge(connection));
+    }
+
+    @Test
+    public void testActiveNodeStays() throws Exception {
+
+        final INode node = writeNode(1);
+
+        // seen shortly before it would have expired, so it gets a new expiry
+        node.getComponent(NodeStatisticsComponent.class).setLastSeen(start + TTL - 100);
+
+        now = start + TTL + 2 * service.getTickMillis();
+        service.run();
+        assertSame(node, port.getNetworkNodeByAddress(new MacAddress(1)));
+
+        now = start + 2 * TTL;
+        service.run();
+        assertNull(port.getNetworkNodeByAddress(new MacAddress(1)));
+    }
+
+    @Test
+    public void testIdleConnectionIsRemovedAlone() throws Exception {
+
+        final INode source = writeNode(1);
+        final INode dest = writeNode(2);
+        final IConnection connection = writeConnection(source, dest);
+
+        // both nodes talk to other nodes, but not to each other
+        source.getComponent(NodeStatisticsComponent.class).setLastSeen(start + TTL);
+        dest.getComponent(NodeStatisticsComponent.class).setLastSeen(start + TTL);
+
+        now = start + TTL + 2 * service.getTickMillis();
+        service.run();
+
+        assertNull(port.getNetworkConnectionByAddress(new MacAddress(1), new MacAddress(2)));
+        assertFalse(port.getGraph().containsEdge(connection));
+        assertSame(source, port.getNetworkNodeByAddress(new MacAddress(1)));
+        assertSame(dest, port.getNetworkNodeByAddress(new MacAddress(2)));
+    }
+
+    @Test
+    public void testNodeComesBack() throws Exception {
+
+        writeNode(1);
+
+        now = start + TTL + 2 * service.getTickMillis();
+        service.run();
+        assertNull(port.getNetworkNodeByAddress(new MacAddress(1)));
+
+        // the device speaks again, the new node is watched like any other
+        final INode again = writeNode(1);
+        again.getComponent(NodeStatisticsComponent.class).setLastSeen(now);
+
+        now = now + TTL / 2;
+        service.run();
+        assertSame(again, port.getNetworkNodeByAddress(new MacAddress(1)));
+        assertTrue(port.getGraph().containsVertex(again));
+
+        now = now + TTL;
+        service.run();
+        assertNull(port.getNetworkNodeByAddress(new MacAddress(1)));
+    }
+
+    @Test
+    public void testEvictedNodeIsCollected() throws Exception {
+
+        INode source = writeNode(1);
+        writeConnection(source, writeNode(2));
+
+        final LiveFRLayout<INode, IConnection> layout = new LiveFRLayout<>(graph);
+        graph.addGraphEventListener(layout);
+        layout.setSize(new Dimension(100, 100));
+
+        // the layout remembers the location and the force data of the node
+        layout.step();
+        layout.lock(source, true);
+
+        final WeakReference<INode> evicted = new WeakReference<>(source);
+        source = null;
+
+        now = start + TTL + 2 * service.getTickMillis();
+        service.run();
+
+        // the layout forgets the node on the FX application thread
+        FxUpdatePump.getInstance().flush();
+
+        for (int i = 0; i < 50 && evicted.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(evicted.get());
+    }
+
+    private INode writeNode(long address) throws Exception {
+
+        final NodeStatisticsComponent statistics = new NodeStatisticsComponent(1, 0);
+        statistics.setLastSeen(start);
+
+        final INode node = new NetworkNode(new MacAddress(address), statistics);
+        port.writeNode(node);
+        return node;
+    }
+
+    private IConnection writeConnection(INode source, INode dest) {
+
+        final EdgeStatisticsComponent statistics = new EdgeStatisticsComponent(1);
+        statistics.setLastUpdateTimeProperty(start);
+
+        final IConnection connection = new NetworkConnection(source, dest, statistics);
+        port.writeConnection(connection);
+        return connection;
+    }
+}
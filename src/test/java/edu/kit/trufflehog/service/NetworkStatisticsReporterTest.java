@@ -0,0 +1,189 @@
+package edu.kit.trufflehog.service;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.filter.MacroFilter;
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterInput;
+import edu.kit.trufflehog.service.packetdataprocessor.packetfilter.PacketFilterStage;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.util.Graphs;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class tests the {@link NetworkStatisticsReporter}. It runs without the JfxRunner on purpose: the network
+ *     is built by real commands, so this also checks that the model works without a FX toolkit like in the headless
+ *     mode.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class NetworkStatisticsReporterTest {
+
+    private INetworkIOPort port;
+    private IFilter filter;
+    private ByteArrayOutputStream output;
+
+    @Before
+    public void setUp() {
+        port = new NetworkIOPort(new ObservableUpdatableGraph<>(
+                Graphs.synchronizedDirectedGraph(new DirectedSparseGraph<>()), new LiveUpdater()));
+        filter = new MacroFilter();
+        output = new ByteArrayOutputStream();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullReadingPort() {
+        new NetworkStatisticsReporter(null, null, new PrintStream(output), true);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullOutput() {
+        new NetworkStatisticsReporter(port, null, null, true);
+    }
+
+    /**
+     * <p>
+     *     Tests that the report contains the population, the connections and the counts of every node.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testReportContainsNetwork() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            new AddPacketDataCommand(port, new TestPacket(1, 2, null, null), filter).execute();
+        }
+        new AddPacketDataCommand(port, new TestPacket(2, 1, "plc", new IPAddress(0x0A000001L)), filter).execute();
+        new AddPacketDataCommand(port, new TestPacket(3, 1, null, null), filter).execute();
+
+        new NetworkStatisticsReporter(port, null, new PrintStream(output), true).run();
+
+        final String[] lines = output.toString().split(System.lineSeparator());
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains(" population=3 "));
+        assertTrue(lines[0].contains(" connections=3 "));
+        assertFalse(lines[0].contains("executed="));
+
+        // the throughput is smoothed by the NodeStatisticsUpdater, only the counts are known here
+        assertTrue(find(lines, new MacAddress(1)).startsWith("  node " + new MacAddress(1) + " out=3 in=2 throughput="));
+        assertTrue(find(lines, new MacAddress(2)).startsWith("  node " + new MacAddress(2) + " out=1 in=3 throughput="));
+        assertTrue(find(lines, new MacAddress(2)).endsWith(" name=plc ip=10.0.0.1"));
+        assertTrue(find(lines, new MacAddress(3)).startsWith("  node " + new MacAddress(3) + " out=1 in=0 throughput="));
+        assertFalse(find(lines, new MacAddress(3)).contains("name="));
+    }
+
+    /**
+     * <p>
+     *     Tests that only the summary is written if the nodes are not wanted.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testReportWithoutNodes() throws Exception {
+
+        new AddPacketDataCommand(port, new TestPacket(1, 2, null, null), filter).execute();
+
+        new NetworkStatisticsReporter(port, null, new PrintStream(output), false).run();
+
+        final String[] lines = output.toString().split(System.lineSeparator());
+
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].contains(" population=2 "));
+    }
+
+    /**
+     * <p>
+     *     Tests that the counters of the packet filter rules are reported.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testReportContainsPacketFilterRules() throws Exception {
+
+        final PacketFilterStage stage = new PacketFilterStage();
+        stage.addInput(PacketFilterInput.parse("responses, drop, 0, isResponse == true", 1));
+
+        stage.admit(new TestPacket(1, 2, "plc", null));
+        stage.admit(new TestPacket(1, 2, "plc", null));
+        stage.admit(new TestPacket(1, 2, null, null));
+
+        new NetworkStatisticsReporter(port, null, stage, new PrintStream(output), false).run();
+
+        final String[] lines = output.toString().split(System.lineSeparator());
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].endsWith(" unmatched=1"));
+        assertEquals("  rule responses hits=2 passed=0 dropped=2", lines[1]);
+    }
+
+    private static String find(String[] lines, MacAddress address) {
+        for (String line : lines) {
+            if (line.startsWith("  node " + address + " ")) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A packet with fixed attributes.
+     */
+    private static final class TestPacket implements IPacketData {
+
+        private final MacAddress source;
+        private final MacAddress dest;
+        private final String deviceName;
+        private final IPAddress sourceIP;
+
+        private TestPacket(long source, long dest, String deviceName, IPAddress sourceIP) throws Exception {
+            this.source = new MacAddress(source);
+            this.dest = new MacAddress(dest);
+            this.deviceName = deviceName;
+            this.sourceIP = sourceIP;
+        }
+
+        @Override
+        public <T> T getAttribute(Class<T> attributeType, String attributeIdentifier) {
+            final Object value;
+
+            switch (attributeIdentifier) {
+                case "sourceMacAddress":
+                    value = source;
+                    break;
+                case "destMacAddress":
+                    value = dest;
+                    break;
+                case "deviceName":
+                    value = deviceName;
+                    break;
+                case "sourceIPAddress":
+                    value = sourceIP;
+                    break;
+                case "isResponse":
+                    value = deviceName != null;
+                    break;
+                default:
+                    value = null;
+            }
+
+            return attributeType.isInstance(value) ? attributeType.cast(value) : null;
+        }
+    }
+}
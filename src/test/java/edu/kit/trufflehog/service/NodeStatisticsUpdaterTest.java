@@ -1,6 +1,20 @@
 package edu.kit.trufflehog.service;
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.INetworkViewPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.util.Graphs;
 import org.junit.Test;
 
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
 /**
  * Test class for NodeStatisticsUpdater.
  */
@@ -15,4 +29,25 @@ public class NodeStatisticsUpdaterTest {
     public void secondNullTest() {
         NodeStatisticsUpdater myUpdater = new NodeStatisticsUpdater(null, null, 0);
     }
+
+    @Test
+    public void evictedNodesAreForgotten() throws Exception {
+        final INetworkIOPort port = new NetworkIOPort(new ObservableUpdatableGraph<>(
+                Graphs.synchronizedDirectedGraph(new DirectedSparseGraph<>()), new LiveUpdater()));
+        final NodeStatisticsUpdater updater = new NodeStatisticsUpdater(port, mock(INetworkViewPort.class));
+
+        final INode node = new NetworkNode(new MacAddress(1), new NodeStatisticsComponent(10, 10));
+        port.writeNode(node);
+        updater.update();
+
+        port.removeNode(node);
+        updater.update();
+
+        // the same device comes back with fewer packets, it must not be compared to the evicted node
+        final INode again = new NetworkNode(new MacAddress(1), new NodeStatisticsComponent(1, 1));
+        port.writeNode(again);
+        updater.update();
+
+        assertTrue(again.getComponent(NodeStatisticsComponent.class).getThroughput() >= 0);
+    }
 }
@@ -1,12 +1,19 @@
 package edu.kit.trufflehog.service.executor;
 
 import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue.OverflowPolicy;
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
 import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.command.usercommand.IUserCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -14,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * This class houses all test cases for the {@link CommandExecutor}
@@ -178,4 +186,93 @@ public class CommandExecutorTest {
             verify(command).execute();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>
+     *     This test checks if consecutive {@link AddPacketDataCommand}s for the same source and destination are
+     *     merged and if the executed and merged commands are counted.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testCoalescePacketCommands() throws Exception {
+
+        final INetworkWritingPort writingPort = mock(INetworkWritingPort.class);
+        final IFilter filter = mock(IFilter.class);
+
+        final List<Integer> executedPacketCounts = new LinkedList<>();
+
+        for (int i = 0; i < 10; i++) {
+            executor.asTruffleCommandListener().receive(createCommand(writingPort, filter, 1L, 2L, executedPacketCounts));
+        }
+
+        executor.asTruffleCommandListener().receive(createCommand(writingPort, filter, 2L, 1L, executedPacketCounts));
+
+        Thread testRunner = new Thread(executor);
+        testRunner.start();
+
+        Thread.sleep(1000);
+
+        testRunner.interrupt();
+
+        assertEquals(2, executor.getExecutedCommands());
+        assertEquals(9, executor.getMergedCommands());
+
+        // one command for each pair
+        assertEquals(Arrays.asList(10, 1), executedPacketCounts);
+    }
+
+    /**
+     * <p>
+     *     This test checks that nothing is merged if the batch size is 1.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testNoCoalescingWithoutBatches() throws Exception {
+
+        executor = new CommandExecutor(16, OverflowPolicy.BLOCK, 1, 1, 1, 5, 1);
+
+        final INetworkWritingPort writingPort = mock(INetworkWritingPort.class);
+        final IFilter filter = mock(IFilter.class);
+
+        final List<Integer> executedPacketCounts = new LinkedList<>();
+
+        for (int i = 0; i < 5; i++) {
+            executor.asTruffleCommandListener().receive(createCommand(writingPort, filter, 1L, 2L, executedPacketCounts));
+        }
+
+        Thread testRunner = new Thread(executor);
+        testRunner.start();
+
+        Thread.sleep(1000);
+
+        testRunner.interrupt();
+
+        assertEquals(5, executor.getExecutedCommands());
+        assertEquals(0, executor.getMergedCommands());
+        assertEquals(Arrays.asList(1, 1, 1, 1, 1), executedPacketCounts);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new CommandExecutor(16, OverflowPolicy.BLOCK, 1, 1, 0, 5, 1);
+    }
+
+    /**
+     * Creates a packet command that only records how many packets it holds instead of changing the network.
+     */
+    private AddPacketDataCommand createCommand(INetworkWritingPort writingPort, IFilter filter, long source, long dest,
+                                               List<Integer> executedPacketCounts) throws Exception {
+        final IPacketData packet = mock(IPacketData.class);
+        when(packet.getAttribute(MacAddress.class, "sourceMacAddress")).thenReturn(new MacAddress(source));
+        when(packet.getAttribute(MacAddress.class, "destMacAddress")).thenReturn(new MacAddress(dest));
+
+        return new AddPacketDataCommand(writingPort, packet, filter) {
+            @Override
+            public void execute() {
+                executedPacketCounts.add(getPacketCount());
+            }
+        };
+    }
+}
@@ -0,0 +1,262 @@
+package edu.kit.trufflehog.service.executor;
+
+import de.saxsys.javafx.test.JfxRunner;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue.OverflowPolicy;
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.usercommand.IUserCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.filter.MacroFilter;
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.util.Graphs;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class checks that a {@link CommandExecutor} with several shards builds the same network as one that
+ *     executes all commands on one thread, up to the order of the packets in the log of a destination.
+ * </p>
+ *
+ * @version 1.0
+ */
+@RunWith(JfxRunner.class)
+public class ShardedCommandExecutorTest {
+
+    private static final int PACKETS = 20000;
+    private static final int ADDRESSES = 40;
+
+    /**
+     * <p>
+     *     Sends the same synthetic traffic (generated like the {@link
+     *     edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleCrook} does, but with a fixed
+     *     seed and with device names) through a serial and a sharded executor and compares the resulting networks.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testShardedExecutionIsDeterministic() throws Exception {
+
+        final List<IPacketData> traffic = createTraffic(new Random(42));
+
+        final Map<String, String> serial = runTraffic(traffic, 1);
+        final Map<String, String> sharded = runTraffic(traffic, 4);
+
+        assertEquals(serial, sharded);
+    }
+
+    /**
+     * <p>
+     *     Checks that a user command only runs after every packet command that was handed out before it was executed
+     *     completely by its shard.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testUserCommandsAreBarriers() throws Exception {
+
+        final List<IPacketData> traffic = createTraffic(new Random(7));
+        final INetworkIOPort port = createPort();
+        final IFilter filter = new MacroFilter();
+        final CommandExecutor executor = new CommandExecutor(PACKETS * 2, OverflowPolicy.BLOCK, 1, 1, 64, 5, 4);
+
+        final long[] executedBeforeUserCommand = {-1, -1};
+        final long[] loggedBeforeUserCommand = {-2, -2};
+        final AtomicInteger userCommandsRun = new AtomicInteger();
+
+        for (int i = 0; i < traffic.size(); i++) {
+            executor.asTruffleCommandListener().receive(new AddPacketDataCommand(port, traffic.get(i), filter));
+
+            if (i == 0 || i == traffic.size() / 2) {
+                final int index = i == 0 ? 0 : 1;
+                executor.asUserCommandListener().receive(new IUserCommand<Object>() {
+                    @Override
+                    public <S> void setSelection(S selection) {
+                    }
+
+                    @Override
+                    public void execute() {
+                        // the user commands that ran before are counted too
+                        executedBeforeUserCommand[index] = executor.getExecutedCommands() + executor.getMergedCommands()
+                                - userCommandsRun.get();
+                        loggedBeforeUserCommand[index] = countLoggedPackets(port);
+                        userCommandsRun.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        final Thread executorThread = new Thread(executor);
+        executorThread.start();
+
+        awaitExecuted(executor, PACKETS + 2);
+        executorThread.interrupt();
+
+        assertEquals(2, userCommandsRun.get());
+        assertTrue(executedBeforeUserCommand[0] > 0);
+        assertEquals(executedBeforeUserCommand[0], loggedBeforeUserCommand[0]);
+        assertTrue(executedBeforeUserCommand[1] > executedBeforeUserCommand[0]);
+        assertEquals(executedBeforeUserCommand[1], loggedBeforeUserCommand[1]);
+    }
+
+    /**
+     * Counts the packets in the connection packet logs. The logs are filled by the shards that execute the commands,
+     * so they are complete once the commands were executed.
+     */
+    private int countLoggedPackets(INetworkIOPort port) {
+        int logged = 0;
+
+        for (IConnection connection : port.getNetworkConnections()) {
+            logged += connection.getComponent(PacketDataLoggingComponent.class).getPackets().size();
+        }
+
+        return logged;
+    }
+
+    private Map<String, String> runTraffic(List<IPacketData> traffic, int shards) throws Exception {
+
+        final INetworkIOPort port = createPort();
+        final IFilter filter = new MacroFilter();
+        final CommandExecutor executor = new CommandExecutor(PACKETS * 2, OverflowPolicy.BLOCK, 1, 1, 64, 5, shards);
+
+        for (IPacketData packet : traffic) {
+            executor.asTruffleCommandListener().receive(new AddPacketDataCommand(port, packet, filter));
+        }
+
+        final Thread executorThread = new Thread(executor);
+        executorThread.start();
+
+        awaitExecuted(executor, traffic.size());
+        executorThread.interrupt();
+        executorThread.join(5000);
+
+        return snapshot(port);
+    }
+
+    private void awaitExecuted(CommandExecutor executor, long commands) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 30000;
+
+        while (executor.getExecutedCommands() + executor.getMergedCommands() < commands) {
+            assertTrue("the executor did not finish in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static INetworkIOPort createPort() {
+        return new NetworkIOPort(new ObservableUpdatableGraph<>(
+                Graphs.synchronizedDirectedGraph(new DirectedSparseGraph<>()), new LiveUpdater()));
+    }
+
+    /**
+     * Describes every node and connection of the network by its counters, name, ip address and number of logged
+     * packets. The order of the logged packets is not compared, the log of a destination is filled by several
+     * shards.
+     */
+    private static Map<String, String> snapshot(INetworkIOPort port) {
+        final Map<String, String> snapshot = new TreeMap<>();
+
+        for (INode node : port.getNetworkNodes()) {
+            final NodeStatisticsComponent statistics = node.getComponent(NodeStatisticsComponent.class);
+            final NodeInfoComponent info = node.getComponent(NodeInfoComponent.class);
+
+            snapshot.put("node " + node.getAddress(), statistics.getOutgoingCount()
+                    + " " + statistics.getIncomingCount()
+                    + " " + info.getDeviceName()
+                    + " " + info.getIPAddress()
+                    + " " + node.getComponent(PacketDataLoggingComponent.class).getPackets().size());
+        }
+
+        for (IConnection connection : port.getNetworkConnections()) {
+            snapshot.put("connection " + connection.getSrc().getAddress() + " " + connection.getDest().getAddress(),
+                    connection.getComponent(EdgeStatisticsComponent.class).getTraffic()
+                    + " " + connection.getComponent(PacketDataLoggingComponent.class).getPackets().size());
+        }
+
+        return snapshot;
+    }
+
+    private static List<IPacketData> createTraffic(Random random) throws Exception {
+        final List<IPacketData> traffic = new ArrayList<>(PACKETS);
+
+        for (int i = 0; i < PACKETS; i++) {
+            final int source = 1 + random.nextInt(ADDRESSES);
+            // like the crook most of the traffic goes to a few devices
+            final int dest = 1 + (source + 1 + random.nextInt(ADDRESSES / 2)) % ADDRESSES;
+
+            // every now and then a device answers with its (changing) name and ip address
+            final boolean isResponse = random.nextInt(10) == 0;
+
+            traffic.add(new SyntheticPacket(source, dest, isResponse ? "device-" + source + "-" + i : null,
+                    isResponse ? new IPAddress(0x0A000000L + source * 256 + random.nextInt(200)) : null));
+        }
+
+        return traffic;
+    }
+
+    /**
+     * A packet with fixed attributes that can be read from several threads.
+     */
+    private static final class SyntheticPacket implements IPacketData {
+
+        private final MacAddress source;
+        private final MacAddress dest;
+        private final String deviceName;
+        private final IPAddress sourceIP;
+
+        private SyntheticPacket(long source, long dest, String deviceName, IPAddress sourceIP) throws Exception {
+            this.source = new MacAddress(source);
+            this.dest = new MacAddress(dest);
+            this.deviceName = deviceName;
+            this.sourceIP = sourceIP;
+        }
+
+        @Override
+        public <T> T getAttribute(Class<T> attributeType, String attributeIdentifier) {
+            final Object value;
+
+            switch (attributeIdentifier) {
+                case "sourceMacAddress":
+                    value = source;
+                    break;
+                case "destMacAddress":
+                    value = dest;
+                    break;
+                case "deviceName":
+                    value = deviceName;
+                    break;
+                case "sourceIPAddress":
+                    value = sourceIP;
+                    break;
+                case "isResponse":
+                    value = deviceName != null;
+                    break;
+                default:
+                    value = null;
+            }
+
+            return attributeType.isInstance(value) ? attributeType.cast(value) : null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package edu.kit.trufflehog.service.packetdataprocessor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * <p>
+ *     This class tests the {@link PacketSegmentFile}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class PacketSegmentFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PacketSegmentFile segmentFile;
+
+    @Before
+    public void setUp() throws Exception {
+        segmentFile = PacketSegmentFile.createIn(folder.getRoot());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        segmentFile.close();
+    }
+
+    @Test
+    public void testBlocksAreReadBack() throws Exception {
+
+        final long first = segmentFile.append(block(10, 1));
+        final long second = segmentFile.append(block(100000, 2));
+        final long third = segmentFile.append(block(0, 3));
+
+        assertEquals(block(100000, 2), segmentFile.read(second));
+        assertEquals(block(10, 1), segmentFile.read(first));
+        assertEquals(block(0, 3), segmentFile.read(third));
+        assertEquals(3 * Integer.BYTES + 100010, segmentFile.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadBehindEnd() throws Exception {
+
+        segmentFile.append(block(10, 1));
+        segmentFile.read(segmentFile.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadAfterClose() throws Exception {
+
+        final long offset = segmentFile.append(block(10, 1));
+        segmentFile.close();
+
+        assertFalse(segmentFile.getFile().exists());
+        segmentFile.read(offset);
+    }
+
+    private static ByteBuffer block(int size, int seed) {
+
+        final ByteBuffer block = ByteBuffer.allocate(size);
+
+        for (int i = 0; i < size; i++) {
+            block.put((byte) (i * seed));
+        }
+
+        block.flip();
+        return block;
+    }
+}
@@ -0,0 +1,191 @@
+package edu.kit.trufflehog.service.packetdataprocessor;
+
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     This class tests the {@link PacketStore}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class PacketStoreTest {
+
+    private static final int CHUNK_SIZE = PacketStore.CHUNK_SIZE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAttributesAreKept() throws Exception {
+
+        final IPacketData packet = mock(IPacketData.class);
+        when(packet.getAttribute(MacAddress.class, "sourceMacAddress")).thenReturn(new MacAddress(0xAABBCCDDEEFFL));
+        when(packet.getAttribute(IPAddress.class, "destIPAddress")).thenReturn(new IPAddress(0xC0A80001L));
+        when(packet.getAttribute(String.class, "deviceName")).thenReturn("plc-ü1");
+        when(packet.getAttribute(Integer.class, "serviceID")).thenReturn(-3);
+        when(packet.getAttribute(Long.class, "timeOfArrival")).thenReturn(1234567890123L);
+        when(packet.getAttribute(Boolean.class, "isResponse")).thenReturn(true);
+
+        final PacketStore store = new PacketStore(CHUNK_SIZE, null);
+        final IPacketData stored = store.get(store.append(packet));
+
+        assertEquals(new MacAddress(0xAABBCCDDEEFFL), stored.getAttribute(MacAddress.class, "sourceMacAddress"));
+        assertEquals(new IPAddress(0xC0A80001L), stored.getAttribute(IPAddress.class, "destIPAddress"));
+        assertEquals("plc-ü1", stored.getAttribute(String.class, "deviceName"));
+        assertEquals(Integer.valueOf(-3), stored.getAttribute(Integer.class, "serviceID"));
+        assertEquals(Long.valueOf(1234567890123L), stored.getAttribute(Long.class, "timeOfArrival"));
+        assertEquals(Boolean.TRUE, stored.getAttribute(Boolean.class, "isResponse"));
+        assertNull(stored.getAttribute(MacAddress.class, "destMacAddress"));
+        assertNull(stored.getAttribute(Long.class, "deviceName"));
+    }
+
+    @Test
+    public void testIdsAreAscending() throws Exception {
+
+        final PacketStore store = new PacketStore(CHUNK_SIZE, null);
+
+        assertEquals(0, store.append(packet(7, 0)));
+        assertEquals(1, store.append(packet(8, 0)));
+        assertEquals(2, store.size());
+        assertNull(store.get(2));
+        assertNull(store.get(-1));
+    }
+
+    @Test
+    public void testOldChunksAreWrittenToTheFile() throws Exception {
+
+        final PacketSegmentFile segmentFile = PacketSegmentFile.createIn(folder.getRoot());
+        final PacketStore store = new PacketStore(CHUNK_SIZE, segmentFile);
+
+        for (int i = 0; i < 3 * CHUNK_SIZE + 10; i++) {
+            store.append(packet(i, 1000 + i));
+        }
+
+        // all but the newest full chunk and the chunk that is filled are on the disk
+        assertEquals(Long.valueOf(0), store.get(0).getAttribute(Long.class, "xid"));
+        assertEquals(Long.valueOf(CHUNK_SIZE + 5), store.get(CHUNK_SIZE + 5).getAttribute(Long.class, "xid"));
+        assertEquals(Long.valueOf(3 * CHUNK_SIZE + 9), store.get(3 * CHUNK_SIZE + 9).getAttribute(Long.class, "xid"));
+        assertEquals(2 * (CHUNK_SIZE * 72L + Integer.BYTES), segmentFile.size());
+
+        segmentFile.close();
+    }
+
+    @Test
+    public void testOldChunksAreDroppedWithoutFile() throws Exception {
+
+        final PacketStore store = new PacketStore(CHUNK_SIZE, null);
+
+        for (int i = 0; i < 2 * CHUNK_SIZE + 1; i++) {
+            store.append(packet(i, 0));
+        }
+
+        assertNull(store.get(0));
+        assertNotNull(store.get(CHUNK_SIZE));
+    }
+
+    @Test
+    public void testFirstIdAtOrAfter() throws Exception {
+
+        final PacketStore store = new PacketStore(4 * CHUNK_SIZE, null);
+
+        for (int i = 0; i < 2 * CHUNK_SIZE; i++) {
+            store.append(packet(i, 10 * i));
+        }
+
+        // arrived too late, it gets the time of the packet before it
+        store.append(packet(-1, 5));
+
+        assertEquals(0, store.firstIdAtOrAfter(-100));
+        assertEquals(1, store.firstIdAtOrAfter(1));
+        assertEquals(CHUNK_SIZE + 1, store.firstIdAtOrAfter(10 * CHUNK_SIZE + 5));
+        assertEquals(2 * CHUNK_SIZE - 1, store.firstIdAtOrAfter(10 * (2 * CHUNK_SIZE - 1)));
+        assertEquals(2 * CHUNK_SIZE + 1, store.firstIdAtOrAfter(10 * 2 * CHUNK_SIZE));
+        assertEquals(Long.valueOf(10 * (2 * CHUNK_SIZE - 1)),
+                store.get(2 * CHUNK_SIZE).getAttribute(Long.class, "timeOfArrival"));
+    }
+
+    @Test
+    public void testConcurrentAppendsKeepEveryPacket() throws Exception {
+
+        final int threads = 4;
+        final int perThread = 3 * CHUNK_SIZE + 17;
+        final PacketStore store = new PacketStore(16 * CHUNK_SIZE, null);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> writers = new ArrayList<>();
+        final long[][] ids = new long[threads][perThread];
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            final Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int i = 0; i < perThread; i++) {
+                    ids[thread][i] = store.append(packet(thread * perThread + i, i));
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+
+        start.countDown();
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(threads * perThread, store.size());
+
+        long lastTime = Long.MIN_VALUE;
+
+        for (int id = 0; id < threads * perThread; id++) {
+            final long time = store.get(id).getAttribute(Long.class, "timeOfArrival");
+            assertTrue(time >= lastTime);
+            lastTime = time;
+        }
+
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertEquals(Long.valueOf(t * perThread + i), store.get(ids[t][i]).getAttribute(Long.class, "xid"));
+            }
+        }
+    }
+
+    static IPacketData packet(long xid, long time) {
+
+        return new IPacketData() {
+            @Override
+            public <T> T getAttribute(Class<T> attributeType, String attributeIdentifier) {
+
+                if (attributeType == Long.class && attributeIdentifier.equals("xid")) {
+                    return attributeType.cast(xid);
+                }
+
+                if (attributeType == Long.class && attributeIdentifier.equals("timeOfArrival")) {
+                    return attributeType.cast(time);
+                }
+
+                return null;
+            }
+        };
+    }
+}
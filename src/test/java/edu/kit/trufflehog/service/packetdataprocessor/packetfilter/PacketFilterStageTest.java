@@ -0,0 +1,190 @@
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.model.filter.InvalidFilterRule;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link PacketFilterStage} class.
+ * </p>
+ */
+public class PacketFilterStageTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private PacketFilterStage stage;
+
+    @Before
+    public void setUp() throws Exception {
+        stage = new PacketFilterStage();
+    }
+
+    @Test
+    public void testWithoutRulesEverythingPasses() throws Exception {
+
+        assertTrue(stage.admit(PacketRuleParserTest.packet(0x8892, 0, 0, false)));
+        assertEquals(0, stage.getRules().size());
+    }
+
+    @Test
+    public void testDropAndCounters() throws Exception {
+
+        stage.addInput(input("dcp", PacketFilterAction.DROP, 0, 1, "etherType == 0x8892"));
+
+        assertFalse(stage.admit(PacketRuleParserTest.packet(0x8892, 0, 0, false), 0));
+        assertFalse(stage.admit(PacketRuleParserTest.packet(0x8892, 0, 0, false), 0));
+        assertTrue(stage.admit(PacketRuleParserTest.packet(0x0800, 0, 0, false), 0));
+
+        final PacketFilterRule rule = stage.getRules().get(0);
+
+        assertEquals(2, rule.getHitCount());
+        assertEquals(0, rule.getPassedCount());
+        assertEquals(2, rule.getDroppedCount());
+        assertEquals(1, stage.getUnmatchedCount());
+    }
+
+    @Test
+    public void testSampling() throws Exception {
+
+        stage.addInput(input("rtc", PacketFilterAction.SAMPLE, 10, 1, "frameId in 0x8000..0xbfff"));
+
+        int passed = 0;
+
+        for (int i = 0; i < 100; i++) {
+            if (stage.admit(PacketRuleParserTest.packet(0x8892, 0x8000 + i, 0, false), 0)) {
+                passed++;
+            }
+        }
+
+        assertEquals(10, passed);
+        assertEquals(10, stage.getRules().get(0).getPassedCount());
+    }
+
+    @Test
+    public void testRateLimitPerPair() throws Exception {
+
+        stage.addInput(input("limit", PacketFilterAction.RATE_LIMIT, 2, 1, "etherType == 0x8892"));
+
+        final IPacketData first = pair(1, 2);
+        final IPacketData second = pair(1, 3);
+
+        // the buckets start full with one second of packets
+        assertTrue(stage.admit(first, 0));
+        assertTrue(stage.admit(first, 0));
+        assertFalse(stage.admit(first, 0));
+
+        // every pair has its own bucket
+        assertTrue(stage.admit(second, 0));
+
+        // one packet is refilled after half a second
+        assertTrue(stage.admit(first, SECOND / 2));
+        assertFalse(stage.admit(first, SECOND / 2));
+
+        assertEquals(6, stage.getRules().get(0).getHitCount());
+        assertEquals(4, stage.getRules().get(0).getPassedCount());
+    }
+
+    @Test
+    public void testIdleRateLimitBucketsAreDropped() throws Exception {
+
+        stage.addInput(input("limit", PacketFilterAction.RATE_LIMIT, 1, 1, "etherType == 0x8892"));
+
+        final PacketFilterRule rule = stage.getRules().get(0);
+        final IPacketData first = pair(1, 2);
+        final IPacketData second = pair(1, 3);
+
+        // the wheel of the rule runs on the clock of System.nanoTime
+        final long start = System.nanoTime();
+
+        assertTrue(stage.admit(first, start));
+        assertTrue(stage.admit(second, start));
+        assertEquals(2, rule.getBucketCount());
+
+        // the second pair was idle for longer than a second, its full bucket is dropped
+        assertTrue(stage.admit(first, start + 3 * SECOND));
+        assertEquals(1, rule.getBucketCount());
+
+        // and created anew, full
+        assertTrue(stage.admit(second, start + 3 * SECOND));
+        assertFalse(stage.admit(second, start + 3 * SECOND));
+        assertEquals(2, rule.getBucketCount());
+    }
+
+    @Test
+    public void testHigherPriorityDecides() throws Exception {
+
+        stage.addInput(input("drop", PacketFilterAction.DROP, 0, 1, "etherType == 0x8892"));
+        stage.addInput(input("keep responses", PacketFilterAction.PASS, 0, 2, "isResponse"));
+
+        assertTrue(stage.admit(PacketRuleParserTest.packet(0x8892, 0, 0, true), 0));
+        assertFalse(stage.admit(PacketRuleParserTest.packet(0x8892, 0, 0, false), 0));
+        assertEquals("keep responses", stage.getRules().get(0).getName());
+    }
+
+    @Test
+    public void testInputsAreReplacedByName() throws Exception {
+
+        stage.addInput(input("rule", PacketFilterAction.DROP, 0, 1, "etherType == 1"));
+        stage.addInput(input("rule", PacketFilterAction.DROP, 0, 1, "etherType == 2"));
+
+        assertEquals(1, stage.getRules().size());
+        assertTrue(stage.admit(PacketRuleParserTest.packet(1, 0, 0, false), 0));
+
+        final PacketFilterInput inactive = input("rule", PacketFilterAction.DROP, 0, 1, "etherType == 2");
+        inactive.setActive(false);
+        stage.addInput(inactive);
+
+        assertEquals(0, stage.getRules().size());
+    }
+
+    @Test
+    public void testParseInput() throws Exception {
+
+        final PacketFilterInput input = PacketFilterInput.parse(
+                " rtc , rate-limit, 100, etherType == 0x8892 && frameId in 0x8000..0xbfff", 3);
+
+        assertEquals("rtc", input.getName());
+        assertEquals(PacketFilterAction.RATE_LIMIT, input.getAction());
+        assertEquals(100, input.getRate());
+        assertEquals(3, input.getPriority());
+        assertTrue(input.isActive());
+
+        stage.addInput(input);
+        assertEquals(1, stage.getRules().size());
+    }
+
+    @Test(expected = InvalidFilterRule.class)
+    public void testInvalidRuleIsNotAdded() throws Exception {
+        stage.addInput(input("invalid", PacketFilterAction.DROP, 0, 1, "etherType =="));
+    }
+
+    private static PacketFilterInput input(String name, PacketFilterAction action, int rate, int priority,
+                                           String rule) {
+
+        final PacketFilterInput input = new PacketFilterInput(name, Collections.singletonList(rule), action, rate,
+                priority);
+        input.setActive(true);
+
+        return input;
+    }
+
+    private static IPacketData pair(long source, long dest) throws Exception {
+
+        final IPacketData packet = PacketRuleParserTest.packet(0x8892, 0, 0, false);
+        when(packet.getAttribute(MacAddress.class, "sourceMacAddress")).thenReturn(new MacAddress(source));
+        when(packet.getAttribute(MacAddress.class, "destMacAddress")).thenReturn(new MacAddress(dest));
+
+        return packet;
+    }
+}
@@ -0,0 +1,105 @@
+package edu.kit.trufflehog.service.packetdataprocessor.packetfilter;
+
+import edu.kit.trufflehog.model.filter.InvalidFilterRule;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link PacketRuleParser} and the {@link PacketPredicate}s it builds.
+ * </p>
+ */
+public class PacketRuleParserTest {
+
+    @Test
+    public void testComparisons() throws Exception {
+
+        final PacketPredicate rtc = PacketRuleParser.parse("etherType == 0x8892 && frameId in 0x8000..0xbfff");
+
+        assertTrue(rtc.test(packet(0x8892, 0x8001, 0, false)));
+        assertFalse(rtc.test(packet(0x8892, 0xfefe, 0, false)));
+        assertFalse(rtc.test(packet(0x0800, 0x8001, 0, false)));
+
+        final PacketPredicate requests = PacketRuleParser.parse("!isResponse && serviceID != 5");
+
+        assertTrue(requests.test(packet(0x8892, 0, 3, false)));
+        assertFalse(requests.test(packet(0x8892, 0, 5, false)));
+        assertFalse(requests.test(packet(0x8892, 0, 3, true)));
+    }
+
+    @Test
+    public void testMacAddressesAndPrecedence() throws Exception {
+
+        final PacketPredicate predicate = PacketRuleParser.parse(
+                "sourceMacAddress == 00:0e:8c:00:00:01 || destMacAddress == 00:0e:8c:00:00:01 && isResponse");
+
+        final IPacketData packet = packet(0x8892, 0, 0, false);
+        when(packet.getAttribute(MacAddress.class, "sourceMacAddress")).thenReturn(new MacAddress(0x000e8c000001L));
+
+        assertTrue(predicate.test(packet));
+        assertFalse(PacketRuleParser.parse("(sourceMacAddress == 00:0e:8c:00:00:01 || destMacAddress == 1) "
+                + "&& isResponse").test(packet));
+    }
+
+    @Test
+    public void testRangesOfTheSameFieldAreMerged() throws Exception {
+
+        final PacketPredicate predicate = PacketRuleParser.parse(
+                "serviceID == 1 || serviceID == 2 || serviceID in 4..6 || serviceID == 10");
+
+        assertTrue(predicate instanceof PacketPredicate.FieldRanges);
+        assertEquals(3, ((PacketPredicate.FieldRanges) predicate).getRangeCount());
+
+        for (int id = 0; id < 12; id++) {
+            final boolean expected = id == 1 || id == 2 || id >= 4 && id <= 6 || id == 10;
+            assertEquals(expected, predicate.test(packet(0, 0, id, false)));
+        }
+
+        assertSame(PacketPredicate.NEVER, PacketRuleParser.parse("serviceID == 1 && serviceID == 2"));
+        assertSame(PacketPredicate.ALWAYS, PacketRuleParser.parse("!(etherType == 1 && serviceID == 2 && "
+                + "serviceID == 3)"));
+    }
+
+    @Test
+    public void testMissingFieldsDoNotMatch() throws Exception {
+
+        final IPacketData empty = mock(IPacketData.class);
+
+        assertFalse(PacketRuleParser.parse("etherType == 0").test(empty));
+        assertFalse(PacketRuleParser.parse("etherType != 0").test(empty));
+    }
+
+    @Test(expected = InvalidFilterRule.class)
+    public void testUnknownField() throws Exception {
+        PacketRuleParser.parse("vlan == 1");
+    }
+
+    @Test(expected = InvalidFilterRule.class)
+    public void testUnbalancedParentheses() throws Exception {
+        PacketRuleParser.parse("(etherType == 1");
+    }
+
+    @Test(expected = InvalidFilterRule.class)
+    public void testInvalidCharacter() throws Exception {
+        PacketRuleParser.parse("etherType > 1");
+    }
+
+    static IPacketData packet(int etherType, int frameId, int serviceID, boolean isResponse) {
+
+        final IPacketData packet = mock(IPacketData.class);
+        when(packet.getAttribute(Integer.class, "etherType")).thenReturn(etherType);
+        when(packet.getAttribute(Integer.class, "frameId")).thenReturn(frameId);
+        when(packet.getAttribute(Integer.class, "serviceID")).thenReturn(serviceID);
+        when(packet.getAttribute(Boolean.class, "isResponse")).thenReturn(isResponse);
+
+        return packet;
+    }
+}
@@ -0,0 +1,224 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link NioUnixSocketReceiver} class. The test plays the snort plugin on a
+ *     unix socket in a temporary directory. The tests are skipped on java versions without unix domain socket
+ *     channels.
+ * </p>
+ */
+public class NioUnixSocketReceiverTest {
+
+    private Path socketDirectory;
+    private Path socketFile;
+    private ServerSocketChannel server;
+    private NioUnixSocketReceiver receiver;
+    private Thread receiverThread;
+    private List<ITruffleCommand> commands;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(NioUnixSocketReceiver.isSupported());
+
+        socketDirectory = Files.createTempDirectory("trufflehog");
+        socketFile = socketDirectory.resolve("socket.sock");
+        commands = new CopyOnWriteArrayList<>();
+
+        receiver = new NioUnixSocketReceiver(mock(INetworkWritingPort.class), mock(IFilter.class), socketFile, 4);
+        receiver.addListener(commands::add);
+
+        receiverThread = new Thread(receiver);
+        receiverThread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (receiverThread != null) {
+            receiver.disconnect();
+            receiverThread.interrupt();
+            receiverThread.join(1000);
+        }
+
+        if (server != null) {
+            server.close();
+        }
+
+        if (socketDirectory != null) {
+            Files.deleteIfExists(socketFile);
+            Files.deleteIfExists(socketDirectory);
+        }
+    }
+
+    @Test
+    public void receives_truffles_that_are_split_between_reads() throws Exception {
+        final SocketChannel plugin = acceptWithHandshake();
+
+        final ByteBuffer records = ByteBuffer.allocate(10 * TruffleLayout.TRUFFLE_SIZE);
+        for (int i = 1; i <= 10; i++) {
+            records.put(TruffleRingTest.record(i));
+        }
+        records.flip();
+
+        // odd chunk sizes so that records are split
+        while (records.hasRemaining()) {
+            final ByteBuffer chunk = records.duplicate();
+            chunk.limit(Math.min(records.limit(), records.position() + 1000));
+            plugin.write(chunk);
+            records.position(chunk.position());
+            Thread.sleep(1);
+        }
+
+        awaitCommands(10);
+
+        assertEquals(10, commands.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(commands.get(i).toString().contains(new MacAddress(i + 1).toString()));
+        }
+    }
+
+    @Test
+    public void disconnect_sends_disconnect_request() throws Exception {
+        final SocketChannel plugin = acceptWithHandshake();
+
+        receiver.disconnect();
+
+        assertEquals(NioUnixSocketReceiver.TRUFFLEHOG_DISCONNECT_REQUEST, readInt(plugin));
+    }
+
+    @Test
+    public void connect_reports_error_if_plugin_is_not_running() throws Exception {
+        receiver.connect();
+
+        assertEquals(1, commands.size());
+        assertTrue(commands.get(0) instanceof ReceiverErrorCommand);
+    }
+
+    @Test
+    public void connect_switches_to_the_fallback_if_the_plugin_refuses_the_stream_socket() throws Exception {
+        // the socket file stays behind when the server is closed, so the connect is refused
+        bindServer();
+        server.close();
+        server = null;
+
+        final CountDownLatch fallbackRuns = new CountDownLatch(1);
+        final AtomicInteger fallbackConnects = new AtomicInteger();
+        final TruffleReceiver fallback = new TruffleReceiver() {
+
+            @Override
+            public void connect() {
+                fallbackConnects.incrementAndGet();
+            }
+
+            @Override
+            public void disconnect() {
+            }
+
+            @Override
+            public void run() {
+                fallbackRuns.countDown();
+            }
+        };
+
+        final NioUnixSocketReceiver switching = new NioUnixSocketReceiver(mock(INetworkWritingPort.class),
+                mock(IFilter.class), socketFile, 4, () -> fallback);
+        switching.addListener(commands::add);
+
+        final Thread switchingThread = new Thread(switching);
+        switchingThread.start();
+
+        try {
+            switching.connect();
+
+            assertTrue(fallbackRuns.await(5, TimeUnit.SECONDS));
+            assertEquals(1, fallbackConnects.get());
+            assertSame(switching.getPacketFilterStage(), fallback.getPacketFilterStage());
+            assertTrue(commands.isEmpty());
+
+            // the commands of the fallback reach the listeners of the receiver
+            final ReceiverErrorCommand command = new ReceiverErrorCommand("test");
+            fallback.notifyListeners(command);
+            assertEquals(1, commands.size());
+            assertSame(command, commands.get(0));
+
+            switching.connect();
+            assertEquals(2, fallbackConnects.get());
+        } finally {
+            switchingThread.interrupt();
+            switchingThread.join(1000);
+        }
+    }
+
+    private void bindServer() throws Exception {
+        server = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                .invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+        server.bind((SocketAddress) Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class)
+                .invoke(null, socketFile));
+    }
+
+    private SocketChannel acceptWithHandshake() throws Exception {
+        bindServer();
+
+        final Thread connector = new Thread(receiver::connect);
+        connector.start();
+
+        final SocketChannel plugin = server.accept();
+        assertEquals(NioUnixSocketReceiver.TRUFFLEHOG_CONNECT_REQUEST, readInt(plugin));
+
+        final ByteBuffer response = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder());
+        response.putInt(NioUnixSocketReceiver.SNORT_CONNECT_RESPONSE).flip();
+        plugin.write(response);
+
+        connector.join(1000);
+        assertTrue(commands.isEmpty());
+
+        return plugin;
+    }
+
+    private static int readInt(final SocketChannel channel) throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder());
+
+        while (buffer.hasRemaining()) {
+            channel.read(buffer);
+        }
+
+        return buffer.getInt(0);
+    }
+
+    private void awaitCommands(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (commands.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
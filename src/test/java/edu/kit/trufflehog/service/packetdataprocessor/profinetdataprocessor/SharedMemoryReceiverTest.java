@@ -0,0 +1,134 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link SharedMemoryReceiver} class. A {@link TruffleRing} in a temporary
+ *     file is used as stand-in for the snort plugin.
+ * </p>
+ */
+public class SharedMemoryReceiverTest {
+
+    private Path ringFile;
+    private SharedMemoryReceiver receiver;
+    private Thread receiverThread;
+    private List<ITruffleCommand> commands;
+
+    @Before
+    public void setUp() throws Exception {
+        ringFile = Files.createTempFile("trufflehog", ".ring");
+        commands = new CopyOnWriteArrayList<>();
+
+        receiver = new SharedMemoryReceiver(mock(INetworkWritingPort.class), mock(IFilter.class), ringFile, 4);
+        receiver.addListener(commands::add);
+
+        receiverThread = new Thread(receiver);
+        receiverThread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        receiverThread.interrupt();
+        receiverThread.join(1000);
+        Files.deleteIfExists(ringFile);
+    }
+
+    @Test
+    public void receives_all_truffles_in_order() throws Exception {
+        final TruffleRing producer = TruffleRing.create(ringFile, 8);
+        receiver.connect();
+
+        for (int i = 1; i <= 100; i++) {
+            while (producer.producerSequence() - producer.consumerSequence() >= producer.capacity()) {
+                Thread.yield();
+            }
+            assertTrue(producer.offer(TruffleRingTest.record(i)));
+        }
+
+        awaitCommands(100);
+
+        assertEquals(100, commands.size());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(commands.get(i) instanceof AddPacketDataCommand);
+            assertTrue(commands.get(i).toString().contains(new MacAddress(i + 1).toString()));
+        }
+        assertEquals(0, receiver.getDroppedTruffles());
+    }
+
+    @Test
+    public void receives_truffles_written_before_connect() throws Exception {
+        final TruffleRing producer = TruffleRing.create(ringFile, 8);
+        producer.offer(TruffleRingTest.record(1));
+        producer.offer(TruffleRingTest.record(2));
+
+        receiver.connect();
+        awaitCommands(2);
+
+        assertEquals(2, commands.size());
+    }
+
+    @Test
+    public void discards_truffles_with_invalid_mac_address() throws Exception {
+        final TruffleRing producer = TruffleRing.create(ringFile, 8);
+        receiver.connect();
+
+        producer.offer(TruffleRingTest.record(-1));
+        producer.offer(TruffleRingTest.record(1));
+        awaitCommands(1);
+
+        assertEquals(1, commands.size());
+        assertTrue(commands.get(0).toString().contains(new MacAddress(1).toString()));
+    }
+
+    @Test
+    public void connect_reports_error_if_there_is_no_ring() throws Exception {
+        receiver.connect();
+
+        assertEquals(1, commands.size());
+        assertTrue(commands.get(0) instanceof ReceiverErrorCommand);
+    }
+
+    @Test
+    public void disconnect_stops_receiving() throws Exception {
+        final TruffleRing producer = TruffleRing.create(ringFile, 8);
+        receiver.connect();
+
+        producer.offer(TruffleRingTest.record(1));
+        awaitCommands(1);
+
+        receiver.disconnect();
+        // a poll that was already running when we disconnected may still deliver its batch
+        Thread.sleep(50);
+        producer.offer(TruffleRingTest.record(2));
+        Thread.sleep(100);
+
+        assertEquals(1, commands.size());
+    }
+
+    private void awaitCommands(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (commands.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link TruffleBatch} class.
+ * </p>
+ */
+public class TruffleBatchTest {
+
+    private TruffleBatch.Pool pool;
+    private ByteBuffer source;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new TruffleBatch.Pool(4);
+        source = ByteBuffer.allocateDirect(4 * TruffleLayout.TRUFFLE_SIZE).order(ByteOrder.nativeOrder());
+
+        for (int i = 0; i < 4; i++) {
+            source.putLong(i * TruffleLayout.TRUFFLE_SIZE + TruffleLayout.SOURCE_MAC, i + 1);
+        }
+    }
+
+    @Test
+    public void copyFrom_copies_records_without_touching_the_source() throws Exception {
+        source.position(3);
+
+        final TruffleBatch batch = pool.take();
+        batch.copyFrom(source, 2);
+        batch.arrived(2, 42);
+        source.putLong(TruffleLayout.TRUFFLE_SIZE + TruffleLayout.SOURCE_MAC, 5);
+
+        assertEquals(3, source.position());
+        assertEquals(4, batch.capacity());
+        assertEquals(2, batch.view(1).sourceMac());
+        assertEquals(42, batch.view(1).timeOfArrival());
+    }
+
+    @Test
+    public void batch_is_reused_after_all_views_were_released() throws Exception {
+        final TruffleBatch batch = pool.take();
+        batch.copyFrom(source, 2);
+        batch.arrived(2, 42);
+
+        batch.retain();
+        batch.retain();
+        batch.release();
+        batch.view(0).release();
+
+        // one view is still in use
+        assertNotSame(batch, pool.take());
+
+        batch.view(1).release();
+
+        final TruffleBatch reused = pool.take();
+        assertSame(batch, reused);
+
+        source.putLong(TruffleLayout.SOURCE_MAC, 7);
+        reused.copyFrom(source, 1);
+        reused.arrived(1, 43);
+
+        assertEquals(7, reused.view(0).sourceMac());
+        assertEquals(43, reused.view(0).timeOfArrival());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pool_rejects_empty_batches() throws Exception {
+        new TruffleBatch.Pool(0);
+    }
+}
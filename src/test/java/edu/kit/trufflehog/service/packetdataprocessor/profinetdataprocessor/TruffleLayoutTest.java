@@ -0,0 +1,78 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link TruffleLayout} class. The expected values are the offsets gcc
+ *     produces for the structs in truffle.h on x86_64 (obtained with offsetof and sizeof).
+ * </p>
+ */
+public class TruffleLayoutTest {
+
+    @Test
+    public void truffle_size_matches_native_struct() throws Exception {
+        assertEquals(1344, TruffleLayout.TRUFFLE_SIZE);
+        assertEquals(36, TruffleLayout.BLOCK_SIZE);
+    }
+
+    @Test
+    public void ether_header_offsets_match_native_struct() throws Exception {
+        assertEquals(0, TruffleLayout.FLAGS);
+        assertEquals(8, TruffleLayout.SOURCE_MAC);
+        assertEquals(16, TruffleLayout.DEST_MAC);
+        assertEquals(24, TruffleLayout.ETHER_TYPE_OFFSET);
+    }
+
+    @Test
+    public void frame_offsets_match_native_struct() throws Exception {
+        assertEquals(32, TruffleLayout.FRAME_ID_OFFSET);
+        assertEquals(36, TruffleLayout.FRAME_TYPE_OFFSET);
+        assertEquals(40, TruffleLayout.SERVICE_ID);
+        assertEquals(41, TruffleLayout.SERVICE_ID_NAME);
+        assertEquals(73, TruffleLayout.SERVICE_TYPE);
+        assertEquals(74, TruffleLayout.SERVICE_TYPE_NAME);
+        assertEquals(106, TruffleLayout.IS_RESPONSE);
+        assertEquals(108, TruffleLayout.XID);
+        assertEquals(112, TruffleLayout.RESPONSE_DELAY);
+        assertEquals(114, TruffleLayout.DATA_LENGTH);
+        assertEquals(116, TruffleLayout.BLOCKS);
+        assertEquals(1268, TruffleLayout.DEST_NAME);
+        assertEquals(1300, TruffleLayout.SRC_NAME);
+        assertEquals(1336, TruffleLayout.CYCLE_COUNTER);
+    }
+
+    @Test
+    public void align_rounds_up_to_alignment() throws Exception {
+        assertEquals(0, TruffleLayout.align(0, 8));
+        assertEquals(8, TruffleLayout.align(1, 8));
+        assertEquals(8, TruffleLayout.align(8, 8));
+        assertEquals(68, TruffleLayout.align(67, 4));
+    }
+
+    @Test
+    public void readString_stops_at_terminator() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(2 * TruffleLayout.MAX_STRING_LEN);
+        buffer.position(3);
+        buffer.put("test".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("test", TruffleLayout.readString(buffer, 3));
+        assertEquals("", TruffleLayout.readString(buffer, 0));
+    }
+
+    @Test
+    public void readString_stops_at_max_string_length() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(2 * TruffleLayout.MAX_STRING_LEN);
+
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 'a');
+        }
+
+        assertEquals(TruffleLayout.MAX_STRING_LEN, TruffleLayout.readString(buffer, 0).length());
+    }
+}
@@ -0,0 +1,134 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link TruffleRing} class. The ring is created in a temporary file, the
+ *     test acts as the producer and as the consumer.
+ * </p>
+ */
+public class TruffleRingTest {
+
+    private Path ringFile;
+
+    @Before
+    public void setUp() throws Exception {
+        ringFile = Files.createTempFile("trufflehog", ".ring");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(ringFile);
+    }
+
+    /**
+     * <p>
+     *     Creates a record that only holds the given source mac address.
+     * </p>
+     */
+    static ByteBuffer record(final long sourceMac) {
+        final ByteBuffer record = ByteBuffer.allocate(TruffleLayout.TRUFFLE_SIZE).order(ByteOrder.nativeOrder());
+        record.putLong(TruffleLayout.SOURCE_MAC, sourceMac);
+        record.putInt(TruffleLayout.FRAME_TYPE_OFFSET, TruffleLayout.FRAME_IS_RTC1);
+
+        return record;
+    }
+
+    @Test
+    public void open_reads_ring_created_by_producer() throws Exception {
+        TruffleRing.create(ringFile, 8);
+
+        final TruffleRing ring = TruffleRing.open(ringFile);
+
+        assertEquals(8, ring.capacity());
+        assertEquals(0, ring.producerSequence());
+        assertEquals(0, ring.consumerSequence());
+    }
+
+    @Test
+    public void records_wrap_around_the_end_of_the_ring() throws Exception {
+        final TruffleRing producer = TruffleRing.create(ringFile, 4);
+        final TruffleRing consumer = TruffleRing.open(ringFile);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(producer.offer(record(i)));
+        }
+        consumer.setConsumerSequence(3);
+
+        for (int i = 3; i < 7; i++) {
+            assertTrue(producer.offer(record(i)));
+        }
+
+        assertEquals(7, consumer.producerSequence());
+
+        final ByteBuffer batch = ByteBuffer.allocate(4 * TruffleLayout.TRUFFLE_SIZE).order(ByteOrder.nativeOrder());
+        consumer.copyRecords(3, 4, batch);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(3 + i, new TruffleView(batch, i * TruffleLayout.TRUFFLE_SIZE, 0).sourceMac());
+        }
+    }
+
+    @Test
+    public void offer_drops_records_if_the_ring_is_full() throws Exception {
+        final TruffleRing producer = TruffleRing.create(ringFile, 2);
+        final TruffleRing consumer = TruffleRing.open(ringFile);
+
+        assertTrue(producer.offer(record(1)));
+        assertTrue(producer.offer(record(2)));
+        assertFalse(producer.offer(record(3)));
+
+        assertEquals(2, consumer.producerSequence());
+        assertEquals(1, consumer.droppedTruffles());
+
+        consumer.setConsumerSequence(1);
+        assertTrue(producer.offer(record(3)));
+    }
+
+    @Test
+    public void close_waits_for_the_readers() throws Exception {
+        final TruffleRing producer = TruffleRing.create(ringFile, 4);
+        final TruffleRing consumer = TruffleRing.open(ringFile);
+        assertTrue(producer.offer(record(1)));
+
+        assertTrue(consumer.acquire());
+        consumer.close();
+
+        // the mapping stays until the reader released it, but no new reader gets in
+        assertFalse(consumer.acquire());
+        assertEquals(1, consumer.producerSequence());
+        consumer.release();
+
+        consumer.close();
+        producer.close();
+        assertFalse(producer.acquire());
+    }
+
+    @Test(expected = InvalidTruffleRingException.class)
+    public void open_rejects_files_without_ring() throws Exception {
+        try (final FileChannel channel = FileChannel.open(ringFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(TruffleRing.HEADER_SIZE + TruffleLayout.TRUFFLE_SIZE));
+        }
+
+        TruffleRing.open(ringFile);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_rejects_capacity_that_is_no_power_of_two() throws Exception {
+        TruffleRing.create(ringFile, 3);
+    }
+}
@@ -0,0 +1,238 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.kit.trufflehog.service.packetdataprocessor.PacketStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link TruffleView} class. The records are written by hand according to
+ *     the {@link TruffleLayout}. Every test places its record behind another record to make sure the offset is
+ *     respected.
+ * </p>
+ */
+public class TruffleViewTest {
+
+    private static final int OFFSET = TruffleLayout.TRUFFLE_SIZE;
+
+    private ByteBuffer buffer;
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = ByteBuffer.allocate(2 * TruffleLayout.TRUFFLE_SIZE).order(ByteOrder.nativeOrder());
+
+        buffer.putLong(OFFSET + TruffleLayout.SOURCE_MAC, 1);
+        buffer.putLong(OFFSET + TruffleLayout.DEST_MAC, 2);
+        buffer.putShort(OFFSET + TruffleLayout.ETHER_TYPE_OFFSET, (short) 0x8892);
+        buffer.putInt(OFFSET + TruffleLayout.FRAME_TYPE_OFFSET, TruffleLayout.FRAME_IS_DCP);
+        buffer.put(OFFSET + TruffleLayout.SERVICE_ID, (byte) 6);
+        putString(OFFSET + TruffleLayout.SERVICE_ID_NAME, "testing");
+        buffer.put(OFFSET + TruffleLayout.SERVICE_TYPE, (byte) 7);
+        putString(OFFSET + TruffleLayout.SERVICE_TYPE_NAME, "type");
+        buffer.put(OFFSET + TruffleLayout.IS_RESPONSE, (byte) 1);
+        buffer.putInt(OFFSET + TruffleLayout.XID, 0xFFFFFFFF);
+        buffer.putShort(OFFSET + TruffleLayout.RESPONSE_DELAY, (short) 9);
+
+        final int deviceBlock = OFFSET + TruffleLayout.BLOCKS;
+        buffer.putInt(deviceBlock + TruffleLayout.BLOCK_TYPE, TruffleLayout.BLOCK_IS_DEVICE);
+        putString(deviceBlock + TruffleLayout.BLOCK_VAL, "test");
+
+        final int ipBlock = deviceBlock + TruffleLayout.BLOCK_SIZE;
+        buffer.putInt(ipBlock + TruffleLayout.BLOCK_TYPE, TruffleLayout.BLOCK_IS_IP);
+        buffer.putInt(ipBlock + TruffleLayout.BLOCK_VAL, 3);
+    }
+
+    @Test
+    public void typed_accessors_read_native_record() throws Exception {
+        final TruffleView truffle = new TruffleView(buffer, OFFSET, 42);
+
+        assertTrue(truffle.isValid());
+        assertTrue(truffle.isDcp());
+        assertEquals(1, truffle.sourceMac());
+        assertEquals(2, truffle.destMac());
+        assertEquals(3, truffle.sourceIP());
+        assertEquals(0x8892, truffle.etherType());
+        assertEquals(6, truffle.serviceID());
+        assertEquals("testing", truffle.serviceIDName());
+        assertEquals(7, truffle.serviceType());
+        assertEquals("type", truffle.serviceTypeName());
+        assertEquals(0xFFFFFFFFL, truffle.xid());
+        assertEquals(9, truffle.responseDelay());
+        assertTrue(truffle.isResponse());
+        assertEquals("test", truffle.deviceName());
+        assertEquals(42, truffle.timeOfArrival());
+    }
+
+    @Test
+    public void getAttribute_returns_same_values_as_truffle() throws Exception {
+        final TruffleView view = new TruffleView(buffer, OFFSET, 42);
+        final Truffle truffle = Truffle.buildTruffle(1, 2, 3, 0, "test", 0x8892, 6, "testing", 7, "type", 0xFFFFFFFFL, 9, 1);
+
+        for (String identifier : new String[] {"sourceMacAddress", "destMacAddress"}) {
+            assertEquals(truffle.getAttribute(MacAddress.class, identifier), view.getAttribute(MacAddress.class, identifier));
+        }
+
+        for (String identifier : new String[] {"sourceIPAddress", "destIPAddress"}) {
+            assertEquals(truffle.getAttribute(IPAddress.class, identifier), view.getAttribute(IPAddress.class, identifier));
+        }
+
+        for (String identifier : new String[] {"deviceName", "serviceIDName", "serviceTypeName"}) {
+            assertEquals(truffle.getAttribute(String.class, identifier), view.getAttribute(String.class, identifier));
+        }
+
+        for (String identifier : new String[] {"etherType", "serviceID", "serviceType", "responseDelay"}) {
+            assertEquals(truffle.getAttribute(Integer.class, identifier), view.getAttribute(Integer.class, identifier));
+        }
+
+        assertEquals(truffle.getAttribute(Long.class, "xid"), view.getAttribute(Long.class, "xid"));
+        assertEquals(truffle.getAttribute(Boolean.class, "isResponse"), view.getAttribute(Boolean.class, "isResponse"));
+        assertEquals(Long.valueOf(42), view.getAttribute(Long.class, "timeOfArrival"));
+    }
+
+    @Test
+    public void getAttribute_returns_null_for_unknown_identifier_or_wrong_type() throws Exception {
+        final TruffleView truffle = new TruffleView(buffer, OFFSET, 42);
+
+        assertNull(truffle.getAttribute(Integer.class, "thisShouldNotExist"));
+        assertNull(truffle.getAttribute(Short.class, "etherType"));
+    }
+
+    @Test
+    public void lazy_values_are_only_materialized_once() throws Exception {
+        final TruffleView truffle = new TruffleView(buffer, OFFSET, 42);
+
+        assertSame(truffle.deviceName(), truffle.deviceName());
+        assertSame(truffle.sourceMacAddress(), truffle.getAttribute(MacAddress.class, "sourceMacAddress"));
+    }
+
+    @Test
+    public void dcp_values_are_ignored_for_other_frames() throws Exception {
+        buffer.putInt(OFFSET + TruffleLayout.FRAME_TYPE_OFFSET, TruffleLayout.FRAME_IS_RTC1);
+
+        final TruffleView truffle = new TruffleView(buffer, OFFSET, 42);
+
+        assertEquals(1, truffle.sourceMac());
+        assertEquals(0, truffle.sourceIP());
+        assertNull(truffle.deviceName());
+        assertNull(truffle.serviceIDName());
+        assertFalse(truffle.isResponse());
+    }
+
+    @Test
+    public void isValid_rejects_mac_addresses_wider_than_48_bit() throws Exception {
+        buffer.putLong(OFFSET + TruffleLayout.DEST_MAC, -1);
+
+        final TruffleView truffle = new TruffleView(buffer, OFFSET, 42);
+
+        assertFalse(truffle.isValid());
+        assertNull(truffle.getAttribute(MacAddress.class, "destMacAddress"));
+    }
+
+    @Test
+    public void unterminated_strings_are_cut_off_at_max_string_length() throws Exception {
+        for (int i = 0; i < TruffleLayout.MAX_STRING_LEN; i++) {
+            buffer.put(OFFSET + TruffleLayout.SERVICE_ID_NAME + i, (byte) 'a');
+        }
+
+        assertEquals(TruffleLayout.MAX_STRING_LEN, new TruffleView(buffer, OFFSET, 42).serviceIDName().length());
+    }
+
+    @Test
+    public void reset_forgets_the_values_of_the_previous_record() throws Exception {
+        final TruffleView truffle = new TruffleView(buffer, OFFSET, 42);
+        assertEquals("test", truffle.deviceName());
+        assertEquals(new MacAddress(1), truffle.sourceMacAddress());
+
+        putString(OFFSET + TruffleLayout.BLOCKS + TruffleLayout.BLOCK_VAL, "best");
+        buffer.putLong(OFFSET + TruffleLayout.SOURCE_MAC, 5);
+        truffle.reset(43);
+
+        assertEquals("best", truffle.deviceName());
+        assertEquals(new MacAddress(5), truffle.sourceMacAddress());
+        assertEquals(43, truffle.timeOfArrival());
+    }
+
+    @Test
+    public void packetStore_reads_the_same_attributes_as_through_getAttribute() throws Exception {
+        final PacketStore store = new PacketStore(4096, null);
+        final TruffleView dcp = new TruffleView(buffer, OFFSET, 42);
+        assertSameAttributes(store, dcp);
+
+        buffer.putInt(OFFSET + TruffleLayout.FRAME_TYPE_OFFSET, TruffleLayout.FRAME_IS_RTC1);
+        buffer.putLong(OFFSET + TruffleLayout.DEST_MAC, -1);
+        assertSameAttributes(store, new TruffleView(buffer, OFFSET, 43));
+    }
+
+    @Test
+    public void addPacketDataCommand_reads_the_typed_values() throws Exception {
+        final TruffleView truffle = new TruffleView(buffer, OFFSET, 42);
+        final INetworkWritingPort port = mock(INetworkWritingPort.class);
+        final AddPacketDataCommand command = new AddPacketDataCommand(port, truffle, mock(IFilter.class));
+
+        assertEquals(truffle.getAttribute(MacAddress.class, "sourceMacAddress"), command.getSourceAddress());
+
+        command.execute();
+
+        final ArgumentCaptor<INode> nodes = ArgumentCaptor.forClass(INode.class);
+        verify(port, times(2)).writeNode(nodes.capture());
+
+        final NodeInfoComponent source = nodes.getAllValues().get(0).getComponent(NodeInfoComponent.class);
+        assertEquals("test", source.getDeviceName());
+        assertEquals(IPAddress.of(3), source.getIPAddress());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void ctor_rejects_record_outside_of_buffer() throws Exception {
+        new TruffleView(buffer, OFFSET + 1, 42);
+    }
+
+    private static void assertSameAttributes(final PacketStore store, final TruffleView view) {
+        // stored through the boxing path, since the store only sees an IPacketData
+        final IPacketData boxed = view::getAttribute;
+
+        final IPacketData expected = store.get(store.append(boxed));
+        final IPacketData actual = store.get(store.append(view));
+
+        final Class<?>[] types = {MacAddress.class, MacAddress.class, IPAddress.class, IPAddress.class, String.class,
+                String.class, String.class, Integer.class, Integer.class, Integer.class, Integer.class, Long.class,
+                Long.class, Boolean.class};
+        final String[] identifiers = {"sourceMacAddress", "destMacAddress", "sourceIPAddress", "destIPAddress",
+                "deviceName", "serviceIDName", "serviceTypeName", "etherType", "serviceID", "serviceType",
+                "responseDelay", "xid", "timeOfArrival", "isResponse"};
+
+        for (int i = 0; i < identifiers.length; i++) {
+            assertEquals(identifiers[i], expected.getAttribute(types[i], identifiers[i]),
+                    actual.getAttribute(types[i], identifiers[i]));
+        }
+    }
+
+    private void putString(final int offset, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + i, bytes[i]);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package edu.kit.trufflehog.util.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class tests the {@link CompressedLongList}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class CompressedLongListTest {
+
+    @Test
+    public void testValuesAreKept() throws Exception {
+
+        final long[] values = {0, 5, -3, Long.MAX_VALUE, Long.MIN_VALUE, 17, 17, 1L << 40};
+        final CompressedLongList list = new CompressedLongList();
+
+        for (int i = 0; i < 1000; i++) {
+            list.add(values[i % values.length] + i);
+        }
+
+        assertEquals(1000, list.size());
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(values[i % values.length] + i, list.get(i));
+        }
+    }
+
+    @Test
+    public void testForEach() throws Exception {
+
+        final CompressedLongList list = new CompressedLongList();
+
+        for (long i = 0; i < 300; i++) {
+            list.add(2 * i);
+        }
+
+        final List<Long> values = new ArrayList<>();
+        list.forEach(62, 67, values::add);
+
+        assertEquals(Arrays.asList(124L, 126L, 128L, 130L, 132L), values);
+
+        values.clear();
+        list.forEach(300, 300, values::add);
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    public void testForEachInRangeWithUnsortedValues() throws Exception {
+
+        final CompressedLongList list = new CompressedLongList();
+
+        for (long i = 0; i < 1000; i++) {
+            // every block is slightly out of order, like ids logged by concurrent threads
+            list.add(i % 2 == 0 ? i + 1 : i - 1);
+        }
+
+        final List<Long> values = new ArrayList<>();
+        list.forEachInRange(500, 504, values::add);
+
+        assertEquals(Arrays.asList(501L, 500L, 503L, 502L), values);
+    }
+
+    @Test
+    public void testRemoveFirstBlocks() throws Exception {
+
+        final int blockSize = CompressedLongList.BLOCK_SIZE;
+        final CompressedLongList list = new CompressedLongList();
+
+        for (long i = 0; i < 3 * blockSize + 5; i++) {
+            list.add(1000 + 3 * i);
+        }
+
+        assertEquals(2 * blockSize, list.removeFirstBlocks(2));
+        assertEquals(blockSize + 5, list.size());
+        assertEquals(1000 + 3 * 2 * blockSize, list.get(0));
+
+        list.add(7);
+        assertEquals(7, list.get(blockSize + 5));
+
+        final List<Long> values = new ArrayList<>();
+        list.forEachInRange(0, 1000 + 3 * 2 * blockSize + 1, values::add);
+        assertEquals(Arrays.asList(1000L + 3 * 2 * blockSize, 7L), values);
+
+        // the partly filled last block is kept
+        assertEquals(blockSize, list.removeFirstBlocks(5));
+        assertEquals(6, list.size());
+        assertEquals(0, list.removeFirstBlocks(1));
+
+        final CompressedLongList copy = new CompressedLongList();
+        copy.addAll(list);
+        assertEquals(list.get(5), copy.get(5));
+    }
+
+    @Test
+    public void testEncodeFirstBlocks() throws Exception {
+
+        final int blockSize = CompressedLongList.BLOCK_SIZE;
+        final CompressedLongList list = new CompressedLongList();
+
+        for (long i = 0; i < 2 * blockSize + 5; i++) {
+            list.add(i % 2 == 0 ? 1000 + i : -i);
+        }
+
+        // only the full blocks are encoded and the list keeps them
+        final CompressedLongList decoded = CompressedLongList.decode(list.encodeFirstBlocks(3));
+
+        assertEquals(2 * blockSize, decoded.size());
+        assertEquals(2 * blockSize + 5, list.size());
+
+        for (int i = 0; i < 2 * blockSize; i++) {
+            assertEquals(list.get(i), decoded.get(i));
+        }
+
+        assertEquals(0, CompressedLongList.decode(list.encodeFirstBlocks(0)).size());
+    }
+
+    @Test
+    public void testCopyIsIndependent() throws Exception {
+
+        final CompressedLongList list = new CompressedLongList();
+        list.add(1);
+
+        final CompressedLongList copy = new CompressedLongList(list);
+        list.add(2);
+        copy.add(3);
+
+        assertEquals(2, list.get(1));
+        assertEquals(3, copy.get(1));
+    }
+
+    @Test
+    public void testCloseValuesAreCompact() throws Exception {
+
+        final CompressedLongList list = new CompressedLongList();
+
+        for (long i = 0; i < 100000; i++) {
+            list.add(1_000_000_000L + 3 * i);
+        }
+
+        assertTrue(list.sizeInBytes() < 2 * 100000);
+    }
+
+    @Test
+    public void testAddAll() throws Exception {
+
+        final CompressedLongList list = new CompressedLongList();
+        final CompressedLongList other = new CompressedLongList();
+
+        list.add(-5);
+
+        for (long i = 0; i < 200; i++) {
+            other.add(i % 3 == 0 ? -i : i << 20);
+        }
+
+        list.addAll(other);
+
+        assertEquals(201, list.size());
+        assertEquals(-5, list.get(0));
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(other.get(i), list.get(i + 1));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() throws Exception {
+        new CompressedLongList().get(0);
+    }
+}
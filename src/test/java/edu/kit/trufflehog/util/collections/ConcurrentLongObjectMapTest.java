@@ -0,0 +1,150 @@
+package edu.kit.trufflehog.util.collections;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class tests the {@link ConcurrentLongObjectMap}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class ConcurrentLongObjectMapTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSegmentsNotPowerOfTwo() {
+        new ConcurrentLongObjectMap<String>(3);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testValuesAreUnmodifiable() {
+        new ConcurrentLongObjectMap<String>().values().add("value");
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+
+        final ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>();
+
+        assertNull(map.putIfAbsent(1, "first"));
+        assertEquals("first", map.putIfAbsent(1, "second"));
+        assertEquals("first", map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * <p>
+     *     Tests that every key is put exactly once if several writers race for the same keys, and that the values can
+     *     be iterated while they are written.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentWriters() throws Exception {
+
+        final ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>();
+        final AtomicInteger wins = new AtomicInteger();
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Thread reader = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    for (Long value : map.values()) {
+                        if (value == null) {
+                            failure.set(new AssertionError("null value"));
+                        }
+                    }
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+
+        final Thread[] writers = new Thread[4];
+
+        for (int w = 0; w < writers.length; w++) {
+            writers[w] = new Thread(() -> {
+                for (long i = 0; i < 50000; i++) {
+                    if (map.putIfAbsent(i, i) == null) {
+                        wins.incrementAndGet();
+                    }
+                }
+            });
+            writers[w].start();
+        }
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        done.set(true);
+        reader.join();
+
+        assertNull(String.valueOf(failure.get()), failure.get());
+        assertEquals(50000, wins.get());
+        assertEquals(50000, map.size());
+
+        final Set<Long> values = new HashSet<>(map.values());
+        assertEquals(50000, values.size());
+        assertTrue(values.contains(49999L));
+    }
+
+    @Test
+    public void testEmptyIterator() {
+
+        final Iterator<String> iterator = new ConcurrentLongObjectMap<String>().values().iterator();
+
+        assertFalse(iterator.hasNext());
+    }
+
+    /**
+     * <p>
+     *     Tests that a parallel stream over the values sees every value exactly once and that the spliterator splits
+     *     down into the segments.
+     * </p>
+     */
+    @Test
+    public void testParallelStream() {
+
+        final ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(4);
+
+        for (long i = 0; i < 100000; i++) {
+            map.put(i, i);
+        }
+
+        final Set<Long> values = StreamSupport.stream(map.values().spliterator(), true).collect(Collectors.toSet());
+        assertEquals(100000, values.size());
+        assertEquals(100000L, map.values().parallelStream().count());
+
+        // 4 segments are split into single segments, which are split by their slots
+        final Spliterator<Long> spliterator = map.values().spliterator();
+        final Spliterator<Long> firstHalf = spliterator.trySplit();
+        final Spliterator<Long> firstQuarter = firstHalf.trySplit();
+        final Spliterator<Long> firstSlots = firstQuarter.trySplit();
+
+        final long[] count = {0};
+        spliterator.forEachRemaining(value -> count[0]++);
+        firstHalf.forEachRemaining(value -> count[0]++);
+        firstQuarter.forEachRemaining(value -> count[0]++);
+        firstSlots.forEachRemaining(value -> count[0]++);
+
+        assertEquals(100000, count[0]);
+    }
+}
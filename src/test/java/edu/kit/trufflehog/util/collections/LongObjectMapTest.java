@@ -0,0 +1,194 @@
+package edu.kit.trufflehog.util.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>
+ *     This class tests the {@link LongObjectMap}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class LongObjectMapTest {
+
+    private LongObjectMap<String> map;
+
+    @Before
+    public void setUp() {
+        map = new LongObjectMap<>();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() {
+        map.put(1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeExpectedSize() {
+        new LongObjectMap<String>(-1);
+    }
+
+    @Test
+    public void testPutAndGet() {
+
+        assertNull(map.get(0));
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(0xFFFFFFFFFFFFL, "broadcast"));
+        assertNull(map.put(-1, "minus one"));
+
+        assertEquals("zero", map.get(0));
+        assertEquals("broadcast", map.get(0xFFFFFFFFFFFFL));
+        assertEquals("minus one", map.get(-1));
+        assertNull(map.get(1));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testReplace() {
+
+        map.put(42, "old");
+
+        assertEquals("old", map.put(42, "new"));
+        assertEquals("new", map.get(42));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRemove() {
+
+        map.put(1, "one");
+        map.put(2, "two");
+
+        assertEquals("one", map.remove(1));
+        assertNull(map.remove(1));
+        assertNull(map.remove(3));
+        assertNull(map.get(1));
+        assertEquals("two", map.get(2));
+        assertEquals(1, map.size());
+
+        // the tombstone of the key is taken again
+        assertNull(map.put(1, "uno"));
+        assertEquals("uno", map.get(1));
+        assertEquals(2, map.size());
+    }
+
+    /**
+     * <p>
+     *     Tests that keys that come and go, like the addresses of devices that are idle for a while, do not disturb
+     *     the entries that stay while the tombstones they leave are dropped again and again.
+     * </p>
+     */
+    @Test
+    public void testRemoveChurn() {
+
+        final long vendor = 0x001b1b000000L;
+
+        for (long i = 0; i < 100; i++) {
+            map.put(i, "stays");
+        }
+
+        for (long i = 0; i < 2000000; i++) {
+            map.put(vendor + i, Long.toString(i));
+
+            if (i >= 10) {
+                assertEquals(Long.toString(i - 10), map.remove(vendor + i - 10));
+            }
+        }
+
+        assertEquals(110, map.size());
+
+        for (long i = 0; i < 100; i++) {
+            assertEquals("stays", map.get(i));
+        }
+
+        final int[] count = {0};
+        map.forEachValue(value -> count[0]++);
+        assertEquals(110, count[0]);
+    }
+
+    /**
+     * <p>
+     *     Tests that the map keeps all entries while it grows, with keys that only differ in their lower bits like
+     *     the mac addresses of one vendor.
+     * </p>
+     */
+    @Test
+    public void testGrow() {
+
+        final long vendor = 0x001b1b000000L;
+
+        for (long i = 0; i < 100000; i++) {
+            map.put(vendor + i, Long.toString(i));
+        }
+
+        assertEquals(100000, map.size());
+
+        for (long i = 0; i < 100000; i++) {
+            assertEquals(Long.toString(i), map.get(vendor + i));
+        }
+
+        assertNull(map.get(vendor + 100000));
+
+        final Set<String> values = new HashSet<>();
+        map.forEachValue(values::add);
+        assertEquals(100000, values.size());
+    }
+
+    /**
+     * <p>
+     *     Tests that readers always find the entries that were put before they started and never see a wrong value
+     *     while the writer keeps growing the map.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentReaders() throws Exception {
+
+        final LongObjectMap<Long> numbers = new LongObjectMap<>();
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicReference<String> failure = new AtomicReference<>();
+
+        for (long i = 0; i < 1000; i++) {
+            numbers.put(i, i);
+        }
+
+        final Thread[] readers = new Thread[4];
+
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                while (!done.get()) {
+                    for (long i = 0; i < 200000; i += 7) {
+                        final Long value = numbers.get(i);
+
+                        if ((i < 1000 && value == null) || (value != null && value != i)) {
+                            failure.set("wrong value " + value + " for " + i);
+                        }
+                    }
+                }
+            });
+            readers[r].start();
+        }
+
+        for (long i = 1000; i < 200000; i++) {
+            numbers.put(i, i);
+        }
+
+        done.set(true);
+
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(200000, numbers.size());
+    }
+}
@@ -0,0 +1,101 @@
+package edu.kit.trufflehog.util.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>
+ *     This class tests the {@link LongPairObjectMap}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class LongPairObjectMapTest {
+
+    private LongPairObjectMap<String> map;
+
+    @Before
+    public void setUp() {
+        map = new LongPairObjectMap<>();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() {
+        map.put(1, 2, null);
+    }
+
+    /**
+     * <p>
+     *     Tests that the order of the pair matters, the connection from a to b is not the one from b to a.
+     * </p>
+     */
+    @Test
+    public void testPairIsOrdered() {
+
+        assertNull(map.put(1, 2, "1 -> 2"));
+        assertNull(map.get(2, 1));
+
+        assertNull(map.put(2, 1, "2 -> 1"));
+
+        assertEquals("1 -> 2", map.get(1, 2));
+        assertEquals("2 -> 1", map.get(2, 1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testReplace() {
+
+        map.put(1, 2, "old");
+
+        assertEquals("old", map.put(1, 2, "new"));
+        assertEquals("new", map.get(1, 2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRemove() {
+
+        map.put(1, 2, "one to two");
+        map.put(2, 1, "two to one");
+
+        assertEquals("one to two", map.remove(1, 2));
+        assertNull(map.remove(1, 2));
+        assertNull(map.get(1, 2));
+        assertEquals("two to one", map.get(2, 1));
+        assertEquals(1, map.size());
+
+        final Iterator<String> values = map.valueIterator();
+        assertEquals("two to one", values.next());
+        assertFalse(values.hasNext());
+
+        assertNull(map.put(1, 2, "again"));
+        assertEquals("again", map.get(1, 2));
+    }
+
+    @Test
+    public void testGrow() {
+
+        for (long source = 0; source < 300; source++) {
+            for (long dest = 0; dest < 300; dest++) {
+                map.put(source, dest, source + " " + dest);
+            }
+        }
+
+        assertEquals(90000, map.size());
+
+        for (long source = 0; source < 300; source++) {
+            for (long dest = 0; dest < 300; dest++) {
+                assertEquals(source + " " + dest, map.get(source, dest));
+            }
+        }
+
+        assertNull(map.get(300, 0));
+        assertNull(map.get(0, 300));
+    }
+}
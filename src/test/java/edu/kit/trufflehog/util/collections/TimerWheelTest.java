@@ -0,0 +1,107 @@
+package edu.kit.trufflehog.util.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class tests the {@link TimerWheel}.
+ * </p>
+ *
+ * @version 1.0
+ */
+public class TimerWheelTest {
+
+    private TimerWheel<String> wheel;
+    private List<String> expired;
+
+    @Before
+    public void setUp() {
+        // ticks of 10 ms, one turn is 80 ms
+        wheel = new TimerWheel<>(10, 8, 1000);
+        expired = new ArrayList<>();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTicksNotPowerOfTwo() {
+        new TimerWheel<String>(10, 6, 0);
+    }
+
+    @Test
+    public void testExpire() {
+
+        wheel.schedule("early", 1015);
+        wheel.schedule("late", 1055);
+
+        assertEquals(0, wheel.expire(1015, expired::add));
+        assertEquals(1, wheel.expire(1025, expired::add));
+        assertEquals("early", expired.get(0));
+        assertEquals(1, wheel.size());
+
+        assertEquals(1, wheel.expire(1065, expired::add));
+        assertEquals("late", expired.get(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineInThePast() {
+
+        wheel.expire(1100, expired::add);
+        wheel.schedule("past", 900);
+
+        assertEquals(1, wheel.expire(1110, expired::add));
+    }
+
+    /**
+     * <p>
+     *     Tests that deadlines more than one turn away share their bucket with closer deadlines but are only handed
+     *     out when their time has come, even if the wheel is not expired for several turns.
+     * </p>
+     */
+    @Test
+    public void testSeveralTurns() {
+
+        wheel.schedule("next turn", 1005);
+        wheel.schedule("third turn", 1005 + 2 * 80);
+
+        assertEquals(1, wheel.expire(1020, expired::add));
+        assertEquals(0, wheel.expire(1100, expired::add));
+        assertEquals(0, wheel.expire(1160, expired::add));
+
+        assertEquals(1, wheel.expire(10000, expired::add));
+        assertEquals("third turn", expired.get(1));
+    }
+
+    @Test
+    public void testScheduleFromAction() {
+
+        wheel.schedule("again", 1005);
+
+        wheel.expire(1020, element -> {
+            expired.add(element);
+            wheel.schedule(element, 1035);
+        });
+
+        assertEquals(1, wheel.size());
+        assertEquals(1, wheel.expire(1050, expired::add));
+        assertEquals(2, expired.size());
+    }
+
+    @Test
+    public void testManyElements() {
+
+        for (int i = 0; i < 10000; i++) {
+            wheel.schedule(Integer.toString(i), 1000 + i);
+        }
+
+        assertEquals(5000, wheel.expire(6000, expired::add));
+        assertTrue(expired.contains("4999"));
+        assertEquals(5000, wheel.expire(20000, expired::add));
+    }
+}
@@ -0,0 +1,130 @@
+package edu.kit.trufflehog.util.javafx;
+
+import de.saxsys.javafx.test.JfxRunner;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import javafx.application.Platform;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class tests the {@link FxUpdatePump} and the {@link FxUpdate}.
+ * </p>
+ *
+ * @version 1.0
+ */
+@RunWith(JfxRunner.class)
+public class FxUpdatePumpTest {
+
+    /**
+     * <p>
+     *     Tests that an update that is scheduled many times before a frame runs only once.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testScheduledUpdateRunsOncePerFrame() throws Exception {
+
+        final AtomicInteger runs = new AtomicInteger();
+        final FxUpdate update = new FxUpdate(runs::incrementAndGet);
+
+        runOnFxThread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                update.schedule();
+            }
+
+            FxUpdatePump.getInstance().flush();
+        });
+
+        assertEquals(1, runs.get());
+
+        runOnFxThread(() -> {
+            update.schedule();
+            FxUpdatePump.getInstance().flush();
+        });
+
+        assertEquals(2, runs.get());
+    }
+
+    /**
+     * <p>
+     *     Tests that submitted updates run in the order they were submitted.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testSubmittedUpdatesKeepTheirOrder() throws Exception {
+
+        final List<Integer> order = new ArrayList<>();
+
+        runOnFxThread(() -> {
+            for (int i = 0; i < 5; i++) {
+                final int number = i;
+                FxUpdatePump.getInstance().submit(() -> order.add(number));
+            }
+
+            FxUpdatePump.getInstance().flush();
+        });
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+    }
+
+    /**
+     * <p>
+     *     Tests that the counters of a component can be changed from many threads and that the properties follow
+     *     with the next frame without any flush by hand.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPropertiesFollowWithTheNextFrame() throws Exception {
+
+        final EdgeStatisticsComponent statistics = new EdgeStatisticsComponent(0);
+        final CountDownLatch updated = new CountDownLatch(1);
+
+        statistics.getTrafficProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue.intValue() == 40000) {
+                updated.countDown();
+            }
+        });
+
+        final Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    statistics.incrementTraffic(1);
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40000, statistics.getTraffic());
+        assertTrue(updated.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void runOnFxThread(Runnable runnable) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        Platform.runLater(() -> {
+            runnable.run();
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+}